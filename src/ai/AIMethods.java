@@ -6,9 +6,11 @@ import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
+import system.Kyoku;
 import system.hai.Hai;
 import system.hai.HaiType;
 import system.hai.Kaze;
+import system.hai.Mentsu;
 import system.hai.SuType;
 
 /**
@@ -128,4 +130,31 @@ public class AIMethods {
 		}
 		return extendedValidHaiSet;
 	}
+
+	/**
+	 * 指定された風の人から見えている牌の数の配列を返す。
+	 * 見えている牌とは全員の捨て牌(鳴かれた牌を除く)、全員の副露牌、ドラ表示牌である。
+	 * 自分の手牌とツモ牌は含まない。
+	 * 
+	 * @param kyoku 局
+	 * @param kaze 風
+	 * @return 見えている牌の数の配列
+	 */
+	public static int[] getVisibleSizeArray(Kyoku kyoku, Kaze kaze) {
+		int n[] = new int[37];
+		for (Kaze k : Kaze.values()) {
+			for (Hai hai : kyoku.getSutehaiList(k).toNakiExcludedHaiList()) {
+				n[hai.type().id()]++;
+			}
+			for (Mentsu mentsu : kyoku.getHurohaiList(k)) {
+				for (Hai hai : mentsu.asList()) {
+					n[hai.type().id()]++;
+				}
+			}
+		}
+		for (Hai hai : kyoku.getOpenDoraList()) {
+			n[hai.type().id()]++;
+		}
+		return n;
+	}
 }
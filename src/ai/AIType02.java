@@ -65,7 +65,7 @@ public class AIType02 extends AbstractAI {
 		}else{
 			extendedValidHaiSet.addAll(AIMethods.getNearHaiTypeList(hai.type()));
 		}
-		int index = DiscardEnum.ISOLATED_HAI_DISCARD.discard(kyoku, super.player);
+		int index = DiscardEnum.UKEIRE_DISCARD.discard(kyoku, super.player);
 		if(index != -1)
 			return index;
 		
@@ -4,6 +4,7 @@ import java.util.List;
 
 import system.Kyoku;
 import system.Player;
+import system.algo.UkeireMethod;
 import system.hai.Hai;
 import system.hai.Kaze;
 import system.hai.TehaiList;
@@ -40,6 +41,41 @@ public enum DiscardEnum implements DiscardStrategy {
 		}
 		
 	},
+	/**
+	 * 向聴数が最も小さくなり、その中で有効牌の残り枚数が最も多くなる牌を切る戦略.
+	 * 有効牌の残り枚数は見えている牌(捨て牌、副露牌、ドラ表示牌)を除いて数える.
+	 */
+	UKEIRE_DISCARD() {
+		@Override
+		public int discard(Kyoku kyoku, Player player) {
+			Kaze jikaze = kyoku.getKazeOf(player);
+			TehaiList tlist = kyoku.getTehaiList(jikaze);
+			Hai tsumohai = kyoku.getCurrentTsumoHai();
+
+			int n[] = tlist.toSizeArray();
+			int size = tlist.size();
+			if (tsumohai != null) {
+				n[tsumohai.type().id()]++;
+				size++;
+			}
+
+			UkeireMethod.Value best = UkeireMethod.getBestDiscardValue(n, size, kyoku.isNaki(jikaze), AIMethods.getVisibleSizeArray(kyoku, jikaze));
+			if (best == null) {
+				return -1;
+			}
+
+			// 同じ牌種ならツモ切りする
+			if (tsumohai != null && tsumohai.type() == best.getDiscardHaiType()) {
+				return 13;
+			}
+			for (int i = 0; i < tlist.size(); i++) {
+				if (tlist.get(i).type() == best.getDiscardHaiType()) {
+					return i;
+				}
+			}
+			return -1;
+		}
+	},
 
 	;
 }
@@ -2,6 +2,7 @@ package client.datapack;
 
 import java.awt.Graphics;
 import java.awt.Image;
+import java.awt.Rectangle;
 import java.awt.event.MouseListener;
 
 import client.system.Constant;
@@ -15,6 +16,10 @@ abstract public class DataPack{
 
 	private Graphics g;
 
+	// 全てのDataPackの書き換えの回数.描画用スレッドはこれが変わるまで待つ
+	private static final Object changeLock = new Object();
+	private static long changeCount;
+
 	abstract public void createImage();
 
 	static {
@@ -31,17 +36,63 @@ abstract public class DataPack{
 	 */
 	protected void callPack() {
 		version++;
+		notifyChange();
+	}
+
+	/**
+	 * 描画するデータが書き換えられたことを描画用スレッドに知らせる
+	 */
+	public static void notifyChange() {
+		synchronized (changeLock) {
+			changeCount++;
+			changeLock.notifyAll();
+		}
+	}
+
+	/**
+	 * 全てのDataPackの書き換えの回数を取得する
+	 * 
+	 * @return
+	 */
+	public static long getChangeCount() {
+		synchronized (changeLock) {
+			return changeCount;
+		}
+	}
+
+	/**
+	 * 書き換えの回数が指定された回数から変わるまで待つ
+	 * 
+	 * @param count
+	 *            getChangeCount()で取得した回数
+	 * @throws InterruptedException
+	 */
+	public static void awaitChange(long count) throws InterruptedException {
+		synchronized (changeLock) {
+			while (changeCount == count)
+				changeLock.wait();
+		}
 	}
 	
 	public int getVersion() {
 		return version;
 	}
 
+	/**
+	 * 前回のcreateImage()でimageを書き換えた範囲を取得する
+	 * 
+	 * @return 範囲が分からない場合は全体を書き換えたものとしてnull.何も書き換えていない場合は空の範囲
+	 */
+	public Rectangle getUpdatedBounds() {
+		return null;
+	}
+
 	/**
 	 * このDataPackが終了する時に呼び出すメソッド DataPackのversionを初期化する
 	 */
 	protected void finishPack() {
 		version = 1;
+		notifyChange();
 	}
 
 	/**
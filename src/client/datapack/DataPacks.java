@@ -2,6 +2,7 @@ package client.datapack;
 
 import java.awt.Canvas;
 import java.awt.Image;
+import java.awt.Rectangle;
 import java.awt.event.MouseListener;
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -76,6 +77,18 @@ public class DataPacks implements Serializable{
 	public int getVersion(PackName mode) throws Exception{
 		return getDataPack(mode).getVersion();
 	}
+
+	/**
+	 * 指定されたモードのイメージを前回書き換えた範囲を取得する
+	 * 
+	 * @param mode
+	 * @return 全体を書き換えた場合はnull
+	 * @throws Exception
+	 *             指定されたモードが存在しない
+	 */
+	public Rectangle getUpdatedBounds(PackName mode) throws Exception {
+		return getDataPack(mode).getUpdatedBounds();
+	}
 	
 	/**
 	 * 指定されたモードからイメージを取得する
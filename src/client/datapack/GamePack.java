@@ -21,12 +21,17 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.Polygon;
+import java.awt.Rectangle;
 import java.awt.event.MouseEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Area;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.swing.JLabel;
 import javax.swing.JPanel;
@@ -39,7 +44,11 @@ import system.hai.Mentsu;
 import system.hai.Mentsu.MentsuHai;
 import client.system.BackgroundSystemOfClient;
 import client.system.ClientPlayer;
+import client.system.HaiAtlas;
+import client.system.HaiAtlas.Variant;
 import client.system.StateCode;
+import util.MyLogger;
+import util.MyLogger.Category;
 
 public class GamePack extends DataPack {
 	
@@ -213,13 +222,15 @@ public class GamePack extends DataPack {
 		// クリックされた時の処理
 		@Override
 		public void mouseClicked(MouseEvent e) {
-			// TODO クリック実装
-			System.out.println("clicked");
-			System.out.println("print state-codes:");
-			for(StateCode sc:oneGameData.getStateCodes()){
-				System.out.println(sc);
+			synchronized (publishLock) {
+				// TODO クリック実装
+				System.out.println("clicked");
+				System.out.println("print state-codes:");
+				for(StateCode sc:oneGameData.getStateCodes()){
+					System.out.println(sc);
+				}
+				chooseHai(e);
 			}
-			chooseHai(e);
 		}
 
 	}
@@ -285,10 +296,6 @@ public class GamePack extends DataPack {
 
 		}
 
-		private void beforeSetData() {
-			callPack();
-		}
-
 		public Map<StateCode, List<List<Integer>>> getAbleIndexList() {
 			return ableIndexList;
 		}
@@ -383,129 +390,169 @@ public class GamePack extends DataPack {
 
 		public void setAbleIndexList(
 				Map<StateCode, List<List<Integer>>> ableIndexList) {
-			callPack();
-			this.ableIndexList = ableIndexList;
+			synchronized (publishLock) {
+				this.ableIndexList = ableIndexList;
+				callPack(Region.TEHAI.bit(0));
+			}
 		}
 
 		public void setBakaze(Kaze bakaze) {
-			callPack();
-			this.bakaze = bakaze;
+			synchronized (publishLock) {
+				this.bakaze = bakaze;
+				callPack(Region.CENTER.bit(0));
+			}
 		}
 
 		public void setButtonList(List<StateCode> buttonList) {
-			callPack();
-			this.buttonList = buttonList;
+			synchronized (publishLock) {
+				this.buttonList = buttonList;
+				callPack(Region.BUTTON.bit(0));
+			}
 		}
 
 		public void setCurrentTurn(int currentTurn) {
-			callPack();
-			this.currentTurn = currentTurn;
+			synchronized (publishLock) {
+				this.currentTurn = currentTurn;
+				callPack(Region.TEHAI.all());
+			}
 		}
 
 		public void setDoraList(List<Hai> doraList) {
-			callPack();
-			beforeSetData();
-			this.doraList = doraList;
+			synchronized (publishLock) {
+				this.doraList = doraList;
+				callPack(Region.YAMA.all());
+			}
 		}
 
 		public void setFinish(int finish) {
-			callPack();
-			this.finish = finish;
+			synchronized (publishLock) {
+				this.finish = finish;
+				callPack(Region.YAMA.all());
+			}
 		}
 
 		public void setHonba(int honba) {
-			callPack();
-			this.honba = honba;
+			synchronized (publishLock) {
+				this.honba = honba;
+				callPack(Region.CENTER.bit(0));
+			}
 		}
 
 		public void setHurohaiMap(Map<Integer, List<Mentsu>> hurohaiMap) {
-			callPack();
-			beforeSetData();
-			this.hurohaiMap = hurohaiMap;
+			synchronized (publishLock) {
+				this.hurohaiMap = hurohaiMap;
+				callPack(Region.TEHAI.all());
+			}
 		}
 
 		public void setKaze(Map<Kaze, Integer> kaze) {
-			callPack();
-			this.kaze = kaze;
+			synchronized (publishLock) {
+				this.kaze = kaze;
+				callPack();
+			}
 		}
 
 		public void setKyokusu(int kyokusu) {
-			callPack();
-			this.kyokusu = kyokusu;
+			synchronized (publishLock) {
+				this.kyokusu = kyokusu;
+				callPack(Region.CENTER.bit(0));
+			}
 		}
 
 		public void setNakiPlayer(int nakiPlayer) {
-			callPack();
-			this.nakiPlayer = nakiPlayer;
+			synchronized (publishLock) {
+				this.nakiPlayer = nakiPlayer;
+				callPack(Region.ANIME.bit(0));
+			}
 		}
 
 		public void setReachPosMap(Map<Integer, Integer> reachPosMap) {
-			callPack();
-			beforeSetData();
-			this.reachPosMap = reachPosMap;
+			synchronized (publishLock) {
+				this.reachPosMap = reachPosMap;
+				callPack(Region.SUTEHAI.all() | Region.REACH.all());
+			}
 		}
 
 		public void setScoreMap(Map<Integer, Integer> scoreMap) {
-			callPack();
-			this.scoreMap = scoreMap;
+			synchronized (publishLock) {
+				this.scoreMap = scoreMap;
+				callPack(Region.JIHU.all());
+			}
 		}
 
 		public void setSelectedIndexes(List<Integer> selectedIndexes) {
-			callPack();
-			this.selectedIndexes = selectedIndexes;
+			synchronized (publishLock) {
+				this.selectedIndexes = selectedIndexes;
+				callPack(Region.TEHAI.bit(0));
+			}
 		}
 
 		public void setStateCodes(EnumSet<StateCode> stateCodes) {
-			callPack();
-			this.stateCodes = stateCodes;
+			synchronized (publishLock) {
+				this.stateCodes = stateCodes;
+				callPack();
+			}
 		}
 
 		public void setSutehai(Hai sutehai) {
-			callPack();
-			beforeSetData();
-			this.sutehai = sutehai;
+			synchronized (publishLock) {
+				this.sutehai = sutehai;
+				callPack(Region.SUTEHAI.all());
+			}
 		}
 
 		public void setSutehaiMap(Map<Integer, List<Hai>> sutehaiMap) {
-			callPack();
-			beforeSetData();
-			this.sutehaiMap = sutehaiMap;
+			synchronized (publishLock) {
+				this.sutehaiMap = sutehaiMap;
+				callPack(Region.SUTEHAI.all());
+			}
 		}
 
 		public void setTehai(List<Hai> tehai) {
-			callPack();
-			this.tehai = tehai;
+			synchronized (publishLock) {
+				this.tehai = tehai;
+				callPack(Region.TEHAI.bit(0));
+			}
 		}
 
 		public void setTehaiSizeMap(Map<Integer, Integer> tehaiSizeMap) {
-			callPack();
-			beforeSetData();
-			this.tehaiSizeMap = tehaiSizeMap;
+			synchronized (publishLock) {
+				this.tehaiSizeMap = tehaiSizeMap;
+				callPack(Region.TEHAI.all());
+			}
 		}
 
 		public void setTsumiBou(int tsumiBou) {
-			callPack();
-			this.tsumiBou = tsumiBou;
+			synchronized (publishLock) {
+				this.tsumiBou = tsumiBou;
+				callPack(Region.CENTER.bit(0));
+			}
 		}
 
 		public void setTsumoHai(Hai tsumoHai) {
-			callPack();
-			beforeSetData();
-			this.tsumoHai = tsumoHai;
+			synchronized (publishLock) {
+				this.tsumoHai = tsumoHai;
+				callPack(Region.TEHAI.all());
+			}
 		}
 
 		public void setWanpaiSize(int wanpaiSize) {
-			callPack();
-			this.wanpaiSize = wanpaiSize;
+			synchronized (publishLock) {
+				this.wanpaiSize = wanpaiSize;
+				callPack(Region.YAMA.all());
+			}
 		}
 
 		public void setYamaSize(int yamaSize) {
-			callPack();
-			beforeSetData();
-			this.yamaSize = yamaSize;
+			synchronized (publishLock) {
+				this.yamaSize = yamaSize;
+				callPack(Region.YAMA.all());
+			}
 		}
 
 	}
+	private static final MyLogger logger = MyLogger.getLogger();
+
 	// 結合テスト
 	private static int objSize = 0;
 	private static OneGameData oneGameData;
@@ -528,6 +575,62 @@ public class GamePack extends DataPack {
 
 	private Graphics g;
 
+	/**
+	 * 書き換えを管理する描画の領域.プレイヤーごとの領域は4つずつビットを持つ
+	 */
+	private static enum Region {
+		/** 手牌と副露牌 */
+		TEHAI,
+		/** 捨て牌 */
+		SUTEHAI,
+		/** リーチ棒 */
+		REACH,
+		/** 自風と点数 */
+		JIHU,
+		/** 山とドラ表示牌.プレイヤーの代わりに山の辺ごとにビットを持つ */
+		YAMA,
+		/** 場風,局,本場,積み棒 */
+		CENTER,
+		/** 選択ボタン */
+		BUTTON,
+		/** 鳴きのアニメーション */
+		ANIME;
+
+		int bit(int player) {
+			return 1 << (ordinal() * 4 + player);
+		}
+
+		int all() {
+			return 0xF << (ordinal() * 4);
+		}
+	}
+
+	private static final int ALL_REGIONS = -1;
+	// StateCodeで描画が変わる領域
+	private static final int STATE_REGIONS = Region.TEHAI.bit(0)
+			| Region.CENTER.bit(0) | Region.BUTTON.bit(0);
+
+	private static final Font FONT = new Font("", Font.BOLD, 20);
+	private static final Font BUTTON_FONT = new Font("", Font.BOLD, 15);
+
+	private final Object dirtyLock = new Object();
+	// 次の描画で描き直す領域
+	private int dirtyRegions = ALL_REGIONS;
+	// 前回の描画での各領域の画面上の位置.描画用スレッドだけが使う
+	private final Rectangle regionBounds[] = new Rectangle[32];
+	// 今回描き直す範囲.nullの場合は全体
+	private Area clip;
+	// 前回の描画で書き換えた範囲.nullの場合は全体
+	private Rectangle updatedBounds;
+
+	// 最後に公開した卓の状態
+	private final AtomicReference<TableState> snapshot = new AtomicReference<TableState>();
+	// データの書き換えとその公開を排他する.通信用スレッドとAWTのスレッドは
+	// このロックを持ったままデータを書き換えて公開するので,複製中のリストが書き換えられることはない
+	private final Object publishLock = new Object();
+	// 今回描く卓の状態.描画用スレッドだけが使う
+	private TableState state;
+
 	// 未使用
 	private int animationCount;
 
@@ -559,157 +662,167 @@ public class GamePack extends DataPack {
 	}
 
 	public void addButtonList(StateCode sc) {
-		callPack();
-		oneGameData.getButtonList().add(sc);
+		synchronized (publishLock) {
+			oneGameData.getButtonList().add(sc);
+			callPack(Region.BUTTON.bit(0));
+		}
 	}
 
 	private int addSelectedIndexes(int mx, int my, int max,
 			List<List<Integer>> rule) {
-		callPack();
-		List<Hai> tehai = oneGameData.getTehai();
-		List<Integer> selectedIndexes;
-		selectedIndexes = oneGameData.getSelectedIndexes();
-		int i;
-		for (i = 0; i < tehai.size(); i++) {
-			if (PLAYER_BLOCK1_X + HAI_WIDTH * i <= mx
-					&& mx <= PLAYER_BLOCK1_X + HAI_WIDTH * (i + 1)) {
-				int margin = 0;
-				if (selectedIndexes.contains(i))
-					margin -= 20;
-				if (PLAYER_BLOCK1_Y + 270 + margin <= my
-						&& my <= PLAYER_BLOCK1_Y + 270 + HAI_HEIGHT) {
-					if (selectedIndexes.contains(i)) {
-						if (max != 1) {
-							selectedIndexes.remove((Integer) i);
-							i = -1;
-						}
-					} else {
-						if (rule != null)
-							if (rule.size() == 0) {
-								if (selectedIndexes.size() == max)
-									selectedIndexes.remove(0);
-								selectedIndexes.add(i);
-							} else {
-								for (List<Integer> l : rule) {
-									if (l.containsAll(selectedIndexes)
-											&& l.contains(i)) {
-										if (selectedIndexes.size() == max)
-											selectedIndexes.remove(0);
-										selectedIndexes.add(i);
-										break;
+		try {
+			List<Hai> tehai = oneGameData.getTehai();
+			List<Integer> selectedIndexes;
+			selectedIndexes = oneGameData.getSelectedIndexes();
+			int i;
+			for (i = 0; i < tehai.size(); i++) {
+				if (PLAYER_BLOCK1_X + HAI_WIDTH * i <= mx
+						&& mx <= PLAYER_BLOCK1_X + HAI_WIDTH * (i + 1)) {
+					int margin = 0;
+					if (selectedIndexes.contains(i))
+						margin -= 20;
+					if (PLAYER_BLOCK1_Y + 270 + margin <= my
+							&& my <= PLAYER_BLOCK1_Y + 270 + HAI_HEIGHT) {
+						if (selectedIndexes.contains(i)) {
+							if (max != 1) {
+								selectedIndexes.remove((Integer) i);
+								i = -1;
+							}
+						} else {
+							if (rule != null)
+								if (rule.size() == 0) {
+									if (selectedIndexes.size() == max)
+										selectedIndexes.remove(0);
+									selectedIndexes.add(i);
+								} else {
+									for (List<Integer> l : rule) {
+										if (l.containsAll(selectedIndexes)
+												&& l.contains(i)) {
+											if (selectedIndexes.size() == max)
+												selectedIndexes.remove(0);
+											selectedIndexes.add(i);
+											break;
+										}
 									}
 								}
-							}
+						}
+						break;
 					}
-					break;
 				}
 			}
-		}
-		if (i >= tehai.size())
-			if (oneGameData.getCurrentTurn() == 0) {
-				int dx = tehai.size() * HAI_WIDTH + 20 + PLAYER_BLOCK1_X;
-				if (mx <= dx + HAI_WIDTH && mx >= dx
-						&& my <= PLAYER_BLOCK1_Y + 270 + HAI_HEIGHT
-						&& my >= PLAYER_BLOCK1_Y + 270) {
-					i = 13;
-					if (selectedIndexes.contains(i)) {
-						if (max != 1) {
-							selectedIndexes.remove((Integer) i);
-							i = -1;
+			if (i >= tehai.size())
+				if (oneGameData.getCurrentTurn() == 0) {
+					int dx = tehai.size() * HAI_WIDTH + 20 + PLAYER_BLOCK1_X;
+					if (mx <= dx + HAI_WIDTH && mx >= dx
+							&& my <= PLAYER_BLOCK1_Y + 270 + HAI_HEIGHT
+							&& my >= PLAYER_BLOCK1_Y + 270) {
+						i = 13;
+						if (selectedIndexes.contains(i)) {
+							if (max != 1) {
+								selectedIndexes.remove((Integer) i);
+								i = -1;
+							}
+						} else {
+							if (selectedIndexes.size() == max)
+								selectedIndexes.remove(0);
+							selectedIndexes.add(i);
 						}
-					} else {
-						if (selectedIndexes.size() == max)
-							selectedIndexes.remove(0);
-						selectedIndexes.add(i);
 					}
+				} else {
+					return -1;
 				}
-			} else {
-				return -1;
-			}
-		return i;
+			return i;
+		} finally {
+			callPack(Region.TEHAI.bit(0));
+		}
 	}
 
 	private void addSelectedIndexesWhenOverHai(int mx, int my, int max,
 			List<List<Integer>> rule) {
-		callPack();
-		List<Hai> tehai = oneGameData.getTehai();
-		List<Integer> selectedIndexes = oneGameData.getSelectedIndexes();
-		if (PLAYER_BLOCK1_Y + 270 > my
-				|| my > PLAYER_BLOCK1_Y + 270 + HAI_HEIGHT + 20) {
-			selectedIndexes.clear();
-			return;
-		}
-		for (int i = 0; i < tehai.size(); i++) {
-			if (PLAYER_BLOCK1_X + HAI_WIDTH * i <= mx
-					&& mx <= PLAYER_BLOCK1_X + HAI_WIDTH * (i + 1)) {
-				int margin = 0;
-				if (selectedIndexes.contains(i))
-					margin -= 20;
-				if (PLAYER_BLOCK1_Y + 270 + margin <= my
-						&& my <= PLAYER_BLOCK1_Y + 270 + HAI_HEIGHT) {
-					if (!selectedIndexes.contains(i)) {
-						int count = 0;
-						List<Integer> tmpSubList = new ArrayList<Integer>();
-						if (selectedIndexes.size() < max
-								&& selectedIndexes.size() > 0)
-							return;
-						selectedIndexes = new ArrayList<Integer>();
-						if (rule != null)
-							for (List<Integer> subList : rule) {
-								if (subList.contains(i)) {
-									count++;
-									tmpSubList = subList;
-									if (count > 1)
-										break;
+		try {
+			List<Hai> tehai = oneGameData.getTehai();
+			List<Integer> selectedIndexes = oneGameData.getSelectedIndexes();
+			if (PLAYER_BLOCK1_Y + 270 > my
+					|| my > PLAYER_BLOCK1_Y + 270 + HAI_HEIGHT + 20) {
+				selectedIndexes.clear();
+				return;
+			}
+			for (int i = 0; i < tehai.size(); i++) {
+				if (PLAYER_BLOCK1_X + HAI_WIDTH * i <= mx
+						&& mx <= PLAYER_BLOCK1_X + HAI_WIDTH * (i + 1)) {
+					int margin = 0;
+					if (selectedIndexes.contains(i))
+						margin -= 20;
+					if (PLAYER_BLOCK1_Y + 270 + margin <= my
+							&& my <= PLAYER_BLOCK1_Y + 270 + HAI_HEIGHT) {
+						if (!selectedIndexes.contains(i)) {
+							int count = 0;
+							List<Integer> tmpSubList = new ArrayList<Integer>();
+							if (selectedIndexes.size() < max
+									&& selectedIndexes.size() > 0)
+								return;
+							selectedIndexes = new ArrayList<Integer>();
+							if (rule != null)
+								for (List<Integer> subList : rule) {
+									if (subList.contains(i)) {
+										count++;
+										tmpSubList = subList;
+										if (count > 1)
+											break;
+									}
 								}
-							}
-						if (count == 1)
-							selectedIndexes.addAll(tmpSubList);
-						oneGameData.setSelectedIndexes(selectedIndexes);
+							if (count == 1)
+								selectedIndexes.addAll(tmpSubList);
+							oneGameData.setSelectedIndexes(selectedIndexes);
+						}
 					}
+					return;
 				}
-				return;
 			}
-		}
-		int dx = tehai.size() * HAI_WIDTH + 20 + PLAYER_BLOCK1_X;
-		int margin = 0;
-		if (selectedIndexes.contains(13))
-			margin -= 20;
-		if (mx <= dx + HAI_WIDTH && mx >= dx
-				&& my <= PLAYER_BLOCK1_Y + 270 + HAI_HEIGHT
-				&& my >= PLAYER_BLOCK1_Y + 270 + margin) {
-			if (!selectedIndexes.contains(13)) {
-				int count = 0;
-				List<Integer> tmpSubList = new ArrayList<Integer>();
-				if (selectedIndexes.size() < max && selectedIndexes.size() > 0)
-					return;
-				selectedIndexes = new ArrayList<Integer>();
-				if (rule != null)
-					for (List<Integer> subList : rule) {
-						if (subList.contains(13)) {
-							count++;
-							tmpSubList = subList;
-							if (count > 1)
-								break;
+			int dx = tehai.size() * HAI_WIDTH + 20 + PLAYER_BLOCK1_X;
+			int margin = 0;
+			if (selectedIndexes.contains(13))
+				margin -= 20;
+			if (mx <= dx + HAI_WIDTH && mx >= dx
+					&& my <= PLAYER_BLOCK1_Y + 270 + HAI_HEIGHT
+					&& my >= PLAYER_BLOCK1_Y + 270 + margin) {
+				if (!selectedIndexes.contains(13)) {
+					int count = 0;
+					List<Integer> tmpSubList = new ArrayList<Integer>();
+					if (selectedIndexes.size() < max && selectedIndexes.size() > 0)
+						return;
+					selectedIndexes = new ArrayList<Integer>();
+					if (rule != null)
+						for (List<Integer> subList : rule) {
+							if (subList.contains(13)) {
+								count++;
+								tmpSubList = subList;
+								if (count > 1)
+									break;
+							}
 						}
-					}
-				if (count == 1)
-					selectedIndexes.addAll(tmpSubList);
-				oneGameData.setSelectedIndexes(selectedIndexes);
+					if (count == 1)
+						selectedIndexes.addAll(tmpSubList);
+					oneGameData.setSelectedIndexes(selectedIndexes);
+				}
+				return;
 			}
-			return;
+		} finally {
+			callPack(Region.TEHAI.bit(0));
 		}
 	}
 
 	public void addStateCode(StateCode stateCode) {
-		callPack();
-		EnumSet<StateCode> stateCodes = oneGameData.getStateCodes();
-		while (stateCodes.contains(StateCode.WAIT))
-			stateCodes.remove(StateCode.WAIT);
-		if (stateCode != null) {
-			stateCodes.add(stateCode);
-		} else if (stateCodes.size() == 0) {
-			stateCodes.add(StateCode.WAIT);
+		synchronized (publishLock) {
+			EnumSet<StateCode> stateCodes = oneGameData.getStateCodes();
+			while (stateCodes.contains(StateCode.WAIT))
+				stateCodes.remove(StateCode.WAIT);
+			if (stateCode != null) {
+				stateCodes.add(stateCode);
+			} else if (stateCodes.size() == 0) {
+				stateCodes.add(StateCode.WAIT);
+			}
+			callPack(STATE_REGIONS);
 		}
 	}
 
@@ -717,14 +830,176 @@ public class GamePack extends DataPack {
 	 * 親流れの時に呼び出すメソッド プレイヤーと風の対応関係/親を変更する
 	 */
 	public void changeParent() {
-		callPack();
-		parentChair = (parentChair + 1) % 4;
-		for (int i = 0; i < 4; i++) {
-			players[i].setKaze(Kaze
-					.valueOf((players[i].getKaze().id() + 3) % 4));
+		synchronized (publishLock) {
+			parentChair = (parentChair + 1) % 4;
+			for (int i = 0; i < 4; i++) {
+				players[i].setKaze(Kaze
+						.valueOf((players[i].getKaze().id() + 3) % 4));
+			}
+			callPack();
+		}
+	}
+
+	/**
+	 * 指定された領域を次の描画で描き直すようにする
+	 * 
+	 * @param regions
+	 */
+	private void markDirty(int regions) {
+		synchronized (dirtyLock) {
+			dirtyRegions |= regions;
+		}
+	}
+
+	private int takeDirtyRegions() {
+		synchronized (dirtyLock) {
+			int regions = dirtyRegions;
+			dirtyRegions = 0;
+			return regions;
+		}
+	}
+
+	/**
+	 * 書き換えた領域が分からない場合は全体を描き直す
+	 */
+	@Override
+	protected void callPack() {
+		callPack(ALL_REGIONS);
+	}
+
+	/**
+	 * 指定された領域を書き換える時に呼び出すメソッド
+	 * 
+	 * @param regions
+	 *            書き換える領域のビット
+	 */
+	private void callPack(int regions) {
+		// 描画用スレッドは領域を受け取ってから状態を読むので,先に公開しておけば
+		// 受け取った領域を古い状態で描くことはない
+		publish();
+		markDirty(regions);
+		super.callPack();
+	}
+
+	/**
+	 * 書き換えたデータから卓の状態を作り,描画用スレッドに公開する.
+	 * データを書き換えるメソッドと同じロックで排他するので,後から公開された状態ほど新しいデータを含む
+	 */
+	private void publish() {
+		synchronized (publishLock) {
+			OneGameData d = oneGameData;
+			if (d == null)
+				return;
+			snapshot.set(new TableState.Builder().setTehai(d.getTehai())
+					.setAbleIndexList(d.getAbleIndexList())
+					.setBakaze(d.getBakaze()).setButtonList(d.getButtonList())
+					.setCurrentTurn(d.getCurrentTurn())
+					.setDoraList(d.getDoraList()).setFinish(d.getFinish())
+					.setHonba(d.getHonba()).setHurohaiMap(d.getHurohaiMap())
+					.setKaze(d.getKaze()).setKyokusu(d.getKyokusu())
+					.setNakiPlayer(d.getNakiPlayer())
+					.setReachPosMap(d.getReachPosMap())
+					.setScoreMap(d.getScoreMap())
+					.setSelectedIndexes(d.getSelectedIndexes())
+					.setStateCodes(d.getStateCodes())
+					.setSutehaiMap(d.getSutehaiMap())
+					.setTehaiSizeMap(d.getTehaiSizeMap())
+					.setTsumiBou(d.getTsumiBou()).setTsumoHai(d.getTsumoHai())
+					.setWanpaiSize(d.getWanpaiSize()).setYamaSize(d.getYamaSize())
+					.build());
+		}
+	}
+
+	@Override
+	protected void finishPack() {
+		markDirty(ALL_REGIONS);
+		super.finishPack();
+	}
+
+	/**
+	 * 描き直す領域の前回の位置を合わせた範囲を返す
+	 * 
+	 * @param regions
+	 * @return 位置の分からない領域がある場合はnull
+	 */
+	private Area getClip(int regions) {
+		if (regions == ALL_REGIONS)
+			return null;
+		Area result = new Area();
+		for (int i = 0; i < regionBounds.length; i++) {
+			if ((regions & 1 << i) == 0)
+				continue;
+			if (regionBounds[i] == null)
+				return null;
+			result.add(new Area(regionBounds[i]));
+		}
+		return result;
+	}
+
+	/**
+	 * 領域の画面上の位置を記録し,今回描き直す範囲に重なる場合trueを返す
+	 * 
+	 * @param g2
+	 * @param region
+	 * @param player
+	 * @param x
+	 *            現在の座標系での領域の位置
+	 * @param y
+	 * @param width
+	 *            画像の読み込み中で負の場合は位置を記録しない
+	 * @param height
+	 * @return
+	 */
+	private boolean isTarget(Graphics2D g2, Region region, int player, int x,
+			int y, int width, int height) {
+		int index = region.ordinal() * 4 + player;
+		if (width < 0 || height < 0) {
+			regionBounds[index] = null;
+			return true;
 		}
+		Rectangle bounds = g2.getTransform()
+				.createTransformedShape(new Rectangle(x, y, width, height))
+				.getBounds();
+		regionBounds[index] = bounds;
+		return clip == null || clip.intersects(bounds);
+	}
+
+	// drawHaiの範囲.副露牌は右端から上へ並べる
+	private boolean isTehaiTarget(Graphics2D g2, int player, int iy) {
+		int screenWidth = player % 2 == 0 ? WINDOW_WIDTH : WINDOW_HEIGHT;
+		int top = iy + 270 - SCALED_HAI_HEIGHT * 4 - 20;
+		return isTarget(g2, Region.TEHAI, player, 0, top, screenWidth, iy
+				+ 270 + HAI_HEIGHT - top);
+	}
+
+	// drawSuteHaiの範囲.ix + 170の右に横向きの牌を含む6枚を4段並べる
+	private boolean isSutehaiTarget(Graphics2D g2, int player, int ix, int iy) {
+		return isTarget(g2, Region.SUTEHAI, player, ix + 170, iy - 20,
+				SCALED_HAI_HEIGHT * 6 + SCALED_HAI_WIDTH + 50,
+				SCALED_HAI_HEIGHT * 4 + 100);
+	}
+
+	private boolean isReachTarget(Graphics2D g2, int player, int x, int y) {
+		Image image = imageData.getReachImage();
+		return isTarget(g2, Region.REACH, player, x, y, image.getWidth(null),
+				image.getHeight(null));
 	}
 
+	// drawJihuの範囲.風をix - 30かix + 60に,点数をixに書く
+	private boolean isJihuTarget(Graphics2D g2, int player, int ix, int iy) {
+		return isTarget(g2, Region.JIHU, player, ix - 40, iy - 25, 160, 35);
+	}
+
+	// drawPartOfYamaの範囲
+	private boolean isYamaTarget(Graphics2D g2, int start, int ix, int iy) {
+		return isTarget(g2, Region.YAMA, start / 17, ix + 50, iy + 200,
+				SCALED_HAI_WIDTH * 17, SCALED_HAI_HEIGHT);
+	}
+
+	/**
+	 * 前回の描画から書き換えられた領域と,それに重なる領域だけを描き直す.
+	 * 書き換えられた領域がなければ何もしない
+	 */
 	@Override
 	public void createImage() throws NullPointerException {
 		// if (number == -1)
@@ -736,48 +1011,121 @@ public class GamePack extends DataPack {
 			g = getImage().getGraphics();
 		// TODO Auto-generated method stub
 		Graphics2D g2 = (Graphics2D) g;
-		
-		System.out.println("TON:" + getKaze().get(Kaze.TON));
+		updatedBounds = new Rectangle();
 
-		g2.clearRect(0, 0, getWidth(), getHeight());
+		// 領域を受け取ってから状態を読む.受け取った領域の書き換えは公開済みなので,
+		// 読んだ状態はその書き換えを含む
+		int regions = takeDirtyRegions();
+		if (regions == 0)
+			return;
+		// 描画の間は書き換えの途中の状態を読まないように,公開された状態だけを使う
+		state = snapshot.get();
+		if (state == null) {
+			markDirty(regions);
+			return;
+		}
+		logger.trace(Category.CLIENT, new MyLogger.Message() {
+			@Override
+			public String get() {
+				return "TON:" + state.getKaze().get(Kaze.TON);
+			}
+		});
+
+		clip = getClip(regions);
+		AffineTransform transform = g2.getTransform();
+		boolean finished = false;
+		try {
+			if (clip == null) {
+				g2.clearRect(0, 0, getWidth(), getHeight());
+			} else {
+				Rectangle bounds = clip.getBounds();
+				g2.setClip(clip);
+				g2.clearRect(bounds.x, bounds.y, bounds.width, bounds.height);
+			}
+			drawRegions(g2);
+			finished = true;
+			updatedBounds = getUpdatedBounds(regions);
+		} finally {
+			g2.setTransform(transform);
+			g2.setClip(null);
+			// 途中で失敗した場合は次の描画で全体を描き直す
+			if (!finished) {
+				markDirty(ALL_REGIONS);
+				updatedBounds = null;
+			}
+		}
+	}
 
+	// 描き直した範囲と,描き直した領域の今回の位置を合わせた範囲
+	private Rectangle getUpdatedBounds(int regions) {
+		if (clip == null)
+			return null;
+		Area after = getClip(regions);
+		if (after == null)
+			return null;
+		Rectangle bounds = clip.getBounds();
+		bounds.add(after.getBounds());
+		return bounds;
+	}
+
+	@Override
+	public Rectangle getUpdatedBounds() {
+		return updatedBounds;
+	}
+
+	private void drawRegions(Graphics2D g2) {
 		g2.setColor(Color.BLACK);
-		g2.setFont(new Font("", Font.BOLD, 20));
-		g2.drawString(
-				oneGameData.getBakaze().notation() + " "
-						+ oneGameData.getKyokusu() + "局", getWidth() / 2 - 50,
-				getHeight() / 2 - 10 - 20);
-		g2.drawString(oneGameData.getHonba() + "本場", getWidth() / 2 - 50,
-				getHeight() / 2 + 10 - 20);
-		g2.drawString("積み棒:" + oneGameData.getTsumiBou(), getWidth() / 2 - 50,
-				getHeight() / 2 + 30 - 20);
-
-		drawHai(0, PLAYER_BLOCK1_X, PLAYER_BLOCK1_Y, 170, g2);
-		drawSuteHai(0, PLAYER_BLOCK1_X, PLAYER_BLOCK1_Y, 170, g2);
-		drawJihu(0, PLAYER_BLOCK1_X + 270, PLAYER_BLOCK1_Y + 30, g2);
-		if (oneGameData.getReachPosMap().get(0) != null)
+		g2.setFont(FONT);
+		boolean center = isTarget(g2, Region.CENTER, 0, getWidth() / 2 - 50,
+				getHeight() / 2 - 60, 150, 100);
+		if (center) {
+			g2.drawString(state.getBakaze().notation() + " "
+					+ state.getKyokusu() + "局", getWidth() / 2 - 50,
+					getHeight() / 2 - 10 - 20);
+			g2.drawString(state.getHonba() + "本場", getWidth() / 2 - 50,
+					getHeight() / 2 + 10 - 20);
+			g2.drawString("積み棒:" + state.getTsumiBou(),
+					getWidth() / 2 - 50, getHeight() / 2 + 30 - 20);
+		}
+
+		if (isTehaiTarget(g2, 0, PLAYER_BLOCK1_Y))
+			drawHai(0, PLAYER_BLOCK1_X, PLAYER_BLOCK1_Y, 170, g2);
+		if (isSutehaiTarget(g2, 0, PLAYER_BLOCK1_X, PLAYER_BLOCK1_Y))
+			drawSuteHai(0, PLAYER_BLOCK1_X, PLAYER_BLOCK1_Y, 170, g2);
+		if (isJihuTarget(g2, 0, PLAYER_BLOCK1_X + 270, PLAYER_BLOCK1_Y + 30))
+			drawJihu(0, PLAYER_BLOCK1_X + 270, PLAYER_BLOCK1_Y + 30, g2);
+		if (isReachTarget(g2, 0, PLAYER_BLOCK1_X + 200, PLAYER_BLOCK1_Y - 30)
+				&& state.getReachPosMap().get(0) != null)
 			g2.drawImage(imageData.getReachImage(), PLAYER_BLOCK1_X + 200,
 					PLAYER_BLOCK1_Y - 30, null);
 		g2.rotate(-Math.PI);
 		g2.translate(-WINDOW_WIDTH, -WINDOW_HEIGHT);
-		drawHai(2, PLAYER_BLOCK1_X, PLAYER_BLOCK1_Y, 170, g2);
-		drawSuteHai(2, PLAYER_BLOCK1_X, PLAYER_BLOCK1_Y, 170, g2);
-		drawJihu(2, PLAYER_BLOCK1_X + 290, PLAYER_BLOCK1_Y + 60, g2);
-		if (oneGameData.getReachPosMap().get(2) != null)
+		if (isTehaiTarget(g2, 2, PLAYER_BLOCK1_Y))
+			drawHai(2, PLAYER_BLOCK1_X, PLAYER_BLOCK1_Y, 170, g2);
+		if (isSutehaiTarget(g2, 2, PLAYER_BLOCK1_X, PLAYER_BLOCK1_Y))
+			drawSuteHai(2, PLAYER_BLOCK1_X, PLAYER_BLOCK1_Y, 170, g2);
+		if (isJihuTarget(g2, 2, PLAYER_BLOCK1_X + 290, PLAYER_BLOCK1_Y + 60))
+			drawJihu(2, PLAYER_BLOCK1_X + 290, PLAYER_BLOCK1_Y + 60, g2);
+		if (isReachTarget(g2, 2, PLAYER_BLOCK1_X + 200, PLAYER_BLOCK1_Y)
+				&& state.getReachPosMap().get(2) != null)
 			g2.drawImage(imageData.getReachImage(), PLAYER_BLOCK1_X + 200,
 					PLAYER_BLOCK1_Y, null);
 		g2.rotate(Math.PI / 2.0);
 		g2.translate(-100, -WINDOW_WIDTH + 50);
 		g2.rotate(-Math.PI / 20.0);
 
-		drawHai(1, PLAYER_BLOCK2_X, PLAYER_BLOCK2_Y, 250, g2);
+		if (isTehaiTarget(g2, 1, PLAYER_BLOCK2_Y))
+			drawHai(1, PLAYER_BLOCK2_X, PLAYER_BLOCK2_Y, 250, g2);
 
 		g2.rotate(Math.PI / 20.0);
 		g2.translate(100, -50);
 
-		drawSuteHai(1, PLAYER_BLOCK2_X, PLAYER_BLOCK2_Y, 250, g2);
-		drawJihu(1, PLAYER_BLOCK2_X + 300, PLAYER_BLOCK2_Y - 80, g2);
-		if (oneGameData.getReachPosMap().get(1) != null)
+		if (isSutehaiTarget(g2, 1, PLAYER_BLOCK2_X, PLAYER_BLOCK2_Y))
+			drawSuteHai(1, PLAYER_BLOCK2_X, PLAYER_BLOCK2_Y, 250, g2);
+		if (isJihuTarget(g2, 1, PLAYER_BLOCK2_X + 300, PLAYER_BLOCK2_Y - 80))
+			drawJihu(1, PLAYER_BLOCK2_X + 300, PLAYER_BLOCK2_Y - 80, g2);
+		if (isReachTarget(g2, 1, PLAYER_BLOCK2_X + 200, PLAYER_BLOCK2_Y - 100)
+				&& state.getReachPosMap().get(1) != null)
 			g2.drawImage(imageData.getReachImage(), PLAYER_BLOCK2_X + 200,
 					PLAYER_BLOCK2_Y - 100, null);
 
@@ -786,32 +1134,39 @@ public class GamePack extends DataPack {
 
 		g2.rotate(Math.PI / 15.0);
 
-		drawHai(3, PLAYER_BLOCK2_X, PLAYER_BLOCK2_Y, 250, g2);
+		if (isTehaiTarget(g2, 3, PLAYER_BLOCK2_Y))
+			drawHai(3, PLAYER_BLOCK2_X, PLAYER_BLOCK2_Y, 250, g2);
 
 		g2.rotate(-Math.PI / 15.0);
 		g2.translate(-100, 80);
 
-		drawSuteHai(3, PLAYER_BLOCK2_X, PLAYER_BLOCK2_Y, 1250, g2);
-		drawJihu(3, PLAYER_BLOCK2_X + 260, PLAYER_BLOCK2_Y - 60, g2);
-		if (oneGameData.getReachPosMap().get(3) != null)
+		if (isSutehaiTarget(g2, 3, PLAYER_BLOCK2_X, PLAYER_BLOCK2_Y))
+			drawSuteHai(3, PLAYER_BLOCK2_X, PLAYER_BLOCK2_Y, 1250, g2);
+		if (isJihuTarget(g2, 3, PLAYER_BLOCK2_X + 260, PLAYER_BLOCK2_Y - 60))
+			drawJihu(3, PLAYER_BLOCK2_X + 260, PLAYER_BLOCK2_Y - 60, g2);
+		if (isReachTarget(g2, 3, PLAYER_BLOCK2_X + 200, PLAYER_BLOCK2_Y - 100)
+				&& state.getReachPosMap().get(3) != null)
 			g2.drawImage(imageData.getReachImage(), PLAYER_BLOCK2_X + 200,
 					PLAYER_BLOCK2_Y - 100, null);
 
 		g2.rotate(-Math.PI / 2.0);
 		g2.translate(-WINDOW_WIDTH, 0);
 
-		drawPartOfYama(g2, 0, 17, PLAYER_BLOCK1_X, PLAYER_BLOCK1_Y);
+		if (isYamaTarget(g2, 0, PLAYER_BLOCK1_X, PLAYER_BLOCK1_Y))
+			drawPartOfYama(g2, 0, 17, PLAYER_BLOCK1_X, PLAYER_BLOCK1_Y);
 
 		g2.rotate(-Math.PI);
 		g2.translate(-WINDOW_WIDTH, -WINDOW_HEIGHT);
 
-		drawPartOfYama(g2, 34, 51, PLAYER_BLOCK1_X, PLAYER_BLOCK1_Y);
+		if (isYamaTarget(g2, 34, PLAYER_BLOCK1_X, PLAYER_BLOCK1_Y))
+			drawPartOfYama(g2, 34, 51, PLAYER_BLOCK1_X, PLAYER_BLOCK1_Y);
 
 		g2.rotate(Math.PI / 2.0);
 		g2.translate(-100, -WINDOW_WIDTH + 50);
 		g2.rotate(-Math.PI / 20.0);
 
-		drawPartOfYama(g2, 17, 34, PLAYER_BLOCK2_X, PLAYER_BLOCK2_Y);
+		if (isYamaTarget(g2, 17, PLAYER_BLOCK2_X, PLAYER_BLOCK2_Y))
+			drawPartOfYama(g2, 17, 34, PLAYER_BLOCK2_X, PLAYER_BLOCK2_Y);
 
 		g2.rotate(Math.PI / 20.0);
 		g2.translate(100, -50);
@@ -819,21 +1174,24 @@ public class GamePack extends DataPack {
 		g2.translate(-WINDOW_HEIGHT + 150, -WINDOW_WIDTH - 100);
 		g2.rotate(Math.PI / 25.0);
 
-		drawPartOfYama(g2, 51, 68, PLAYER_BLOCK2_X, PLAYER_BLOCK2_Y);
+		if (isYamaTarget(g2, 51, PLAYER_BLOCK2_X, PLAYER_BLOCK2_Y))
+			drawPartOfYama(g2, 51, 68, PLAYER_BLOCK2_X, PLAYER_BLOCK2_Y);
 
 		g2.rotate(-Math.PI / 25.0);
 		g2.translate(-150, 100);
 		g2.rotate(-Math.PI / 2.0);
 		g2.translate(-WINDOW_WIDTH, 0);
 
-		if (oneGameData.getStateCodes().contains(StateCode.END)) {
+		if (center && state.getStateCodes().contains(StateCode.END)) {
 			g2.setColor(Color.RED);
 			g2.drawString("END", getWidth() / 2, getHeight() / 2);
 		}
-		if (oneGameData.getStateCodes().contains(StateCode.SELECT_BUTTON)) {
-			int size = oneGameData.getButtonList().size();
+		int height = PLAYER_BLOCK1_Y + 260;
+		if (isTarget(g2, Region.BUTTON, 0, 0, height - BUTTON_HEIGHT / 2 - 10,
+				WINDOW_WIDTH, BUTTON_HEIGHT)
+				&& state.getStateCodes().contains(StateCode.SELECT_BUTTON)) {
+			int size = state.getButtonList().size();
 			int width = getWidth() / 2;
-			int height = PLAYER_BLOCK1_Y + 260;
 			int half = size / 2;
 			for (int i = 0; i < size; i++) {
 				g2.setColor(Color.orange);
@@ -842,57 +1200,66 @@ public class GamePack extends DataPack {
 				g2.fillRoundRect(tmpX, tmpY, BUTTON_WIDTH, BUTTON_HEIGHT,
 						BUTTON_CURVE, BUTTON_CURVE);
 				g2.setColor(Color.BLACK);
-				g2.setFont(new Font("", Font.BOLD, 15));
+				g2.setFont(BUTTON_FONT);
 
-				g2.drawString(oneGameData.getButtonList().get(i)
+				g2.drawString(state.getButtonList().get(i)
 						.getButtonName(), tmpX + BUTTON_WIDTH / 2, tmpY
 						+ BUTTON_HEIGHT / 2);
 			}
 		}
+		int x = (getWidth() - BUTTON_WIDTH) / 2;
+		int y = (getHeight() - BUTTON_HEIGHT) / 2;
+		boolean anime = isTarget(g2, Region.ANIME, 0, x - 200, y - 200, 500,
+				420);
 		if (animationCount > -1) {
-			int x = (getWidth() - BUTTON_WIDTH) / 2;
-			int y = (getHeight() - BUTTON_HEIGHT) / 2;
-			g2.setColor(Color.RED);
-			g2.fillOval(x, y, BUTTON_WIDTH * 3 / 2, BUTTON_HEIGHT * 3 / 2);
-			switch (oneGameData.getNakiPlayer()) {
-			case -1:
-				break;
-			case 0:
-				g2.fillPolygon(new Polygon(
-						new int[] { x + 100, x + 70, x + 40 }, new int[] {
-								y + 20, y + 200, y + 20 }, 3));
-				break;
-			case 1:
-				g2.fillPolygon(new Polygon(new int[] { x + 100, x + 300,
-						x + 100 }, new int[] { y + 20, y + 40, y + 60 }, 3));
-				break;
-			case 2:
-				g2.fillPolygon(new Polygon(
-						new int[] { x + 100, x + 70, x + 40 }, new int[] {
-								y + 20, y - 200, y + 20 }, 3));
-				break;
-			case 3:
-				g2.fillPolygon(new Polygon(new int[] { x + 100, x - 200,
-						x + 100 }, new int[] { y + 20, y + 40, y + 60 }, 3));
-				break;
-			default:
-				break;
-			}
-			g2.setColor(Color.BLACK);
-			g2.drawString(animeState.getButtonName() + "!", x + BUTTON_WIDTH
-					/ 2 + 20, y + BUTTON_HEIGHT / 2 + 20);
+			if (anime)
+				drawAnimation(g2, x, y);
 			if (animationCount > 100) {
 				animationCount = -100;
 				oneGameData.getStateCodes().remove(StateCode.DRAW_ANIME);
 			}
 			animationCount++;
+			// 次のコマ,または終わったアニメーションを消すために描き直す
+			callPack(Region.ANIME.bit(0));
 		}
 	}
 
+	private void drawAnimation(Graphics2D g2, int x, int y) {
+		g2.setColor(Color.RED);
+		g2.fillOval(x, y, BUTTON_WIDTH * 3 / 2, BUTTON_HEIGHT * 3 / 2);
+		switch (state.getNakiPlayer()) {
+		case -1:
+			break;
+		case 0:
+			g2.fillPolygon(new Polygon(
+					new int[] { x + 100, x + 70, x + 40 }, new int[] {
+							y + 20, y + 200, y + 20 }, 3));
+			break;
+		case 1:
+			g2.fillPolygon(new Polygon(new int[] { x + 100, x + 300,
+					x + 100 }, new int[] { y + 20, y + 40, y + 60 }, 3));
+			break;
+		case 2:
+			g2.fillPolygon(new Polygon(
+					new int[] { x + 100, x + 70, x + 40 }, new int[] {
+							y + 20, y - 200, y + 20 }, 3));
+			break;
+		case 3:
+			g2.fillPolygon(new Polygon(new int[] { x + 100, x - 200,
+					x + 100 }, new int[] { y + 20, y + 40, y + 60 }, 3));
+			break;
+		default:
+			break;
+		}
+		g2.setColor(Color.BLACK);
+		g2.drawString(animeState.getButtonName() + "!", x + BUTTON_WIDTH
+				/ 2 + 20, y + BUTTON_HEIGHT / 2 + 20);
+	}
+
 	private void drawColoredFrame(Graphics2D g2, int index, int x, int y) {
-		Map<StateCode, List<List<Integer>>> ableIndexMap = oneGameData
+		Map<StateCode, List<List<Integer>>> ableIndexMap = state
 				.getAbleIndexList();
-		EnumSet<StateCode> stateCodes = oneGameData.getStateCodes();
+		Set<StateCode> stateCodes = state.getStateCodes();
 		for (StateCode sc : ableIndexMap.keySet()) {
 			if (stateCodes.contains(StateCode.SELECT_BUTTON)
 					|| stateCodes.contains(sc))
@@ -902,9 +1269,9 @@ public class GamePack extends DataPack {
 
 	private void drawFrameBasedOnRule(Graphics2D g2, int index, int x, int y,
 			List<List<Integer>> rule) {
-		List<Integer> selectedIndexes = oneGameData.getSelectedIndexes();
+		List<Integer> selectedIndexes = state.getSelectedIndexes();
 		g2.setColor(Color.RED);
-		int size = oneGameData.getSelectedIndexes().size();
+		int size = state.getSelectedIndexes().size();
 		if (rule != null)
 			for (List<Integer> l : rule) {
 				if (l == null)
@@ -919,57 +1286,49 @@ public class GamePack extends DataPack {
 	public void drawHai(int player, int ix, int iy, int sute_x, Graphics2D g2) {
 		int tehaiSize = 0;
 		if (player != 0) {
-			tehaiSize = oneGameData.getTehaiSizeMap().get(player);
+			tehaiSize = state.getTehaiSizeMap().get(player);
 		} else {
-			tehaiSize = oneGameData.getTehai().size();
+			tehaiSize = state.getTehai().size();
 		}
-		List<Integer> selectedIndexes = oneGameData.getSelectedIndexes();
+		List<Integer> selectedIndexes = state.getSelectedIndexes();
+		HaiAtlas atlas = imageData.getAtlas();
 		int dx = 0;
 		for (int i = 0; i < tehaiSize; i++) {
 			if (player != 0) {
-				g2.drawImage(imageData.getScaledHaiBackImage(), ix + dx
-						+ TEHAI_INDENT, iy + 270, SCALED_HAI_WIDTH,
-						SCALED_HAI_HEIGHT, null);
+				atlas.draw(g2, HaiAtlas.BACK, Variant.SCALED, ix + dx
+						+ TEHAI_INDENT, iy + 270);
 				dx += SCALED_HAI_WIDTH;
 			} else {
-				Image image = imageData.getHaiImageMap().get(
-						oneGameData.getTehai().get(i));
 				int selectedMargin = selectedIndexes.contains((Integer) i) ? -20
 						: 0;
-				g2.drawImage(image, ix + dx, iy + 270 + selectedMargin,
-						HAI_WIDTH, HAI_HEIGHT, null);
+				atlas.draw(g2, state.getTehai().get(i), Variant.NORMAL,
+						ix + dx, iy + 270 + selectedMargin);
 				drawColoredFrame(g2, i, ix + dx, iy + selectedMargin + 270);
 				dx += HAI_WIDTH;
 			}
 		}
-		if (oneGameData.getCurrentTurn() == player
-				&& oneGameData.getTsumoHai() != null) {
+		if (state.getCurrentTurn() == player
+				&& state.getTsumoHai() != null) {
 			if (player == 0) {
 				dx += HAI_HEIGHT - HAI_WIDTH;
 				int selectedMargin = selectedIndexes.contains(13) ? -20 : 0;
-				g2.drawImage(
-						imageData.getHaiImageMap().get(
-								oneGameData.getTsumoHai()), ix + dx, iy + 270
-								+ selectedMargin, HAI_WIDTH, HAI_HEIGHT, null);
+				atlas.draw(g2, state.getTsumoHai(), Variant.NORMAL, ix
+						+ dx, iy + 270 + selectedMargin);
 				drawColoredFrame(g2, 13, ix + dx, iy + selectedMargin + 270);
 			} else {
 				dx += SCALED_HAI_HEIGHT - SCALED_HAI_WIDTH;
-				g2.drawImage(imageData.getScaledHaiBackImage(), ix + dx
-						+ TEHAI_INDENT, iy + 270, SCALED_HAI_WIDTH,
-						SCALED_HAI_HEIGHT, null);
+				atlas.draw(g2, HaiAtlas.BACK, Variant.SCALED, ix + dx
+						+ TEHAI_INDENT, iy + 270);
 			}
 		}
 
-		List<Mentsu> hurohaiList = oneGameData.getHurohaiMap().get(player);
+		List<Mentsu> hurohaiList = state.getHurohaiMap().get(player);
 		int hurohaiListSize = hurohaiList.size();
 		int screenWidth;
-		int screenHeight;
 		if (player % 2 == 0) {
 			screenWidth = WINDOW_WIDTH;
-			screenHeight = WINDOW_HEIGHT;
 		} else {
 			screenWidth = WINDOW_HEIGHT;
-			screenHeight = WINDOW_HEIGHT;
 		}
 		int dy = iy + 270;
 		// dx = screenWidth - HAI_HEIGHT * 2;
@@ -983,7 +1342,7 @@ public class GamePack extends DataPack {
 					: MentsuSize];
 			dx = screenWidth - SCALED_HAI_HEIGHT * 2;
 			if (Mentsu.isNaki()) {
-				int fromKaze = (oneGameData.getKaze().get(
+				int fromKaze = (state.getKaze().get(
 						hurohaiList.get(i).getKaze()) + 4 - player) % 4;
 				fromKaze = (fromKaze - 1) * (fromKaze - 2) / 2
 						* (MentsuSize - 1) - (fromKaze - 1) * (fromKaze - 3);
@@ -1001,32 +1360,21 @@ public class GamePack extends DataPack {
 				for (j = 0; j < MentsuSize; j++) {
 					Hai tmpHai = MajanHai.valueOf(hurohaiArray[j].type(),
 							hurohaiArray[j].aka());
-					Image image = imageData.getScaledHaiImageMap().get(tmpHai);
 					// TODO
 					if (j == fromKaze) {
-						g2.rotate(Math.PI / 2.0);
-						g2.translate(0, -screenHeight);
-						g2.drawImage(image, dy
-								+ (SCALED_HAI_HEIGHT - SCALED_HAI_WIDTH),
-								screenHeight - dx - SCALED_HAI_WIDTH,
-								SCALED_HAI_WIDTH, SCALED_HAI_HEIGHT, null);
+						// 鳴いた牌は横向きにして下に揃え,加槓した牌はその上に重ねる
+						int sideX = dx + SCALED_HAI_WIDTH - SCALED_HAI_HEIGHT;
+						int sideY = dy + SCALED_HAI_HEIGHT - SCALED_HAI_WIDTH;
+						atlas.draw(g2, tmpHai, Variant.SIDEWAYS, sideX, sideY);
 						if (Mentsu.isKakan()) {
 							tmpHai = MajanHai.valueOf(hurohaiArray[3].type(),
 									hurohaiArray[3].aka());
-							image = imageData.getHaiImageMap().get(tmpHai);
-							g2.drawImage(
-									image,
-									dy
-											+ (SCALED_HAI_HEIGHT - SCALED_HAI_WIDTH * 2),
-									screenHeight - dx - SCALED_HAI_WIDTH,
-									SCALED_HAI_WIDTH, SCALED_HAI_HEIGHT, null);
+							atlas.draw(g2, tmpHai, Variant.SIDEWAYS, sideX,
+									sideY - SCALED_HAI_WIDTH);
 						}
-						g2.translate(0, screenHeight);
-						g2.rotate(-Math.PI / 2.0);
 						dx -= SCALED_HAI_HEIGHT;
 					} else {
-						g2.drawImage(image, dx, dy, SCALED_HAI_WIDTH,
-								SCALED_HAI_HEIGHT, null);
+						atlas.draw(g2, tmpHai, Variant.SCALED, dx, dy);
 						dx -= SCALED_HAI_WIDTH;
 					}
 				}
@@ -1034,14 +1382,11 @@ public class GamePack extends DataPack {
 				int count = 0;
 				for (MentsuHai mh : Mentsu.asList()) {
 					Hai tmpHai = MajanHai.valueOf(mh.type(), mh.aka());
-					Image image;
+					// TODO
 					if (count == 0 || count == 3)
-						image = imageData.getScaledHaiBackImage();
+						atlas.draw(g2, HaiAtlas.BACK, Variant.SCALED, dx, dy);
 					else
-						image = imageData.getScaledHaiImageMap().get(tmpHai);
-					// TODO
-					g2.drawImage(image, dx, dy, SCALED_HAI_WIDTH,
-							SCALED_HAI_HEIGHT, null);
+						atlas.draw(g2, tmpHai, Variant.SCALED, dx, dy);
 					dx -= SCALED_HAI_WIDTH;
 					count++;
 				}
@@ -1055,7 +1400,7 @@ public class GamePack extends DataPack {
 		Kaze tmp = null;
 		g2.setColor(Color.WHITE);
 		for (Kaze k : Kaze.values()) {
-			if (oneGameData.getKaze().get(k) == player) {
+			if (state.getKaze().get(k) == player) {
 				tmp = k;
 				break;
 			}
@@ -1065,16 +1410,16 @@ public class GamePack extends DataPack {
 		else
 			g2.drawString(tmp.notation(), ix + 60, iy);
 		JPanel tmpPanel = new JPanel();
-		tmpPanel.add(new JLabel(oneGameData.getScoreMap().get(player) + ""));
-		g2.drawString(oneGameData.getScoreMap().get(player) + "", ix, iy);
+		tmpPanel.add(new JLabel(state.getScoreMap().get(player) + ""));
+		g2.drawString(state.getScoreMap().get(player) + "", ix, iy);
 		g2.setColor(Color.BLACK);
 	}
 
 	private void drawPartOfYama(Graphics g2, int start, int end, int ix, int iy) {
-		int wanpaiSize = oneGameData.getWanpaiSize();
-		int limit = oneGameData.getYamaSize() / 2 + oneGameData.getYamaSize()
-				% 2 + oneGameData.getFinish() + 1;
-		int finish = oneGameData.getFinish()
+		int wanpaiSize = state.getWanpaiSize();
+		int limit = state.getYamaSize() / 2 + state.getYamaSize()
+				% 2 + state.getFinish() + 1;
+		int finish = state.getFinish()
 				+ 1
 				- (wanpaiSize / 2 + wanpaiSize % 2 + (wanpaiSize == 14 ? 1 : 0));
 		int indent_y = 200;
@@ -1083,6 +1428,7 @@ public class GamePack extends DataPack {
 			finish += 68;
 			limit += 68;
 		}
+		HaiAtlas atlas = imageData.getAtlas();
 		int dx = 0;
 		int doraStart = finish + 3
 				- (8 - (wanpaiSize + 1) % 2 - wanpaiSize == 14 ? 1 : 0);
@@ -1091,26 +1437,21 @@ public class GamePack extends DataPack {
 					|| (finish <= i + 68 && i + 68 < limit))
 				if (((finish == i || finish == i + 68) && (wanpaiSize % 2 == 1 || wanpaiSize == 14))
 						|| ((finish + 1 == i || finish + 1 == i + 68) && wanpaiSize == 14)
-						|| ((limit - 1 == i || limit - 1 == i + 68) && oneGameData
+						|| ((limit - 1 == i || limit - 1 == i + 68) && state
 								.getYamaSize() % 2 == 1))
-					g2.drawImage(imageData.getScaledDarkHaiBackImage(), ix + dx
-							+ indent_x, iy + indent_y, SCALED_HAI_WIDTH,
-							SCALED_HAI_HEIGHT, null);
+					atlas.draw(g2, HaiAtlas.DARK_BACK, Variant.SCALED, ix + dx
+							+ indent_x, iy + indent_y);
 				else if ((doraStart <= i && doraStart
-						+ oneGameData.getDoraList().size() > i)
+						+ state.getDoraList().size() > i)
 						|| (doraStart <= i + 68 && doraStart
-								+ oneGameData.getDoraList().size() > i + 68)) {
-					g2.drawImage(
-							imageData.getHaiImageMap().get(
-									oneGameData.getDoraList().get(
-											(i - (finish + 3) + 68) % 68)), ix
-									+ dx + indent_x, iy + indent_y,
-							SCALED_HAI_WIDTH, SCALED_HAI_HEIGHT, null);
+								+ state.getDoraList().size() > i + 68)) {
+					atlas.draw(g2, state.getDoraList().get(
+							(i - (finish + 3) + 68) % 68), Variant.SCALED, ix
+							+ dx + indent_x, iy + indent_y);
 					// TODO ドラ表示
 				} else
-					g2.drawImage(imageData.getScaledHaiBackImage(), ix + dx
-							+ indent_x, iy + indent_y, SCALED_HAI_WIDTH,
-							SCALED_HAI_HEIGHT, null);
+					atlas.draw(g2, HaiAtlas.BACK, Variant.SCALED, ix + dx
+							+ indent_x, iy + indent_y);
 			dx += SCALED_HAI_WIDTH;
 			// TODO current
 		}
@@ -1138,31 +1479,23 @@ public class GamePack extends DataPack {
 		default:
 			break;
 		}
-		List<Hai> suteHaiList = null;
-		synchronized (oneGameData.getSutehaiMap()) {
-			suteHaiList = oneGameData.getSutehaiMap().get(player);
-		}
+		List<Hai> suteHaiList = state.getSutehaiMap().get(player);
+		HaiAtlas atlas = imageData.getAtlas();
 		int dy = 0;
-		int screenHeight = WINDOW_HEIGHT;
 		for (int j = 0; j < 4; j++) {
 			int dx = 170 - SCALED_HAI_WIDTH;
 			for (int i = 0; j * 6 + i < suteHaiList.size() && i < 6; i++) {
-				Image image = imageData.getScaledHaiImageMap().get(
-						suteHaiList.get(j * 6 + i));
-				if (oneGameData.getReachPosMap().get(player) == null
-						|| oneGameData.getReachPosMap().get(player) != j * 6
+				Hai hai = suteHaiList.get(j * 6 + i);
+				if (state.getReachPosMap().get(player) == null
+						|| state.getReachPosMap().get(player) != j * 6
 								+ i) {
-					g2.drawImage(image, ix + SCALED_HAI_WIDTH + dx, iy + dy,
-							SCALED_HAI_WIDTH, SCALED_HAI_HEIGHT, null);
+					atlas.draw(g2, hai, Variant.SCALED, ix + SCALED_HAI_WIDTH
+							+ dx, iy + dy);
 					dx += SCALED_HAI_WIDTH;
 				} else {
-					g2.rotate(Math.PI / 2.0);
-					g2.translate(0, -screenHeight);
-					g2.drawImage(image, iy + dy, screenHeight - dx
-							- SCALED_HAI_HEIGHT - SCALED_HAI_WIDTH - ix,
-							SCALED_HAI_WIDTH, SCALED_HAI_HEIGHT, null);
-					g2.translate(0, screenHeight);
-					g2.rotate(-Math.PI / 2.0);
+					// リーチ宣言牌は横向き
+					atlas.draw(g2, hai, Variant.SIDEWAYS, ix
+							+ SCALED_HAI_WIDTH + dx, iy + dy);
 					dx += SCALED_HAI_HEIGHT;
 				}
 			}
@@ -1347,14 +1680,16 @@ public class GamePack extends DataPack {
 	}
 
 	public void mouseMoved(MouseEvent e) {
-		EnumSet<StateCode> stateCodes = oneGameData.getStateCodes();
-		if (stateCodes.contains(StateCode.WAIT))
-			return;
-		int mx = e.getPoint().x;
-		int my = e.getPoint().y;
-		for (StateCode sc : stateCodes) {
-			addSelectedIndexesWhenOverHai(mx, my, sc.getNum(), oneGameData
-					.getAbleIndexList().get(sc));
+		synchronized (publishLock) {
+			EnumSet<StateCode> stateCodes = oneGameData.getStateCodes();
+			if (stateCodes.contains(StateCode.WAIT))
+				return;
+			int mx = e.getPoint().x;
+			int my = e.getPoint().y;
+			for (StateCode sc : stateCodes) {
+				addSelectedIndexesWhenOverHai(mx, my, sc.getNum(), oneGameData
+						.getAbleIndexList().get(sc));
+			}
 		}
 	}
 
@@ -1369,12 +1704,13 @@ public class GamePack extends DataPack {
 	}
 
 	public void refreshButtonList() {
-		callPack();
-		oneGameData.getButtonList().clear();
+		synchronized (publishLock) {
+			oneGameData.getButtonList().clear();
+			callPack(Region.BUTTON.bit(0));
+		}
 	}
 
 	private void refreshNakiListExclude(StateCode sc) {
-		callPack();
 		Map<StateCode, List<List<Integer>>> ableIndexList = oneGameData
 				.getAbleIndexList();
 		for (StateCode key : ableIndexList.keySet()) {
@@ -1394,12 +1730,15 @@ public class GamePack extends DataPack {
 			}
 		}
 
+		callPack(Region.TEHAI.bit(0));
 	}
 
 	public void refreshStateCodes() {
-		callPack();
-		oneGameData.getStateCodes().clear();
-		oneGameData.getStateCodes().add(StateCode.WAIT);
+		synchronized (publishLock) {
+			oneGameData.getStateCodes().clear();
+			oneGameData.getStateCodes().add(StateCode.WAIT);
+			callPack(STATE_REGIONS);
+		}
 	}
 
 	public void setAnimationCount(int animationCount) {
@@ -1407,45 +1746,50 @@ public class GamePack extends DataPack {
 	}
 
 	public void setAnimeState(StateCode animeState) {
-		callPack();
-		this.animeState = animeState;
+		synchronized (publishLock) {
+			this.animeState = animeState;
+			callPack(Region.ANIME.bit(0));
+		}
 	}
 
 	public void setBakaze(Kaze kaze) {
-		callPack();
 		oneGameData.setBakaze(kaze);
 	}
 
 	public void setCurrentTurn(int currentTurn) {
-		callPack();
 		getOneGameData().setCurrentTurn(currentTurn);
 	}
 
 	public void setDoraList(List<Hai> doraList) {
-		callPack();
 		getOneGameData().setDoraList(doraList);
 	}
 
 	public void setHonba(int honba) {
-		callPack();
 		getOneGameData().setHonba(honba);
 	}
 
 	public void setKyokusu(int kyokusu) {
-		callPack();
-		if (oneGameData.getKyokusu() != kyokusu)
-			moveKaze();
-		oneGameData.setKyokusu(kyokusu);
+		synchronized (publishLock) {
+			if (oneGameData.getKyokusu() != kyokusu) {
+				moveKaze();
+				callPack();
+			}
+			oneGameData.setKyokusu(kyokusu);
+		}
 	}
 
 	public void setNumber(int number) {
-		callPack();
-		this.number = number;
+		synchronized (publishLock) {
+			this.number = number;
+			callPack();
+		}
 	}
 
 	public void setPlayerNumber(int number) {
-		callPack();
-		players = new ClientPlayer[number];
+		synchronized (publishLock) {
+			players = new ClientPlayer[number];
+			callPack();
+		}
 	}
 
 	/**
@@ -1457,21 +1801,25 @@ public class GamePack extends DataPack {
 	 *            自分の風に対応する数字.
 	 */
 	public void setPlayerToTheChair(List<Player> playerList, int index) {
-		callPack();
-		players = new ClientPlayer[4];
-		parentChair = (4 - index) % 4;
-		int delta = getIndexInServerFromIndexInClient(0);
-		Map<Kaze, Integer> kaze = getKaze();
-		for (int i = 0; i < 4; i++) {
-			players[i] = new ClientPlayer(playerList.get((delta + i) % 4));
-			players[i].setKaze(Kaze.valueOf((delta + i)%4));
-			kaze.put(Kaze.valueOf((delta + i) % 4), i);
+		synchronized (publishLock) {
+			players = new ClientPlayer[4];
+			parentChair = (4 - index) % 4;
+			int delta = getIndexInServerFromIndexInClient(0);
+			Map<Kaze, Integer> kaze = getKaze();
+			for (int i = 0; i < 4; i++) {
+				players[i] = new ClientPlayer(playerList.get((delta + i) % 4));
+				players[i].setKaze(Kaze.valueOf((delta + i)%4));
+				kaze.put(Kaze.valueOf((delta + i) % 4), i);
+			}
+			callPack();
 		}
 	}
 
 	public void setScore(int index, int score) {
-		callPack();
-		getOneGameData().getScoreMap().put(index, score);
+		synchronized (publishLock) {
+			getOneGameData().getScoreMap().put(index, score);
+			callPack(Region.JIHU.all());
+		}
 	}
 
 	/**
@@ -1481,22 +1829,25 @@ public class GamePack extends DataPack {
 	 *            点数の配列.東,南,西,北の順番で格納されている.
 	 */
 	public void setScoreToThePlayer(int[] score) {
-		callPack();
-		int delta = getIndexInServerFromIndexInClient(0);
-		for (int i = 0; i < 4; i++) {
-			players[i].setScore(score[delta + i]);
+		synchronized (publishLock) {
+			int delta = getIndexInServerFromIndexInClient(0);
+			for (int i = 0; i < 4; i++) {
+				players[i].setScore(score[delta + i]);
+			}
+			callPack();
 		}
 	}
 
 	public void setSekiMap(Map<Player, Integer> sekiMap) {
-		callPack();
-		for(Player p:sekiMap.keySet()){
-			players[sekiMap.get(p)] = new ClientPlayer(p);
+		synchronized (publishLock) {
+			for(Player p:sekiMap.keySet()){
+				players[sekiMap.get(p)] = new ClientPlayer(p);
+			}
+			callPack();
 		}
 	}
 
 	public void setTehai(List<Hai> tehai) {
-		callPack();
 		oneGameData.setTehai(tehai);
 	}
 
@@ -1507,43 +1858,105 @@ public class GamePack extends DataPack {
 	 *            手牌のサイズが東,南,西,北の順に格納されている.
 	 */
 	public void setTehaiSize(List<Integer> tehaiSize) {
-		callPack();
-		int delta = getIndexInServerFromIndexInClient(0);
-		for (int i = 0; i < 4; i++) {
-			players[i].setTehaiSize(tehaiSize.get(delta + i));
+		synchronized (publishLock) {
+			int delta = getIndexInServerFromIndexInClient(0);
+			for (int i = 0; i < 4; i++) {
+				players[i].setTehaiSize(tehaiSize.get(delta + i));
+			}
+			callPack();
 		}
 	}
 
 	public void setTsumiBou(int tsumibou) {
-		callPack();
 		getOneGameData().setTsumiBou(tsumibou);
 	}
 
 	public void setTsumoHai(Hai hai) {
-		callPack();
 		getOneGameData().setTsumoHai(hai);
 	}
 
 	public void setWanpaiSize(int wanpaiSize) {
-		callPack();
 		getOneGameData().setWanpaiSize(wanpaiSize);
 	}
 
 	public void setYamaSize(int yamaSize) {
-		callPack();
 		getOneGameData().setYamaSize(yamaSize);
 	}
 
 	public void startAnimation(int player, StateCode sc) {
-		oneGameData.setNakiPlayer(player);
-		animationCount = 0;
-		animeState = sc;
+		synchronized (publishLock) {
+			oneGameData.setNakiPlayer(player);
+			animationCount = 0;
+			animeState = sc;
+			callPack(Region.ANIME.bit(0));
+		}
 	}
 
 	/**
 	 * 局開始時に呼ばれるメソッド
 	 */
 	public void startGame() {
-		oneGameData = new OneGameData();
+		synchronized (publishLock) {
+			oneGameData = new OneGameData();
+			callPack(ALL_REGIONS);
+		}
+	}
+
+	/**
+	 * 卓の状態をまとめて書き換える.描画用スレッドには全て書き換えた後の状態だけを公開する
+	 * 
+	 * @param tehai
+	 * @param currentTurn
+	 * @param sutehaiMap
+	 * @param hurohaiMap
+	 * @param tehaiSizeMap
+	 * @param yamaSize
+	 * @param wanpaiSize
+	 * @param doraList
+	 */
+	public void setField(List<Hai> tehai, int currentTurn,
+			Map<Integer, List<Hai>> sutehaiMap,
+			Map<Integer, List<Mentsu>> hurohaiMap,
+			Map<Integer, Integer> tehaiSizeMap, int yamaSize, int wanpaiSize,
+			List<Hai> doraList) {
+		synchronized (publishLock) {
+			OneGameData d = oneGameData;
+			d.tehai = tehai;
+			d.currentTurn = currentTurn;
+			d.sutehaiMap = sutehaiMap;
+			d.hurohaiMap = hurohaiMap;
+			d.tehaiSizeMap = tehaiSizeMap;
+			d.yamaSize = yamaSize;
+			d.wanpaiSize = wanpaiSize;
+			d.doraList = doraList;
+			callPack(Region.TEHAI.all() | Region.SUTEHAI.all()
+					| Region.YAMA.all());
+		}
+	}
+
+	/**
+	 * リーチ宣言牌の位置を設定する
+	 * 
+	 * @param player
+	 * @param reachPos
+	 */
+	public void setReachPos(int player, int reachPos) {
+		synchronized (publishLock) {
+			oneGameData.getReachPosMap().put(player, reachPos);
+			callPack(Region.SUTEHAI.bit(player) | Region.REACH.bit(player));
+		}
+	}
+
+	/**
+	 * 選択できる牌の添字のリストを設定する
+	 * 
+	 * @param sc
+	 * @param ableIndexList
+	 */
+	public void putAbleIndexList(StateCode sc, List<List<Integer>> ableIndexList) {
+		synchronized (publishLock) {
+			oneGameData.getAbleIndexList().put(sc, ableIndexList);
+			callPack(Region.TEHAI.bit(0));
+		}
 	}
 }
@@ -7,11 +7,11 @@ import java.util.Map;
 
 import system.hai.Hai;
 import system.hai.MajanHai;
-import client.system.ImageID;
-import client.system.ImageLoader;
-import client.system.MajanHaiIDMapper;
+import client.system.HaiAtlas;
+import client.system.HaiAtlas.Variant;
 
 public class ImageData {
+	private static final HaiAtlas atlas;
 	private static final Image haiBackImage;
 	private static final Map<Hai, Image> haiImageMap;
 	private static final Image reachImage;
@@ -22,20 +22,19 @@ public class ImageData {
 
 	static{
 		instance = new ImageData();
+		// 牌の画像は1回だけ読み込み,各画像はatlasの一部を共有する
+		atlas = HaiAtlas.load();
 		haiImageMap = new HashMap<Hai, Image>();
-
-		for (Hai hai : MajanHai.values()) {
-			haiImageMap.put(hai, ImageLoader.load(MajanHaiIDMapper.getID(hai)));
-		}
 		scaledHaiImageMap = new HashMap<Hai, Image>();
 		for (Hai hai : MajanHai.values()) {
+			haiImageMap.put(hai, atlas.getImage(hai.ordinal(), Variant.NORMAL));
 			scaledHaiImageMap.put(hai,
-					ImageLoader.loadScaled(MajanHaiIDMapper.getID(hai)));
+					atlas.getImage(hai.ordinal(), Variant.SCALED));
 		}
-		haiBackImage = ImageLoader.load(ImageID.hai_back);
-		scaledHaiBackImage = ImageLoader.loadScaled(ImageID.hai_back);
-		scaledDarkHaiBackImage = ImageLoader
-				.loadScaled(ImageID.hai_darkback);
+		haiBackImage = atlas.getImage(HaiAtlas.BACK, Variant.NORMAL);
+		scaledHaiBackImage = atlas.getImage(HaiAtlas.BACK, Variant.SCALED);
+		scaledDarkHaiBackImage = atlas.getImage(HaiAtlas.DARK_BACK,
+				Variant.SCALED);
 		reachImage = Toolkit.getDefaultToolkit().createImage(
 				"image/reach.png");
 	}
@@ -47,6 +46,15 @@ public class ImageData {
 		return instance;
 	}
 
+	/**
+	 * 全ての牌の画像をまとめたものを取得する
+	 * 
+	 * @return
+	 */
+	public HaiAtlas getAtlas() {
+		return atlas;
+	}
+
 	public Image getHaiBackImage() {
 		return haiBackImage;
 	}
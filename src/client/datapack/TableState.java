@@ -0,0 +1,331 @@
+package client.datapack;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import system.hai.Hai;
+import system.hai.Kaze;
+import system.hai.Mentsu;
+import client.system.StateCode;
+
+/**
+ * 描画用スレッドに渡す卓の状態.</br>
+ * 生成した後は変更できない.GamePackはデータを書き換えるたびに新しい状態を作って公開し,
+ * 描画用スレッドは1回の描画の間,最後に公開された状態だけを読む.
+ * そのため描画の途中でデータが書き換えられても,描画の結果が書き換えの前後で混ざることはない.
+ */
+public class TableState {
+	private final List<Hai> tehai;
+	private final Map<StateCode, List<List<Integer>>> ableIndexList;
+	private final Kaze bakaze;
+	private final List<StateCode> buttonList;
+	private final int currentTurn;
+	private final List<Hai> doraList;
+	private final int finish;
+	private final int honba;
+	private final Map<Integer, List<Mentsu>> hurohaiMap;
+	private final Map<Kaze, Integer> kaze;
+	private final int kyokusu;
+	private final int nakiPlayer;
+	private final Map<Integer, Integer> reachPosMap;
+	private final Map<Integer, Integer> scoreMap;
+	private final List<Integer> selectedIndexes;
+	private final Set<StateCode> stateCodes;
+	private final Map<Integer, List<Hai>> sutehaiMap;
+	private final Map<Integer, Integer> tehaiSizeMap;
+	private final int tsumiBou;
+	private final Hai tsumoHai;
+	private final int wanpaiSize;
+	private final int yamaSize;
+
+	/**
+	 * 書き換え中のデータから状態を作る.作る際に全てのリストとマップを複製する.
+	 */
+	public static class Builder {
+		private List<Hai> tehai = Collections.emptyList();
+		private Map<StateCode, List<List<Integer>>> ableIndexList = Collections
+				.emptyMap();
+		private Kaze bakaze;
+		private List<StateCode> buttonList = Collections.emptyList();
+		private int currentTurn;
+		private List<Hai> doraList = Collections.emptyList();
+		private int finish;
+		private int honba;
+		private Map<Integer, List<Mentsu>> hurohaiMap = Collections.emptyMap();
+		private Map<Kaze, Integer> kaze = Collections.emptyMap();
+		private int kyokusu;
+		private int nakiPlayer;
+		private Map<Integer, Integer> reachPosMap = Collections.emptyMap();
+		private Map<Integer, Integer> scoreMap = Collections.emptyMap();
+		private List<Integer> selectedIndexes = Collections.emptyList();
+		private Set<StateCode> stateCodes = Collections.emptySet();
+		private Map<Integer, List<Hai>> sutehaiMap = Collections.emptyMap();
+		private Map<Integer, Integer> tehaiSizeMap = Collections.emptyMap();
+		private int tsumiBou;
+		private Hai tsumoHai;
+		private int wanpaiSize;
+		private int yamaSize;
+
+		public Builder setTehai(List<Hai> tehai) {
+			this.tehai = tehai;
+			return this;
+		}
+
+		public Builder setAbleIndexList(
+				Map<StateCode, List<List<Integer>>> ableIndexList) {
+			this.ableIndexList = ableIndexList;
+			return this;
+		}
+
+		public Builder setBakaze(Kaze bakaze) {
+			this.bakaze = bakaze;
+			return this;
+		}
+
+		public Builder setButtonList(List<StateCode> buttonList) {
+			this.buttonList = buttonList;
+			return this;
+		}
+
+		public Builder setCurrentTurn(int currentTurn) {
+			this.currentTurn = currentTurn;
+			return this;
+		}
+
+		public Builder setDoraList(List<Hai> doraList) {
+			this.doraList = doraList;
+			return this;
+		}
+
+		public Builder setFinish(int finish) {
+			this.finish = finish;
+			return this;
+		}
+
+		public Builder setHonba(int honba) {
+			this.honba = honba;
+			return this;
+		}
+
+		public Builder setHurohaiMap(Map<Integer, List<Mentsu>> hurohaiMap) {
+			this.hurohaiMap = hurohaiMap;
+			return this;
+		}
+
+		public Builder setKaze(Map<Kaze, Integer> kaze) {
+			this.kaze = kaze;
+			return this;
+		}
+
+		public Builder setKyokusu(int kyokusu) {
+			this.kyokusu = kyokusu;
+			return this;
+		}
+
+		public Builder setNakiPlayer(int nakiPlayer) {
+			this.nakiPlayer = nakiPlayer;
+			return this;
+		}
+
+		public Builder setReachPosMap(Map<Integer, Integer> reachPosMap) {
+			this.reachPosMap = reachPosMap;
+			return this;
+		}
+
+		public Builder setScoreMap(Map<Integer, Integer> scoreMap) {
+			this.scoreMap = scoreMap;
+			return this;
+		}
+
+		public Builder setSelectedIndexes(List<Integer> selectedIndexes) {
+			this.selectedIndexes = selectedIndexes;
+			return this;
+		}
+
+		public Builder setStateCodes(Set<StateCode> stateCodes) {
+			this.stateCodes = stateCodes;
+			return this;
+		}
+
+		public Builder setSutehaiMap(Map<Integer, List<Hai>> sutehaiMap) {
+			this.sutehaiMap = sutehaiMap;
+			return this;
+		}
+
+		public Builder setTehaiSizeMap(Map<Integer, Integer> tehaiSizeMap) {
+			this.tehaiSizeMap = tehaiSizeMap;
+			return this;
+		}
+
+		public Builder setTsumiBou(int tsumiBou) {
+			this.tsumiBou = tsumiBou;
+			return this;
+		}
+
+		public Builder setTsumoHai(Hai tsumoHai) {
+			this.tsumoHai = tsumoHai;
+			return this;
+		}
+
+		public Builder setWanpaiSize(int wanpaiSize) {
+			this.wanpaiSize = wanpaiSize;
+			return this;
+		}
+
+		public Builder setYamaSize(int yamaSize) {
+			this.yamaSize = yamaSize;
+			return this;
+		}
+
+		public TableState build() {
+			return new TableState(this);
+		}
+	}
+
+	private TableState(Builder b) {
+		tehai = copy(b.tehai);
+		Map<StateCode, List<List<Integer>>> tmpAbleIndexList = new HashMap<StateCode, List<List<Integer>>>();
+		for (Map.Entry<StateCode, List<List<Integer>>> e : b.ableIndexList
+				.entrySet()) {
+			List<List<Integer>> lists = null;
+			if (e.getValue() != null) {
+				lists = new ArrayList<List<Integer>>();
+				for (List<Integer> l : e.getValue())
+					lists.add(copy(l));
+				lists = Collections.unmodifiableList(lists);
+			}
+			tmpAbleIndexList.put(e.getKey(), lists);
+		}
+		ableIndexList = Collections.unmodifiableMap(tmpAbleIndexList);
+		bakaze = b.bakaze;
+		buttonList = copy(b.buttonList);
+		currentTurn = b.currentTurn;
+		doraList = copy(b.doraList);
+		finish = b.finish;
+		honba = b.honba;
+		hurohaiMap = copyMap(b.hurohaiMap);
+		kaze = Collections.unmodifiableMap(new HashMap<Kaze, Integer>(b.kaze));
+		kyokusu = b.kyokusu;
+		nakiPlayer = b.nakiPlayer;
+		reachPosMap = Collections.unmodifiableMap(new HashMap<Integer, Integer>(
+				b.reachPosMap));
+		scoreMap = Collections.unmodifiableMap(new HashMap<Integer, Integer>(
+				b.scoreMap));
+		selectedIndexes = copy(b.selectedIndexes);
+		stateCodes = Collections.unmodifiableSet(b.stateCodes.isEmpty() ? EnumSet
+				.noneOf(StateCode.class) : EnumSet.copyOf(b.stateCodes));
+		sutehaiMap = copyMap(b.sutehaiMap);
+		tehaiSizeMap = Collections.unmodifiableMap(new HashMap<Integer, Integer>(
+				b.tehaiSizeMap));
+		tsumiBou = b.tsumiBou;
+		tsumoHai = b.tsumoHai;
+		wanpaiSize = b.wanpaiSize;
+		yamaSize = b.yamaSize;
+	}
+
+	private static <E> List<E> copy(List<E> list) {
+		if (list == null)
+			return null;
+		return Collections.unmodifiableList(new ArrayList<E>(list));
+	}
+
+	private static <E> Map<Integer, List<E>> copyMap(Map<Integer, List<E>> map) {
+		Map<Integer, List<E>> result = new HashMap<Integer, List<E>>();
+		for (Map.Entry<Integer, List<E>> e : map.entrySet())
+			result.put(e.getKey(), copy(e.getValue()));
+		return Collections.unmodifiableMap(result);
+	}
+
+	public List<Hai> getTehai() {
+		return tehai;
+	}
+
+	public Map<StateCode, List<List<Integer>>> getAbleIndexList() {
+		return ableIndexList;
+	}
+
+	public Kaze getBakaze() {
+		return bakaze;
+	}
+
+	public List<StateCode> getButtonList() {
+		return buttonList;
+	}
+
+	public int getCurrentTurn() {
+		return currentTurn;
+	}
+
+	public List<Hai> getDoraList() {
+		return doraList;
+	}
+
+	public int getFinish() {
+		return finish;
+	}
+
+	public int getHonba() {
+		return honba;
+	}
+
+	public Map<Integer, List<Mentsu>> getHurohaiMap() {
+		return hurohaiMap;
+	}
+
+	public Map<Kaze, Integer> getKaze() {
+		return kaze;
+	}
+
+	public int getKyokusu() {
+		return kyokusu;
+	}
+
+	public int getNakiPlayer() {
+		return nakiPlayer;
+	}
+
+	public Map<Integer, Integer> getReachPosMap() {
+		return reachPosMap;
+	}
+
+	public Map<Integer, Integer> getScoreMap() {
+		return scoreMap;
+	}
+
+	public List<Integer> getSelectedIndexes() {
+		return selectedIndexes;
+	}
+
+	public Set<StateCode> getStateCodes() {
+		return stateCodes;
+	}
+
+	public Map<Integer, List<Hai>> getSutehaiMap() {
+		return sutehaiMap;
+	}
+
+	public Map<Integer, Integer> getTehaiSizeMap() {
+		return tehaiSizeMap;
+	}
+
+	public int getTsumiBou() {
+		return tsumiBou;
+	}
+
+	public Hai getTsumoHai() {
+		return tsumoHai;
+	}
+
+	public int getWanpaiSize() {
+		return wanpaiSize;
+	}
+
+	public int getYamaSize() {
+		return yamaSize;
+	}
+}
@@ -1,5 +1,6 @@
 package client.system;
 
+import java.awt.Rectangle;
 import java.awt.event.MouseListener;
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -7,6 +8,7 @@ import java.util.List;
 import java.util.Map;
 
 import client.datapack.CommunicatableListener;
+import client.datapack.DataPack;
 import client.datapack.DataPacks;
 import client.datapack.PackName;
 
@@ -39,17 +41,25 @@ public class BackgroundSystemOfClient implements Serializable {
 		public void run() {
 			while (isFinish) {
 				try {
-					if (datas.getVersion(mode) != frame.getVersion()) {
+					long changeCount = DataPack.getChangeCount();
+					// 描画中に書き換えられた場合は次の周回で描き直す
+					int version = datas.getVersion(mode);
+					if (version != frame.getVersion()) {
+						// 書き換えた範囲だけを画面に転送する
+						Rectangle bounds = null;
 						try{
 							datas.createImage(mode);
-							frame.setVersion(datas.getVersion(mode));
+							frame.setVersion(version);
 							frame.setImage(datas.getImage(mode));
+							bounds = datas.getUpdatedBounds(mode);
 						}catch(Exception e){
 							
 						}
+						frame.repaint(bounds);
 					}
-					frame.repaint();
 					sleep(10);
+					// 書き換えがなければ次の書き換えまで待つ
+					DataPack.awaitChange(changeCount);
 				} catch (InterruptedException e) {
 					System.out.println("interrupt");
 				} catch (NullPointerException e) {
@@ -113,6 +123,7 @@ public class BackgroundSystemOfClient implements Serializable {
 			datas.getGame().startGame();
 		this.mode = mode;
 		frame.setVersion(0);
+		DataPack.notifyChange();
 		setMouseListener();
 	}
 
@@ -275,6 +286,23 @@ public class BackgroundSystemOfClient implements Serializable {
 		datas.getGame().setDoraList(doraList);
 	}
 
+	public void setField(List<Hai> tehai, int currentTurn,
+			Map<Integer, List<Hai>> sutehaiMap,
+			Map<Integer, List<Mentsu>> hurohaiMap,
+			Map<Integer, Integer> tehaiSizeMap, int yamaSize, int wanpaiSize,
+			List<Hai> doraList) {
+		datas.getGame().setField(tehai, currentTurn, sutehaiMap, hurohaiMap,
+				tehaiSizeMap, yamaSize, wanpaiSize, doraList);
+	}
+
+	public void setReachPos(int index, int reachPos) {
+		datas.getGame().setReachPos(index, reachPos);
+	}
+
+	public void putAbleIndexList(StateCode sc, List<List<Integer>> ableIndexList) {
+		datas.getGame().putAbleIndexList(sc, ableIndexList);
+	}
+
 	public void setResult(KyokuResult result, int[] newScores, int[] oldScores,
 			List<Integer> changeScore, List<Hai> uradoraList) {
 		// TODO
@@ -115,7 +115,7 @@ public class DummyClient extends ClientOperator implements Client {
 		background.setTsumoHai(null);
 		background.addButtonList(StateCode.SELECT_CHI);
 		background.addStateCode(StateCode.SELECT_BUTTON);
-		background.getAbleIndexList().put(StateCode.SELECT_CHI_HAI, lists);
+		background.putAbleIndexList(StateCode.SELECT_CHI_HAI, lists);
 	}
 
 	
@@ -134,7 +134,7 @@ public class DummyClient extends ClientOperator implements Client {
 		background.setTsumoHai(null);
 		background.addButtonList(StateCode.SELECT_PON);
 		background.addStateCode(StateCode.SELECT_BUTTON);
-		background.getAbleIndexList().put(StateCode.SELECT_PON_HAI, lists);
+		background.putAbleIndexList(StateCode.SELECT_PON_HAI, lists);
 	}
 
 	
@@ -152,7 +152,7 @@ public class DummyClient extends ClientOperator implements Client {
 	public void onAnkanableIndexListsReceived(List<List<Integer>> lists) {
 		background.addStateCode(StateCode.SELECT_BUTTON);
 		background.addButtonList(StateCode.SELECT_ANKAN);
-		background.getAbleIndexList().put(StateCode.SELECT_ANKAN_HAI, lists);
+		background.putAbleIndexList(StateCode.SELECT_ANKAN_HAI, lists);
 	}
 
 	
@@ -173,7 +173,7 @@ public class DummyClient extends ClientOperator implements Client {
 		tmpList.add(hais);
 		background.addButtonList(StateCode.SELECT_MINKAN);
 		background.addStateCode(StateCode.SELECT_BUTTON);
-		background.getAbleIndexList().put(StateCode.SELECT_MINKAN, tmpList);
+		background.putAbleIndexList(StateCode.SELECT_MINKAN, tmpList);
 	}
 
 	
@@ -189,7 +189,7 @@ public class DummyClient extends ClientOperator implements Client {
 		tmpList.add(list);
 		background.addButtonList(StateCode.SELECT_KAKAN);
 		background.addStateCode(StateCode.SELECT_BUTTON);
-		background.getAbleIndexList().put(StateCode.SELECT_KAKAN_HAI, tmpList);
+		background.putAbleIndexList(StateCode.SELECT_KAKAN_HAI, tmpList);
 	}
 
 	
@@ -209,7 +209,7 @@ public class DummyClient extends ClientOperator implements Client {
 		}
 		background.addStateCode(StateCode.SELECT_BUTTON);
 		background.addButtonList(StateCode.SELECT_REACH);
-		background.getAbleIndexList().put(StateCode.SELECT_REACH_HAI, tmpList);
+		background.putAbleIndexList(StateCode.SELECT_REACH_HAI, tmpList);
 	}
 
 	
@@ -286,26 +286,22 @@ public class DummyClient extends ClientOperator implements Client {
 			Map<Kaze, HurohaiList> nakihai, Map<Kaze, List<Hai>> sutehai,
 			Kaze currentTurn, Hai currentSutehai, List<Integer> tehaiSize,
 			int yamaSize, int wanpaiSize, List<Hai> doraList) {
-		background.setTehai(tehai);
-		background.setCurrentTurn(background.getKaze().get(currentTurn));
+		// 新しいマップを作ってからまとめて渡す
+		Map<Integer, List<Hai>> sutehaiMap = new HashMap<Integer, List<Hai>>(4);
+		Map<Integer, List<Mentsu>> hurohaiMap = new HashMap<Integer, List<Mentsu>>(4);
+		Map<Integer, Integer> tehaiSizeMap = new HashMap<Integer, Integer>(4);
 		for (Kaze k : Kaze.values()) {
 			int i = background.getKaze().get(k);
-			synchronized (background.getSutehaiMap()) {
-				background.getSutehaiMap().put(i, sutehai.get(k));
-			}
+			List<Hai> tmpSutehai = new ArrayList<Hai>(sutehai.get(k));
 			if (k == currentTurn)
-				background.getSutehaiMap().get(i).add(currentSutehai);
-			background.getHurohaiMap().put(i, nakihai.get(k));
+				tmpSutehai.add(currentSutehai);
+			sutehaiMap.put(i, tmpSutehai);
+			hurohaiMap.put(i, nakihai.get(k));
+			tehaiSizeMap.put(i, tehaiSize.get(k.id()));
 		}
-		Map<Integer, Integer> tehaiSizeMap = background.getTehaiSizeMap();
-		tehaiSizeMap.put(background.getKaze().get(Kaze.TON), tehaiSize.get(0));
-		tehaiSizeMap.put(background.getKaze().get(Kaze.NAN), tehaiSize.get(1));
-		tehaiSizeMap.put(background.getKaze().get(Kaze.SYA), tehaiSize.get(2));
-		tehaiSizeMap.put(background.getKaze().get(Kaze.PE), tehaiSize.get(3));
-
-		background.setYamaSize(yamaSize);
-		background.setWanpaiSize(wanpaiSize);
-		background.setDoraList(doraList);
+		background.setField(tehai, background.getKaze().get(currentTurn),
+				sutehaiMap, hurohaiMap, tehaiSizeMap, yamaSize, wanpaiSize,
+				doraList);
 	}
 
 	
@@ -324,7 +320,7 @@ public class DummyClient extends ClientOperator implements Client {
 	
 	public void onReachReceived(Kaze currentTurn, int sutehaiIndex) {
 		int currentIndex = background.getKaze().get(currentTurn);
-		background.getReachPosMap().put(currentIndex, sutehaiIndex + 1);
+		background.setReachPos(currentIndex, sutehaiIndex + 1);
 	}
 
 	
@@ -0,0 +1,216 @@
+package client.system;
+
+import static client.system.Constant.HAI_HEIGHT;
+import static client.system.Constant.HAI_WIDTH;
+import static client.system.Constant.SCALED_HAI_HEIGHT;
+import static client.system.Constant.SCALED_HAI_WIDTH;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import system.hai.Hai;
+import system.hai.MajanHai;
+import util.MyLogger;
+
+/**
+ * 牌の画像を1枚にまとめたもの.</br>
+ * 起動時に全ての牌の画像を1回だけ読み込み,大きさと向きの異なる種類を画面と互換な形式の画像に並べておく.
+ * 描画ではこの画像から矩形を切り出して,拡大縮小や回転をせずに転送する.
+ */
+public class HaiAtlas {
+	/**
+	 * 牌の画像の種類.種類ごとに1行ずつ並べる.
+	 */
+	public static enum Variant {
+		/** 自分の手牌 */
+		NORMAL(HAI_WIDTH, HAI_HEIGHT, false),
+		/** 捨て牌,副露牌,相手の手牌,山 */
+		SCALED(SCALED_HAI_WIDTH, SCALED_HAI_HEIGHT, false),
+		/** 鳴いた牌とリーチ宣言牌.SCALEDを時計回りに90度回したもの */
+		SIDEWAYS(SCALED_HAI_HEIGHT, SCALED_HAI_WIDTH, true);
+
+		private final int width;
+		private final int height;
+		private final boolean sideways;
+
+		private Variant(int width, int height, boolean sideways) {
+			this.width = width;
+			this.height = height;
+			this.sideways = sideways;
+		}
+
+		public int getWidth() {
+			return width;
+		}
+
+		public int getHeight() {
+			return height;
+		}
+	}
+
+	/** 裏向きの牌の番号.表向きの牌の番号はHai.ordinal() */
+	public static final int BACK = 37;
+	/** 暗い裏向きの牌の番号 */
+	public static final int DARK_BACK = 38;
+	/** 画像の数 */
+	public static final int SIZE = 39;
+
+	private static final MyLogger logger = MyLogger.getLogger();
+
+	private final BufferedImage atlas;
+	private final int cellWidth;
+	private final int rowY[];
+
+	/**
+	 * 指定された画像から生成する.
+	 *
+	 * @param sources
+	 *            番号順に並べた画像.nullの場合はその番号を空にする.
+	 * @throws IllegalArgumentException
+	 *             画像の数がSIZEでない場合.
+	 */
+	public HaiAtlas(Image sources[]) {
+		if (sources.length != SIZE)
+			throw new IllegalArgumentException("画像の数が" + SIZE + "でない : "
+					+ sources.length);
+		int width = 0;
+		int height = 0;
+		rowY = new int[Variant.values().length];
+		for (Variant v : Variant.values()) {
+			width = Math.max(width, v.width);
+			rowY[v.ordinal()] = height;
+			height += v.height;
+		}
+		cellWidth = width;
+		atlas = createCompatibleImage(cellWidth * SIZE, height);
+
+		Graphics2D g2 = atlas.createGraphics();
+		g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+				RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+		g2.setRenderingHint(RenderingHints.KEY_RENDERING,
+				RenderingHints.VALUE_RENDER_QUALITY);
+		for (Variant v : Variant.values()) {
+			for (int i = 0; i < SIZE; i++) {
+				if (sources[i] == null)
+					continue;
+				int x = cellWidth * i;
+				int y = rowY[v.ordinal()];
+				if (v.sideways) {
+					// 右上を原点にして時計回りに回す
+					Graphics2D rotated = (Graphics2D) g2.create();
+					rotated.translate(x + v.width, y);
+					rotated.rotate(Math.PI / 2.0);
+					rotated.drawImage(sources[i], 0, 0, v.height, v.width,
+							null);
+					rotated.dispose();
+				} else {
+					g2.drawImage(sources[i], x, y, v.width, v.height, null);
+				}
+			}
+		}
+		g2.dispose();
+	}
+
+	/**
+	 * resの画像を読み込んで生成する.読み込めない画像は空にする.
+	 *
+	 * @return
+	 */
+	public static HaiAtlas load() {
+		Image sources[] = new Image[SIZE];
+		for (Hai hai : MajanHai.values()) {
+			sources[hai.ordinal()] = read(MajanHaiIDMapper.getID(hai));
+		}
+		sources[BACK] = read(ImageID.hai_back);
+		sources[DARK_BACK] = read(ImageID.hai_darkback);
+		return new HaiAtlas(sources);
+	}
+
+	private static Image read(int id) {
+		try {
+			return ImageLoader.read(id);
+		} catch (IOException e) {
+			logger.warning("画像を読み込めない : " + id);
+			return null;
+		}
+	}
+
+	// 画面と同じ形式にしておくと転送の際に変換しなくてよい
+	private static BufferedImage createCompatibleImage(int width, int height) {
+		if (GraphicsEnvironment.isHeadless())
+			return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		return GraphicsEnvironment.getLocalGraphicsEnvironment()
+				.getDefaultScreenDevice().getDefaultConfiguration()
+				.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+	}
+
+	/**
+	 * 牌を描く.
+	 *
+	 * @param g
+	 * @param hai
+	 * @param variant
+	 * @param x
+	 *            左上の位置
+	 * @param y
+	 */
+	public void draw(Graphics g, Hai hai, Variant variant, int x, int y) {
+		draw(g, hai.ordinal(), variant, x, y);
+	}
+
+	/**
+	 * 指定された番号の画像を描く.
+	 *
+	 * @param g
+	 * @param index
+	 *            Hai.ordinal(),BACK,DARK_BACKのいずれか
+	 * @param variant
+	 * @param x
+	 *            左上の位置
+	 * @param y
+	 * @throws IllegalArgumentException
+	 *             番号が範囲外の場合.
+	 */
+	public void draw(Graphics g, int index, Variant variant, int x, int y) {
+		checkIndex(index);
+		int sx = cellWidth * index;
+		int sy = rowY[variant.ordinal()];
+		g.drawImage(atlas, x, y, x + variant.width, y + variant.height, sx,
+				sy, sx + variant.width, sy + variant.height, null);
+	}
+
+	/**
+	 * 指定された番号の画像を返す.返す画像はまとめた画像と領域を共有する.
+	 *
+	 * @param index
+	 * @param variant
+	 * @return
+	 * @throws IllegalArgumentException
+	 *             番号が範囲外の場合.
+	 */
+	public BufferedImage getImage(int index, Variant variant) {
+		checkIndex(index);
+		return atlas.getSubimage(cellWidth * index, rowY[variant.ordinal()],
+				variant.width, variant.height);
+	}
+
+	/**
+	 * まとめた画像を返す.
+	 *
+	 * @return
+	 */
+	public BufferedImage getAtlas() {
+		return atlas;
+	}
+
+	private static void checkIndex(int index) {
+		if (index < 0 || index >= SIZE)
+			throw new IllegalArgumentException("画像の番号が範囲外 : " + index);
+	}
+}
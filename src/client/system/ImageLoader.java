@@ -5,9 +5,13 @@ import static client.system.Constant.SCALED_HAI_WIDTH;
 
 import java.awt.Image;
 import java.awt.Toolkit;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
+import javax.imageio.ImageIO;
 import javax.swing.ImageIcon;
 
 public class ImageLoader {
@@ -67,5 +71,21 @@ public class ImageLoader {
 	public static Image loadScaled(int id){
 		return load(id).getScaledInstance(SCALED_HAI_WIDTH, SCALED_HAI_HEIGHT, Image.SCALE_DEFAULT);
 	}
+
+	/**
+	 * 画像を読み込み終わるまで待って返す
+	 * 
+	 * @param id
+	 * @return
+	 * @throws IOException
+	 *             読み込めない場合
+	 */
+	public static BufferedImage read(int id) throws IOException {
+		File file = new File("res/" + IMAGE_MAP.get(id) + ".gif");
+		BufferedImage image = ImageIO.read(file);
+		if (image == null)
+			throw new IOException("対応していない形式 : " + file);
+		return image;
+	}
 	
 }
@@ -3,6 +3,7 @@ package client.system;
 import java.awt.Canvas;
 import java.awt.Graphics;
 import java.awt.Image;
+import java.awt.Rectangle;
 
 public class MahjongCanvas extends Canvas {
 	private int version;
@@ -23,11 +24,66 @@ public class MahjongCanvas extends Canvas {
 	public void setImage(Image image){
 		this.image = image;
 	}
+
+	/**
+	 * imageの指定された範囲を書き換えたので,その範囲に当たる部分だけを描き直す
+	 * 
+	 * @param bounds
+	 *            imageの座標での範囲.nullの場合は全体
+	 */
+	public void repaintImage(Rectangle bounds) {
+		if (bounds == null || image == null) {
+			repaint();
+			return;
+		}
+		if (bounds.isEmpty())
+			return;
+		int imageWidth = image.getWidth(null);
+		int imageHeight = image.getHeight(null);
+		if (imageWidth <= 0 || imageHeight <= 0) {
+			repaint();
+			return;
+		}
+		// 端の画素が欠けないように外側へ丸める
+		int x1 = (int) Math.floor((double) bounds.x * getWidth() / imageWidth);
+		int y1 = (int) Math.floor((double) bounds.y * getHeight() / imageHeight);
+		int x2 = (int) Math.ceil((double) (bounds.x + bounds.width) * getWidth() / imageWidth);
+		int y2 = (int) Math.ceil((double) (bounds.y + bounds.height) * getHeight() / imageHeight);
+		repaint(x1, y1, x2 - x1, y2 - y1);
+	}
+	
+	/**
+	 * paintでimageを隙間なく描くので背景の塗りつぶしを省く
+	 */
+	public void update(Graphics g){
+		paint(g);
+	}
 	
+	/**
+	 * imageのうちクリップ範囲に当たる部分だけを転送する.imageが全体を覆うので背景は塗りつぶさない
+	 */
 	public void paint(Graphics g){
-		super.paint(g);
-		g.clearRect(0, 0, getWidth(), getHeight());
-		g.drawImage(image,0,0,getWidth(),getHeight(),this);
+		if (image == null) {
+			super.paint(g);
+			return;
+		}
+		int imageWidth = image.getWidth(null);
+		int imageHeight = image.getHeight(null);
+		Rectangle clip = g.getClipBounds();
+		if (clip == null || imageWidth <= 0 || imageHeight <= 0) {
+			g.drawImage(image, 0, 0, getWidth(), getHeight(), this);
+			return;
+		}
+		int sx1 = (int) Math.floor((double) clip.x * imageWidth / getWidth());
+		int sy1 = (int) Math.floor((double) clip.y * imageHeight / getHeight());
+		int sx2 = (int) Math.ceil((double) (clip.x + clip.width) * imageWidth / getWidth());
+		int sy2 = (int) Math.ceil((double) (clip.y + clip.height) * imageHeight / getHeight());
+		// 丸めた転送元に合わせて転送先も求め直す
+		int dx1 = sx1 * getWidth() / imageWidth;
+		int dy1 = sy1 * getHeight() / imageHeight;
+		int dx2 = sx2 * getWidth() / imageWidth;
+		int dy2 = sy2 * getHeight() / imageHeight;
+		g.drawImage(image, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, this);
 	}
 	
 }
@@ -2,6 +2,7 @@ package client.system;
 
 import java.awt.Graphics;
 import java.awt.Image;
+import java.awt.Rectangle;
 import java.awt.event.MouseListener;
 import java.awt.BorderLayout;
 import java.awt.Component;
@@ -83,6 +84,14 @@ public class MahjongFrame extends JFrame {
 //		super.repaint();
 		canvas.repaint();
 	}
+
+	/**
+	 * canvasのimageの指定された範囲に当たる部分だけを描き直す
+	 * @param bounds imageの座標での範囲.nullの場合は全体
+	 */
+	public void repaint(Rectangle bounds) {
+		canvas.repaintImage(bounds);
+	}
 	
 	public void setVersion(int version){
 		canvas.setVersion(version);
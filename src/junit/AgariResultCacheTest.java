@@ -0,0 +1,163 @@
+package junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static system.hai.MajanHai.AKA_GO_MAN;
+import static system.hai.MajanHai.GO_MAN;
+import static system.hai.MajanHai.ITI_MAN;
+import static system.hai.MajanHai.NI_MAN;
+import static system.hai.MajanHai.ROKU_MAN;
+import static system.hai.MajanHai.SAN_MAN;
+import static system.hai.MajanHai.YO_MAN;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+
+import system.Field;
+import system.Rule;
+import system.agari.AgariParam;
+import system.agari.AgariResult;
+import system.agari.AgariResultCache;
+import system.hai.Hai;
+import system.hai.HaiType;
+import system.hai.HurohaiList;
+import system.hai.Kaze;
+import system.hai.TehaiList;
+import system.yaku.NormalYaku;
+import system.yaku.Yaku;
+
+public class AgariResultCacheTest {
+	// 1,1,1,2,2,2,3,3,3,4,5,6,6
+	private static final List<Hai> HAI_LIST = Arrays.<Hai> asList(ITI_MAN, ITI_MAN, ITI_MAN, NI_MAN, NI_MAN, NI_MAN,
+			SAN_MAN, SAN_MAN, SAN_MAN, YO_MAN, GO_MAN, ROKU_MAN, ROKU_MAN);
+
+	private static AgariResult build(AgariResultCache cache, List<Hai> haiList, Hai agariHai, boolean tsumo,
+			List<HaiType> odora, Yaku... flags) {
+		AgariResult.Builder builder = new AgariResult.Builder();
+		builder.setAgariParam(new AgariParam(tsumo, false, agariHai, Kaze.NAN,
+				new HashSet<Yaku>(Arrays.asList(flags))));
+		builder.setField(new Field(new Rule(), Kaze.TON));
+		builder.setHojuKaze(Kaze.SYA);
+		builder.setHurohaiList(new HurohaiList());
+		builder.setOpenDoraList(odora);
+		builder.setTehaiList(new TehaiList(haiList));
+		builder.setUraDoraList(new ArrayList<HaiType>());
+		builder.setCache(cache);
+		return builder.build();
+	}
+
+	private static List<HaiType> dora(HaiType... types) {
+		return new ArrayList<HaiType>(Arrays.asList(types));
+	}
+
+	@Test
+	public void testHit() {
+		AgariResultCache cache = new AgariResultCache(16);
+		AgariResult ar = build(cache, HAI_LIST, SAN_MAN, true, dora(HaiType.ITI_MAN));
+		assertEquals(0, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+
+		// 手牌とドラの順序は結果に影響しない
+		List<Hai> reversed = new ArrayList<Hai>(HAI_LIST);
+		Collections.reverse(reversed);
+		assertSame(ar, build(cache, reversed, SAN_MAN, true, dora(HaiType.ITI_MAN)));
+		assertSame(ar, build(cache, HAI_LIST, SAN_MAN, true, dora(HaiType.ITI_MAN)));
+		assertEquals(2, cache.getHitCount());
+		assertEquals(2.0 / 3, cache.getHitRate(), 1e-9);
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testMiss() {
+		AgariResultCache cache = new AgariResultCache(16);
+		AgariResult ar = build(cache, HAI_LIST, SAN_MAN, true, dora(HaiType.ITI_MAN));
+		assertNotSame(ar, build(cache, HAI_LIST, SAN_MAN, false, dora(HaiType.ITI_MAN)));
+		assertNotSame(ar, build(cache, HAI_LIST, SAN_MAN, true, dora(HaiType.NI_MAN)));
+		assertNotSame(ar, build(cache, HAI_LIST, SAN_MAN, true, dora(HaiType.ITI_MAN), NormalYaku.RICHI));
+		assertNotSame(ar, build(cache, HAI_LIST, ROKU_MAN, true, dora(HaiType.ITI_MAN)));
+
+		// 赤ドラは別の牌として扱う
+		List<Hai> aka = new ArrayList<Hai>(HAI_LIST);
+		aka.set(10, AKA_GO_MAN);
+		AgariResult akaResult = build(cache, aka, SAN_MAN, true, dora(HaiType.ITI_MAN));
+		assertNotSame(ar, akaResult);
+		assertEquals(ar.getDoraSize() + 1, akaResult.getDoraSize());
+		assertEquals(0, cache.getHitCount());
+		assertEquals(6, cache.size());
+	}
+
+	@Test
+	public void testSameAsUncached() {
+		AgariResultCache cache = new AgariResultCache(16);
+		for (Hai agariHai : new Hai[] { SAN_MAN, ROKU_MAN }) {
+			for (boolean tsumo : new boolean[] { true, false }) {
+				for (int i = 0; i < 2; i++) {
+					AgariResult expected = build(null, HAI_LIST, agariHai, tsumo, dora(HaiType.TON), NormalYaku.RICHI);
+					AgariResult actual = build(cache, HAI_LIST, agariHai, tsumo, dora(HaiType.TON), NormalYaku.RICHI);
+					assertEquals(expected.toString(), actual.toString());
+				}
+			}
+		}
+		assertEquals(4, cache.getHitCount());
+	}
+
+	@Test
+	public void testCapacity() {
+		AgariResultCache cache = new AgariResultCache(1);
+		AgariResult ar = build(cache, HAI_LIST, SAN_MAN, true, dora());
+		build(cache, HAI_LIST, ROKU_MAN, true, dora());
+		assertEquals(1, cache.size());
+		assertNotSame(ar, build(cache, HAI_LIST, SAN_MAN, true, dora()));
+		assertEquals(0, cache.getHitCount());
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getMissCount());
+		assertEquals(0, cache.getHitRate(), 0);
+	}
+
+	@Test
+	public void testSegments() {
+		// 上限が大きい場合は区画に分かれるが,上限に達するまでは全ての結果を保持する
+		AgariResultCache cache = new AgariResultCache(AgariResultCache.DEFAULT_CAPACITY);
+		HaiType doras[] = HaiType.values();
+		List<AgariResult> results = new ArrayList<AgariResult>();
+		for (HaiType dora : doras) {
+			results.add(build(cache, HAI_LIST, SAN_MAN, true, dora(dora)));
+		}
+		assertEquals(doras.length, cache.size());
+		for (int i = 0; i < doras.length; i++) {
+			assertSame(results.get(i), build(cache, HAI_LIST, SAN_MAN, true, dora(doras[i])));
+		}
+		assertEquals(doras.length, cache.getHitCount());
+	}
+
+	@Test
+	public void testNoCacheByDefault() {
+		AgariResult.Builder builder = new AgariResult.Builder();
+		builder.setAgariParam(new AgariParam(true, false, SAN_MAN, Kaze.NAN, new HashSet<Yaku>()));
+		builder.setField(new Field(new Rule(), Kaze.TON));
+		builder.setHurohaiList(new HurohaiList());
+		builder.setTehaiList(new TehaiList(HAI_LIST));
+		AgariResult ar = builder.build();
+		assertNotSame(ar, builder.build());
+		assertEquals(0, AgariResultCache.getDefault().size());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testImmutable() {
+		AgariResult ar = build(new AgariResultCache(16), HAI_LIST, SAN_MAN, true, dora());
+		ar.getYakuSet().add(NormalYaku.TANNYAO);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testZeroCapacity() {
+		new AgariResultCache(0);
+	}
+}
@@ -0,0 +1,60 @@
+package junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import simulator.AIFactory;
+import simulator.BatchSimulator;
+import simulator.SimulationStats;
+import system.Rule;
+
+public class BatchSimulatorTest {
+
+	@Test
+	public void testSameResultForSameSeed() {
+		SimulationStats stats1 = run(1, 7, 16);
+		SimulationStats stats4 = run(4, 7, 16);
+		assertEquals(stats1.toString(), stats4.toString());
+		assertEquals(16, stats1.getGameSize() + stats1.getUnfinishedGameSize());
+
+		// 順位は各席で1ゲームに1回ずつ数えられ、1ゲームに各順位が1人ずついる
+		for (int seki = 0; seki < 4; seki++) {
+			long sum = 0;
+			for (int rank = 1; rank <= 4; rank++) {
+				sum += stats1.getRankSize(seki, rank);
+			}
+			assertEquals(stats1.getGameSize(), sum);
+		}
+		double sum = 0;
+		for (int seki = 0; seki < 4; seki++) {
+			sum += stats1.getAverageRank(seki);
+			assertTrue(stats1.getAgariRate(seki) >= 0);
+		}
+		assertEquals(10.0, sum, 1e-9);
+	}
+
+	@Test
+	public void testPlay() {
+		BatchSimulator batch = new BatchSimulator(new Rule(), AIFactory.AI_TYPE01);
+		SimulationStats s1 = batch.play(3, 5);
+		SimulationStats s2 = batch.play(3, 5);
+		assertEquals(1, s1.getGameSize() + s1.getUnfinishedGameSize());
+		assertEquals(s1.toString(), s2.toString());
+
+		// run()の最初のゲームと同じゲームになる
+		assertEquals(run(1, 3, 1).toString(), batch.play(3, 0).toString());
+	}
+
+	private static SimulationStats run(int parallelism, long seed, int gameSize) {
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			return new BatchSimulator(new Rule(), AIFactory.AI_TYPE01, pool).run(seed, gameSize);
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
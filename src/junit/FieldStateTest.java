@@ -0,0 +1,170 @@
+package junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static system.hai.MajanHai.AKA_GO_PIN;
+import static system.hai.MajanHai.GO_PIN;
+import static system.hai.MajanHai.HAKU;
+import static system.hai.MajanHai.ITI_MAN;
+import static system.hai.MajanHai.NAN;
+import static system.hai.MajanHai.NI_MAN;
+import static system.hai.MajanHai.SAN_MAN;
+import static system.hai.MajanHai.TON;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import server.net.FieldState;
+import server.net.MessageReader;
+import server.net.MessageType;
+import server.net.MessageWriter;
+import system.hai.Hai;
+import system.hai.HurohaiList;
+import system.hai.Kaze;
+import system.hai.Mentsu;
+
+public class FieldStateTest {
+	private FieldState server;
+	private FieldState client;
+
+	private List<Hai> tehai;
+	private Map<Kaze, HurohaiList> nakihai;
+	private Map<Kaze, List<Hai>> sutehai;
+	private List<Integer> tehaiSize;
+	private List<Hai> doraList;
+
+	public FieldStateTest() {
+		server = new FieldState();
+		client = new FieldState();
+		tehai = new ArrayList<Hai>(Arrays.<Hai> asList(ITI_MAN, NI_MAN, SAN_MAN, GO_PIN, AKA_GO_PIN, HAKU, HAKU));
+		nakihai = new EnumMap<Kaze, HurohaiList>(Kaze.class);
+		sutehai = new EnumMap<Kaze, List<Hai>>(Kaze.class);
+		for (Kaze kaze : Kaze.values()) {
+			nakihai.put(kaze, new HurohaiList());
+			sutehai.put(kaze, new ArrayList<Hai>());
+		}
+		tehaiSize = new ArrayList<Integer>(Arrays.asList(7, 13, 13, 13));
+		doraList = new ArrayList<Hai>(Arrays.<Hai> asList(TON));
+	}
+
+	private MessageWriter delta(Kaze currentTurn, Hai currentSutehai, int yamaSize) {
+		MessageWriter writer = new MessageWriter(MessageType.FIELD_DELTA);
+		server.writeDelta(writer, tehai, nakihai, sutehai, currentTurn, currentSutehai, tehaiSize, yamaSize, 14,
+				doraList);
+		return writer;
+	}
+
+	private static MessageReader read(MessageWriter writer) {
+		return new MessageReader(MessageReader.nextMessage(writer.toFrame()));
+	}
+
+	private void assertSameState() {
+		assertEquals(server.getSequence(), client.getSequence());
+		assertEquals(server.getTehai(), client.getTehai());
+		for (Kaze kaze : Kaze.values()) {
+			assertEquals(server.getNakihai(kaze), client.getNakihai(kaze));
+			assertEquals(server.getSutehai(kaze), client.getSutehai(kaze));
+			assertEquals(server.getTehaiSize(kaze), client.getTehaiSize(kaze));
+		}
+		assertEquals(server.getCurrentTurn(), client.getCurrentTurn());
+		assertEquals(server.getCurrentSutehai(), client.getCurrentSutehai());
+		assertEquals(server.getYamaSize(), client.getYamaSize());
+		assertEquals(server.getWanpaiSize(), client.getWanpaiSize());
+		assertEquals(server.getDoraList(), client.getDoraList());
+	}
+
+	@Test
+	public void testDelta() {
+		assertTrue(client.read(read(delta(Kaze.TON, null, 70))));
+		assertSameState();
+		assertEquals(1, client.getSequence());
+		assertEquals(tehai, client.getTehai());
+		assertTrue(client.getTehai().get(4).aka());
+
+		// 打牌は捨て牌の末尾と手牌の一部だけが変わる
+		tehai.remove(0);
+		sutehai.get(Kaze.TON).add(ITI_MAN);
+		tehaiSize.set(0, 6);
+		MessageWriter writer = delta(Kaze.TON, ITI_MAN, 69);
+		MessageWriter full = new MessageWriter(MessageType.FIELD);
+		server.writeFull(full);
+		assertTrue(writer.toFrame().remaining() < full.toFrame().remaining());
+		assertTrue(client.read(read(writer)));
+		assertSameState();
+		assertEquals(Arrays.<Hai> asList(ITI_MAN), client.getSutehai(Kaze.TON));
+		assertEquals(ITI_MAN, client.getCurrentSutehai());
+		assertEquals(69, client.getYamaSize());
+		assertEquals(6, client.getTehaiSize(Kaze.TON));
+
+		// 何も変わっていなくても通番は進む
+		MessageReader reader = read(delta(Kaze.TON, ITI_MAN, 69));
+		reader.readVarint();
+		assertEquals(0, reader.readVarint());
+		assertFalse(reader.hasRemaining());
+	}
+
+	@Test
+	public void testNaki() {
+		client.read(read(delta(Kaze.TON, null, 70)));
+		sutehai.get(Kaze.TON).add(GO_PIN);
+		client.read(read(delta(Kaze.TON, GO_PIN, 69)));
+
+		// 鳴かれた牌は捨て牌から除かれる
+		Mentsu pon = new Mentsu(GO_PIN, Kaze.TON, GO_PIN, AKA_GO_PIN);
+		sutehai.get(Kaze.TON).remove(0);
+		nakihai.get(Kaze.NAN).add(pon);
+		assertTrue(client.read(read(delta(Kaze.NAN, null, 69))));
+		assertSameState();
+		assertEquals(Arrays.asList(pon), client.getNakihai(Kaze.NAN));
+		assertEquals(Collections.emptyList(), client.getSutehai(Kaze.TON));
+		assertNull(client.getCurrentSutehai());
+
+		Mentsu kakan = pon.doKakan(GO_PIN);
+		nakihai.get(Kaze.NAN).set(0, kakan);
+		doraList.add(NAN);
+		assertTrue(client.read(read(delta(Kaze.NAN, null, 68))));
+		assertSameState();
+		assertTrue(client.getNakihai(Kaze.NAN).get(0).isKakan());
+		assertEquals(Arrays.<Hai> asList(TON, NAN), client.getDoraList());
+	}
+
+	@Test
+	public void testResync() {
+		client.read(read(delta(Kaze.TON, null, 70)));
+		sutehai.get(Kaze.TON).add(ITI_MAN);
+		delta(Kaze.TON, ITI_MAN, 69);
+
+		// 差分を取りこぼすと以降の差分は適用できない
+		sutehai.get(Kaze.TON).add(HAKU);
+		assertFalse(client.read(read(delta(Kaze.NAN, HAKU, 68))));
+		assertEquals(1, client.getSequence());
+
+		MessageWriter writer = new MessageWriter(MessageType.FIELD);
+		server.writeFull(writer);
+		assertTrue(client.read(read(writer)));
+		assertSameState();
+		assertEquals(3, client.getSequence());
+
+		sutehai.get(Kaze.NAN).add(TON);
+		assertTrue(client.read(read(delta(Kaze.NAN, TON, 67))));
+		assertSameState();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testBrokenDelta() {
+		MessageWriter writer = new MessageWriter(MessageType.FIELD_DELTA);
+		writer.writeVarint(1);
+		writer.writeVarint(1);
+		writer.writeVarint(3);
+		writer.writeHaiList(Collections.<Hai> emptyList());
+		client.read(read(writer));
+	}
+}
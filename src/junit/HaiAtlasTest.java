@@ -0,0 +1,106 @@
+package junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+
+import org.junit.Test;
+
+import system.hai.MajanHai;
+import client.system.HaiAtlas;
+import client.system.HaiAtlas.Variant;
+
+public class HaiAtlasTest {
+	private static final int RED = Color.RED.getRGB();
+	private static final int BLUE = Color.BLUE.getRGB();
+
+	private final Image sources[] = new Image[HaiAtlas.SIZE];
+	private final HaiAtlas atlas;
+
+	// 上半分が赤,下半分が青の画像を並べ,番号5だけ空にする
+	public HaiAtlasTest() {
+		for (int i = 0; i < HaiAtlas.SIZE; i++) {
+			if (i == 5)
+				continue;
+			BufferedImage image = new BufferedImage(20, 30,
+					BufferedImage.TYPE_INT_ARGB);
+			Graphics2D g = image.createGraphics();
+			g.setColor(Color.RED);
+			g.fillRect(0, 0, 20, 15);
+			g.setColor(Color.BLUE);
+			g.fillRect(0, 15, 20, 15);
+			g.dispose();
+			sources[i] = image;
+		}
+		atlas = new HaiAtlas(sources);
+	}
+
+	@Test
+	public void testUpright() {
+		for (Variant v : new Variant[] { Variant.NORMAL, Variant.SCALED }) {
+			BufferedImage image = atlas.getImage(HaiAtlas.BACK, v);
+			assertEquals(v.getWidth(), image.getWidth());
+			assertEquals(v.getHeight(), image.getHeight());
+			assertEquals(RED, image.getRGB(v.getWidth() / 2, v.getHeight() / 4));
+			assertEquals(BLUE,
+					image.getRGB(v.getWidth() / 2, v.getHeight() * 3 / 4));
+		}
+	}
+
+	@Test
+	public void testSideways() {
+		// 時計回りに回すので上が右になる
+		BufferedImage image = atlas.getImage(MajanHai.TON.ordinal(),
+				Variant.SIDEWAYS);
+		assertEquals(Variant.SCALED.getHeight(), image.getWidth());
+		assertEquals(Variant.SCALED.getWidth(), image.getHeight());
+		int y = image.getHeight() / 2;
+		assertEquals(RED, image.getRGB(image.getWidth() * 3 / 4, y));
+		assertEquals(BLUE, image.getRGB(image.getWidth() / 4, y));
+	}
+
+	@Test
+	public void testDraw() {
+		BufferedImage target = new BufferedImage(100, 100,
+				BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = target.createGraphics();
+		atlas.draw(g, MajanHai.ITI_MAN, Variant.NORMAL, 10, 20);
+		g.dispose();
+		assertEquals(RED, target.getRGB(10, 20));
+		assertEquals(BLUE, target.getRGB(10 + Variant.NORMAL.getWidth() - 1,
+				20 + Variant.NORMAL.getHeight() - 1));
+		// 隣の画像や他の種類の行をはみ出して描かない
+		assertEquals(0, target.getRGB(10 + Variant.NORMAL.getWidth(), 20));
+		assertEquals(0, target.getRGB(10, 20 + Variant.NORMAL.getHeight()));
+	}
+
+	@Test
+	public void testEmpty() {
+		BufferedImage image = atlas.getImage(5, Variant.SCALED);
+		assertEquals(0, image.getRGB(image.getWidth() / 2,
+				image.getHeight() / 2) >>> 24);
+	}
+
+	@Test
+	public void testIllegal() {
+		try {
+			new HaiAtlas(new Image[HaiAtlas.SIZE - 1]);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			atlas.getImage(HaiAtlas.SIZE, Variant.NORMAL);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			atlas.draw(null, -1, Variant.NORMAL, 0, 0);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}
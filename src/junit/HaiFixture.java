@@ -0,0 +1,23 @@
+package junit;
+
+/**
+ * 牌を使うテストで共通の,牌種の番号から手牌を表す値を作るクラス.
+ */
+final class HaiFixture {
+	private HaiFixture() {
+	}
+
+	/**
+	 * 牌種の番号を並べた手牌から,牌種ごとの枚数の配列を作る.
+	 *
+	 * @param ids 手牌の牌種の番号.
+	 * @return 牌種の番号を添字とする枚数の配列.
+	 */
+	static int[] toSizeArray(int... ids) {
+		int n[] = new int[37];
+		for (int id : ids) {
+			n[id]++;
+		}
+		return n;
+	}
+}
@@ -0,0 +1,79 @@
+package junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import system.Kyoku;
+import system.hai.Hai;
+import system.hai.HaiType;
+import system.hai.Kaze;
+import system.hai.TehaiList;
+
+public class HaiyamaTest {
+
+	@Test
+	public void testShuffle() {
+		Kyoku kyoku = KyokuFixture.newKyoku(1);
+		kyoku.init();
+		List<Hai> haiyama = kyoku.getHaiyamaList();
+		assertEquals(Kyoku.HAIYAMA_SIZE, haiyama.size());
+		int n[] = new int[37];
+		for (Hai hai : haiyama) {
+			n[hai.type().id()]++;
+		}
+		for (HaiType type : HaiType.values()) {
+			assertEquals(4, n[type.id()]);
+		}
+		assertEquals(Kyoku.HAIYAMA_SIZE - 14 - 52, kyoku.sizeOfYamahai());
+		assertEquals(14, kyoku.getWanpaiList().size());
+
+		// 同じ種からは同じ牌山ができる
+		Kyoku kyoku2 = KyokuFixture.newKyoku(1);
+		kyoku2.init();
+		assertEquals(haiyama, kyoku2.getHaiyamaList());
+
+		kyoku2.init();
+		assertFalse(haiyama.equals(kyoku2.getHaiyamaList()));
+	}
+
+	@Test
+	public void testInitWithHaiyama() {
+		Kyoku source = KyokuFixture.newKyoku(2);
+		source.init();
+		List<Hai> haiyama = source.getHaiyamaList();
+		Collections.reverse(haiyama);
+
+		Kyoku kyoku = KyokuFixture.newKyoku(3);
+		kyoku.init(haiyama);
+		assertEquals(haiyama, kyoku.getHaiyamaList());
+
+		// 東家から順に13枚ずつ配られ、続きからツモる
+		Kaze kazes[] = Kaze.values();
+		for (int i = 0; i < 4; i++) {
+			TehaiList tehai = kyoku.getTehaiList(kazes[i]);
+			List<Hai> expected = new ArrayList<Hai>(haiyama.subList(i * 13, i * 13 + 13));
+			assertEquals(13, tehai.size());
+			assertTrue(new ArrayList<Hai>(tehai).containsAll(expected));
+		}
+		assertEquals(haiyama.subList(52, 122), kyoku.getYamahaiList());
+		assertEquals(haiyama.subList(122, 136), kyoku.getWanpaiList());
+
+		kyoku.doTsumo();
+		assertEquals(haiyama.get(52), kyoku.getCurrentTsumoHai());
+		assertEquals(69, kyoku.sizeOfYamahai());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInitWithIllegalHaiyama() {
+		Kyoku source = KyokuFixture.newKyoku(4);
+		source.init();
+		KyokuFixture.newKyoku(4).init(source.getHaiyamaList().subList(0, 135));
+	}
+}
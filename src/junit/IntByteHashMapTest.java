@@ -0,0 +1,50 @@
+package junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import system.algo.IntByteHashMap;
+
+public class IntByteHashMapTest {
+
+	@Test
+	public void testPutAndGet() {
+		IntByteHashMap map = new IntByteHashMap(4);
+		map.put(3414, (byte) 1);
+		map.put(111, (byte) 0x2b);
+		map.put(22, (byte) 0xc3);
+		assertEquals(1, map.get(3414));
+		assertEquals(0x2b, map.get(111));
+		// 最上位ビットの立った値も0から255で返る
+		assertEquals(0xc3, map.get(22));
+		assertEquals(IntByteHashMap.NO_VALUE, map.get(3));
+		assertEquals(IntByteHashMap.NO_VALUE, map.get(0));
+		assertEquals(3, map.size());
+
+		map.put(111, (byte) 3);
+		assertEquals(3, map.get(111));
+		assertEquals(3, map.size());
+	}
+
+	@Test
+	public void testRehash() {
+		IntByteHashMap map = new IntByteHashMap(0);
+		for (int i = 1; i <= 1000; i++) {
+			map.put(i * 7, (byte) i);
+		}
+		assertEquals(1000, map.size());
+		for (int i = 1; i <= 1000; i++) {
+			assertTrue(map.containsKey(i * 7));
+			assertEquals(i & 0xff, map.get(i * 7));
+		}
+		assertFalse(map.containsKey(1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testPutZeroKey() {
+		new IntByteHashMap(1).put(0, (byte) 1);
+	}
+}
@@ -0,0 +1,66 @@
+package junit;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import simulator.AIFactory;
+import system.Kyoku;
+import system.Player;
+import system.Rule;
+import system.hai.Kaze;
+import ai.AI;
+
+/**
+ * 局を使うテストで共通の,4人のプレイヤーと種を指定した局を作るクラス.
+ */
+final class KyokuFixture {
+	private KyokuFixture() {
+	}
+
+	/**
+	 * 東から順にp0～p3のプレイヤーを座らせた局を作る.
+	 *
+	 * @param seed 牌山を積む乱数の種.
+	 * @return 作った局.
+	 */
+	static Kyoku newKyoku(long seed) {
+		return new Kyoku(new Rule(), newPlayerMap(), Kaze.TON, new Random(seed));
+	}
+
+	/**
+	 * 全員をAIType01で打たせる局を作る.
+	 *
+	 * @param seed 牌山を積む乱数の種.
+	 * @param aiMap 各プレイヤーのAIを入れるマップ.
+	 * @return 作った局.
+	 */
+	static Kyoku newKyoku(long seed, Map<Kaze, AI> aiMap) {
+		return newKyoku(seed, aiMap, AIFactory.AI_TYPE01);
+	}
+
+	/**
+	 * 全員を指定されたファクトリのAIで打たせる局を作る.
+	 *
+	 * @param seed 牌山を積む乱数の種.
+	 * @param aiMap 各プレイヤーのAIを入れるマップ.
+	 * @param factory AIを生成するファクトリ.
+	 * @return 作った局.
+	 */
+	static Kyoku newKyoku(long seed, Map<Kaze, AI> aiMap, AIFactory factory) {
+		Map<Kaze, Player> map = newPlayerMap();
+		for (Map.Entry<Kaze, Player> entry : map.entrySet()) {
+			aiMap.put(entry.getKey(), factory.create(entry.getValue()));
+		}
+		return new Kyoku(new Rule(), map, Kaze.TON, new Random(seed));
+	}
+
+	private static Map<Kaze, Player> newPlayerMap() {
+		Map<Kaze, Player> map = new HashMap<Kaze, Player>();
+		Kaze kazes[] = Kaze.values();
+		for (int i = 0; i < 4; i++) {
+			map.put(kazes[i], new Player(i, "p" + i, false));
+		}
+		return map;
+	}
+}
@@ -0,0 +1,88 @@
+package junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import system.agari.AgariMethods;
+import system.algo.MachiMethod;
+import system.hai.Hai;
+import system.hai.HaiType;
+import system.hai.MajanHai;
+import system.hai.TehaiList;
+
+public class MachiMethodTest {
+
+	private static TehaiList toTehaiList(int... ids) {
+		TehaiList list = new TehaiList();
+		for (int id : ids) {
+			list.add(MajanHai.valueOf(HaiType.valueOf(id), false));
+		}
+		return list;
+	}
+
+	private static long toMask(int... ids) {
+		long mask = 0;
+		for (int id : ids) {
+			mask |= 1L << id;
+		}
+		return mask;
+	}
+
+	private static long getMachiMask(TehaiList list, boolean naki) {
+		return MachiMethod.getMachiMask(list.toSizeArray(), list.size(), naki);
+	}
+
+	@Test
+	public void testNobetan() {
+		// 2,3,4,5 は 2,5 待ち
+		TehaiList list = toTehaiList(2, 3, 4, 5);
+		assertEquals(toMask(2, 5), getMachiMask(list, true));
+	}
+
+	@Test
+	public void testTyurenPoto() {
+		// 1,1,1,2,3,4,5,6,7,8,9,9,9 は九面待ち
+		TehaiList list = toTehaiList(1, 1, 1, 2, 3, 4, 5, 6, 7, 8, 9, 9, 9);
+		assertEquals(toMask(1, 2, 3, 4, 5, 6, 7, 8, 9), getMachiMask(list, false));
+	}
+
+	@Test
+	public void testChitoi() {
+		TehaiList list = toTehaiList(1, 1, 5, 5, 12, 12, 18, 18, 22, 22, 30, 30, 36);
+		assertEquals(toMask(36), getMachiMask(list, false));
+		// 鳴いている場合は七対子にならない
+		assertEquals(0, getMachiMask(new TehaiList(list.subList(0, 10)), true));
+	}
+
+	@Test
+	public void testKokusi() {
+		TehaiList list = toTehaiList(1, 9, 11, 19, 21, 29, 30, 31, 32, 33, 34, 35, 36);
+		assertEquals(toMask(1, 9, 11, 19, 21, 29, 30, 31, 32, 33, 34, 35, 36), getMachiMask(list, false));
+
+		list = toTehaiList(1, 1, 11, 19, 21, 29, 30, 31, 32, 33, 34, 35, 36);
+		assertEquals(toMask(9), getMachiMask(list, false));
+	}
+
+	@Test
+	public void testSameAsKeisikiAgari() {
+		List<TehaiList> lists = Arrays.asList(toTehaiList(1, 2, 3, 4, 5, 6, 7, 8, 9, 30, 30, 31, 31), toTehaiList(2, 2, 3, 3, 4, 4, 15, 16, 17, 23, 24, 36, 36),
+				toTehaiList(1, 1, 1, 3, 3, 3, 5, 5, 5, 7, 7, 7, 9), toTehaiList(11, 12, 13, 14, 15, 16, 17, 18, 19, 19, 19, 30, 32));
+		for (TehaiList list : lists) {
+			long expected = 0;
+			for (HaiType type : HaiType.values()) {
+				Hai hai = MajanHai.valueOf(type, false);
+				if (AgariMethods.isKeisikiAgari(list, false, hai)) {
+					expected |= 1L << type.id();
+				}
+			}
+			assertEquals(expected, getMachiMask(list, false));
+			assertEquals(expected != 0, AgariMethods.isTenpai(list, false));
+		}
+		assertTrue(AgariMethods.isTenpai(lists.get(0), false));
+	}
+}
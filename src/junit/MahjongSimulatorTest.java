@@ -0,0 +1,43 @@
+package junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import simulator.AIFactory;
+import simulator.MahjongSimulator;
+import system.Mahjong;
+import system.Player;
+import system.Rule;
+
+public class MahjongSimulatorTest {
+
+	@Test
+	public void testRun() {
+		List<Player> players = MahjongSimulator.newAIPlayers();
+		for (int i = 0; i < 10; i++) {
+			MahjongSimulator simulator = new MahjongSimulator(players, new Rule(), AIFactory.AI_TYPE01);
+			Mahjong mahjong = simulator.run();
+			assertTrue(simulator.getKyokuSize() > 0);
+			assertTrue(simulator.getKyokuSize() <= MahjongSimulator.MAX_KYOKU_SIZE);
+
+			// 終了したゲームではリーチ棒も含めて点数の合計は変わらない
+			if (mahjong.isEnd()) {
+				int sum = 0;
+				for (int score : mahjong.getScores()) {
+					sum += score;
+				}
+				assertEquals(100000, sum);
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testThreePlayers() {
+		List<Player> players = MahjongSimulator.newAIPlayers().subList(0, 3);
+		new MahjongSimulator(players, new Rule(), AIFactory.AI_TYPE01);
+	}
+}
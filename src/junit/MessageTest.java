@@ -0,0 +1,164 @@
+package junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static system.hai.MajanHai.AKA_GO_PIN;
+import static system.hai.MajanHai.GO_PIN;
+import static system.hai.MajanHai.HAKU;
+import static system.hai.MajanHai.ITI_MAN;
+import static system.hai.MajanHai.NI_MAN;
+import static system.hai.MajanHai.SAN_MAN;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import server.net.MessageReader;
+import server.net.MessageType;
+import server.net.MessageWriter;
+import system.hai.Hai;
+import system.hai.Kaze;
+import system.hai.Mentsu;
+
+public class MessageTest {
+
+	private static MessageReader read(MessageWriter writer) {
+		ByteBuffer frame = writer.toFrame();
+		ByteBuffer payload = MessageReader.nextMessage(frame);
+		assertFalse(frame.hasRemaining());
+		return new MessageReader(payload);
+	}
+
+	@Test
+	public void testPrimitive() {
+		int values[] = { 0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE };
+		int signedValues[] = { 0, -1, 1, -64, 64, 25000, -25000, Integer.MIN_VALUE, Integer.MAX_VALUE };
+		MessageWriter writer = new MessageWriter(MessageType.FIELD);
+		for (int v : values) {
+			writer.writeVarint(v);
+		}
+		for (int v : signedValues) {
+			writer.writeSignedVarint(v);
+		}
+		writer.writeBoolean(true);
+		writer.writeString("東家");
+
+		MessageReader reader = read(writer);
+		assertEquals(MessageType.FIELD, reader.getType());
+		for (int v : values) {
+			assertEquals(v, reader.readVarint());
+		}
+		for (int v : signedValues) {
+			assertEquals(v, reader.readSignedVarint());
+		}
+		assertTrue(reader.readBoolean());
+		assertEquals("東家", reader.readString());
+		assertFalse(reader.hasRemaining());
+	}
+
+	@Test
+	public void testHai() {
+		List<Hai> list = Arrays.asList(ITI_MAN, AKA_GO_PIN, GO_PIN, HAKU);
+		MessageWriter writer = new MessageWriter(MessageType.TSUMO_HAI);
+		writer.writeHai(AKA_GO_PIN);
+		writer.writeHai(null);
+		writer.writeKaze(Kaze.PE);
+		writer.writeKaze(null);
+		writer.writeHaiList(list);
+
+		MessageReader reader = read(writer);
+		Hai hai = reader.readHai();
+		assertEquals(AKA_GO_PIN, hai);
+		assertTrue(hai.aka());
+		assertNull(reader.readHai());
+		assertEquals(Kaze.PE, reader.readKaze());
+		assertNull(reader.readKaze());
+		assertEquals(list, reader.readHaiList());
+	}
+
+	@Test
+	public void testIndexList() {
+		List<List<Integer>> lists = Arrays.asList(Arrays.asList(0, 1), Arrays.asList(5, 13));
+		MessageWriter writer = new MessageWriter(MessageType.CHIABLE_INDEX_LISTS);
+		writer.writeIndexList(null);
+		writer.writeIndexList(Collections.<Integer> emptyList());
+		writer.writeIndexLists(lists);
+		writer.writeIntArray(new int[] { 25000, -3000, 0, 38000 });
+
+		MessageReader reader = read(writer);
+		assertNull(reader.readIndexList());
+		assertEquals(Collections.emptyList(), reader.readIndexList());
+		assertEquals(lists, reader.readIndexLists());
+		assertEquals(Arrays.toString(new int[] { 25000, -3000, 0, 38000 }), Arrays.toString(reader.readIntArray()));
+	}
+
+	@Test
+	public void testMentsu() {
+		Mentsu syuntu = new Mentsu(ITI_MAN, NI_MAN, SAN_MAN);
+		Mentsu pon = new Mentsu(GO_PIN, Kaze.SYA, GO_PIN, AKA_GO_PIN);
+		Mentsu kakan = pon.doKakan(GO_PIN);
+		Mentsu ankan = new Mentsu(HAKU, HAKU, HAKU, HAKU);
+		MessageWriter writer = new MessageWriter(MessageType.NAKI);
+		writer.writeMentsu(syuntu);
+		writer.writeMentsu(pon);
+		writer.writeMentsu(kakan);
+		writer.writeMentsu(ankan);
+
+		MessageReader reader = read(writer);
+		assertEquals(syuntu, reader.readMentsu());
+		Mentsu m = reader.readMentsu();
+		assertEquals(pon, m);
+		assertEquals(Kaze.SYA, m.getKaze());
+		m = reader.readMentsu();
+		assertEquals(Mentsu.Type.KANTU, m.type());
+		assertTrue(m.isKakan());
+		assertEquals(Kaze.SYA, m.getKaze());
+		assertEquals(ankan, reader.readMentsu());
+	}
+
+	@Test
+	public void testNextMessage() {
+		MessageWriter first = new MessageWriter(MessageType.DISCARD_INDEX);
+		first.writeSignedVarint(-1);
+		MessageWriter second = new MessageWriter(MessageType.NEXT_KYOKU);
+		ByteBuffer frame0 = first.toFrame();
+		ByteBuffer frame1 = second.toFrame();
+		ByteBuffer in = ByteBuffer.allocate(16);
+		in.put(frame0);
+		in.put(frame1.get());
+
+		// 2つ目のメッセージはまだ届いていない
+		in.flip();
+		MessageReader reader = new MessageReader(MessageReader.nextMessage(in));
+		assertEquals(MessageType.DISCARD_INDEX, reader.getType());
+		assertEquals(-1, reader.readSignedVarint());
+		int position = in.position();
+		assertNull(MessageReader.nextMessage(in));
+		assertEquals(position, in.position());
+
+		in.compact();
+		in.put(frame1);
+		in.flip();
+		assertEquals(MessageType.NEXT_KYOKU, new MessageReader(MessageReader.nextMessage(in)).getType());
+		assertFalse(in.hasRemaining());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testTooLarge() {
+		ByteBuffer in = ByteBuffer.wrap(new byte[] { (byte) 0x81, (byte) 0x80, 0x04 });
+		MessageReader.nextMessage(in);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testTruncated() {
+		MessageWriter writer = new MessageWriter(MessageType.CHI_INDEX_LIST);
+		writer.writeVarint(3);
+		writer.writeVarint(1);
+		read(writer).readIndexList();
+	}
+}
@@ -0,0 +1,63 @@
+package junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.junit.Test;
+
+import util.MyLogger;
+import util.MyLogger.Category;
+import util.MyLogger.Level;
+
+public class MyLoggerTest {
+	private final MyLogger logger;
+	private final ByteArrayOutputStream out;
+	private int createdSize;
+
+	public MyLoggerTest() {
+		logger = new MyLogger();
+		out = new ByteArrayOutputStream();
+		logger.setPrintStream(new PrintStream(out, true));
+	}
+
+	private MyLogger.Message message(final String msg) {
+		return new MyLogger.Message() {
+			@Override
+			public String get() {
+				createdSize++;
+				return msg;
+			}
+		};
+	}
+
+	@Test
+	public void testTraceIsOffByDefault() {
+		logger.trace(Category.AGARI, "刻子");
+		logger.trace(Category.SERVER, message("dispatch"));
+		assertEquals(0, out.size());
+		assertEquals(0, createdSize);
+		assertFalse(logger.isEnabled(Category.AGARI, Level.TRACE));
+		assertTrue(logger.isEnabled(Category.AGARI, Level.DEBUG));
+	}
+
+	@Test
+	public void testCategoryLevel() {
+		logger.setLevel(Category.SERVER, Level.TRACE);
+		logger.trace(Category.SERVER, message("dispatch"));
+		logger.trace(Category.AGARI, message("刻子"));
+		assertEquals(1, createdSize);
+		assertTrue(out.toString().startsWith("SERVER dispatch : testCategoryLevel "));
+
+		// 分類のレベルを消すと全体のレベルに従う
+		logger.setLevel(Category.SERVER, null);
+		logger.setLevel(Level.TRACE);
+		assertTrue(logger.isEnabled(Category.AGARI, Level.TRACE));
+		logger.setLevel(Category.AGARI, Level.WARNING);
+		logger.debug(Category.AGARI, message("IPEKO"));
+		assertEquals(1, createdSize);
+	}
+}
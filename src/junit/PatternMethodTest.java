@@ -289,4 +289,19 @@ public class PatternMethodTest {
 			assertTrue(AgariMethods.isTenpai(list9, false));
 		}
 	}
+
+	@Test
+	public void testKeyBuffer() {
+		int keys[] = new int[PatternMethod.KEY_BUFFER_SIZE];
+		for (TehaiList list : new TehaiList[] { list1, list2, list3, list4, list5, list6, list7, list8, noList1 }) {
+			int n[] = list.toSizeArray();
+			Integer expected[] = PatternMethod.calcKey(n);
+			int length = PatternMethod.calcKey(n, keys);
+			assertEquals(expected.length, length);
+			for (int i = 0; i < length; i++) {
+				assertEquals(expected[i].intValue(), keys[i]);
+			}
+			assertEquals(PatternMethod.isNMentsu1Janto(expected), PatternMethod.isNMentsu1Janto(n, keys));
+		}
+	}
 }
@@ -0,0 +1,84 @@
+package junit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import simulator.AIFactory;
+import simulator.MahjongSimulator;
+import system.Mahjong;
+import system.Rule;
+import system.record.RecordAction;
+import system.record.RecordArchive;
+import system.record.RecordArchiveWriter;
+import system.record.RecordReader;
+import system.record.RecordReplayer;
+
+public class RecordArchiveTest {
+
+	@Test
+	public void testReplay() throws IOException {
+		Path path = Files.createTempFile("record", ".mjra");
+		try {
+			List<int[]> scores = new ArrayList<int[]>();
+			RecordArchiveWriter writer = new RecordArchiveWriter(path);
+			try {
+				for (int i = 0; i < 4; i++) {
+					MahjongSimulator simulator = new MahjongSimulator(MahjongSimulator.newAIPlayers(), new Rule(), AIFactory.AI_TYPE01, new Random(i));
+					simulator.addKyokuListener(writer.newGame());
+					scores.add(simulator.run().getScores().clone());
+				}
+			} finally {
+				writer.close();
+			}
+
+			// 区間を小さくして複数のマップに分かれるようにする
+			RecordArchive archive = new RecordArchive(path, 4096);
+			try {
+				assertEquals(4, archive.getGameSize());
+				for (int i = 3; i >= 0; i--) {
+					Mahjong mahjong = RecordReplayer.replay(archive.getGame(i), MahjongSimulator.newAIPlayers(), new Rule());
+					assertArrayEquals(scores.get(i), mahjong.getScores());
+				}
+				RecordReader reader = archive.getGame(2);
+				assertEquals(RecordAction.DEAL, reader.next());
+			} finally {
+				archive.close();
+			}
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	public void testEmpty() throws IOException {
+		Path path = Files.createTempFile("record", ".mjra");
+		try {
+			new RecordArchiveWriter(path).close();
+			RecordArchive archive = new RecordArchive(path);
+			assertEquals(0, archive.getGameSize());
+			archive.close();
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testIllegalFile() throws IOException {
+		Path path = Files.createTempFile("record", ".mjra");
+		try {
+			Files.write(path, new byte[] { 'M', 'J', 'R', 'A', 1, 0, 0, 0, 0, 0, 0, 0, 0 });
+			new RecordArchive(path).close();
+		} finally {
+			Files.delete(path);
+		}
+	}
+}
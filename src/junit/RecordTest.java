@@ -0,0 +1,136 @@
+package junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import simulator.AIFactory;
+import simulator.KyokuSimulator;
+import system.Kyoku;
+import system.Player;
+import system.hai.Hai;
+import system.hai.Kaze;
+import system.hai.MajanHai;
+import system.record.RecordAction;
+import system.record.RecordReader;
+import system.record.RecordWriter;
+import ai.AI;
+import ai.AIType01;
+
+public class RecordTest {
+
+	/**
+	 * 鳴き,槓,リーチの記録を確かめるため,できる限り鳴いて槓してリーチするAI.
+	 */
+	private static class NakiAI extends AIType01 {
+		private NakiAI(Player p) {
+			super(p);
+		}
+
+		@Override
+		public int kakan(List<Integer> list) {
+			return 0;
+		}
+
+		@Override
+		public int reach(List<Integer> list) {
+			return 0;
+		}
+
+		@Override
+		public int pon(List<List<Integer>> list) {
+			return 0;
+		}
+
+		@Override
+		public int chi(List<List<Integer>> list) {
+			return 0;
+		}
+
+		@Override
+		public boolean minkan() {
+			return true;
+		}
+	}
+
+	private static final AIFactory NAKI_FACTORY = new AIFactory() {
+		@Override
+		public AI create(Player p) {
+			return new NakiAI(p);
+		}
+	};
+
+	private static Kyoku newKyoku(long seed, Map<Kaze, AI> aiMap) {
+		return KyokuFixture.newKyoku(seed, aiMap, seed % 2 == 0 ? AIFactory.AI_TYPE01 : NAKI_FACTORY);
+	}
+
+	@Test
+	public void testReplay() {
+		for (long seed = 0; seed < 40; seed++) {
+			Map<Kaze, AI> aiMap = new HashMap<Kaze, AI>();
+			Kyoku kyoku = newKyoku(seed, aiMap);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			RecordWriter writer = new RecordWriter(out);
+			kyoku.addKyokuListener(writer);
+			kyoku.init();
+			new KyokuSimulator(kyoku, aiMap).run();
+			writer.close();
+
+			RecordReader reader = new RecordReader(ByteBuffer.wrap(out.toByteArray()));
+			assertEquals(RecordAction.DEAL, reader.next());
+			assertEquals(kyoku.getHaiyamaList(), reader.getHaiyamaList());
+			RecordAction last = null;
+			while (reader.next() != null) {
+				last = reader.getAction();
+			}
+			assertTrue(last == RecordAction.TSUMO_AGARI || last == RecordAction.RON || last == RecordAction.RYUKYOKU
+					|| last == RecordAction.TOTYU_RYUKYOKU);
+			assertNull(reader.getAction());
+
+			// 読み終えた状態が局の状態と一致する
+			for (Kaze kaze : Kaze.values()) {
+				int n[] = new int[37];
+				for (Hai hai : kyoku.getTehaiList(kaze)) {
+					n[hai.ordinal()]++;
+				}
+				if (kaze == kyoku.getCurrentTurn() && kyoku.getCurrentTsumoHai() != null) {
+					n[kyoku.getCurrentTsumoHai().ordinal()]++;
+				}
+				for (int i = 0; i < 37; i++) {
+					assertEquals(n[i], reader.countOf(kaze, MajanHai.valueOf(i)));
+				}
+				assertEquals(kyoku.isReach(kaze), reader.isReach(kaze));
+			}
+			assertEquals(kyoku.getOpenDoraList(), reader.getOpenDoraList());
+			assertEquals(kyoku.sizeOfYamahai(), reader.sizeOfYamahai());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testIllegalHeader() {
+		new RecordReader(ByteBuffer.wrap(new byte[] { 'M', 'J', 'R', 'X', 1 }));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testTruncated() {
+		Map<Kaze, AI> aiMap = new HashMap<Kaze, AI>();
+		Kyoku kyoku = newKyoku(0, aiMap);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		RecordWriter writer = new RecordWriter(out);
+		kyoku.addKyokuListener(writer);
+		kyoku.init();
+		writer.close();
+
+		byte b[] = out.toByteArray();
+		RecordReader reader = new RecordReader(ByteBuffer.wrap(b, 0, b.length - 1));
+		reader.next();
+	}
+}
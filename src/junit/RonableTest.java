@@ -0,0 +1,146 @@
+package junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import simulator.KyokuSimulator;
+import system.Field;
+import system.Kyoku;
+import system.KyokuAdapter;
+import system.agari.AgariMethods;
+import system.hai.Hai;
+import system.hai.Kaze;
+import ai.AI;
+
+public class RonableTest {
+
+	/**
+	 * 打牌と加槓のたびに,getRonableKazeList()が1人ずつAgariMethods.isAgari()で判定した結果と一致するか確かめるリスナー.
+	 * フリテンは待ち牌と捨牌のリストを比べ,見逃しをこのリスナーで記録して判定する.
+	 */
+	private static class RonChecker extends KyokuAdapter {
+		private Kyoku kyoku;
+		private Field field;
+		private int checkSize;
+		private int ronableSize;
+		private int furitenSize;
+
+		/** 前回ロンできた人.局が続いている場合はロンを見逃している */
+		private List<Kaze> lastRonable = new ArrayList<Kaze>();
+		/** 同順内に見逃した人 */
+		private Set<Kaze> tatyaFuriten = EnumSet.noneOf(Kaze.class);
+		/** リーチ後に見逃した人 */
+		private Set<Kaze> reachFuriten = EnumSet.noneOf(Kaze.class);
+
+		// 前回ロンできた人を見逃した人として記録する
+		private void flush() {
+			for (Kaze k : lastRonable) {
+				tatyaFuriten.add(k);
+				if (kyoku.isReach(k))
+					reachFuriten.add(k);
+			}
+			lastRonable = new ArrayList<Kaze>();
+		}
+
+		private void check() {
+			flush();
+
+			List<Kaze> expected = new ArrayList<Kaze>();
+			Kaze kaze = kyoku.getCurrentTurn().simo();
+			for (int i = 0; i < 3; i++, kaze = kaze.simo()) {
+				if (AgariMethods.isAgari(kyoku.getTehaiList(kaze), kyoku.getHurohaiList(kaze), kyoku.getCurrentSutehai(),
+						kyoku.newYakuFlagSet(kaze, false), false, kyoku.isNaki(kaze), kaze, field)) {
+					if (isFuriten(kaze))
+						furitenSize++;
+					else
+						expected.add(kaze);
+				}
+			}
+			List<Kaze> actual = kyoku.getRonableKazeList();
+			assertEquals(expected, actual);
+			for (Kaze k : Kaze.values()) {
+				assertEquals(actual.contains(k), kyoku.isRonable(k));
+			}
+			lastRonable = actual;
+			checkSize++;
+			ronableSize += actual.size();
+		}
+
+		private boolean isFuriten(Kaze kaze) {
+			if (tatyaFuriten.contains(kaze) || reachFuriten.contains(kaze))
+				return true;
+			List<Hai> machi = AgariMethods.getMachiHaiList(kyoku.getTehaiList(kaze), kyoku.isNaki(kaze));
+			return AgariMethods.isFuriten(machi, kyoku.getSutehaiList(kaze));
+		}
+
+		// 自分の番が来たら同順内の見逃しは解消する
+		private void onTurn(Kaze kaze) {
+			flush();
+			tatyaFuriten.remove(kaze);
+		}
+
+		@Override
+		public void onInit(Kyoku kyoku) {
+			this.kyoku = kyoku;
+			this.field = new Field(kyoku.getRule(), kyoku.getBakaze());
+			this.lastRonable = new ArrayList<Kaze>();
+			this.tatyaFuriten.clear();
+			this.reachFuriten.clear();
+		}
+
+		@Override
+		public void onDiscard(Kaze kaze, Hai hai, boolean tsumogiri) {
+			check();
+		}
+
+		@Override
+		public void onKakan(Kaze kaze, Hai hai) {
+			check();
+		}
+
+		@Override
+		public void onTsumo(Kaze kaze, Hai hai, boolean rinsyan) {
+			if (!rinsyan)
+				onTurn(kaze);
+		}
+
+		@Override
+		public void onPon(Kaze kaze, Hai hai0, Hai hai1) {
+			onTurn(kaze);
+		}
+
+		@Override
+		public void onChi(Kaze kaze, Hai hai0, Hai hai1) {
+			onTurn(kaze);
+		}
+
+		@Override
+		public void onMinkan(Kaze kaze) {
+			onTurn(kaze);
+		}
+	}
+
+	@Test
+	public void testRonableKazeList() {
+		RonChecker checker = new RonChecker();
+		for (long seed = 0; seed < 200; seed++) {
+			Map<Kaze, AI> aiMap = new HashMap<Kaze, AI>();
+			Kyoku kyoku = KyokuFixture.newKyoku(seed, aiMap);
+			kyoku.addKyokuListener(checker);
+			kyoku.init();
+			new KyokuSimulator(kyoku, aiMap).run();
+		}
+		assertTrue(checker.checkSize > 0);
+		assertTrue(checker.ronableSize > 0);
+		assertTrue(checker.furitenSize > 0);
+	}
+}
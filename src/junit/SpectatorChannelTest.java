@@ -0,0 +1,161 @@
+package junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import server.net.FieldState;
+import server.net.MessageReader;
+import server.net.MessageType;
+import server.net.Spectator;
+import server.net.SpectatorChannel;
+import simulator.KyokuSimulator;
+import system.Kyoku;
+import system.hai.Kaze;
+import ai.AI;
+
+public class SpectatorChannelTest {
+
+	/**
+	 * 受け取ったメッセージを場の情報に適用する観戦者.acceptがfalseの間は受け取りを拒む.
+	 */
+	private static class TestSpectator implements Spectator {
+		private final FieldState state = new FieldState();
+		private final List<MessageType> typeList = new ArrayList<MessageType>();
+		private volatile boolean accept = true;
+		private int rejectedSize;
+
+		@Override
+		public boolean offer(ByteBuffer frame) {
+			if (!accept) {
+				rejectedSize++;
+				return false;
+			}
+			MessageReader reader = new MessageReader(MessageReader.nextMessage(frame));
+			typeList.add(reader.getType());
+			if (reader.getType() == MessageType.FIELD || reader.getType() == MessageType.FIELD_DELTA)
+				assertTrue(state.read(reader));
+			return true;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+	}
+
+	private static void assertSameField(Kyoku kyoku, FieldState state) {
+		assertTrue(state.getTehai().isEmpty());
+		for (Kaze kaze : Kaze.values()) {
+			assertEquals(kyoku.getSutehaiList(kaze).toNakiExcludedHaiList(), state.getSutehai(kaze));
+			assertEquals(kyoku.getHurohaiList(kaze).size(), state.getNakihai(kaze).size());
+			assertEquals(kyoku.getTehaiList(kaze).size(), state.getTehaiSize(kaze));
+		}
+		assertEquals(kyoku.getOpenDoraList(), state.getDoraList());
+		assertEquals(kyoku.sizeOfYamahai(), state.getYamaSize());
+	}
+
+	@Test
+	public void testBroadcast() throws InterruptedException {
+		for (long seed = 0; seed < 10; seed++) {
+			ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+			SpectatorChannel channel = new SpectatorChannel(executor, 0);
+			TestSpectator fast = new TestSpectator();
+			TestSpectator slow = new TestSpectator();
+			assertTrue(channel.subscribe(fast));
+			assertTrue(channel.subscribe(slow));
+			assertEquals(2, channel.getSpectatorSize());
+
+			Map<Kaze, AI> aiMap = new HashMap<Kaze, AI>();
+			Kyoku kyoku = KyokuFixture.newKyoku(seed, aiMap);
+			kyoku.addKyokuListener(channel);
+			channel.notifyStartKyoku(Kaze.TON, 1, 0, 0);
+			kyoku.init();
+			KyokuSimulator simulator = new KyokuSimulator(kyoku, aiMap);
+
+			// 受け取りを拒ませたまま局を進め,配信のスレッドで局の配信を終えた後から受け取らせる
+			slow.accept = false;
+			simulator.run();
+			executor.submit(new Runnable() {
+				@Override
+				public void run() {
+					slow.accept = true;
+				}
+			});
+			channel.close();
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+			// 手牌は伏せたまま,場の情報は局と一致する
+			assertSameField(kyoku, fast.state);
+			assertFalse(fast.typeList.contains(MessageType.TSUMO_HAI));
+			assertEquals(MessageType.GAME_OVER, fast.typeList.get(fast.typeList.size() - 1));
+			assertTrue(fast.typeList.contains(MessageType.AGARI) || fast.typeList.contains(MessageType.RYUKYOKU));
+
+			// 受け取りを拒んだ間の差分は送られず,再開後に全体を受け取って追いつく
+			assertTrue(slow.rejectedSize > 0);
+			assertTrue(slow.typeList.size() < fast.typeList.size());
+			assertTrue(slow.typeList.contains(MessageType.FIELD));
+			assertEquals(fast.state.getSequence(), slow.state.getSequence());
+			assertSameField(kyoku, slow.state);
+			assertEquals(MessageType.GAME_OVER, slow.typeList.get(slow.typeList.size() - 1));
+
+			assertEquals(0, channel.getSpectatorSize());
+			assertFalse(channel.subscribe(fast));
+		}
+	}
+
+	@Test
+	public void testResync() throws Exception {
+		ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+		try {
+			final SpectatorChannel channel = new SpectatorChannel(executor, 0);
+			final TestSpectator spectator = new TestSpectator();
+			assertTrue(channel.subscribe(spectator));
+
+			Map<Kaze, AI> aiMap = new HashMap<Kaze, AI>();
+			Kyoku kyoku = KyokuFixture.newKyoku(0, aiMap);
+			kyoku.addKyokuListener(channel);
+			channel.notifyStartKyoku(Kaze.TON, 1, 0, 0);
+			kyoku.init();
+			new KyokuSimulator(kyoku, aiMap).run();
+
+			// 配信し終えてから全体を送り直させると,配信済みの場の情報がそのまま届く
+			boolean resynced = executor.submit(new Callable<Boolean>() {
+				@Override
+				public Boolean call() {
+					return channel.resync(spectator);
+				}
+			}).get();
+			assertTrue(resynced);
+			assertEquals(MessageType.FIELD, spectator.typeList.get(spectator.typeList.size() - 1));
+			assertSameField(kyoku, spectator.state);
+
+			assertFalse(channel.resync(new TestSpectator()));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeDelay() {
+		ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+		try {
+			new SpectatorChannel(executor, -1);
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
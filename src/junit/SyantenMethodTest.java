@@ -0,0 +1,54 @@
+package junit;
+
+import static junit.HaiFixture.toSizeArray;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import system.agari.AgariMethods;
+import system.algo.SyantenMethod;
+import system.hai.HaiType;
+import system.hai.MajanHai;
+import system.hai.TehaiList;
+
+public class SyantenMethodTest {
+
+	@Test
+	public void testNormalSyanten() {
+		// 1,2,3,4,5,6,7,8,9萬 東東 南南 : テンパイ
+		assertEquals(0, SyantenMethod.calcNormalSyanten(toSizeArray(1, 2, 3, 4, 5, 6, 7, 8, 9, 30, 30, 31, 31), 13));
+		// 東を加えるとあがり
+		assertEquals(-1, SyantenMethod.calcNormalSyanten(toSizeArray(1, 2, 3, 4, 5, 6, 7, 8, 9, 30, 30, 30, 31, 31), 14));
+		// 1,4,7萬 2,5,8筒 3,6,9索 東南西北 : 8向聴
+		assertEquals(8, SyantenMethod.calcNormalSyanten(toSizeArray(1, 4, 7, 12, 15, 18, 23, 26, 29, 30, 31, 32, 33), 13));
+		// 嵌張も塔子として数える 1,3萬 5,7筒 2,4索 東東 南南南 白 中 : 1面子1雀頭3塔子で2向聴
+		assertEquals(2, SyantenMethod.calcNormalSyanten(toSizeArray(1, 3, 15, 17, 22, 24, 30, 30, 31, 31, 31, 34, 36), 13));
+		// 鳴いて手牌が4枚の場合は1面子1雀頭を目指す
+		assertEquals(0, SyantenMethod.calcNormalSyanten(toSizeArray(2, 3, 4, 36), 4));
+	}
+
+	@Test
+	public void testChitoiSyanten() {
+		assertEquals(0, SyantenMethod.calcChitoiSyanten(toSizeArray(1, 1, 5, 5, 12, 12, 18, 18, 22, 22, 30, 30, 36)));
+		// 4枚使いは1対子として数え、種類が足りない分も向聴数に加える
+		assertEquals(2, SyantenMethod.calcChitoiSyanten(toSizeArray(1, 1, 1, 1, 12, 12, 18, 18, 22, 22, 30, 30, 36)));
+		assertEquals(0, SyantenMethod.calcSyanten(toSizeArray(1, 1, 5, 5, 12, 12, 18, 18, 22, 22, 30, 30, 36), 13, false));
+	}
+
+	@Test
+	public void testKokusiSyanten() {
+		assertEquals(0, SyantenMethod.calcKokusiSyanten(toSizeArray(1, 9, 11, 19, 21, 29, 30, 31, 32, 33, 34, 35, 36)));
+		assertEquals(-1, SyantenMethod.calcKokusiSyanten(toSizeArray(1, 9, 11, 19, 21, 29, 30, 31, 32, 33, 34, 35, 36, 36)));
+		assertEquals(2, SyantenMethod.calcKokusiSyanten(toSizeArray(1, 9, 11, 19, 21, 29, 30, 31, 32, 33, 34, 2, 3)));
+	}
+
+	@Test
+	public void testGetSyanten() {
+		TehaiList list = new TehaiList();
+		for (int id : new int[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 30, 30, 31, 31 }) {
+			list.add(MajanHai.valueOf(HaiType.valueOf(id), false));
+		}
+		assertEquals(0, AgariMethods.getSyanten(list, false));
+		assertEquals(AgariMethods.isTenpai(list, false), AgariMethods.getSyanten(list, false) == 0);
+	}
+}
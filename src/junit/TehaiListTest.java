@@ -13,7 +13,9 @@ import static system.hai.MajanHai.TON;
 import static system.hai.MajanHai.YO_MAN;
 
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 import org.junit.Test;
@@ -221,4 +223,88 @@ public class TehaiListTest {
 		}
 	}
 
+	@Test
+	public void testToSizeArrayAfterModification() {
+		//2,3,3,3,4,5,6,東,東,東,東,南,南
+		TehaiList tlist = getSampleTehaiList();
+		assertTrue(Arrays.equals(tlist.toSizeArray(), TehaiList.toSizeArray(Arrays.asList(tlist.toArray(new Hai[0])))));
+
+		tlist.swap(0, NAN);
+		tlist.remove(SAN_MAN);
+		tlist.set(0, MajanHai.ITI_MAN);
+		tlist.add(3, GO_MAN);
+		tlist.remove(HaiType.TON);
+		tlist.subList(0, 2).clear();
+		for (Iterator<Hai> itr = tlist.iterator(); itr.hasNext();) {
+			if (itr.next() == NAN) {
+				itr.remove();
+			}
+		}
+
+		int expected[] = new int[37];
+		for (Hai hai : tlist.toArray(new Hai[0])) {
+			expected[hai.type().id()]++;
+		}
+		assertTrue(Arrays.equals(expected, tlist.toSizeArray()));
+		assertEquals(0, tlist.sizeOf(HaiType.NAN));
+		assertEquals(3, tlist.sizeOf(HaiType.TON));
+		assertFalse(tlist.contains(HaiType.NAN));
+
+		tlist.clear();
+		assertTrue(Arrays.equals(new int[37], tlist.toSizeArray()));
+	}
+
+	@Test
+	public void testNakiableMaskAfterModification() {
+		Random random = new Random(24);
+		Hai hais[] = MajanHai.values();
+		TehaiList tlist = new TehaiList();
+		for (int i = 0; i < 2000; i++) {
+			int size = tlist.size();
+			int op = size == 0 ? 0 : random.nextInt(size < 14 ? 4 : 3) + 1;
+			Hai hai = hais[random.nextInt(hais.length)];
+			switch (op) {
+			case 1:
+				tlist.remove(random.nextInt(size));
+				break;
+			case 2:
+				tlist.set(random.nextInt(size), hai);
+				break;
+			case 3:
+				tlist.swap(random.nextInt(size), hai);
+				break;
+			default:
+				tlist.add(hai);
+				break;
+			}
+			assertNakiableMask(tlist);
+			assertNakiableMask(new TehaiList(tlist));
+		}
+		tlist.subList(0, tlist.size() / 2).clear();
+		assertNakiableMask(tlist);
+		tlist.clear();
+		assertEquals(0, tlist.getPonableMask() | tlist.getMinkanableMask() | tlist.getChiableMask());
+	}
+
+	// 枚数の配列から求めたビットと比べる
+	private static void assertNakiableMask(TehaiList tlist) {
+		int n[] = tlist.toSizeArray();
+		for (HaiType type : HaiType.values()) {
+			int id = type.id();
+			long bit = 1L << id;
+			assertEquals(n[id] >= 2, (tlist.getPonableMask() & bit) != 0);
+			assertEquals(n[id] == 3, (tlist.getMinkanableMask() & bit) != 0);
+			boolean chiable = false;
+			if (type.isSuhai()) {
+				int num = type.number();
+				boolean m2 = num >= 3 && n[id - 2] != 0;
+				boolean m1 = num >= 2 && n[id - 1] != 0;
+				boolean p1 = num <= 8 && n[id + 1] != 0;
+				boolean p2 = num <= 7 && n[id + 2] != 0;
+				chiable = (m2 && m1) || (m1 && p1) || (p1 && p2);
+			}
+			assertEquals(chiable, (tlist.getChiableMask() & bit) != 0);
+			assertEquals(chiable, tlist.isChiable(type));
+		}
+	}
 }
@@ -0,0 +1,47 @@
+package junit;
+
+import static junit.HaiFixture.toSizeArray;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import system.algo.UkeireMethod;
+import system.hai.HaiType;
+
+public class UkeireMethodTest {
+
+	@Test
+	public void testUkeireMask() {
+		// 1,2,3,4,5,6,7,8,9萬 東東 南南 は東南待ち
+		int n[] = toSizeArray(1, 2, 3, 4, 5, 6, 7, 8, 9, 30, 30, 31, 31);
+		long mask = UkeireMethod.getUkeireMask(n, 13, false);
+		assertEquals((1L << 30) | (1L << 31), mask);
+		assertEquals(4, UkeireMethod.countUnseen(mask, n, null));
+
+		// 東が1枚見えていれば残りは3枚
+		int visible[] = new int[37];
+		visible[30] = 1;
+		assertEquals(3, UkeireMethod.countUnseen(mask, n, visible));
+	}
+
+	@Test
+	public void testDiscardValueList() {
+		// 1,2,3,4,5,6,7,8,9萬 東東 南南 北 : 北を切ればテンパイ
+		int n[] = toSizeArray(1, 2, 3, 4, 5, 6, 7, 8, 9, 30, 30, 31, 31, 33);
+		List<UkeireMethod.Value> list = UkeireMethod.calcDiscardValueList(n, 14, false, null);
+		assertEquals(12, list.size());
+		for (UkeireMethod.Value v : list) {
+			assertTrue(v.getSyanten() >= 0);
+		}
+
+		UkeireMethod.Value best = UkeireMethod.getBestDiscardValue(n, 14, false, null);
+		assertEquals(HaiType.PE, best.getDiscardHaiType());
+		assertEquals(0, best.getSyanten());
+		assertEquals(4, best.getUkeireSize());
+		// 計算後も配列は元のまま
+		assertEquals(1, n[33]);
+	}
+}
@@ -0,0 +1,240 @@
+package junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import system.Field;
+import system.Rule;
+import system.agari.AgariParam;
+import system.agari.CheckParam;
+import system.agari.MatiType;
+import system.hai.Hai;
+import system.hai.HaiType;
+import system.hai.Kaze;
+import system.hai.MajanHai;
+import system.hai.Mentsu;
+import system.yaku.NormalYaku;
+import system.yaku.Yaku;
+import system.yaku.YakuEvaluator;
+import system.yaku.Yakuman;
+
+public class YakuEvaluatorTest {
+	/** 牌タイプの候補.役が成立しやすいように候補を絞ったものも混ぜる */
+	private static final HaiType POOLS[][] = {
+			HaiType.values(),
+			{ HaiType.ITI_MAN, HaiType.KYU_MAN, HaiType.ITI_PIN, HaiType.KYU_PIN, HaiType.ITI_SOU, HaiType.KYU_SOU,
+					HaiType.TON, HaiType.NAN, HaiType.SYA, HaiType.PE, HaiType.HAKU, HaiType.HATU, HaiType.TYUN },
+			{ HaiType.TON, HaiType.NAN, HaiType.SYA, HaiType.PE, HaiType.HAKU, HaiType.HATU, HaiType.TYUN },
+			{ HaiType.ITI_MAN, HaiType.NI_MAN, HaiType.SAN_MAN, HaiType.YO_MAN, HaiType.GO_MAN, HaiType.ROKU_MAN,
+					HaiType.NANA_MAN, HaiType.HATI_MAN, HaiType.KYU_MAN, HaiType.HAKU },
+			{ HaiType.NI_SOU, HaiType.SAN_SOU, HaiType.YO_SOU, HaiType.ROKU_SOU, HaiType.HATI_SOU, HaiType.HATU },
+			{ HaiType.ITI_MAN, HaiType.YO_MAN, HaiType.NANA_MAN, HaiType.ITI_PIN, HaiType.YO_PIN, HaiType.NANA_PIN,
+					HaiType.ITI_SOU, HaiType.YO_SOU, HaiType.NANA_SOU, HaiType.NAN }, };
+
+	private final Random random = new Random(0);
+	private long observed;
+
+	// 各役のcheck()を1つずつ呼び出した結果
+	private static long checkEach(AgariParam agParam, CheckParam chParam, Field field) {
+		List<Yaku> list = new ArrayList<Yaku>();
+		list.addAll(Arrays.asList(NormalYaku.values()));
+		list.addAll(Arrays.asList(Yakuman.values()));
+		long mask = 0;
+		for (Yaku yaku : list) {
+			if (chParam.getMentuList() == null && yaku.is4Mentu1Janto())
+				continue;
+			if (yaku.check(agParam, chParam, field))
+				mask |= YakuEvaluator.maskOf(yaku);
+		}
+		return mask;
+	}
+
+	private void assertSameMask(List<Hai> haiList, List<Mentsu> mentuList, HaiType janto, boolean naki) {
+		Set<Yaku> flags = new HashSet<Yaku>();
+		for (NormalYaku yaku : NormalYaku.values()) {
+			if (random.nextInt(4) == 0)
+				flags.add(yaku);
+		}
+		for (Yakuman yaku : Yakuman.values()) {
+			if (random.nextInt(8) == 0)
+				flags.add(yaku);
+		}
+		Kaze jikaze = Kaze.values()[random.nextInt(4)];
+		Field field = new Field(new Rule(), Kaze.values()[random.nextInt(4)]);
+		Hai agari = haiList.get(random.nextInt(haiList.size()));
+		AgariParam agParam = new AgariParam(random.nextBoolean(), naki, agari, jikaze, flags);
+
+		CheckParam chParam = new CheckParam();
+		chParam.setHaiList(haiList);
+		chParam.setMentuList(mentuList);
+		chParam.setJanto(janto);
+		MatiType matiTypes[] = MatiType.values();
+		int i = random.nextInt(matiTypes.length + 1);
+		chParam.setMatiType(i < matiTypes.length ? matiTypes[i] : null);
+
+		long expected = checkEach(agParam, chParam, field);
+		long actual = YakuEvaluator.evaluate(agParam, chParam, field);
+		assertEquals(haiList + " " + mentuList, YakuEvaluator.toYakuSet(expected), YakuEvaluator.toYakuSet(actual));
+		observed |= actual;
+	}
+
+	// 同じ種類の牌が4枚を超えないように牌を取る
+	private Hai take(HaiType type, int n[]) {
+		n[type.id()]++;
+		return MajanHai.valueOf(type, type.isSuhai() && type.number() == 5 && random.nextInt(4) == 0);
+	}
+
+	private List<Mentsu> randomMentuList(HaiType pool[], int n[]) {
+		List<Mentsu> mentuList = new ArrayList<Mentsu>();
+		while (mentuList.size() < 4) {
+			HaiType type = pool[random.nextInt(pool.length)];
+			int kind = random.nextInt(20);
+			Hai hais[];
+			if (kind < 10) {
+				if (type.isTsuhai() || type.number() > 7)
+					continue;
+				HaiType next = HaiType.valueOf(type.id() + 1);
+				HaiType last = HaiType.valueOf(type.id() + 2);
+				if (n[type.id()] >= 4 || n[next.id()] >= 4 || n[last.id()] >= 4)
+					continue;
+				hais = new Hai[] { take(type, n), take(next, n), take(last, n) };
+			} else {
+				int size = kind < 16 ? 3 : 4;
+				if (n[type.id()] + size > 4)
+					continue;
+				hais = new Hai[size];
+				for (int i = 0; i < size; i++)
+					hais[i] = take(type, n);
+			}
+			if (random.nextInt(4) == 0)
+				mentuList.add(new Mentsu(hais[0], Kaze.values()[random.nextInt(4)],
+						Arrays.copyOfRange(hais, 1, hais.length)));
+			else
+				mentuList.add(new Mentsu(hais));
+		}
+		return mentuList;
+	}
+
+	@Test
+	public void testMentsu() {
+		for (int t = 0; t < 30000; t++) {
+			HaiType pool[] = POOLS[random.nextInt(POOLS.length)];
+			int n[] = new int[HaiType.TYUN.id() + 1];
+			List<Mentsu> mentuList = randomMentuList(pool, n);
+			HaiType janto;
+			do {
+				janto = pool[random.nextInt(pool.length)];
+			} while (n[janto.id()] > 2);
+
+			List<Hai> haiList = new ArrayList<Hai>();
+			boolean naki = false;
+			for (Mentsu m : mentuList) {
+				haiList.addAll(m.asList());
+				naki |= m.isNaki();
+			}
+			haiList.add(take(janto, n));
+			haiList.add(take(janto, n));
+			assertSameMask(haiList, mentuList, janto, naki);
+		}
+	}
+
+	@Test
+	public void testTyuren() {
+		int shape[] = { 1, 1, 1, 2, 3, 4, 5, 6, 7, 8, 9, 9, 9 };
+		for (int t = 0; t < 1000; t++) {
+			int base = random.nextInt(3) * 10;
+			int n[] = new int[HaiType.TYUN.id() + 1];
+			List<Hai> haiList = new ArrayList<Hai>();
+			for (int number : shape)
+				haiList.add(take(HaiType.valueOf(base + number), n));
+			haiList.add(take(HaiType.valueOf(base + 1 + random.nextInt(9)), n));
+			assertSameMask(haiList, new ArrayList<Mentsu>(), HaiType.valueOf(base + 1), false);
+		}
+	}
+
+	@Test
+	public void testNot4Mentu1Janto() {
+		List<HaiType> kokusi = new ArrayList<HaiType>(Yakuman.getKokusiSet());
+		for (int t = 0; t < 10000; t++) {
+			List<Hai> haiList = new ArrayList<Hai>();
+			int n[] = new int[HaiType.TYUN.id() + 1];
+			if (t % 2 == 0) {
+				// 七対子の形
+				HaiType pool[] = POOLS[random.nextInt(POOLS.length)];
+				while (haiList.size() < 14) {
+					HaiType type = pool[random.nextInt(pool.length)];
+					if (n[type.id()] > 2)
+						continue;
+					haiList.add(take(type, n));
+					haiList.add(take(type, n));
+				}
+			} else {
+				// 国士無双の形
+				for (HaiType type : kokusi) {
+					if (random.nextInt(20) != 0)
+						haiList.add(take(type, n));
+				}
+				while (haiList.size() < 14)
+					haiList.add(take(kokusi.get(random.nextInt(kokusi.size())), n));
+			}
+			assertSameMask(haiList, null, null, false);
+		}
+	}
+
+	@Test
+	public void testObserved() {
+		testMentsu();
+		testTyuren();
+		testNot4Mentu1Janto();
+		for (Yaku yaku : YakuEvaluator.toYakuSet(YakuEvaluator.NORMAL_YAKU_MASK | YakuEvaluator.YAKUMAN_MASK)) {
+			assertTrue(yaku.toString(), YakuEvaluator.contains(observed, yaku));
+		}
+	}
+
+	@Test
+	public void testMask() {
+		assertEquals(NormalYaku.values().length + Yakuman.values().length,
+				YakuEvaluator.toYakuSet(YakuEvaluator.NORMAL_YAKU_MASK | YakuEvaluator.YAKUMAN_MASK).size());
+		assertEquals(0, YakuEvaluator.NORMAL_YAKU_MASK & YakuEvaluator.YAKUMAN_MASK);
+		long mask = YakuEvaluator.maskOf(NormalYaku.PINHU) | YakuEvaluator.maskOf(Yakuman.DAISUSHI);
+		assertTrue(YakuEvaluator.contains(mask, Yakuman.DAISUSHI));
+		assertFalse(YakuEvaluator.contains(mask, Yakuman.SYOSUSHI));
+		assertEquals(new HashSet<Yaku>(Arrays.<Yaku> asList(NormalYaku.PINHU, Yakuman.DAISUSHI)),
+				YakuEvaluator.toYakuSet(mask));
+	}
+
+	@Test
+	public void testSansyokudokoOfTsuhai() {
+		// 南の刻子は(31 + 10) % 30 = 11で一筒と同じidにならない
+		int n[] = new int[HaiType.TYUN.id() + 1];
+		List<Mentsu> mentuList = new ArrayList<Mentsu>();
+		for (HaiType type : new HaiType[] { HaiType.NAN, HaiType.ITI_PIN, HaiType.ITI_SOU }) {
+			Hai hai = take(type, n);
+			mentuList.add(new Mentsu(hai, hai, hai));
+		}
+		mentuList.add(new Mentsu(MajanHai.NI_MAN, MajanHai.SAN_MAN, MajanHai.YO_MAN));
+		List<Hai> haiList = new ArrayList<Hai>();
+		for (Mentsu m : mentuList)
+			haiList.addAll(m.asList());
+		haiList.add(MajanHai.HAKU);
+		haiList.add(MajanHai.HAKU);
+		CheckParam chParam = new CheckParam();
+		chParam.setHaiList(haiList);
+		chParam.setMentuList(mentuList);
+		chParam.setJanto(HaiType.HAKU);
+		AgariParam agParam = new AgariParam(true, false, MajanHai.HAKU, Kaze.TON, new HashSet<Yaku>());
+		Field field = new Field(new Rule(), Kaze.TON);
+		assertFalse(NormalYaku.SANSYOKUDOKO.check(agParam, chParam, field));
+		assertFalse(YakuEvaluator.contains(YakuEvaluator.evaluate(agParam, chParam, field), NormalYaku.SANSYOKUDOKO));
+	}
+}
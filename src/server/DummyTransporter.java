@@ -19,8 +19,12 @@ import test.system.test.OrderPacket;
 import test.system.test.SerializableHurohaiList;
 import test.system.test.SerializableMentsu;
 import test.system.test.SerializablePlayer;
+import util.MyLogger;
+import util.MyLogger.Category;
 
 public class DummyTransporter extends Transporter implements Server {
+	private static final MyLogger logger = MyLogger.getLogger();
+
 	private boolean grandFlag = false;
 	private boolean kyusyukyuhaiReceivedFlag = false;
 	private boolean kyusyukyuhaiReceivedResult = false;
@@ -51,6 +55,7 @@ public class DummyTransporter extends Transporter implements Server {
 	@Override
 	public void onGameRequested(int id) {
 		isWait = false;
+		signalReceived();
 	}
 
 	public void init() {
@@ -201,6 +206,7 @@ public class DummyTransporter extends Transporter implements Server {
 
 	public void setWait(boolean flag) {
 		isWait = flag;
+		signalReceived();
 	}
 
 	@Override
@@ -208,6 +214,7 @@ public class DummyTransporter extends Transporter implements Server {
 		kyusyukyuhaiReceivedFlag = true;
 		grandFlag = true;
 		kyusyukyuhaiReceivedResult = answer;
+		signalReceived();
 	}
 
 	@Override
@@ -230,6 +237,7 @@ public class DummyTransporter extends Transporter implements Server {
 		grandFlag = true;
 		discardedReceivedFlag = true;
 		discardedIndexResult = index;
+		signalReceived();
 	}
 
 	@Override
@@ -243,6 +251,7 @@ public class DummyTransporter extends Transporter implements Server {
 		chiIndexList = list;
 		chiReceivedFlag = true;
 		tumoari = false;
+		signalReceived();
 	}
 
 	@Override
@@ -256,6 +265,7 @@ public class DummyTransporter extends Transporter implements Server {
 		ponIndexList = list;
 		ponReceivedFlag = true;
 		tumoari = false;
+		signalReceived();
 	}
 
 	@Override
@@ -269,6 +279,7 @@ public class DummyTransporter extends Transporter implements Server {
 		grandFlag = true;
 		ankanReceivedFlag = true;
 		ankanIndexList = list;
+		signalReceived();
 	}
 
 	@Override
@@ -281,6 +292,7 @@ public class DummyTransporter extends Transporter implements Server {
 	public void onMinkanableIndexReceived(boolean answer) {
 		minkanReceivedFlag = true;
 		isMinkanResult = answer;
+		signalReceived();
 	}
 
 	@Override
@@ -294,6 +306,7 @@ public class DummyTransporter extends Transporter implements Server {
 		grandFlag = true;
 		kakanReceivedFlag = true;
 		kakanIndex = index;
+		signalReceived();
 	}
 
 	@Override
@@ -307,6 +320,7 @@ public class DummyTransporter extends Transporter implements Server {
 		grandFlag = true;
 		reachReceivedFlag = true;
 		reachHaiIndex = index;
+		signalReceived();
 	}
 
 	@Override
@@ -318,6 +332,7 @@ public class DummyTransporter extends Transporter implements Server {
 	public void onRonReceived(boolean result) {
 		ronReceivedFlag = true;
 		ronReceivedResult = result;
+		signalReceived();
 	}
 
 	@Override
@@ -329,6 +344,7 @@ public class DummyTransporter extends Transporter implements Server {
 	public void onTsumoAgariReceived() {
 		tsumoagariReceivedResult = true;
 		grandFlag = true;
+		signalReceived();
 	}
 
 	@Override
@@ -391,6 +407,7 @@ public class DummyTransporter extends Transporter implements Server {
 	@Override
 	public void onNextKyokuRequested() {
 		endResultPage = true;
+		signalReceived();
 	}
 
 	@Override
@@ -410,10 +427,14 @@ public class DummyTransporter extends Transporter implements Server {
 	private class ServerCommunicator extends OrderCommunicator {
 
 		@Override
-		public void dispatch(Order order) {
+		public void dispatch(final Order order) {
 			List<OrderPacket> packets = getPackets(order);
-			System.out.println("dispatch");
-			System.out.println(order);
+			logger.trace(Category.SERVER, new MyLogger.Message() {
+				@Override
+				public String get() {
+					return "dispatch " + order;
+				}
+			});
 			switch (order) {
 			case ON_ANKAN_INDEX_LIST_RECEIVED:
 				onAnkanIndexListReceived((List<Integer>) packets.get(0)
@@ -0,0 +1,17 @@
+package server;
+
+/**
+ * クライアントとの接続が切れた場合や,卓のスレッドが割り込まれた場合に,ゲームを途中で打ち切るための例外.
+ * 卓のスレッドを実行しているTableServerが受け取り,残りのクライアントとの接続を閉じる.
+ */
+class GameAbortedException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	GameAbortedException(String message) {
+		super(message);
+	}
+
+	GameAbortedException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
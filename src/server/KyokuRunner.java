@@ -190,8 +190,8 @@ public class KyokuRunner {
 			Server tr = transporterMap.get(kaze);
 
 			tr.sendField(tehai, nakihai, sutehai, kyoku.getCurrentTurn(), kyoku
-					.getCurrentSutehai(), tehaiSize, kyoku.getYamahaiList()
-					.size(), kyoku.getWanpaiList().size(), kyoku
+					.getCurrentSutehai(), tehaiSize, kyoku.sizeOfYamahai(),
+					kyoku.getWanpaiList().size(), kyoku
 					.getOpenDoraList());
 		}
 	}
@@ -397,7 +397,8 @@ public class KyokuRunner {
 					stateCode = STATE_CODE_RON;
 					return;
 				} catch (InterruptedException e) {
-					e.printStackTrace();
+					Thread.currentThread().interrupt();
+					throw new GameAbortedException("卓のスレッドが割り込まれた", e);
 				}
 			} else {
 				if (kyoku.isReachable()) {
@@ -517,21 +518,20 @@ public class KyokuRunner {
 
 	// ロンあがりできるときにプレイヤーにロンするかどうかを聞く
 	private void sendRonAgari() {
-		for (Kaze kaze : Kaze.values()) {
+		for (Kaze kaze : kyoku.getRonableKazeList()) {
 			Player p = playerMap.get(kaze);
 			if (p.isMan()) {
 				Server tr = transporterMap.get(kaze);
-				if (kyoku.isRonable(kaze))
-					tr.requestRon();
+				tr.requestRon();
 			}
 		}
 	}
 
 	// ロン上がりできると送った後,その回答が送られてくるのを待つ
 	private void doRon(List<Player> doRonPlayer) {
-
+		List<Kaze> ronableList = kyoku.getRonableKazeList();
 		for (Kaze kaze : Kaze.values()) {
-			if (kyoku.isRonable(kaze)) {
+			if (ronableList.contains(kaze)) {
 				Player p = playerMap.get(kaze);
 				if (p.isMan()) {
 					Transporter tr = transporterMap.get(kaze);
@@ -811,17 +811,24 @@ public class KyokuRunner {
 	 * **********************A()******************************
 	 */
 
+	// 指定された返答のどれかが届くまで待つ.返答が届いた時点でTransporterに起こされる.
+	// 接続が切れた場合と割り込まれた場合は,返答を待ち続けずにゲームを打ち切る
+	static void awaitReceived(Transporter tr, int conditions) {
+		try {
+			tr.await(conditions);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new GameAbortedException("卓のスレッドが割り込まれた", e);
+		}
+		if (tr.isDisconnected())
+			throw new GameAbortedException("クライアントとの接続が切れた");
+	}
+
 	// requestKyusyukyuhai()が送られたとき,その返答が返ってくるまで待つ
 	private boolean waitKyusyukyuhai(Transporter tr) {
 		// tr.requestKyusyukyuhai();
-		while (!tr.isKyusyukyuhaiReceived() && !tr.getGrandFlag()
-				&& !tr.isDiscardedReceived()) {
-			try {
-				Thread.sleep(100);
-			} catch (InterruptedException e) {
-				e.printStackTrace();
-			}
-		}
+		awaitReceived(tr, Transporter.RECEIVED_KYUSYUKYUHAI | Transporter.RECEIVED_GRAND
+				| Transporter.RECEIVED_DISCARD);
 
 		return tr.getKyusyukyuhaiResult();
 	}
@@ -836,13 +843,7 @@ public class KyokuRunner {
 		if(discardFlag)
 			tr.sendDiscard(tumoari);
 		
-		while (!tr.isDiscardedReceived()) {
-			try {
-				Thread.sleep(100);
-			} catch (InterruptedException e) {
-				e.printStackTrace();
-			}
-		}
+		awaitReceived(tr, Transporter.RECEIVED_DISCARD);
 
 		return tr.getDiscardedIndex();
 	}
@@ -858,27 +859,15 @@ public class KyokuRunner {
 
 	// チーできると送った後,その回答が返ってくるまで待つ。
 	private List<Integer> waitChi(Transporter tr, List<List<Integer>> sendlist) {
-		while (!tr.isChiReceived() && !tr.isPonReceived()
-				&& !tr.isMinkanReceived()) {
-			try {
-				Thread.sleep(100);
-			} catch (InterruptedException e) {
-				e.printStackTrace();
-			}
-		}
+		awaitReceived(tr, Transporter.RECEIVED_CHI | Transporter.RECEIVED_PON
+				| Transporter.RECEIVED_MINKAN);
 		return tr.getChiIndexList();
 	}
 
 	// ポンできると送った後,その回答が返ってくるまで待つ。
 	private List<Integer> waitPon(Transporter tr) {
-		while (!tr.isPonReceived() && !tr.isChiReceived()
-				&& !tr.isMinkanReceived()) {
-			try {
-				Thread.sleep(100);
-			} catch (InterruptedException e) {
-				e.printStackTrace();
-			}
-		}
+		awaitReceived(tr, Transporter.RECEIVED_PON | Transporter.RECEIVED_CHI
+				| Transporter.RECEIVED_MINKAN);
 		return tr.getPonIndexList();
 	}
 
@@ -889,28 +878,16 @@ public class KyokuRunner {
 
 	// 暗槓できるということを送った後,その回答を待つ
 	private List<Integer> waitAnkan(Transporter tr, List<List<Integer>> sendlist) {
-		while (!tr.isAnkanReceived() && !tr.getGrandFlag()
-				&& !tr.isDiscardedReceived()) {
-			try {
-				Thread.sleep(100);
-			} catch (InterruptedException e) {
-				e.printStackTrace();
-			}
-		}
+		awaitReceived(tr, Transporter.RECEIVED_ANKAN | Transporter.RECEIVED_GRAND
+				| Transporter.RECEIVED_DISCARD);
 		return tr.getAnkanIndexList();
 
 	}
 
 	// 明槓できると送ったあと,その回答を待つ
 	private boolean waitMinkan(Transporter tr, List<Integer> sendIndexList) {
-		while (!tr.isMinkanReceived() && !tr.isChiReceived()
-				&& !tr.isPonReceived()) {
-			try {
-				Thread.sleep(100);
-			} catch (InterruptedException e) {
-				e.printStackTrace();
-			}
-		}
+		awaitReceived(tr, Transporter.RECEIVED_MINKAN | Transporter.RECEIVED_CHI
+				| Transporter.RECEIVED_PON);
 		return tr.isMinkanDo();
 	}
 
@@ -921,52 +898,28 @@ public class KyokuRunner {
 
 	// 加槓できると送った後,その回答が返ってくるのを待つ。
 	private int waitKakan(Transporter tr, List<Integer> sendKakanList) {
-		while (!tr.isKakanReceived() && !tr.getGrandFlag()
-				&& !tr.isDiscardedReceived()) {
-			try {
-				Thread.sleep(100);
-			} catch (InterruptedException e) {
-				e.printStackTrace();
-			}
-		}
+		awaitReceived(tr, Transporter.RECEIVED_KAKAN | Transporter.RECEIVED_GRAND
+				| Transporter.RECEIVED_DISCARD);
 		return tr.getKakanindex();
 	}
 
 	// リーチできるとき,リーチするかどうかの回答が返ってくるまで待つ。
 	private int waitReach(Transporter tr, List<Integer> sendReachableList) {
-		while (!tr.isReachReceived() && !tr.getGrandFlag()
-				&& !tr.isDiscardedReceived()) {
-			try {
-				Thread.sleep(100);
-			} catch (InterruptedException e) {
-				e.printStackTrace();
-			}
-		}
+		awaitReceived(tr, Transporter.RECEIVED_REACH | Transporter.RECEIVED_GRAND
+				| Transporter.RECEIVED_DISCARD);
 		return tr.getReachHaiIndex();
 	}
 
 	// ロン上がりできると送った後,その回答が返ってくるのを待つ
 	private boolean waitRon(Transporter tr) {
-		while (!tr.isRonReceived()) {
-			try {
-				Thread.sleep(100);
-			} catch (InterruptedException e) {
-				e.printStackTrace();
-			}
-		}
+		awaitReceived(tr, Transporter.RECEIVED_RON);
 		return tr.isRonDo();
 	}
 
 	// ツモ上がりできると送った後,その回答が返ってくるのを待つ
 	private boolean waitTsumoagari(Transporter tr) {
-		while (!tr.isTsumoagariDo() && !tr.isDiscardedReceived()
-				&& !tr.getGrandFlag()) {
-			try {
-				Thread.sleep(100);
-			} catch (InterruptedException e) {
-				e.printStackTrace();
-			}
-		}
+		awaitReceived(tr, Transporter.RECEIVED_TSUMOAGARI | Transporter.RECEIVED_DISCARD
+				| Transporter.RECEIVED_GRAND);
 		return tr.isTsumoagariDo();
 	}
 
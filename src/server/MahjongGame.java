@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import server.net.SpectatorChannel;
 import system.Kyoku;
 import system.Mahjong;
 import system.Player;
@@ -20,15 +21,30 @@ public class MahjongGame {
 	private final Mahjong mahjong;
 	private final List<Player> playerList;
 	private final Map<Player, Transporter> transMap;
+	private final SpectatorChannel channel;
 
 	public MahjongGame(List<Player> playerList, Rule rule, Map<Player, Transporter> tmap) {
+		this(playerList, rule, tmap, null);
+	}
+
+	/**
+	 * 観戦者に配信する麻雀ゲームのコンストラクタ.
+	 * 
+	 * @param channel 観戦のチャネル.nullの場合は配信しない.
+	 */
+	public MahjongGame(List<Player> playerList, Rule rule, Map<Player, Transporter> tmap, SpectatorChannel channel) {
 		this.playerList = new ArrayList<Player>(playerList);
 		this.mahjong = new Mahjong(this.playerList, rule);
 		this.transMap = new HashMap<Player, Transporter>(tmap);
+		this.channel = channel;
+		if (channel != null)
+			mahjong.addKyokuListener(channel);
 	}
 	
 	/**
 	 * 麻雀ゲームを実行する.
+	 * 
+	 * @throws GameAbortedException クライアントとの接続が切れた場合,または割り込まれた場合.
 	 */
 	public void run() {
 		mahjong.init();
@@ -47,6 +63,8 @@ public class MahjongGame {
 			for(Server server:transMap.values()){
 				server.notifyStartKyoku(kyoku.getBakaze(), mahjong.getKyokusu(),mahjong.getHonba(),mahjong.getTsumibo());
 			}
+			if (channel != null)
+				channel.notifyStartKyoku(kyoku.getBakaze(), mahjong.getKyokusu(), mahjong.getHonba(), mahjong.getTsumibo());
 			
 			KyokuRunner runner = new KyokuRunner(kyoku, transMap);
 			runner.run();
@@ -92,18 +110,14 @@ public class MahjongGame {
 		for(Server server:transMap.values()){
 			server.notifyGameResult(mahjong.getScores());
 		}
+		if (channel != null)
+			channel.notifyGameResult(mahjong.getScores());
 		
 	}
 	
 	private void waitKyokuResult(){
 		for (Transporter tr : transMap.values()) {
-			while(!tr.isEndResultPage()){
-				try{
-					Thread.sleep(100);
-				}catch(Exception e){
-					e.printStackTrace();
-				}
-			}
+			KyokuRunner.awaitReceived(tr, Transporter.RECEIVED_END_RESULT_PAGE);
 		}
 	}
 	
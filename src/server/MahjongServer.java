@@ -79,18 +79,12 @@ public class MahjongServer {
 				}
 				count++;
 			}
-			boolean isWait = true;
 			System.out.println(s);
-			while (isWait) {
-				isWait = false;
+			// 全員がゲームの開始を要求するまで待つ
+			try {
 				for (Transporter tr : transMap.values()) {
-					if (tr.isWait()) {
-						isWait = true;
-						break;
-					}
+					tr.await(Transporter.RECEIVED_GAME_REQUEST);
 				}
-			}
-			try {
 				Thread.sleep(3000);
 			} catch (InterruptedException e) {
 			}
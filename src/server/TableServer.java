@@ -0,0 +1,366 @@
+package server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import server.net.Spectator;
+import server.net.SpectatorChannel;
+import system.Player;
+import system.Rule;
+
+/**
+ * 多数の卓を同時に動かす麻雀サーバー.</br>
+ * 接続してきたクライアントを到着順に卓に割り当て,人間の席が埋まった卓から1卓につき1つのスレッドでMahjongGameを実行する.
+ * 人間で埋まらない席はAIが打つ.クライアントはlisten()で受け付けたオブジェクトストリームの接続のほか,
+ * NioServerなど別の経路で接続したTransporterをjoin()で座らせてもよい.
+ * クライアントの返答はTransporter.await()で待つので,返答を待っている卓のスレッドはCPUを使わない.</br>
+ * 卓のスレッドはスタックを小さくしたスレッドで,数に上限を設けない.仮想スレッドを使える環境では
+ * newTableThreadFactory()を仮想スレッドのファクトリに置き換えればよい.</br>
+ * 実行中の卓はwatch()で観戦できる.全ての卓の観戦者への配信は1つのスレッドで行う.
+ */
+public class TableServer implements Closeable {
+	/** 1卓の席の数 */
+	private static final int SEAT_SIZE = 4;
+
+	/** 卓のスレッドのスタックのバイト数.局の進行は深い再帰をしないので小さくてよい */
+	private static final long TABLE_STACK_SIZE = 256 * 1024;
+
+	/** 卓が埋まってからクライアントがゲームの開始を要求するまで待つ秒数 */
+	private static final long GAME_REQUEST_TIMEOUT_SECONDS = 60;
+
+	private volatile ServerSocket serverSocket;
+	/** close()された場合true.以後は接続を受け付けず,卓も始めない */
+	private volatile boolean closed = false;
+	private final Rule rule;
+	private final int humanSize;
+	private final ExecutorService executor;
+	/** 観戦者への配信を行うエグゼキュータ */
+	private final ScheduledExecutorService spectatorExecutor;
+	/** 観戦者への配信を遅らせるミリ秒 */
+	private final long spectatorDelay;
+	/** 卓の番号と実行中の卓の観戦のチャネル */
+	private final Map<Integer, SpectatorChannel> channelMap;
+	/** 卓が埋まるのを待っているクライアント */
+	private final List<Transporter> waitingList;
+	private final AtomicInteger playerCount = new AtomicInteger();
+	private final AtomicInteger runningTableSize = new AtomicInteger();
+	private final AtomicInteger tableCount = new AtomicInteger();
+
+	/**
+	 * 指定されたルールで卓を動かし,観戦者には遅らせずに配信するサーバーのコンストラクタ.
+	 *
+	 * @param rule 各卓のルール.
+	 * @param humanSize 1卓に座る人間の数(1～4).
+	 * @throws IllegalArgumentException 人間の数が範囲外の場合.
+	 */
+	public TableServer(Rule rule, int humanSize) {
+		this(rule, humanSize, 0);
+	}
+
+	/**
+	 * 指定されたルールで卓を動かすサーバーのコンストラクタ.
+	 *
+	 * @param rule 各卓のルール.
+	 * @param humanSize 1卓に座る人間の数(1～4).
+	 * @param spectatorDelay 観戦者への配信を遅らせるミリ秒.
+	 * @throws IllegalArgumentException 人間の数が範囲外の場合,または遅延が負の場合.
+	 */
+	public TableServer(Rule rule, int humanSize, long spectatorDelay) {
+		if (humanSize < 1 || humanSize > SEAT_SIZE)
+			throw new IllegalArgumentException("人間の数が範囲外 : " + humanSize);
+		if (spectatorDelay < 0)
+			throw new IllegalArgumentException("遅延が負 : " + spectatorDelay);
+		this.rule = rule;
+		this.humanSize = humanSize;
+		this.spectatorDelay = spectatorDelay;
+		this.waitingList = new ArrayList<Transporter>(humanSize);
+		this.executor = Executors.newCachedThreadPool(newTableThreadFactory());
+		this.spectatorExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "spectator");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		this.channelMap = new ConcurrentHashMap<Integer, SpectatorChannel>();
+	}
+
+	private static ThreadFactory newTableThreadFactory() {
+		return new ThreadFactory() {
+			private final AtomicInteger threadCount = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				return new Thread(null, r, "table-" + threadCount.incrementAndGet(), TABLE_STACK_SIZE);
+			}
+		};
+	}
+
+	/**
+	 * 指定されたポートでclose()されるまでオブジェクトストリームの接続を受け付ける.
+	 * 接続の確立と卓の実行は別のスレッドで行うので,遅いクライアントが他のクライアントの接続を妨げることはない.
+	 *
+	 * @param port ポート番号.
+	 * @throws IOException ポートを開けなかった場合.
+	 */
+	public void listen(int port) throws IOException {
+		ServerSocket serverSocket = new ServerSocket(port);
+		this.serverSocket = serverSocket;
+		if (closed)
+			serverSocket.close();
+		while (!serverSocket.isClosed()) {
+			final Socket socket;
+			try {
+				socket = serverSocket.accept();
+			} catch (IOException e) {
+				if (!serverSocket.isClosed())
+					System.out.println("ServerSideError:" + e.getMessage());
+				continue;
+			}
+			if (!execute(new Runnable() {
+				@Override
+				public void run() {
+					connect(socket);
+				}
+			})) {
+				try {
+					socket.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+	}
+
+	// close()された後はタスクを捨てる.捨てた場合false
+	private boolean execute(Runnable task) {
+		if (closed)
+			return false;
+		try {
+			executor.execute(task);
+			return true;
+		} catch (RejectedExecutionException e) {
+			return false;
+		}
+	}
+
+	// クライアントとストリームをつないで卓に座らせる.卓から外されたときはソケットを閉じる
+	private void connect(final Socket socket) {
+		DummyTransporter tr = new DummyTransporter() {
+			@Override
+			public void disconnect() {
+				try {
+					socket.close();
+				} catch (IOException e) {
+				}
+				super.disconnect();
+			}
+		};
+		try {
+			ObjectOutputStream oos = new ObjectOutputStream(socket.getOutputStream());
+			oos.flush();
+			ObjectInputStream ois = new ObjectInputStream(socket.getInputStream());
+			tr.connectClient(ois, oos);
+		} catch (IOException e) {
+			System.out.println("ServerSideError:" + e.getMessage());
+			try {
+				socket.close();
+			} catch (IOException e1) {
+			}
+			return;
+		}
+		join(tr);
+	}
+
+	/**
+	 * 接続済みのクライアントを待ち行列に入れる.卓の人間の席が埋まったら,卓のスレッドでゲームを始める.
+	 * このメソッドはすぐに戻るので,通信のスレッドから呼び出してよい.close()された後に呼び出した場合は何もしない.
+	 *
+	 * @param tr クライアントとつながったTransporter.
+	 */
+	public void join(Transporter tr) {
+		final List<Transporter> humanList;
+		synchronized (waitingList) {
+			if (closed)
+				return;
+			waitingList.add(tr);
+			if (waitingList.size() < humanSize)
+				return;
+			humanList = new ArrayList<Transporter>(waitingList);
+			waitingList.clear();
+		}
+		execute(new Runnable() {
+			@Override
+			public void run() {
+				runTable(humanList);
+			}
+		});
+	}
+
+	// 人間の席にクライアントを,残りの席にAIを座らせて1ゲームを実行する
+	private void runTable(List<Transporter> humanList) {
+		List<Player> playerList = new ArrayList<Player>(SEAT_SIZE);
+		Map<Player, Transporter> transMap = new HashMap<Player, Transporter>(humanSize);
+		for (int i = 0; i < SEAT_SIZE; i++) {
+			int id = playerCount.incrementAndGet();
+			boolean isMan = i < humanList.size();
+			Player player = new Player(id, (isMan ? "player" : "ai") + id, isMan);
+			playerList.add(player);
+			if (isMan)
+				transMap.put(player, humanList.get(i));
+		}
+
+		try {
+			// 全員がゲームの開始を要求するまで待つ.要求しないクライアントがいれば卓を解散し,
+			// 要求したクライアントは待ち行列に戻して,要求しなかったクライアントとの接続は閉じる
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(GAME_REQUEST_TIMEOUT_SECONDS);
+			boolean requested = true;
+			for (Transporter tr : humanList) {
+				long timeout = deadline - System.nanoTime();
+				if (!tr.await(Transporter.RECEIVED_GAME_REQUEST, timeout, TimeUnit.NANOSECONDS))
+					requested = false;
+			}
+			if (!requested || closed) {
+				for (Transporter tr : humanList) {
+					if (!tr.isWait() && !tr.isDisconnected() && !closed)
+						join(tr);
+					else
+						tr.disconnect();
+				}
+				return;
+			}
+		} catch (InterruptedException e) {
+			disconnect(humanList);
+			return;
+		}
+
+		int tableId = tableCount.incrementAndGet();
+		SpectatorChannel channel = new SpectatorChannel(spectatorExecutor, spectatorDelay);
+		channelMap.put(tableId, channel);
+		runningTableSize.incrementAndGet();
+		try {
+			new MahjongGame(playerList, rule, transMap, channel).run();
+		} catch (GameAbortedException e) {
+			// 切断されたクライアントの席は続けられないので,卓ごと打ち切って残りのクライアントとの接続も閉じる
+			System.out.println("ServerSideError:" + e.getMessage());
+			disconnect(humanList);
+		} finally {
+			channelMap.remove(tableId);
+			channel.close();
+			// close()された後は最後の卓が観戦のチャネルを閉じてから配信のエグゼキュータを止める
+			if (runningTableSize.decrementAndGet() == 0 && closed)
+				spectatorExecutor.shutdown();
+		}
+	}
+
+	private static void disconnect(List<Transporter> humanList) {
+		for (Transporter tr : humanList) {
+			tr.disconnect();
+		}
+	}
+
+	/**
+	 * 実行中の卓の観戦者を追加する.
+	 *
+	 * @param tableId 卓の番号.
+	 * @param spectator 観戦者.
+	 * @return 追加した場合true.指定された番号の卓が実行中でない場合false.
+	 */
+	public boolean watch(int tableId, Spectator spectator) {
+		SpectatorChannel channel = channelMap.get(tableId);
+		return channel != null && channel.subscribe(spectator);
+	}
+
+	/**
+	 * 実行中の卓の観戦者を削除する.卓が実行中でない場合は何もしない.
+	 *
+	 * @param tableId 卓の番号.
+	 * @param spectator 観戦者.
+	 */
+	public void unwatch(int tableId, Spectator spectator) {
+		SpectatorChannel channel = channelMap.get(tableId);
+		if (channel != null)
+			channel.unsubscribe(spectator);
+	}
+
+	/**
+	 * 実行中の卓の観戦者に,配信済みの場の情報の全体を送り直す.観戦者が差分を適用できなかった場合に使う.
+	 *
+	 * @param tableId 卓の番号.
+	 * @param spectator 観戦者.
+	 * @return 送り直した場合true.卓が実行中でない場合,または観戦者がその卓を観戦していない場合false.
+	 */
+	public boolean resync(int tableId, Spectator spectator) {
+		SpectatorChannel channel = channelMap.get(tableId);
+		return channel != null && channel.resync(spectator);
+	}
+
+	/**
+	 * 実行中の卓の番号のリストを返す.
+	 *
+	 * @return 卓の番号のリスト.
+	 */
+	public List<Integer> getTableIdList() {
+		return new ArrayList<Integer>(channelMap.keySet());
+	}
+
+	/**
+	 * 現在ゲームを実行している卓の数を返す.
+	 *
+	 * @return 卓の数.
+	 */
+	public int getRunningTableSize() {
+		return runningTableSize.get();
+	}
+
+	/**
+	 * 接続の受け付けをやめる.実行中の卓はゲームが終わるまで動き続ける.
+	 * 先に受け付けを止めてからエグゼキュータを止めるので,受け付け中の接続のタスクが拒否されることはない.
+	 * 観戦者への配信は実行中の卓が全て終わるまで続ける.
+	 *
+	 * @throws IOException ソケットを閉じるのに失敗した場合.
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		synchronized (waitingList) {
+			waitingList.clear();
+		}
+		try {
+			if (serverSocket != null)
+				serverSocket.close();
+		} finally {
+			executor.shutdown();
+			if (runningTableSize.get() == 0)
+				spectatorExecutor.shutdown();
+		}
+	}
+
+	// DEBUG
+	public static void main(String[] args) {
+		int humanSize = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+		try {
+			TableServer server = new TableServer(new Rule(), humanSize);
+			System.out.println("server launched");
+			server.listen(5555);
+		} catch (IOException e) {
+			System.out.println(e.getMessage());
+		}
+	}
+}
@@ -2,6 +2,9 @@ package server;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import system.Player;
 import system.hai.Hai;
@@ -11,9 +14,29 @@ import system.hai.Mentsu;
 import system.result.KyokuResult;
 import client.system.Client;
 /**
- * クライアントと通信を行う,サーバー-クライアント間のインターフェースとなるクラス.
+ * クライアントと通信を行う,サーバー-クライアント間のインターフェースとなるクラス.</br>
+ * クライアントからの返答はon~Receivedメソッドで受け取る.サーバー側のスレッドはawait()で返答を待ち,
+ * 返答を受け取った時点ですぐに起こされる.
  */
 public class Transporter implements Server{
+	// await()に渡す,待つ返答を表すビット
+	static final int RECEIVED_KYUSYUKYUHAI = 1 << 0;
+	static final int RECEIVED_DISCARD = 1 << 1;
+	static final int RECEIVED_CHI = 1 << 2;
+	static final int RECEIVED_PON = 1 << 3;
+	static final int RECEIVED_ANKAN = 1 << 4;
+	static final int RECEIVED_MINKAN = 1 << 5;
+	static final int RECEIVED_KAKAN = 1 << 6;
+	static final int RECEIVED_REACH = 1 << 7;
+	static final int RECEIVED_RON = 1 << 8;
+	static final int RECEIVED_TSUMOAGARI = 1 << 9;
+	/** 打牌前の選択(九種九牌,打牌,暗槓,加槓,リーチ,ツモあがり)のどれか */
+	static final int RECEIVED_GRAND = 1 << 10;
+	static final int RECEIVED_END_RESULT_PAGE = 1 << 11;
+	static final int RECEIVED_GAME_REQUEST = 1 << 12;
+
+	private final ReentrantLock receivedLock = new ReentrantLock();
+	private final Condition received = receivedLock.newCondition();
 	private boolean grandFlag = false;
 	private boolean kyusyukyuhaiReceivedFlag = false;
 	private boolean kyusyukyuhaiReceivedResult = false;
@@ -36,6 +59,8 @@ public class Transporter implements Server{
 	private boolean ronReceivedResult = false;
 	private boolean tsumoagariReceivedResult = false;
 	private boolean isWait = true;
+	/** クライアントとの接続が切れたかどうか */
+	private volatile boolean disconnected = false;
 	private boolean endResultPage = false;
 	
 	// DEBUG 結合用
@@ -178,6 +203,104 @@ public class Transporter implements Server{
 	public boolean isEndResultPage(){
 		return endResultPage;
 	}
+
+	/**
+	 * 指定された返答のどれかを受信するまで待つ.既に受信している場合はすぐに戻る.
+	 * 受信したかどうかはisKyusyukyuhaiReceived()などのメソッドで判定するので,サブクラスで上書きしたメソッドも使われる.
+	 * synchronizedではなくロックの条件で待つので,仮想スレッドで待っていてもキャリアスレッドを占有しない.
+	 * クライアントとの接続が切れた場合は受信しないまま戻るので,isDisconnected()で確かめること.
+	 * 
+	 * @param conditions 待つ返答を表すRECEIVED_~の論理和.
+	 * @throws InterruptedException 待っている間に割り込まれた場合.
+	 */
+	void await(int conditions) throws InterruptedException {
+		receivedLock.lock();
+		try {
+			while (!isReceived(conditions) && !disconnected) {
+				received.await();
+			}
+		} finally {
+			receivedLock.unlock();
+		}
+	}
+
+	/**
+	 * 指定された返答のどれかを受信するまで,指定された時間だけ待つ.既に受信している場合はすぐに戻る.
+	 * クライアントとの接続が切れた場合はその時点で戻る.
+	 * 
+	 * @param conditions 待つ返答を表すRECEIVED_~の論理和.
+	 * @param timeout 待つ時間.
+	 * @param unit 待つ時間の単位.
+	 * @return 受信した場合true.受信しないまま時間が過ぎた場合,または接続が切れた場合false.
+	 * @throws InterruptedException 待っている間に割り込まれた場合.
+	 */
+	boolean await(int conditions, long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		receivedLock.lock();
+		try {
+			while (!isReceived(conditions)) {
+				if (nanos <= 0 || disconnected)
+					return false;
+				nanos = received.awaitNanos(nanos);
+			}
+			return true;
+		} finally {
+			receivedLock.unlock();
+		}
+	}
+
+	private boolean isReceived(int conditions) {
+		return ((conditions & RECEIVED_KYUSYUKYUHAI) != 0 && isKyusyukyuhaiReceived())
+				|| ((conditions & RECEIVED_DISCARD) != 0 && isDiscardedReceived())
+				|| ((conditions & RECEIVED_CHI) != 0 && isChiReceived())
+				|| ((conditions & RECEIVED_PON) != 0 && isPonReceived())
+				|| ((conditions & RECEIVED_ANKAN) != 0 && isAnkanReceived())
+				|| ((conditions & RECEIVED_MINKAN) != 0 && isMinkanReceived())
+				|| ((conditions & RECEIVED_KAKAN) != 0 && isKakanReceived())
+				|| ((conditions & RECEIVED_REACH) != 0 && isReachReceived())
+				|| ((conditions & RECEIVED_RON) != 0 && isRonReceived())
+				|| ((conditions & RECEIVED_TSUMOAGARI) != 0 && isTsumoagariDo())
+				|| ((conditions & RECEIVED_GRAND) != 0 && getGrandFlag())
+				|| ((conditions & RECEIVED_END_RESULT_PAGE) != 0 && isEndResultPage())
+				|| ((conditions & RECEIVED_GAME_REQUEST) != 0 && !isWait());
+	}
+
+	/**
+	 * クライアントとの接続が切れたかどうかを返す.
+	 * 
+	 * @return 接続が切れた場合true.
+	 */
+	public boolean isDisconnected() {
+		return disconnected;
+	}
+
+	/**
+	 * クライアントとの接続を閉じる.サブクラスは接続を閉じてからonDisconnected()を呼び出すように上書きする.
+	 */
+	public void disconnect() {
+		onDisconnected();
+	}
+
+	/**
+	 * クライアントとの接続が切れたことを記録し,await()で待っているスレッドを起こす.
+	 * 接続が切れたことを検出したサブクラスが呼び出す.
+	 */
+	protected void onDisconnected() {
+		disconnected = true;
+		signalReceived();
+	}
+
+	/**
+	 * await()で待っているスレッドを起こす.返答を受け取るメソッドは,フラグを立てた後に必ずこのメソッドを呼び出す.
+	 */
+	protected void signalReceived() {
+		receivedLock.lock();
+		try {
+			received.signalAll();
+		} finally {
+			receivedLock.unlock();
+		}
+	}
 	
 	// 九種九牌できるときに流局するかどうかをクライアントに聞く
 	@Override
@@ -192,6 +315,7 @@ public class Transporter implements Server{
 		kyusyukyuhaiReceivedFlag = true;
 		grandFlag = true;
 		kyusyukyuhaiReceivedResult = answer;
+		signalReceived();
 	}
 
 	// ツモした牌をクライアント側に送る
@@ -218,6 +342,7 @@ public class Transporter implements Server{
 		discardedReceivedFlag = true;
 		discardedIndexResult = index;
 		
+		signalReceived();
 	}
 	
 
@@ -235,6 +360,7 @@ public class Transporter implements Server{
 		chiReceivedFlag = true;
 		tumoari = false;
 		System.out.println("onChiIndexReceived");
+		signalReceived();
 	}
 
 	// ポンできるときにポンするかどうかを聞く,手牌の中でポンできる2枚を渡す
@@ -249,6 +375,7 @@ public class Transporter implements Server{
 		ponIndexList = list;
 		ponReceivedFlag = true;
 		tumoari = false;
+		signalReceived();
 	}
 
 	// 暗槓できるときに暗槓するかどうかを聞く,手牌の中で槓できる牌リストを渡す
@@ -263,6 +390,7 @@ public class Transporter implements Server{
 		grandFlag = true;
 		ankanReceivedFlag = true;
 		ankanIndexList = list;
+		signalReceived();
 	}
 
 	// 明槓できるときに明槓するかどうかを聞く,手牌の中で槓できる牌リストを渡す
@@ -276,6 +404,7 @@ public class Transporter implements Server{
 	public void onMinkanableIndexReceived(boolean answer) {
 		minkanReceivedFlag = true;
 		isMinkanResult = answer;
+		signalReceived();
 	}
 
 	// 加槓できるときに加槓するかどうかを聞く,手牌の中で槓できる牌リストを渡す
@@ -290,6 +419,7 @@ public class Transporter implements Server{
 		grandFlag = true;
 		kakanReceivedFlag = true;
 		kakanIndex = index;
+		signalReceived();
 	}
 
 	// リーチできるときにリーチするかどうかを聞く
@@ -304,6 +434,7 @@ public class Transporter implements Server{
 		grandFlag = true;
 		reachReceivedFlag = true;
 		reachHaiIndex = index;
+		signalReceived();
 	}
 
 	// ロンできるときにロンするかどうかを聞く
@@ -317,6 +448,7 @@ public class Transporter implements Server{
 	public void onRonReceived(boolean ron) {
 		ronReceivedFlag = true;
 		ronReceivedResult = ron;
+		signalReceived();
 	}
 
 	// ツモ上がりできるときにあがるかどうかを聞く
@@ -330,6 +462,7 @@ public class Transporter implements Server{
 	public void onTsumoAgariReceived(){
 		tsumoagariReceivedResult = true;
 		grandFlag = true;
+		signalReceived();
 	}
 
 	public void sendField(List<Hai> tehai,Map<Kaze,HurohaiList> nakihai,Map<Kaze, List<Hai>> sutehai,Kaze currentTurn,
@@ -362,6 +495,7 @@ public class Transporter implements Server{
 		// TODO to be changed
 		//for debug
 		isWait = false;
+		signalReceived();
 	}
 
 	@Override
@@ -386,6 +520,7 @@ public class Transporter implements Server{
 	//for debug	
 	public void setWait(boolean flag){
 		isWait = flag;
+		signalReceived();
 	}
 	
 	@Override
@@ -397,6 +532,7 @@ public class Transporter implements Server{
 	public void onNextKyokuRequested(){
 		System.out.println("call");
 		endResultPage = true;
+		signalReceived();
 	}
 	
 	@Override
@@ -0,0 +1,361 @@
+package server.net;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import system.hai.Hai;
+import system.hai.HurohaiList;
+import system.hai.Kaze;
+import system.hai.Mentsu;
+
+/**
+ * クライアントに送った場の情報(Server.sendField()の引数)を覚えておき,前回からの差分だけを書き出すクラス.</br>
+ * サーバー側ではwriteDelta()で差分を,writeFull()で再同期のための全体を書く.クライアント側では同じクラスのread()で
+ * 受け取ったメッセージを適用して場の情報を復元する.</br>
+ * 差分は通番と変化した部分を表すビットの後ろに,変化した部分だけを並べる.手牌,副露,捨て牌,ドラのようなリストは
+ * 前回と共通の先頭の要素数と,それ以降の要素で表す.打牌や鳴きでは末尾だけが変わるので,1回の差分は数バイトになる.
+ * 全体は全てのビットを立てて共通の要素数を0とした差分と同じ形で書く.
+ */
+public class FieldState {
+	// 変化した部分を表すビット
+	private static final int TEHAI = 1 << 0;
+	private static final int NAKIHAI = 1 << 1;
+	private static final int SUTEHAI = 1 << 2;
+	private static final int CURRENT_TURN = 1 << 3;
+	private static final int CURRENT_SUTEHAI = 1 << 4;
+	private static final int TEHAI_SIZE = 1 << 5;
+	private static final int YAMA_SIZE = 1 << 6;
+	private static final int WANPAI_SIZE = 1 << 7;
+	private static final int DORA = 1 << 8;
+	private static final int ALL = (1 << 9) - 1;
+
+	private int sequence;
+	private final List<Hai> tehai;
+	/** 風のIDをインデックスとした副露 */
+	private final List<List<Mentsu>> nakihai;
+	/** 風のIDをインデックスとした鳴かれた牌を除く捨て牌 */
+	private final List<List<Hai>> sutehai;
+	private Kaze currentTurn;
+	private Hai currentSutehai;
+	private final int tehaiSize[];
+	private int yamaSize;
+	private int wanpaiSize;
+	private final List<Hai> doraList;
+
+	/**
+	 * 何も送っていない状態のコンストラクタ.
+	 */
+	public FieldState() {
+		this.tehai = new ArrayList<Hai>(14);
+		this.nakihai = new ArrayList<List<Mentsu>>(4);
+		this.sutehai = new ArrayList<List<Hai>>(4);
+		for (int i = 0; i < 4; i++) {
+			nakihai.add(new ArrayList<Mentsu>(4));
+			sutehai.add(new ArrayList<Hai>(24));
+		}
+		this.tehaiSize = new int[4];
+		this.doraList = new ArrayList<Hai>(5);
+	}
+
+	/**
+	 * 新しい場の情報と覚えている場の情報の差分を書き,新しい場の情報を覚える.通番は1つ進む.
+	 * 引数はServer.sendField()と同じ.
+	 *
+	 * @param writer FIELD_DELTAのメッセージのライター.
+	 */
+	public void writeDelta(MessageWriter writer, List<Hai> tehai, Map<Kaze, HurohaiList> nakihai,
+			Map<Kaze, List<Hai>> sutehai, Kaze currentTurn, Hai currentSutehai,
+			List<Integer> tehaiSize, int yamaSize, int wanpaiSize, List<Hai> doraList) {
+		// 変化した部分を調べる
+		int flags = 0;
+		if (!isSameHaiList(this.tehai, tehai))
+			flags |= TEHAI;
+		int nakihaiKazeSize = 0;
+		int sutehaiKazeSize = 0;
+		for (Kaze kaze : Kaze.values()) {
+			if (!this.nakihai.get(kaze.id()).equals(listOf(nakihai, kaze)))
+				nakihaiKazeSize++;
+			if (!isSameHaiList(this.sutehai.get(kaze.id()), listOf(sutehai, kaze)))
+				sutehaiKazeSize++;
+		}
+		if (nakihaiKazeSize > 0)
+			flags |= NAKIHAI;
+		if (sutehaiKazeSize > 0)
+			flags |= SUTEHAI;
+		if (this.currentTurn != currentTurn)
+			flags |= CURRENT_TURN;
+		if (!isSameHai(this.currentSutehai, currentSutehai))
+			flags |= CURRENT_SUTEHAI;
+		for (int i = 0; i < this.tehaiSize.length; i++) {
+			if (this.tehaiSize[i] != tehaiSize.get(i))
+				flags |= TEHAI_SIZE;
+		}
+		if (this.yamaSize != yamaSize)
+			flags |= YAMA_SIZE;
+		if (this.wanpaiSize != wanpaiSize)
+			flags |= WANPAI_SIZE;
+		if (!isSameHaiList(this.doraList, doraList))
+			flags |= DORA;
+
+		sequence++;
+		writer.writeVarint(sequence);
+		writer.writeVarint(flags);
+		if ((flags & TEHAI) != 0)
+			writeHaiDelta(writer, this.tehai, tehai);
+		if ((flags & NAKIHAI) != 0) {
+			writer.writeVarint(nakihaiKazeSize);
+			for (Kaze kaze : Kaze.values()) {
+				List<Mentsu> now = listOf(nakihai, kaze);
+				if (!this.nakihai.get(kaze.id()).equals(now)) {
+					writer.writeKaze(kaze);
+					writeMentsuDelta(writer, this.nakihai.get(kaze.id()), now);
+				}
+			}
+		}
+		if ((flags & SUTEHAI) != 0) {
+			writer.writeVarint(sutehaiKazeSize);
+			for (Kaze kaze : Kaze.values()) {
+				List<Hai> now = listOf(sutehai, kaze);
+				if (!isSameHaiList(this.sutehai.get(kaze.id()), now)) {
+					writer.writeKaze(kaze);
+					writeHaiDelta(writer, this.sutehai.get(kaze.id()), now);
+				}
+			}
+		}
+		if ((flags & CURRENT_TURN) != 0) {
+			this.currentTurn = currentTurn;
+			writer.writeKaze(currentTurn);
+		}
+		if ((flags & CURRENT_SUTEHAI) != 0) {
+			this.currentSutehai = currentSutehai;
+			writer.writeHai(currentSutehai);
+		}
+		if ((flags & TEHAI_SIZE) != 0) {
+			for (int i = 0; i < this.tehaiSize.length; i++) {
+				this.tehaiSize[i] = tehaiSize.get(i);
+				writer.writeVarint(this.tehaiSize[i]);
+			}
+		}
+		if ((flags & YAMA_SIZE) != 0) {
+			this.yamaSize = yamaSize;
+			writer.writeVarint(yamaSize);
+		}
+		if ((flags & WANPAI_SIZE) != 0) {
+			this.wanpaiSize = wanpaiSize;
+			writer.writeVarint(wanpaiSize);
+		}
+		if ((flags & DORA) != 0)
+			writeHaiDelta(writer, this.doraList, doraList);
+	}
+
+	/**
+	 * 覚えている場の情報の全体を書く.通番は進まない.
+	 *
+	 * @param writer FIELDのメッセージのライター.
+	 */
+	public void writeFull(MessageWriter writer) {
+		writer.writeVarint(sequence);
+		writer.writeVarint(ALL);
+		writeHaiDelta(writer, Collections.<Hai> emptyList(), tehai);
+		writer.writeVarint(4);
+		for (Kaze kaze : Kaze.values()) {
+			writer.writeKaze(kaze);
+			writeMentsuDelta(writer, Collections.<Mentsu> emptyList(), nakihai.get(kaze.id()));
+		}
+		writer.writeVarint(4);
+		for (Kaze kaze : Kaze.values()) {
+			writer.writeKaze(kaze);
+			writeHaiDelta(writer, Collections.<Hai> emptyList(), sutehai.get(kaze.id()));
+		}
+		writer.writeKaze(currentTurn);
+		writer.writeHai(currentSutehai);
+		for (int size : tehaiSize) {
+			writer.writeVarint(size);
+		}
+		writer.writeVarint(yamaSize);
+		writer.writeVarint(wanpaiSize);
+		writeHaiDelta(writer, Collections.<Hai> emptyList(), doraList);
+	}
+
+	/**
+	 * FIELDまたはFIELD_DELTAのメッセージを適用する.FIELDは通番に関係なく全体を置き換える.
+	 * FIELD_DELTAは通番が覚えている通番の次の場合だけ適用し,そうでない場合は何もせずにfalseを返す.
+	 * その場合は再同期を要求して全体を受け取る必要がある.
+	 *
+	 * @param reader 種類を読んだ後のリーダー.
+	 * @return 適用した場合true.
+	 * @throws IllegalStateException メッセージが壊れている場合.
+	 */
+	public boolean read(MessageReader reader) {
+		int newSequence = reader.readVarint();
+		if (reader.getType() == MessageType.FIELD_DELTA && newSequence != sequence + 1)
+			return false;
+		if (reader.getType() != MessageType.FIELD_DELTA && reader.getType() != MessageType.FIELD)
+			throw new IllegalStateException("場の情報ではない : " + reader.getType());
+		sequence = newSequence;
+		int flags = reader.readVarint();
+		if ((flags & TEHAI) != 0)
+			readHaiDelta(reader, tehai);
+		if ((flags & NAKIHAI) != 0) {
+			int size = reader.readVarint();
+			for (int i = 0; i < size; i++) {
+				readMentsuDelta(reader, nakihai.get(readKaze(reader).id()));
+			}
+		}
+		if ((flags & SUTEHAI) != 0) {
+			int size = reader.readVarint();
+			for (int i = 0; i < size; i++) {
+				readHaiDelta(reader, sutehai.get(readKaze(reader).id()));
+			}
+		}
+		if ((flags & CURRENT_TURN) != 0)
+			currentTurn = reader.readKaze();
+		if ((flags & CURRENT_SUTEHAI) != 0)
+			currentSutehai = reader.readHai();
+		if ((flags & TEHAI_SIZE) != 0) {
+			for (int i = 0; i < tehaiSize.length; i++) {
+				tehaiSize[i] = reader.readVarint();
+			}
+		}
+		if ((flags & YAMA_SIZE) != 0)
+			yamaSize = reader.readVarint();
+		if ((flags & WANPAI_SIZE) != 0)
+			wanpaiSize = reader.readVarint();
+		if ((flags & DORA) != 0)
+			readHaiDelta(reader, doraList);
+		return true;
+	}
+
+	private static Kaze readKaze(MessageReader reader) {
+		Kaze kaze = reader.readKaze();
+		if (kaze == null)
+			throw new IllegalStateException("風がない");
+		return kaze;
+	}
+
+	private static <T> List<T> listOf(Map<Kaze, ? extends List<T>> map, Kaze kaze) {
+		List<T> list = map.get(kaze);
+		return list == null ? Collections.<T> emptyList() : list;
+	}
+
+	// 牌の同一性は赤かどうかも含めて序数で比べる
+	private static boolean isSameHai(Hai hai0, Hai hai1) {
+		if (hai0 == null || hai1 == null)
+			return hai0 == hai1;
+		return hai0.ordinal() == hai1.ordinal();
+	}
+
+	private static boolean isSameHaiList(List<? extends Hai> list0, List<? extends Hai> list1) {
+		return list0.size() == list1.size() && commonHaiSize(list0, list1) == list0.size();
+	}
+
+	private static int commonHaiSize(List<? extends Hai> list0, List<? extends Hai> list1) {
+		int size = Math.min(list0.size(), list1.size());
+		for (int i = 0; i < size; i++) {
+			if (!isSameHai(list0.get(i), list1.get(i)))
+				return i;
+		}
+		return size;
+	}
+
+	// 共通の先頭の要素数と残りの牌を書き,oldを新しいリストにする
+	private static void writeHaiDelta(MessageWriter writer, List<Hai> old, List<? extends Hai> now) {
+		int keep = commonHaiSize(old, now);
+		writer.writeVarint(keep);
+		writer.writeHaiList(now.subList(keep, now.size()));
+		if (old != Collections.<Hai> emptyList()) {
+			old.subList(keep, old.size()).clear();
+			old.addAll(now.subList(keep, now.size()));
+		}
+	}
+
+	private static void writeMentsuDelta(MessageWriter writer, List<Mentsu> old, List<Mentsu> now) {
+		int keep = 0;
+		while (keep < old.size() && keep < now.size() && old.get(keep).equals(now.get(keep))) {
+			keep++;
+		}
+		writer.writeVarint(keep);
+		writer.writeVarint(now.size() - keep);
+		for (int i = keep; i < now.size(); i++) {
+			writer.writeMentsu(now.get(i));
+		}
+		if (old != Collections.<Mentsu> emptyList()) {
+			old.subList(keep, old.size()).clear();
+			old.addAll(now.subList(keep, now.size()));
+		}
+	}
+
+	private static void readHaiDelta(MessageReader reader, List<Hai> list) {
+		int keep = reader.readVarint();
+		if (keep > list.size())
+			throw new IllegalStateException("共通の要素数が不正 : " + keep);
+		list.subList(keep, list.size()).clear();
+		list.addAll(reader.readHaiList());
+	}
+
+	private static void readMentsuDelta(MessageReader reader, List<Mentsu> list) {
+		int keep = reader.readVarint();
+		if (keep > list.size())
+			throw new IllegalStateException("共通の要素数が不正 : " + keep);
+		list.subList(keep, list.size()).clear();
+		int size = reader.readVarint();
+		for (int i = 0; i < size; i++) {
+			list.add(reader.readMentsu());
+		}
+	}
+
+	/**
+	 * 通番を返す.
+	 *
+	 * @return 最後に書いた,または適用した差分の通番.何も送っていない場合は0.
+	 */
+	public int getSequence() {
+		return sequence;
+	}
+
+	public List<Hai> getTehai() {
+		return Collections.unmodifiableList(tehai);
+	}
+
+	public List<Mentsu> getNakihai(Kaze kaze) {
+		return Collections.unmodifiableList(nakihai.get(kaze.id()));
+	}
+
+	public List<Hai> getSutehai(Kaze kaze) {
+		return Collections.unmodifiableList(sutehai.get(kaze.id()));
+	}
+
+	public Kaze getCurrentTurn() {
+		return currentTurn;
+	}
+
+	public Hai getCurrentSutehai() {
+		return currentSutehai;
+	}
+
+	public int getTehaiSize(Kaze kaze) {
+		return tehaiSize[kaze.id()];
+	}
+
+	public int getYamaSize() {
+		return yamaSize;
+	}
+
+	public int getWanpaiSize() {
+		return wanpaiSize;
+	}
+
+	public List<Hai> getDoraList() {
+		return Collections.unmodifiableList(doraList);
+	}
+
+	@Override
+	public String toString() {
+		return "FieldState [sequence=" + sequence + ", tehai=" + tehai + ", nakihai=" + nakihai + ", sutehai=" + sutehai
+				+ ", currentTurn=" + currentTurn + ", currentSutehai=" + currentSutehai + ", tehaiSize="
+				+ Arrays.toString(tehaiSize) + ", yamaSize=" + yamaSize + ", wanpaiSize=" + wanpaiSize + ", doraList=" + doraList + "]";
+	}
+}
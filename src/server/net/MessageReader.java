@@ -0,0 +1,296 @@
+package server.net;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import system.hai.Hai;
+import system.hai.Kaze;
+import system.hai.MajanHai;
+import system.hai.Mentsu;
+
+/**
+ * MessageWriterが組み立てたメッセージを1つ読むクラス.</br>
+ * 受信したバイト列からはnextMessage()で長さの付いたメッセージを1つずつ切り出し,その本体をこのクラスで読む.
+ * 壊れたメッセージを読んだ場合はIllegalStateExceptionを投げる.
+ */
+public class MessageReader {
+	/** 1つのメッセージの本体のバイト数の上限 */
+	public static final int MAX_MESSAGE_SIZE = 1 << 16;
+
+	private final ByteBuffer buffer;
+	private final MessageType type;
+
+	/**
+	 * メッセージの本体を読むリーダーのコンストラクタ.
+	 *
+	 * @param payload メッセージの本体.nextMessage()が返したバッファ.
+	 * @throws IllegalStateException 種類のコードが不正な場合.
+	 */
+	public MessageReader(ByteBuffer payload) {
+		this.buffer = payload;
+		int code = readByte();
+		try {
+			this.type = MessageType.valueOf(code);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalStateException(e.getMessage());
+		}
+	}
+
+	/**
+	 * 受信したバイト列の現在の位置からメッセージを1つ切り出す.メッセージがすべて届いていれば
+	 * その本体を返してバイト列の位置を次のメッセージの先頭に進め,まだ届いていなければnullを返して位置を変えない.
+	 *
+	 * @param in 受信したバイト列.
+	 * @return メッセージの本体.届いていない場合はnull.
+	 * @throws IllegalStateException メッセージが MAX_MESSAGE_SIZE を超える場合.
+	 */
+	public static ByteBuffer nextMessage(ByteBuffer in) {
+		int pos = in.position();
+		int length = 0;
+		for (int shift = 0;; shift += 7) {
+			if (pos >= in.limit())
+				return null;
+			int b = in.get(pos++);
+			length |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				break;
+			if (shift >= 21)
+				throw new IllegalStateException("メッセージの長さが不正");
+		}
+		if (length <= 0 || length > MAX_MESSAGE_SIZE)
+			throw new IllegalStateException("メッセージの長さが不正 : " + length);
+		if (in.limit() - pos < length)
+			return null;
+		ByteBuffer payload = in.duplicate();
+		payload.position(pos);
+		payload.limit(pos + length);
+		in.position(pos + length);
+		return payload.slice();
+	}
+
+	/**
+	 * メッセージの種類を返す.
+	 *
+	 * @return メッセージの種類.
+	 */
+	public MessageType getType() {
+		return type;
+	}
+
+	/**
+	 * まだ読んでいない引数がある場合trueを返す.
+	 *
+	 * @return 読んでいない引数がある場合true.
+	 */
+	public boolean hasRemaining() {
+		return buffer.hasRemaining();
+	}
+
+	/**
+	 * 1バイトを0から255の値で読む.
+	 *
+	 * @return 読んだ値.
+	 */
+	public int readByte() {
+		if (!buffer.hasRemaining())
+			throw new IllegalStateException("メッセージが途中で終わっている");
+		return buffer.get() & 0xFF;
+	}
+
+	/**
+	 * 真偽値を読む.
+	 *
+	 * @return 読んだ値.
+	 */
+	public boolean readBoolean() {
+		return readByte() != 0;
+	}
+
+	/**
+	 * 0以上の可変長整数を読む.
+	 *
+	 * @return 読んだ値.
+	 */
+	public int readVarint() {
+		int value = 0;
+		for (int shift = 0;; shift += 7) {
+			int b = readByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				break;
+			if (shift >= 28)
+				throw new IllegalStateException("可変長整数が長すぎる");
+		}
+		if (value < 0)
+			throw new IllegalStateException("可変長整数が負 : " + value);
+		return value;
+	}
+
+	/**
+	 * ZigZag符号化された可変長整数を読む.
+	 *
+	 * @return 読んだ値.
+	 */
+	public int readSignedVarint() {
+		int zigzag = 0;
+		for (int shift = 0;; shift += 7) {
+			int b = readByte();
+			zigzag |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				break;
+			if (shift >= 28)
+				throw new IllegalStateException("可変長整数が長すぎる");
+		}
+		return (zigzag >>> 1) ^ -(zigzag & 1);
+	}
+
+	/**
+	 * 牌を読む.
+	 *
+	 * @return 読んだ牌.nullの場合もある.
+	 */
+	public Hai readHai() {
+		return toHai(readByte());
+	}
+
+	private static Hai toHai(int ordinal) {
+		if (ordinal == MessageWriter.NULL)
+			return null;
+		try {
+			return MajanHai.valueOf(ordinal);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalStateException(e.getMessage());
+		}
+	}
+
+	/**
+	 * 風を読む.
+	 *
+	 * @return 読んだ風.nullの場合もある.
+	 */
+	public Kaze readKaze() {
+		int id = readByte();
+		if (id == MessageWriter.NULL)
+			return null;
+		if (id >= Kaze.values().length)
+			throw new IllegalStateException("風のIDが範囲外 : " + id);
+		return Kaze.valueOf(id);
+	}
+
+	/**
+	 * 牌のリストを読む.
+	 *
+	 * @return 読んだ牌のリスト.
+	 */
+	public List<Hai> readHaiList() {
+		int size = readSize();
+		List<Hai> list = new ArrayList<Hai>(size);
+		for (int i = 0; i < size; i++) {
+			list.add(readHai());
+		}
+		return list;
+	}
+
+	/**
+	 * インデックスのリストを読む.
+	 *
+	 * @return 読んだインデックスのリスト.nullの場合もある.
+	 */
+	public List<Integer> readIndexList() {
+		int size = readSize() - 1;
+		if (size < 0)
+			return null;
+		List<Integer> list = new ArrayList<Integer>(size);
+		for (int i = 0; i < size; i++) {
+			list.add(readVarint());
+		}
+		return list;
+	}
+
+	/**
+	 * インデックスのリストのリストを読む.
+	 *
+	 * @return 読んだインデックスのリストのリスト.
+	 */
+	public List<List<Integer>> readIndexLists() {
+		int size = readSize();
+		List<List<Integer>> lists = new ArrayList<List<Integer>>(size);
+		for (int i = 0; i < size; i++) {
+			lists.add(readIndexList());
+		}
+		return lists;
+	}
+
+	/**
+	 * 整数の配列を読む.
+	 *
+	 * @return 読んだ配列.
+	 */
+	public int[] readIntArray() {
+		int array[] = new int[readSize()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = readSignedVarint();
+		}
+		return array;
+	}
+
+	/**
+	 * 面子を読む.
+	 *
+	 * @return 読んだ面子.
+	 */
+	public Mentsu readMentsu() {
+		int header = readByte();
+		int size = header & 0x0F;
+		boolean kakan = (header & 0x10) != 0;
+		Kaze kaze = readKaze();
+		if (size < 3 || size > 4 || (kakan && size != 4))
+			throw new IllegalStateException("面子の枚数が不正 : " + size);
+		Hai nakihai = null;
+		List<Hai> hais = new ArrayList<Hai>(size);
+		for (int i = 0; i < size; i++) {
+			int b = readByte();
+			Hai hai = toHai(b & 0x7F);
+			if ((b & 0x80) != 0 && nakihai == null) {
+				nakihai = hai;
+			} else {
+				hais.add(hai);
+			}
+		}
+		try {
+			if (nakihai == null)
+				return new Mentsu(hais.toArray(new Hai[hais.size()]));
+			if (kakan) {
+				Hai kakanhai = hais.remove(hais.size() - 1);
+				return new Mentsu(nakihai, kaze, hais.toArray(new Hai[hais.size()])).doKakan(kakanhai);
+			}
+			return new Mentsu(nakihai, kaze, hais.toArray(new Hai[hais.size()]));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalStateException("面子が不正");
+		}
+	}
+
+	/**
+	 * 文字列を読む.
+	 *
+	 * @return 読んだ文字列.
+	 */
+	public String readString() {
+		int size = readSize();
+		if (size > buffer.remaining())
+			throw new IllegalStateException("メッセージが途中で終わっている");
+		byte bytes[] = new byte[size];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	// 要素数を読む.残りのバイト数より多い要素数は壊れている
+	private int readSize() {
+		int size = readVarint();
+		if (size > buffer.remaining() + 1)
+			throw new IllegalStateException("要素数が不正 : " + size);
+		return size;
+	}
+}
@@ -0,0 +1,125 @@
+package server.net;
+
+/**
+ * バイナリプロトコルのメッセージの種類を表す列挙型.</br>
+ * 1つのメッセージは,本体のバイト数を表す可変長整数の後ろに,コードの1バイトと種類ごとに決まった引数が続く.
+ * 引数の書き方はMessageWriterを参照.0から31はサーバーからクライアントへ,32から63はクライアントからサーバーへのメッセージ.
+ */
+public enum MessageType {
+	/** 対局の開始.引数はプレイヤーのリスト,自分のインデックス,点数. */
+	GAME_START(0),
+	/** 局の開始.引数は場風,局数,本場,積み棒. */
+	START_KYOKU(1),
+	/** 九種九牌するかどうかの問い合わせ. */
+	REQUEST_KYUSYUKYUHAI(2),
+	/** ツモ牌.引数は牌. */
+	TSUMO_HAI(3),
+	/** ツモ切りしたこと. */
+	TSUMOGIRI(4),
+	/** 切る牌の問い合わせ.引数はツモ牌があるかどうか. */
+	REQUEST_DISCARD(5),
+	/** チーの問い合わせ.引数はチーできるインデックスのリストのリスト. */
+	CHIABLE_INDEX_LISTS(6),
+	/** ポンの問い合わせ.引数はポンできるインデックスのリストのリスト. */
+	PONABLE_INDEX_LISTS(7),
+	/** 暗槓の問い合わせ.引数は暗槓できるインデックスのリストのリスト. */
+	ANKANABLE_INDEX_LISTS(8),
+	/** 明槓の問い合わせ.引数は明槓できるインデックスのリスト. */
+	MINKANABLE_INDEX_LIST(9),
+	/** 加槓の問い合わせ.引数は加槓できるインデックスのリスト. */
+	KAKANABLE_INDEX_LIST(10),
+	/** リーチの問い合わせ.引数はリーチできるインデックスのリスト. */
+	REACHABLE_INDEX_LIST(11),
+	/** ロンするかどうかの問い合わせ. */
+	REQUEST_RON(12),
+	/** ツモあがりするかどうかの問い合わせ. */
+	REQUEST_TSUMO_AGARI(13),
+	/** 誰かの打牌.引数はプレイヤーのID,牌,ツモ切りかどうか. */
+	DISCARD(14),
+	/** 誰かの鳴き.引数はプレイヤーのID,面子. */
+	NAKI(15),
+	/** ロン.引数はロンしたプレイヤーの数と,プレイヤーのIDと手牌の組. */
+	RON(16),
+	/** 場の情報の全体.引数はFieldStateを参照.FIELD_DELTAの通番に抜けがあった場合の再同期にも使う. */
+	FIELD(17),
+	/** 誰かのリーチ.引数は風,捨て牌のインデックス. */
+	REACH(18),
+	/** 局の結果.引数はNioTransporter.notifyKyokuResult()を参照. */
+	KYOKU_RESULT(19),
+	/** 聴牌者.引数はプレイヤーの数と,プレイヤーのIDと手牌の組. */
+	TEMPAI(20),
+	/** 半荘の結果.引数は点数. */
+	GAME_RESULT(21),
+	/** ゲームの終了. */
+	GAME_OVER(22),
+	/** 前回のFIELDまたはFIELD_DELTAからの場の情報の差分.引数はFieldStateを参照. */
+	FIELD_DELTA(23),
+	/** 観戦者へのあがり.引数は風,ツモあがりかどうか,手牌,あがり牌. */
+	AGARI(24),
+	/** 観戦者への流局.引数は途中流局の種類の序数.山牌がなくなった流局の場合は0xFF. */
+	RYUKYOKU(25),
+
+	/** 対局の希望.引数はプレイヤーのID. */
+	GAME_REQUEST(32),
+	/** 九種九牌の返答.引数は流局するかどうか. */
+	KYUSYUKYUHAI(33),
+	/** 切る牌の返答.引数はインデックス. */
+	DISCARD_INDEX(34),
+	/** チーの返答.引数はインデックスのリスト. */
+	CHI_INDEX_LIST(35),
+	/** ポンの返答.引数はインデックスのリスト. */
+	PON_INDEX_LIST(36),
+	/** 暗槓の返答.引数はインデックスのリスト. */
+	ANKAN_INDEX_LIST(37),
+	/** 明槓の返答.引数は明槓するかどうか. */
+	MINKAN(38),
+	/** 加槓の返答.引数はインデックス. */
+	KAKAN_INDEX(39),
+	/** リーチの返答.引数はインデックス. */
+	REACH_INDEX(40),
+	/** ロンの返答.引数はロンするかどうか. */
+	RON_ANSWER(41),
+	/** ツモあがりすること. */
+	TSUMO_AGARI(42),
+	/** 結果表示を終えて次の局に進むこと. */
+	NEXT_KYOKU(43),
+	/** 場の情報の差分を適用できなかったので全体を送り直すこと. */
+	RESYNC(44),
+	/** 卓の観戦の希望.引数は卓の番号. */
+	WATCH(45);
+
+	private static final MessageType CODE_TABLE[] = new MessageType[64];
+	static {
+		for (MessageType type : values()) {
+			CODE_TABLE[type.code] = type;
+		}
+	}
+
+	private final int code;
+
+	private MessageType(int code) {
+		this.code = code;
+	}
+
+	/**
+	 * このメッセージのコード(0から63)を返す.
+	 *
+	 * @return コード.
+	 */
+	public int code() {
+		return code;
+	}
+
+	/**
+	 * 指定されたコードのメッセージの種類を返す.
+	 *
+	 * @param code コード.
+	 * @return メッセージの種類.
+	 * @throws IllegalArgumentException コードに対応する種類がない場合.
+	 */
+	public static MessageType valueOf(int code) {
+		if (code < 0 || code >= CODE_TABLE.length || CODE_TABLE[code] == null)
+			throw new IllegalArgumentException("不正なメッセージのコード : " + code);
+		return CODE_TABLE[code];
+	}
+}
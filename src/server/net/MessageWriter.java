@@ -0,0 +1,225 @@
+package server.net;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import system.hai.Hai;
+import system.hai.Kaze;
+import system.hai.Mentsu;
+import system.hai.Mentsu.MentsuHai;
+
+/**
+ * バイナリプロトコルのメッセージを1つ組み立てるクラス.</br>
+ * 引数は次の形式で書く.
+ * <ul>
+ * <li>整数は7ビットずつ下位から並べる可変長整数.負になりうる整数はZigZag符号化してから書く</li>
+ * <li>牌は Hai.ordinal() の1バイト,風は Kaze.id() の1バイト.nullは0xFF</li>
+ * <li>インデックスのリストは要素数+1を可変長整数で書いてから各インデックスを並べる.nullは0</li>
+ * <li>牌のリストは要素数の後ろに牌を並べる</li>
+ * <li>面子は枚数(加槓なら0x10を足す),鳴いた風,各牌(鳴いた牌なら0x80を足す)を並べる</li>
+ * <li>文字列はUTF-8のバイト数の後ろにバイト列を並べる</li>
+ * </ul>
+ * Javaのシリアライズと違ってクラスの情報を送らないので,1つのメッセージは数バイトから数十バイトになる.
+ */
+public class MessageWriter {
+	/** nullの牌,風を表す値 */
+	static final int NULL = 0xFF;
+
+	/** 本体の前に長さを書くために空けておくバイト数 */
+	private static final int HEADER_SPACE = 5;
+
+	private byte buffer[];
+	private int size;
+
+	/**
+	 * 指定された種類のメッセージを組み立てるライターのコンストラクタ.
+	 *
+	 * @param type メッセージの種類.
+	 */
+	public MessageWriter(MessageType type) {
+		this.buffer = new byte[64];
+		this.size = HEADER_SPACE;
+		writeByte(type.code());
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > buffer.length)
+			buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+	}
+
+	/**
+	 * 1バイトを書く.
+	 *
+	 * @param b 下位8ビットを書く値.
+	 */
+	public void writeByte(int b) {
+		ensureCapacity(size + 1);
+		buffer[size++] = (byte) b;
+	}
+
+	/**
+	 * 真偽値を1バイトで書く.
+	 *
+	 * @param b 真偽値.
+	 */
+	public void writeBoolean(boolean b) {
+		writeByte(b ? 1 : 0);
+	}
+
+	/**
+	 * 0以上の整数を可変長整数で書く.
+	 *
+	 * @param value 0以上の整数.
+	 * @throws IllegalArgumentException 負の場合.
+	 */
+	public void writeVarint(int value) {
+		if (value < 0)
+			throw new IllegalArgumentException("負の値 : " + value);
+		ensureCapacity(size + 5);
+		while (value >= 0x80) {
+			buffer[size++] = (byte) (value | 0x80);
+			value >>>= 7;
+		}
+		buffer[size++] = (byte) value;
+	}
+
+	/**
+	 * 負になりうる整数をZigZag符号化して可変長整数で書く.
+	 *
+	 * @param value 整数.
+	 */
+	public void writeSignedVarint(int value) {
+		int zigzag = (value << 1) ^ (value >> 31);
+		ensureCapacity(size + 5);
+		while ((zigzag & ~0x7F) != 0) {
+			buffer[size++] = (byte) (zigzag | 0x80);
+			zigzag >>>= 7;
+		}
+		buffer[size++] = (byte) zigzag;
+	}
+
+	/**
+	 * 牌を1バイトで書く.
+	 *
+	 * @param hai 牌.nullでもよい.
+	 */
+	public void writeHai(Hai hai) {
+		writeByte(hai == null ? NULL : hai.ordinal());
+	}
+
+	/**
+	 * 風を1バイトで書く.
+	 *
+	 * @param kaze 風.nullでもよい.
+	 */
+	public void writeKaze(Kaze kaze) {
+		writeByte(kaze == null ? NULL : kaze.id());
+	}
+
+	/**
+	 * 牌のリストを書く.
+	 *
+	 * @param list 牌のリスト.
+	 */
+	public void writeHaiList(List<? extends Hai> list) {
+		writeVarint(list.size());
+		for (int i = 0; i < list.size(); i++) {
+			writeHai(list.get(i));
+		}
+	}
+
+	/**
+	 * インデックスのリストを書く.
+	 *
+	 * @param list インデックスのリスト.nullでもよい.
+	 */
+	public void writeIndexList(List<Integer> list) {
+		if (list == null) {
+			writeVarint(0);
+			return;
+		}
+		writeVarint(list.size() + 1);
+		for (int i = 0; i < list.size(); i++) {
+			writeVarint(list.get(i));
+		}
+	}
+
+	/**
+	 * インデックスのリストのリストを書く.
+	 *
+	 * @param lists インデックスのリストのリスト.
+	 */
+	public void writeIndexLists(List<List<Integer>> lists) {
+		writeVarint(lists.size());
+		for (int i = 0; i < lists.size(); i++) {
+			writeIndexList(lists.get(i));
+		}
+	}
+
+	/**
+	 * 整数の配列を要素数とZigZag符号化した各要素で書く.
+	 *
+	 * @param array 整数の配列.
+	 */
+	public void writeIntArray(int array[]) {
+		writeVarint(array.length);
+		for (int value : array) {
+			writeSignedVarint(value);
+		}
+	}
+
+	/**
+	 * 面子を書く.
+	 *
+	 * @param mentsu 面子.
+	 */
+	public void writeMentsu(Mentsu mentsu) {
+		writeByte(mentsu.size() | (mentsu.isKakan() ? 0x10 : 0));
+		writeKaze(mentsu.getKaze());
+		for (int i = 0; i < mentsu.size(); i++) {
+			MentsuHai hai = mentsu.get(i);
+			writeByte(hai.ordinal() | (hai.isNaki() ? 0x80 : 0));
+		}
+	}
+
+	/**
+	 * 文字列をUTF-8で書く.
+	 *
+	 * @param s 文字列.
+	 */
+	public void writeString(String s) {
+		byte bytes[] = s.getBytes(StandardCharsets.UTF_8);
+		writeVarint(bytes.length);
+		ensureCapacity(size + bytes.length);
+		System.arraycopy(bytes, 0, buffer, size, bytes.length);
+		size += bytes.length;
+	}
+
+	/**
+	 * 本体の前に長さを付けたメッセージを返す.返したバッファはこのライターと配列を共有するので,
+	 * 返した後にこのライターに書き込んではならない.
+	 *
+	 * @return 位置がメッセージの先頭,リミットが末尾のバッファ.
+	 * @throws IllegalStateException 本体が MessageReader.MAX_MESSAGE_SIZE を超える場合.
+	 */
+	public ByteBuffer toFrame() {
+		int length = size - HEADER_SPACE;
+		if (length > MessageReader.MAX_MESSAGE_SIZE)
+			throw new IllegalStateException("メッセージが大きすぎる : " + length);
+		int lengthSize = 1;
+		for (int v = length; v >= 0x80; v >>>= 7) {
+			lengthSize++;
+		}
+		int head = HEADER_SPACE - lengthSize;
+		int pos = head;
+		int v = length;
+		while (v >= 0x80) {
+			buffer[pos++] = (byte) (v | 0x80);
+			v >>>= 7;
+		}
+		buffer[pos] = (byte) v;
+		return ByteBuffer.wrap(buffer, head, size - head);
+	}
+}
@@ -0,0 +1,132 @@
+package server.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+
+import server.TableServer;
+import system.Rule;
+
+/**
+ * 1つのセレクタのスレッドで全てのクライアントのソケットを扱うサーバー.</br>
+ * 接続してきたクライアントにはNioTransporterを割り当て,対局を希望したらTableServer.join()で卓に座らせ,
+ * 観戦を希望したらTableServer.watch()で卓の観戦者にする.
+ * 受信と書ききれなかったメッセージの送信はrun()を呼び出したスレッドだけで行うので,
+ * 接続数が増えても通信のスレッドは増えない.卓の進行はTableServerの卓のスレッドで行う.
+ */
+public class NioServer implements Closeable {
+	/** 接続待ちのキューの長さ */
+	private static final int BACKLOG = 1024;
+
+	private final Selector selector;
+	private final ServerSocketChannel serverChannel;
+	private final TableServer tableServer;
+	private volatile boolean closed;
+
+	/**
+	 * 指定されたポートで待ち受けるサーバーのコンストラクタ.
+	 *
+	 * @param port ポート番号.
+	 * @param tableServer 接続したクライアントを座らせる卓のサーバー.
+	 * @throws IOException ポートを開けなかった場合.
+	 */
+	public NioServer(int port, TableServer tableServer) throws IOException {
+		this.tableServer = tableServer;
+		this.selector = Selector.open();
+		this.serverChannel = ServerSocketChannel.open();
+		try {
+			serverChannel.bind(new InetSocketAddress(port), BACKLOG);
+			serverChannel.configureBlocking(false);
+			serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+		} catch (IOException e) {
+			serverChannel.close();
+			selector.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * close()されるまで接続の受け付けと通信を行う.戻るときに全ての接続を閉じる.
+	 *
+	 * @throws IOException セレクタが使えなくなった場合.
+	 */
+	public void run() throws IOException {
+		try {
+			while (!closed) {
+				selector.select();
+				Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+				while (it.hasNext()) {
+					SelectionKey key = it.next();
+					it.remove();
+					if (!key.isValid())
+						continue;
+					if (key.isAcceptable()) {
+						accept();
+					} else {
+						handle(key);
+					}
+				}
+			}
+		} finally {
+			for (SelectionKey key : selector.keys()) {
+				key.channel().close();
+			}
+			selector.close();
+		}
+	}
+
+	private void accept() throws IOException {
+		SocketChannel channel;
+		while ((channel = serverChannel.accept()) != null) {
+			channel.configureBlocking(false);
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, Boolean.TRUE);
+			SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+			key.attach(new NioTransporter(channel, key, tableServer));
+		}
+	}
+
+	// 1つの接続の受信と送信を行う.失敗した接続は閉じる
+	private void handle(SelectionKey key) {
+		NioTransporter tr = (NioTransporter) key.attachment();
+		try {
+			if (key.isReadable())
+				tr.onReadable();
+			if (key.isValid() && key.isWritable())
+				tr.onWritable();
+		} catch (IOException | RuntimeException e) {
+			System.out.println("ServerSideError:" + e.getMessage());
+			tr.close();
+		}
+	}
+
+	/**
+	 * 接続の受け付けと通信をやめる.run()は全ての接続を閉じてから戻る.
+	 *
+	 * @throws IOException ソケットを閉じるのに失敗した場合.
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		selector.wakeup();
+		serverChannel.close();
+	}
+
+	// DEBUG
+	public static void main(String[] args) {
+		int humanSize = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+		TableServer tableServer = new TableServer(new Rule(), humanSize);
+		try {
+			NioServer server = new NioServer(5555, tableServer);
+			System.out.println("server launched");
+			server.run();
+		} catch (IOException e) {
+			System.out.println(e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,505 @@
+package server.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+
+import server.TableServer;
+import server.Transporter;
+import system.Player;
+import system.agari.AgariResult;
+import system.hai.Hai;
+import system.hai.HurohaiList;
+import system.hai.Kaze;
+import system.hai.Mentsu;
+import system.result.KyokuResult;
+import system.yaku.NormalYaku;
+import system.yaku.Yaku;
+import system.yaku.Yakuman;
+
+/**
+ * ノンブロッキングのソケットでクライアントと通信するTransporter.</br>
+ * サーバーからの通知はMessageWriterでバイナリのメッセージにして送る.ソケットの送信バッファに空きがあれば
+ * 呼び出したスレッドでそのまま書き込み,書ききれなかった分だけNioServerのセレクタのスレッドが後から送る.
+ * クライアントからのメッセージはセレクタのスレッドが読み,on~Receivedメソッドに渡す.
+ * 受信したかどうかのフラグと卓のスレッドを起こす処理はTransporterのものをそのまま使う.</br>
+ * クライアントは最初に対局の希望(GAME_REQUEST)を送れば卓に座り,観戦の希望(WATCH)を送れば卓の観戦者になる.
+ * 場の情報の連番が混ざらないように,1つの接続で対局と観戦を両方行うことはできない.
+ * 切断されると卓のスレッドを起こし,その卓のゲームは打ち切られる.
+ */
+public class NioTransporter extends Transporter implements Spectator {
+	/** 受信バッファの初期のバイト数.クライアントからのメッセージは数バイトなので小さくてよい */
+	private static final int INITIAL_READ_BUFFER_SIZE = 256;
+
+	/** 観戦用のメッセージを受け取らなくなる,送りきれずに溜まったバイト数 */
+	private static final int MAX_SPECTATOR_QUEUED_SIZE = 64 * 1024;
+
+	// 局の結果の種類
+	private static final int RESULT_RON = 0;
+	private static final int RESULT_TSUMO = 1;
+	private static final int RESULT_RYUKYOKU = 2;
+	private static final int RESULT_TOTYU_RYUKYOKU = 3;
+
+	// 局の結果のプレイヤーごとのフラグ
+	private static final int PLAYER_AGARI = 1 << 0;
+	private static final int PLAYER_TENPAI = 1 << 1;
+	private static final int PLAYER_REACH = 1 << 2;
+	private static final int PLAYER_HOJU = 1 << 3;
+
+	private final SocketChannel channel;
+	private final SelectionKey key;
+	private final TableServer tableServer;
+	/** 卓に座ったかどうか.セレクタのスレッドだけが使う */
+	private boolean joined;
+	/** 観戦している卓の番号.観戦していなければ-1.セレクタのスレッドだけが使う */
+	private int watchingTableId = -1;
+	private ByteBuffer readBuffer;
+	/** 書ききれなかったメッセージ.送信はこのキューで同期する */
+	private final ArrayDeque<ByteBuffer> writeQueue;
+	/** 書ききれなかったバイト数 */
+	private int queuedSize;
+	/** 局の結果をプレイヤーの順に送るために覚えておく対局者のリスト */
+	private List<Player> playerList;
+	/** クライアントに送った場の情報.差分の作成と送信はこのオブジェクトで同期する */
+	private final FieldState fieldState;
+
+	/**
+	 * セレクタに登録済みのチャネルで通信するTransporterのコンストラクタ.
+	 *
+	 * @param channel ノンブロッキングのチャネル.
+	 * @param key チャネルをセレクタに登録したキー.
+	 * @param tableServer 対局や観戦を希望したときに座る卓のサーバー.
+	 */
+	NioTransporter(SocketChannel channel, SelectionKey key, TableServer tableServer) {
+		this.channel = channel;
+		this.key = key;
+		this.tableServer = tableServer;
+		this.readBuffer = ByteBuffer.allocate(INITIAL_READ_BUFFER_SIZE);
+		this.writeQueue = new ArrayDeque<ByteBuffer>();
+		this.fieldState = new FieldState();
+	}
+
+	// 通信
+
+	private void send(MessageWriter writer) {
+		send(writer.toFrame(), Integer.MAX_VALUE);
+	}
+
+	// 書ききれなかったバイト数がlimitを超える場合は何もせずにfalseを返す
+	private boolean send(ByteBuffer frame, int limit) {
+		synchronized (writeQueue) {
+			if (!channel.isOpen())
+				return false;
+			if (queuedSize > limit - frame.remaining())
+				return false;
+			try {
+				if (writeQueue.isEmpty()) {
+					channel.write(frame);
+					if (!frame.hasRemaining())
+						return true;
+				}
+				writeQueue.add(frame);
+				queuedSize += frame.remaining();
+				key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+			} catch (IOException | CancelledKeyException e) {
+				close();
+				return false;
+			}
+		}
+		key.selector().wakeup();
+		return true;
+	}
+
+	@Override
+	public boolean offer(ByteBuffer frame) {
+		return send(frame, MAX_SPECTATOR_QUEUED_SIZE);
+	}
+
+	@Override
+	public boolean isOpen() {
+		return channel.isOpen();
+	}
+
+	/**
+	 * 書ききれなかったメッセージを送る.セレクタのスレッドから呼び出す.
+	 *
+	 * @throws IOException 送信に失敗した場合.
+	 */
+	void onWritable() throws IOException {
+		synchronized (writeQueue) {
+			while (!writeQueue.isEmpty()) {
+				ByteBuffer frame = writeQueue.peek();
+				queuedSize -= channel.write(frame);
+				if (frame.hasRemaining())
+					return;
+				writeQueue.poll();
+			}
+			key.interestOps(SelectionKey.OP_READ);
+		}
+	}
+
+	/**
+	 * 届いたバイト列を読み,そろったメッセージを処理する.セレクタのスレッドから呼び出す.
+	 *
+	 * @throws IOException 受信に失敗した場合.
+	 * @throws IllegalStateException 壊れたメッセージを受信した場合.
+	 */
+	void onReadable() throws IOException {
+		if (channel.read(readBuffer) < 0) {
+			close();
+			return;
+		}
+		readBuffer.flip();
+		ByteBuffer payload;
+		while ((payload = MessageReader.nextMessage(readBuffer)) != null) {
+			dispatch(new MessageReader(payload));
+		}
+		readBuffer.compact();
+		// 1つのメッセージがバッファに収まらない場合は広げる
+		if (!readBuffer.hasRemaining()) {
+			ByteBuffer newBuffer = ByteBuffer.allocate(readBuffer.capacity() * 2);
+			readBuffer.flip();
+			newBuffer.put(readBuffer);
+			readBuffer = newBuffer;
+		}
+	}
+
+	/**
+	 * 接続を閉じる.送っていないメッセージは捨てる.返答を待っている卓のスレッドは起こされる.
+	 */
+	void close() {
+		key.cancel();
+		try {
+			channel.close();
+		} catch (IOException e) {
+		}
+		onDisconnected();
+	}
+
+	@Override
+	public void disconnect() {
+		close();
+	}
+
+	// クライアントからのメッセージを対応するon~Receivedメソッドに渡す
+	private void dispatch(MessageReader reader) {
+		switch (reader.getType()) {
+		case GAME_REQUEST:
+			if (watchingTableId >= 0)
+				throw new IllegalStateException("観戦中の接続からの対局の希望");
+			if (!joined) {
+				joined = true;
+				tableServer.join(this);
+			}
+			onGameRequested(reader.readVarint());
+			break;
+		case KYUSYUKYUHAI:
+			onKyusyukyuhaiReceived(reader.readBoolean());
+			break;
+		case DISCARD_INDEX:
+			onDiscardIndexReceived(reader.readSignedVarint());
+			break;
+		case CHI_INDEX_LIST:
+			onChiIndexListReceived(reader.readIndexList());
+			break;
+		case PON_INDEX_LIST:
+			onPonIndexListReceived(reader.readIndexList());
+			break;
+		case ANKAN_INDEX_LIST:
+			onAnkanIndexListReceived(reader.readIndexList());
+			break;
+		case MINKAN:
+			onMinkanableIndexReceived(reader.readBoolean());
+			break;
+		case KAKAN_INDEX:
+			onKakanableIndexReceived(reader.readSignedVarint());
+			break;
+		case REACH_INDEX:
+			onReachIndexReceived(reader.readSignedVarint());
+			break;
+		case RON_ANSWER:
+			onRonReceived(reader.readBoolean());
+			break;
+		case TSUMO_AGARI:
+			onTsumoAgariReceived();
+			break;
+		case NEXT_KYOKU:
+			onNextKyokuRequested();
+			break;
+		case WATCH:
+			if (joined)
+				throw new IllegalStateException("対局中の接続からの観戦の希望");
+			// 別の卓に移る場合は前の卓の配信を止める.観戦できる卓がなければゲームの終了を返す
+			int tableId = reader.readVarint();
+			if (watchingTableId >= 0)
+				tableServer.unwatch(watchingTableId, this);
+			watchingTableId = -1;
+			if (tableServer.watch(tableId, this))
+				watchingTableId = tableId;
+			else
+				sendGameOver();
+			break;
+		case RESYNC:
+			if (watchingTableId >= 0) {
+				// 観戦者の場の情報は卓の観戦のチャネルが配信したものなので,チャネルから送り直す
+				tableServer.resync(watchingTableId, this);
+				break;
+			}
+			synchronized (fieldState) {
+				MessageWriter writer = new MessageWriter(MessageType.FIELD);
+				fieldState.writeFull(writer);
+				send(writer);
+			}
+			break;
+		default:
+			throw new IllegalStateException("サーバーへのメッセージではない : " + reader.getType());
+		}
+	}
+
+	// サーバーからの通知
+
+	@Override
+	public void sendGameStart(List<Player> playerList, int index, int[] scores) {
+		this.playerList = playerList;
+		MessageWriter writer = new MessageWriter(MessageType.GAME_START);
+		writer.writeVarint(playerList.size());
+		for (Player p : playerList) {
+			writer.writeVarint(p.getId());
+			writer.writeString(p.getName());
+			writer.writeBoolean(p.isMan());
+		}
+		writer.writeVarint(index);
+		writer.writeIntArray(scores);
+		send(writer);
+	}
+
+	@Override
+	public void notifyStartKyoku(Kaze bakaze, int kyokusu, int honba, int tsumibou) {
+		MessageWriter writer = new MessageWriter(MessageType.START_KYOKU);
+		writer.writeKaze(bakaze);
+		writer.writeVarint(kyokusu);
+		writer.writeVarint(honba);
+		writer.writeVarint(tsumibou);
+		send(writer);
+	}
+
+	@Override
+	public void requestKyusyukyuhai() {
+		send(new MessageWriter(MessageType.REQUEST_KYUSYUKYUHAI));
+	}
+
+	@Override
+	public void sendTsumoHai(Hai hai) {
+		MessageWriter writer = new MessageWriter(MessageType.TSUMO_HAI);
+		writer.writeHai(hai);
+		send(writer);
+	}
+
+	@Override
+	public void sendTsumoGiri() {
+		send(new MessageWriter(MessageType.TSUMOGIRI));
+	}
+
+	@Override
+	public void sendDiscard(boolean tumoari) {
+		MessageWriter writer = new MessageWriter(MessageType.REQUEST_DISCARD);
+		writer.writeBoolean(tumoari);
+		send(writer);
+	}
+
+	@Override
+	public void sendChiableIndexLists(List<List<Integer>> lists) {
+		sendIndexLists(MessageType.CHIABLE_INDEX_LISTS, lists);
+	}
+
+	@Override
+	public void sendPonableIndexLists(List<List<Integer>> lists) {
+		sendIndexLists(MessageType.PONABLE_INDEX_LISTS, lists);
+	}
+
+	@Override
+	public void sendAnkanableIndexLists(List<List<Integer>> lists) {
+		sendIndexLists(MessageType.ANKANABLE_INDEX_LISTS, lists);
+	}
+
+	private void sendIndexLists(MessageType type, List<List<Integer>> lists) {
+		MessageWriter writer = new MessageWriter(type);
+		writer.writeIndexLists(lists);
+		send(writer);
+	}
+
+	@Override
+	public void sendMinkanableIndexList(List<Integer> list) {
+		sendIndexList(MessageType.MINKANABLE_INDEX_LIST, list);
+	}
+
+	@Override
+	public void sendKakanableIndexList(List<Integer> list) {
+		sendIndexList(MessageType.KAKANABLE_INDEX_LIST, list);
+	}
+
+	@Override
+	public void sendReachableIndexList(List<Integer> list) {
+		sendIndexList(MessageType.REACHABLE_INDEX_LIST, list);
+	}
+
+	private void sendIndexList(MessageType type, List<Integer> list) {
+		MessageWriter writer = new MessageWriter(type);
+		writer.writeIndexList(list);
+		send(writer);
+	}
+
+	@Override
+	public void requestRon() {
+		send(new MessageWriter(MessageType.REQUEST_RON));
+	}
+
+	@Override
+	public void requestTsumoAgari() {
+		send(new MessageWriter(MessageType.REQUEST_TSUMO_AGARI));
+	}
+
+	@Override
+	public void notifyDiscard(Player p, Hai hai, boolean tumokiri) {
+		MessageWriter writer = new MessageWriter(MessageType.DISCARD);
+		writer.writeVarint(p.getId());
+		writer.writeHai(hai);
+		writer.writeBoolean(tumokiri);
+		send(writer);
+	}
+
+	@Override
+	public void notifyNaki(Player p, Mentsu m) {
+		MessageWriter writer = new MessageWriter(MessageType.NAKI);
+		writer.writeVarint(p.getId());
+		writer.writeMentsu(m);
+		send(writer);
+	}
+
+	@Override
+	public void notifyRon(Map<Player, List<Hai>> map) {
+		sendPlayerHaiMap(MessageType.RON, map);
+	}
+
+	@Override
+	public void notifyTempai(Map<Player, List<Hai>> map) {
+		sendPlayerHaiMap(MessageType.TEMPAI, map);
+	}
+
+	private void sendPlayerHaiMap(MessageType type, Map<Player, List<Hai>> map) {
+		MessageWriter writer = new MessageWriter(type);
+		writer.writeVarint(map.size());
+		for (Map.Entry<Player, List<Hai>> entry : map.entrySet()) {
+			writer.writeVarint(entry.getKey().getId());
+			writer.writeHaiList(entry.getValue());
+		}
+		send(writer);
+	}
+
+	@Override
+	public void sendField(List<Hai> tehai, Map<Kaze, HurohaiList> nakihai,
+			Map<Kaze, List<Hai>> sutehai, Kaze currentTurn, Hai currentSutehai,
+			List<Integer> tehaiSize, int yamaSize, int wanpaiSize,
+			List<Hai> doraList) {
+		MessageWriter writer = new MessageWriter(MessageType.FIELD_DELTA);
+		// 通番の順に送るため,差分の作成から送信のキューに入れるまでを同期する
+		synchronized (fieldState) {
+			fieldState.writeDelta(writer, tehai, nakihai, sutehai, currentTurn, currentSutehai,
+					tehaiSize, yamaSize, wanpaiSize, doraList);
+			send(writer);
+		}
+	}
+
+	@Override
+	public void notifyReach(Kaze currentTurn, int sutehaiIndex) {
+		MessageWriter writer = new MessageWriter(MessageType.REACH);
+		writer.writeKaze(currentTurn);
+		writer.writeSignedVarint(sutehaiIndex);
+		send(writer);
+	}
+
+	/**
+	 * 局の結果を送る.KyokuResultはそのまま送れないので,次の順に必要な値だけを書く.
+	 * <ol>
+	 * <li>結果の種類(0:ロン,1:ツモ,2:流局,3:途中流局).途中流局ならその種類,あがりならあがり牌</li>
+	 * <li>sendGameStart()で送ったプレイヤーの順に,あがり,聴牌,リーチ,放銃のフラグ.
+	 * あがったプレイヤーは翻,符,役満の数,ドラの数,基本点,点数の種類,役(役満は0x80を足した序数)</li>
+	 * <li>新しい点数,前の点数,素点,裏ドラ</li>
+	 * </ol>
+	 *
+	 * @throws IllegalStateException sendGameStart()より前に呼び出した場合.
+	 */
+	@Override
+	public void notifyKyokuResult(KyokuResult kr, int[] newScore,
+			int[] oldScore, List<Integer> soten, List<Hai> uradoraList) {
+		if (playerList == null)
+			throw new IllegalStateException("対局が始まっていない");
+		MessageWriter writer = new MessageWriter(MessageType.KYOKU_RESULT);
+		Player hoju = null;
+		if (kr.isTotyuRyukyoku()) {
+			writer.writeByte(RESULT_TOTYU_RYUKYOKU);
+			writer.writeByte(kr.getTotyuryukyokuType().ordinal());
+		} else if (kr.isRyukyoku()) {
+			writer.writeByte(RESULT_RYUKYOKU);
+		} else if (kr.isTsumoAgari()) {
+			writer.writeByte(RESULT_TSUMO);
+			writer.writeHai(kr.getAgariHai());
+		} else {
+			writer.writeByte(RESULT_RON);
+			writer.writeHai(kr.getAgariHai());
+			hoju = kr.getHojuPlayer();
+		}
+
+		for (Player p : playerList) {
+			boolean agari = kr.isAgari(p);
+			int flags = (agari ? PLAYER_AGARI : 0) | (kr.isTenpai(p) ? PLAYER_TENPAI : 0)
+					| (kr.isReach(p) ? PLAYER_REACH : 0) | (p.equals(hoju) ? PLAYER_HOJU : 0);
+			writer.writeByte(flags);
+			if (agari)
+				writeAgariResult(writer, kr.getAgariResult(p));
+		}
+
+		writer.writeIntArray(newScore);
+		writer.writeIntArray(oldScore);
+		writer.writeVarint(soten.size());
+		for (int i = 0; i < soten.size(); i++) {
+			writer.writeSignedVarint(soten.get(i));
+		}
+		writer.writeHaiList(uradoraList);
+		send(writer);
+	}
+
+	private static void writeAgariResult(MessageWriter writer, AgariResult ar) {
+		writer.writeVarint(ar.getHan());
+		writer.writeVarint(ar.getHu());
+		writer.writeVarint(ar.getYakumanSize());
+		writer.writeVarint(ar.getDoraSize());
+		writer.writeVarint(ar.getBaseScore());
+		writer.writeByte(ar.getScoreType() == null ? MessageWriter.NULL : ar.getScoreType().ordinal());
+		writer.writeVarint(ar.getYakuSet().size());
+		for (Yaku yaku : ar.getYakuSet()) {
+			if (yaku instanceof NormalYaku) {
+				writer.writeByte(((NormalYaku) yaku).ordinal());
+			} else {
+				writer.writeByte(0x80 | ((Yakuman) yaku).ordinal());
+			}
+		}
+	}
+
+	@Override
+	public void notifyGameResult(int[] score) {
+		MessageWriter writer = new MessageWriter(MessageType.GAME_RESULT);
+		writer.writeIntArray(score);
+		send(writer);
+	}
+
+	@Override
+	public void sendGameOver() {
+		send(new MessageWriter(MessageType.GAME_OVER));
+	}
+}
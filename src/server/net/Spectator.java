@@ -0,0 +1,24 @@
+package server.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 卓を観戦するクライアント.SpectatorChannelから観戦用のメッセージを受け取る.
+ */
+public interface Spectator {
+	/**
+	 * メッセージの送信を予約する.呼び出したスレッドをブロックしてはならない.
+	 * 送りきれずに溜まっているメッセージが多すぎる場合は何もせずにfalseを返す.
+	 *
+	 * @param frame MessageWriter.toFrame()で作ったメッセージ.他の観戦者と共有するので内容を変更してはならない.
+	 * @return 予約した場合true.
+	 */
+	public boolean offer(ByteBuffer frame);
+
+	/**
+	 * 接続が開いているかどうかを返す.
+	 *
+	 * @return 開いている場合true.
+	 */
+	public boolean isOpen();
+}
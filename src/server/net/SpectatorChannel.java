@@ -0,0 +1,333 @@
+package server.net;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import system.Kyoku;
+import system.KyokuListener;
+import system.hai.Hai;
+import system.hai.HaiType;
+import system.hai.HurohaiList;
+import system.hai.Kaze;
+import system.result.TotyuRyukyokuType;
+
+/**
+ * 1つの卓の進行を多数の観戦者に配信するチャネル.</br>
+ * Mahjong.addKyokuListener()で登録すると,局の出来事のたびに全員の手牌を伏せた場の情報の差分(FIELD_DELTA)を
+ * 1回だけメッセージにして,同じバイト列を全ての観戦者に配る.あがった人の手牌だけはAGARIで公開する.
+ * 途中から観戦を始めた観戦者には,配信済みの場の情報の全体(FIELD)を最初に送る.</br>
+ * 配信は卓のスレッドではなく指定されたエグゼキュータで,指定された時間だけ遅らせて行う.
+ * 観戦者への送信はブロックしないので,遅い観戦者が卓の進行や他の観戦者への配信を止めることはない.
+ * 送りきれないメッセージが溜まって受け取りを拒んだ観戦者には差分を送るのをやめ,
+ * 受け取れるようになった時点で全体を送り直す.
+ */
+public class SpectatorChannel implements KyokuListener {
+	private final ScheduledExecutorService executor;
+	private final long delay;
+
+	/** 卓のスレッドで差分を作るための,観戦者に送った場の情報 */
+	private final FieldState sentState;
+	private Kyoku kyoku;
+
+	/** 配信済みの場の情報.以下は全てこのオブジェクトで同期する */
+	private final FieldState publishedState;
+	private ByteBuffer startKyokuFrame;
+	private final List<Subscription> subscriptionList;
+	private boolean closed;
+
+	// 観戦者と,差分を取りこぼして全体を送り直す必要があるかどうか
+	private static class Subscription {
+		private final Spectator spectator;
+		private boolean stale;
+
+		private Subscription(Spectator spectator) {
+			this.spectator = spectator;
+			this.stale = true;
+		}
+	}
+
+	/**
+	 * 観戦のチャネルのコンストラクタ.
+	 *
+	 * @param executor 配信を行うエグゼキュータ.メッセージの順序を保つためにスレッドは1つでなければならない.
+	 * @param delay 局の出来事から配信までのミリ秒.
+	 * @throws IllegalArgumentException 遅延が負の場合.
+	 */
+	public SpectatorChannel(ScheduledExecutorService executor, long delay) {
+		if (delay < 0)
+			throw new IllegalArgumentException("遅延が負 : " + delay);
+		this.executor = executor;
+		this.delay = delay;
+		this.sentState = new FieldState();
+		this.publishedState = new FieldState();
+		this.subscriptionList = new ArrayList<Subscription>();
+	}
+
+	/**
+	 * 観戦者を追加する.次の配信から全体を送る.
+	 *
+	 * @param spectator 観戦者.
+	 * @return 追加した場合true.チャネルが閉じている場合false.
+	 */
+	public synchronized boolean subscribe(Spectator spectator) {
+		if (closed)
+			return false;
+		Subscription s = new Subscription(spectator);
+		resync(s);
+		subscriptionList.add(s);
+		return true;
+	}
+
+	/**
+	 * 観戦者を削除する.
+	 *
+	 * @param spectator 観戦者.
+	 */
+	public synchronized void unsubscribe(Spectator spectator) {
+		for (Iterator<Subscription> it = subscriptionList.iterator(); it.hasNext();) {
+			if (it.next().spectator == spectator)
+				it.remove();
+		}
+	}
+
+	/**
+	 * 観戦者に局の開始と配信済みの場の情報の全体を送り直す.観戦者が差分を適用できなかった場合に使う.
+	 * 受け取りを拒まれた場合は,次の配信でもう一度全体を送る.
+	 *
+	 * @param spectator 観戦者.
+	 * @return 送り直した場合true.観戦者が追加されていない場合false.
+	 */
+	public synchronized boolean resync(Spectator spectator) {
+		for (Subscription s : subscriptionList) {
+			if (s.spectator == spectator) {
+				resync(s);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 観戦者の数を返す.
+	 *
+	 * @return 観戦者の数.
+	 */
+	public synchronized int getSpectatorSize() {
+		return subscriptionList.size();
+	}
+
+	/**
+	 * 局の開始を配信する.引数はServer.notifyStartKyoku()と同じ.
+	 */
+	public void notifyStartKyoku(Kaze bakaze, int kyokusu, int honba, int tsumibou) {
+		MessageWriter writer = new MessageWriter(MessageType.START_KYOKU);
+		writer.writeKaze(bakaze);
+		writer.writeVarint(kyokusu);
+		writer.writeVarint(honba);
+		writer.writeVarint(tsumibou);
+		publishLater(writer);
+	}
+
+	/**
+	 * 半荘の結果を配信する.引数はServer.notifyGameResult()と同じ.
+	 */
+	public void notifyGameResult(int score[]) {
+		MessageWriter writer = new MessageWriter(MessageType.GAME_RESULT);
+		writer.writeIntArray(score);
+		publishLater(writer);
+	}
+
+	/**
+	 * ゲームの終了を配信してチャネルを閉じる.配信が終わったら観戦者を全て削除する.
+	 */
+	public void close() {
+		publishLater(new MessageWriter(MessageType.GAME_OVER));
+		try {
+			executor.schedule(new Runnable() {
+				@Override
+				public void run() {
+					synchronized (SpectatorChannel.this) {
+						closed = true;
+						subscriptionList.clear();
+					}
+				}
+			}, delay, TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+			synchronized (this) {
+				closed = true;
+				subscriptionList.clear();
+			}
+		}
+	}
+
+	// 以下は卓のスレッドから呼び出される
+
+	@Override
+	public void onInit(Kyoku kyoku) {
+		this.kyoku = kyoku;
+		publishField();
+	}
+
+	@Override
+	public void onTsumo(Kaze kaze, Hai hai, boolean rinsyan) {
+		// ツモ牌は伏せるので,変わるのは手牌と山の枚数だけ
+		publishField();
+	}
+
+	@Override
+	public void onDiscard(Kaze kaze, Hai hai, boolean tsumogiri) {
+		publishField();
+	}
+
+	@Override
+	public void onReach(Kaze kaze) {
+		// リーチ宣言牌はこれから捨て牌の末尾に置かれる
+		MessageWriter writer = new MessageWriter(MessageType.REACH);
+		writer.writeKaze(kaze);
+		writer.writeSignedVarint(kyoku.getSutehaiList(kaze).toNakiExcludedHaiList().size());
+		publishLater(writer);
+	}
+
+	@Override
+	public void onPon(Kaze kaze, Hai hai0, Hai hai1) {
+		publishField();
+	}
+
+	@Override
+	public void onChi(Kaze kaze, Hai hai0, Hai hai1) {
+		publishField();
+	}
+
+	@Override
+	public void onMinkan(Kaze kaze) {
+		publishField();
+	}
+
+	@Override
+	public void onAnkan(Kaze kaze, HaiType type) {
+		publishField();
+	}
+
+	@Override
+	public void onKakan(Kaze kaze, Hai hai) {
+		publishField();
+	}
+
+	@Override
+	public void onDora() {
+		publishField();
+	}
+
+	@Override
+	public void onTsumoAgari(Kaze kaze) {
+		publishAgari(kaze, true, kyoku.getCurrentTsumoHai());
+	}
+
+	@Override
+	public void onRon(Kaze kaze) {
+		publishAgari(kaze, false, kyoku.getCurrentSutehai());
+	}
+
+	@Override
+	public void onRyukyoku() {
+		MessageWriter writer = new MessageWriter(MessageType.RYUKYOKU);
+		writer.writeByte(MessageWriter.NULL);
+		publishLater(writer);
+	}
+
+	@Override
+	public void onTotyuRyukyoku(TotyuRyukyokuType type) {
+		MessageWriter writer = new MessageWriter(MessageType.RYUKYOKU);
+		writer.writeByte(type.ordinal());
+		publishLater(writer);
+	}
+
+	private void publishAgari(Kaze kaze, boolean tsumo, Hai agariHai) {
+		MessageWriter writer = new MessageWriter(MessageType.AGARI);
+		writer.writeKaze(kaze);
+		writer.writeBoolean(tsumo);
+		writer.writeHaiList(kyoku.getTehaiList(kaze));
+		writer.writeHai(agariHai);
+		publishLater(writer);
+	}
+
+	// 手牌を伏せた場の情報の差分を配信する
+	private void publishField() {
+		Map<Kaze, HurohaiList> nakihai = kyoku.getHurohaiMap();
+		Map<Kaze, List<Hai>> sutehai = new EnumMap<Kaze, List<Hai>>(Kaze.class);
+		List<Integer> tehaiSize = new ArrayList<Integer>(4);
+		for (Kaze kaze : Kaze.values()) {
+			sutehai.put(kaze, kyoku.getSutehaiList(kaze).toNakiExcludedHaiList());
+			tehaiSize.add(kyoku.getTehaiList(kaze).size());
+		}
+		MessageWriter writer = new MessageWriter(MessageType.FIELD_DELTA);
+		sentState.writeDelta(writer, Collections.<Hai> emptyList(), nakihai, sutehai, kyoku.getCurrentTurn(),
+				kyoku.getCurrentSutehai(), tehaiSize, kyoku.sizeOfYamahai(), kyoku.getWanpaiList().size(),
+				kyoku.getOpenDoraList());
+		publishLater(writer);
+	}
+
+	// 卓のスレッドではメッセージを作るだけにして,配信はエグゼキュータで遅らせて行う.
+	// エグゼキュータが止まっていれば配信を捨てる.観戦のために卓の進行を止めてはいけない
+	private void publishLater(MessageWriter writer) {
+		final ByteBuffer frame = writer.toFrame();
+		try {
+			executor.schedule(new Runnable() {
+				@Override
+				public void run() {
+					publish(frame);
+				}
+			}, delay, TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+		}
+	}
+
+	private synchronized void publish(ByteBuffer frame) {
+		if (closed)
+			return;
+		MessageReader reader = new MessageReader(MessageReader.nextMessage(frame.duplicate()));
+		if (reader.getType() == MessageType.FIELD_DELTA) {
+			publishedState.read(reader);
+		} else if (reader.getType() == MessageType.START_KYOKU) {
+			startKyokuFrame = frame;
+		}
+
+		for (Iterator<Subscription> it = subscriptionList.iterator(); it.hasNext();) {
+			Subscription s = it.next();
+			if (!s.spectator.isOpen()) {
+				it.remove();
+			} else if (s.stale) {
+				// 全体が今回の差分を含んでいるので差分は送らない
+				if (reader.getType() == MessageType.FIELD_DELTA)
+					resync(s);
+				else if (resync(s))
+					offer(s, frame);
+			} else {
+				offer(s, frame);
+			}
+		}
+	}
+
+	// 局の開始と場の情報の全体を送る
+	private boolean resync(Subscription s) {
+		if (startKyokuFrame != null && !s.spectator.offer(startKyokuFrame.duplicate()))
+			return false;
+		MessageWriter writer = new MessageWriter(MessageType.FIELD);
+		publishedState.writeFull(writer);
+		s.stale = !s.spectator.offer(writer.toFrame());
+		return !s.stale;
+	}
+
+	private void offer(Subscription s, ByteBuffer frame) {
+		if (!s.spectator.offer(frame.duplicate()))
+			s.stale = true;
+	}
+}
@@ -0,0 +1,27 @@
+package simulator;
+
+import system.Player;
+import ai.AI;
+import ai.AIType01;
+
+/**
+ * シミュレータで用いるAIを生成するインターフェース.
+ * シミュレータはプレイヤーごとにこのインターフェースを使ってAIを1つずつ生成する.
+ */
+public interface AIFactory {
+	/** 全員をAIType01で打たせるファクトリ */
+	public static final AIFactory AI_TYPE01 = new AIFactory() {
+		@Override
+		public AI create(Player p) {
+			return new AIType01(p);
+		}
+	};
+
+	/**
+	 * 指定されたプレイヤーとして打つAIを生成する.
+	 * 
+	 * @param p AIが担当するプレイヤー.
+	 * @return 生成したAI.
+	 */
+	public AI create(Player p);
+}
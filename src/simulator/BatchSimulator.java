@@ -0,0 +1,136 @@
+package simulator;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import system.Rule;
+
+/**
+ * 多数のゲームをForkJoinPoolで並列に打つクラス.</br>
+ * 1つのゲームは1つのスレッドの中だけで打ち、Mahjong,Kyoku,AI,乱数生成器はゲームごとに新しく作る.
+ * そのため各ゲームの結果は種とゲームの番号だけで決まり、スレッド数や実行順には左右されない.
+ * ゲームの結果はSimulationStatsに足し込む.
+ */
+public class BatchSimulator {
+	/** 並列に分けるときの1タスクあたりの最小のゲーム数 */
+	private static final int THRESHOLD = 4;
+
+	private final Rule rule;
+	private final AIFactory factory;
+	private final ForkJoinPool pool;
+
+	/**
+	 * 共通のForkJoinPoolを使うバッチシミュレータのコンストラクタ.
+	 *
+	 * @param rule ルール.
+	 * @param factory AIを生成するファクトリ.複数のスレッドから同時に呼び出される.
+	 */
+	public BatchSimulator(Rule rule, AIFactory factory) {
+		this(rule, factory, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * 指定されたForkJoinPoolを使うバッチシミュレータのコンストラクタ.
+	 *
+	 * @param rule ルール.
+	 * @param factory AIを生成するファクトリ.複数のスレッドから同時に呼び出される.
+	 * @param pool ゲームを打つスレッドのプール.
+	 */
+	public BatchSimulator(Rule rule, AIFactory factory, ForkJoinPool pool) {
+		this.rule = rule;
+		this.factory = factory;
+		this.pool = pool;
+	}
+
+	/**
+	 * 指定された数のゲームを並列に打ち、その集計を返す.
+	 *
+	 * @param seed 種.
+	 * @param gameSize ゲームの数.
+	 * @return 集計.
+	 */
+	public SimulationStats run(long seed, int gameSize) {
+		SimulationStats stats = new SimulationStats();
+		pool.invoke(new GameTask(seed, 0, gameSize, stats));
+		return stats;
+	}
+
+	/**
+	 * 指定された番号のゲームを1つ打ち、その集計を返す.run()の中で打つゲームとまったく同じゲームになるので、
+	 * 気になるゲームを1つだけ再現するのに使う.
+	 *
+	 * @param seed run()に渡した種.
+	 * @param index ゲームの番号.
+	 * @return 1つのゲームの集計.
+	 */
+	public SimulationStats play(long seed, int index) {
+		SimulationStats stats = new SimulationStats();
+		MahjongSimulator simulator = newSimulator(seed, index);
+		stats.add(simulator, simulator.run());
+		return stats;
+	}
+
+	private MahjongSimulator newSimulator(long seed, int index) {
+		return new MahjongSimulator(MahjongSimulator.newAIPlayers(), rule, factory, new Random(gameSeed(seed, index)));
+	}
+
+	/**
+	 * 種とゲームの番号からそのゲームの乱数生成器の種を作る.
+	 * 隣り合う番号のゲームの種が似た値にならないようにビットをかき混ぜる.
+	 *
+	 * @param seed 種.
+	 * @param index ゲームの番号.
+	 * @return ゲームの乱数生成器の種.
+	 */
+	public static long gameSeed(long seed, int index) {
+		long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * [from, to)の番号のゲームを打つタスク.ゲームが多い場合は半分に分けて並列に打つ.
+	 */
+	private class GameTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final long seed;
+		private final int from;
+		private final int to;
+		private final SimulationStats stats;
+
+		private GameTask(long seed, int from, int to, SimulationStats stats) {
+			this.seed = seed;
+			this.from = from;
+			this.to = to;
+			this.stats = stats;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= THRESHOLD) {
+				for (int i = from; i < to; i++) {
+					MahjongSimulator simulator = newSimulator(seed, i);
+					stats.add(simulator, simulator.run());
+				}
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new GameTask(seed, from, mid, stats), new GameTask(seed, mid, to, stats));
+		}
+	}
+
+	public static void main(String[] args) {
+		int gameSize = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : 0;
+
+		BatchSimulator batch = new BatchSimulator(new Rule(), AIFactory.AI_TYPE01);
+		long start = System.currentTimeMillis();
+		SimulationStats stats = batch.run(seed, gameSize);
+		long time = System.currentTimeMillis() - start;
+		System.out.println(stats);
+		System.out.println(time + "ms");
+	}
+}
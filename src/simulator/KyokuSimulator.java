@@ -0,0 +1,278 @@
+package simulator;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import system.Kyoku;
+import system.hai.Kaze;
+import system.result.KyokuResult;
+import system.result.TotyuRyukyokuType;
+import ai.AI;
+
+/**
+ * AIだけで1回の局を最後まで進めるクラス.</br>
+ * server.KyokuRunnerと同じ順番で局を進めるが、トランスポータやコンソールを使わず、待ち時間も入れない.
+ * すべての判断はその場でAIに問い合わせる.
+ */
+public class KyokuSimulator {
+	private final Kyoku kyoku;
+	private final Map<Kaze, AI> aiMap;
+
+	/**
+	 * 指定された局を進めるシミュレータのコンストラクタ.局はMahjong.startKyoku()などで初期化されている必要がある.
+	 *
+	 * @param kyoku 局オブジェクト.
+	 * @param aiMap 風->AIを表すマップ.4人分のAIが入っている必要がある.
+	 * @throws IllegalArgumentException AIが4人分そろっていない場合.
+	 */
+	public KyokuSimulator(Kyoku kyoku, Map<Kaze, AI> aiMap) {
+		for (Kaze kaze : Kaze.values()) {
+			if (aiMap.get(kaze) == null)
+				throw new IllegalArgumentException(kaze + "のAIがありません.");
+		}
+		this.kyoku = kyoku;
+		this.aiMap = new HashMap<Kaze, AI>(aiMap);
+		for (AI ai : this.aiMap.values()) {
+			ai.update(kyoku);
+		}
+	}
+
+	/**
+	 * 局を終局まで進め、その局結果を返す.
+	 *
+	 * @return 局結果.
+	 * @throws IllegalStateException AIが選べない選択肢を返した場合.
+	 */
+	public KyokuResult run() {
+		boolean tsumo = true;
+		while (true) {
+			if (tsumo) {
+				kyoku.doTsumo();
+				kyoku.sortTehaiList();
+				if (doBeforeDiscard()) {
+					break;
+				}
+			}
+			discard();
+			if (doRon()) {
+				break;
+			}
+			if (doTotyuRyukyoku()) {
+				break;
+			}
+
+			// 河底の牌は鳴けない
+			if (!kyoku.isRyukyoku() && kyoku.isNakiable()) {
+				if (doMinkan()) {
+					kyoku.doRinsyanTsumo();
+					kyoku.sortTehaiList();
+					if (doBeforeDiscard()) {
+						break;
+					}
+					tsumo = false;
+					continue;
+				}
+				if (doPon() || doChi()) {
+					kyoku.sortTehaiList();
+					tsumo = false;
+					continue;
+				}
+			}
+
+			if (kyoku.isRyukyoku()) {
+				kyoku.doRyukyoku();
+				break;
+			}
+			kyoku.nextTurn();
+			tsumo = true;
+		}
+		return kyoku.createKyokuResult();
+	}
+
+	/**
+	 * ツモの後、打牌の前の九種九牌、ツモあがり、加槓、暗槓を処理する.
+	 * 槓した場合は嶺上牌をツモって同じ処理を繰り返す.
+	 *
+	 * @return 局が終わった場合true.
+	 */
+	private boolean doBeforeDiscard() {
+		while (true) {
+			AI ai = aiMap.get(kyoku.getCurrentTurn());
+
+			if (kyoku.isKyusyukyuhai() && ai.isKyusyukyuhai()) {
+				kyoku.doTotyuRyukyoku(TotyuRyukyokuType.KYUSYUKYUHAI);
+				return true;
+			}
+			if (kyoku.isTsumoAgari() && ai.isTumoAgari()) {
+				kyoku.doTsumoAgari();
+				return true;
+			}
+			if (kyoku.isKakanable()) {
+				List<Integer> list = kyoku.getKakanableHaiList();
+				int index = ai.kakan(list);
+				if (isValidIndex(index, list.size())) {
+					kyoku.doKakan(list.get(index));
+					// 搶槓
+					if (doRon()) {
+						return true;
+					}
+					kyoku.doRinsyanTsumo();
+					kyoku.sortTehaiList();
+					continue;
+				}
+			}
+			if (kyoku.isAnkanable()) {
+				List<List<Integer>> lists = kyoku.getAnkanableHaiList();
+				int index = ai.ankan(lists);
+				if (isValidIndex(index, lists.size())) {
+					kyoku.doAnkan(lists.get(index));
+					kyoku.doRinsyanTsumo();
+					kyoku.sortTehaiList();
+					continue;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * 現在ターンのプレイヤーに牌を切らせる.リーチしている場合はツモ切りする.
+	 */
+	private void discard() {
+		Kaze kaze = kyoku.getCurrentTurn();
+		AI ai = aiMap.get(kaze);
+
+		if (kyoku.isReach(kaze)) {
+			kyoku.discardTsumoHai();
+			return;
+		}
+		if (kyoku.getCurrentTsumoHai() != null && kyoku.isReachable()) {
+			List<Integer> list = kyoku.getReachableHaiList();
+			int index = ai.reach(list);
+			if (isValidIndex(index, list.size())) {
+				kyoku.doReach();
+				kyoku.discard(list.get(index));
+				return;
+			}
+		}
+
+		int index = ai.discard();
+		int size = kyoku.getTehaiList(kaze).size();
+		if (index == 13 && kyoku.getCurrentTsumoHai() != null) {
+			kyoku.discardTsumoHai();
+		} else if (isValidIndex(index, size)) {
+			kyoku.discard(index);
+		} else {
+			throw new IllegalStateException(kyoku.getPlayer(kaze) + "のAIが不正な打牌インデックスを返しました : " + index);
+		}
+	}
+
+	/**
+	 * 現在の捨牌(または加槓した牌)に対して、ロンできるプレイヤーにロンするかどうかを聞く.
+	 *
+	 * @return 1人以上がロンした場合true.
+	 */
+	private boolean doRon() {
+		boolean ron = false;
+		for (Kaze kaze : kyoku.getRonableKazeList()) {
+			if (aiMap.get(kaze).isRon()) {
+				kyoku.doRon(kaze);
+				ron = true;
+			} else {
+				kyoku.onRonRejected(kaze);
+			}
+		}
+		if (ron && kyoku.isSanchaho()) {
+			kyoku.doTotyuRyukyoku(TotyuRyukyokuType.SANCHAHO);
+		}
+		return ron;
+	}
+
+	/**
+	 * 打牌の後の四家立直、四風連打、四開槓を処理する.
+	 *
+	 * @return 途中流局した場合true.
+	 */
+	private boolean doTotyuRyukyoku() {
+		TotyuRyukyokuType type = null;
+		if (kyoku.isSuchaReach()) {
+			type = TotyuRyukyokuType.SUCHAREACH;
+		} else if (kyoku.isSufontsuRenta()) {
+			type = TotyuRyukyokuType.SUFONTSURENTA;
+		} else if (kyoku.isSukaikan()) {
+			type = TotyuRyukyokuType.SUKAIKAN;
+		}
+		if (type == null) {
+			return false;
+		}
+		kyoku.doTotyuRyukyoku(type);
+		return true;
+	}
+
+	/**
+	 * 明槓できるプレイヤーに明槓するかどうかを聞く.
+	 *
+	 * @return 明槓した場合true.
+	 */
+	private boolean doMinkan() {
+		Kaze kaze = kyoku.getCurrentTurn().simo();
+		for (int i = 0; i < 3; i++, kaze = kaze.simo()) {
+			if (kyoku.isMinkanable(kaze) && aiMap.get(kaze).minkan()) {
+				kyoku.doMinkan(kaze);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * ポンできるプレイヤーにポンするかどうかを聞く.
+	 *
+	 * @return ポンした場合true.
+	 */
+	private boolean doPon() {
+		Kaze kaze = kyoku.getCurrentTurn().simo();
+		for (int i = 0; i < 3; i++, kaze = kaze.simo()) {
+			if (!kyoku.isPonable(kaze))
+				continue;
+			List<List<Integer>> lists = kyoku.getPonableHaiList(kaze);
+			int index = aiMap.get(kaze).pon(lists);
+			if (isValidIndex(index, lists.size())) {
+				kyoku.doPon(kaze, lists.get(index));
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 下家にチーするかどうかを聞く.
+	 *
+	 * @return チーした場合true.
+	 */
+	private boolean doChi() {
+		if (!kyoku.isChiable())
+			return false;
+		List<List<Integer>> lists = kyoku.getChiableHaiList();
+		int index = aiMap.get(kyoku.getCurrentTurn().simo()).chi(lists);
+		if (isValidIndex(index, lists.size())) {
+			kyoku.doChi(lists.get(index));
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * AIが返したインデックスが選択肢を表す場合trueを返す.-1は選ばないことを表すのでfalseを返す.
+	 *
+	 * @throws IllegalStateException -1以外の範囲外のインデックスの場合.
+	 */
+	private static boolean isValidIndex(int index, int size) {
+		if (index == -1)
+			return false;
+		if (index < 0 || index >= size)
+			throw new IllegalStateException("AIが範囲外のインデックスを返しました : " + index);
+		return true;
+	}
+}
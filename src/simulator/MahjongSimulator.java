@@ -0,0 +1,168 @@
+package simulator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import system.Kyoku;
+import system.KyokuListener;
+import system.Mahjong;
+import system.Player;
+import system.Rule;
+import system.hai.Kaze;
+import system.result.KyokuResult;
+import ai.AI;
+
+/**
+ * AIだけで1回の麻雀(1東風,1半荘)を最後まで打つクラス.</br>
+ * system.Mahjongとsystem.Kyokuを直接動かすので、通信や表示、待ち時間は一切入らない.
+ * AIはプレイヤーごとに1つ生成し、ゲームが終わるまで使い続ける.</br>
+ * このクラスのオブジェクトは1つのスレッドからだけ使うこと.別々のオブジェクトであれば並列に動かしてよい.
+ */
+public class MahjongSimulator {
+	/**
+	 * 1回のゲームで打つ局の上限.
+	 * 西入ありのルールでは誰も30000点を超えないとゲームが終わらないので、あがれないAI同士でも止まるように打ち切る.
+	 */
+	public static final int MAX_KYOKU_SIZE = 100;
+
+	private final Mahjong mahjong;
+	private final Player players[];
+	private final Map<Player, AI> aiMap;
+	private int kyokuSize;
+	private final int agariSizes[];
+	private final int hojuSizes[];
+
+	/**
+	 * シミュレータのコンストラクタ.プレイヤーのリストは親から順番に入っている必要がある.
+	 *
+	 * @param players 親から席順にはいったプレイヤーのリスト.
+	 * @param rule ルール.
+	 * @param factory AIを生成するファクトリ.
+	 * @throws IllegalArgumentException プレイヤーが4人でない場合.
+	 */
+	public MahjongSimulator(List<Player> players, Rule rule, AIFactory factory) {
+		this(players, rule, factory, new Random());
+	}
+
+	/**
+	 * 牌山を作るための乱数生成器を指定したシミュレータのコンストラクタ.
+	 * AIが乱数を使わなければ、同じ種で初期化した乱数生成器からは同じゲームが再現される.
+	 *
+	 * @param players 親から席順にはいったプレイヤーのリスト.
+	 * @param rule ルール.
+	 * @param factory AIを生成するファクトリ.
+	 * @param rand 牌山を作るための乱数生成器.
+	 * @throws IllegalArgumentException プレイヤーが4人でない場合.
+	 */
+	public MahjongSimulator(List<Player> players, Rule rule, AIFactory factory, Random rand) {
+		if (players.size() != 4)
+			throw new IllegalArgumentException("プレイヤーは4人必要です : " + players.size());
+		this.mahjong = new Mahjong(players, rule, rand);
+		this.players = players.toArray(new Player[4]);
+		this.aiMap = new HashMap<Player, AI>(4);
+		for (Player p : players) {
+			aiMap.put(p, factory.create(p));
+		}
+		this.agariSizes = new int[4];
+		this.hojuSizes = new int[4];
+	}
+
+	/**
+	 * AIが打つ4人のプレイヤーA,B,C,Dのリストを作る.シミュレータに渡す席順のリストとしてそのまま使える.
+	 *
+	 * @return 親から席順にはいったプレイヤーのリスト.
+	 */
+	public static List<Player> newAIPlayers() {
+		return Arrays.asList(new Player(1, "A", false), new Player(2, "B", false), new Player(3, "C", false), new Player(4, "D", false));
+	}
+
+	/**
+	 * これから打つすべての局に追加するリスナーを登録する.牌譜を記録する場合などに使う.
+	 *
+	 * @param listener リスナー.
+	 */
+	public void addKyokuListener(KyokuListener listener) {
+		mahjong.addKyokuListener(listener);
+	}
+
+	/**
+	 * ゲームを初期化し、終了するまで局を繰り返す.局の数がMAX_KYOKU_SIZEに達した場合はそこで打ち切る.
+	 *
+	 * @return 打ち終わったゲーム.点数などはこのオブジェクトから取得する.打ち切った場合はisEnd()がfalseとなる.
+	 */
+	public Mahjong run() {
+		mahjong.init();
+		kyokuSize = 0;
+		for (int i = 0; i < 4; i++) {
+			agariSizes[i] = 0;
+			hojuSizes[i] = 0;
+		}
+		do {
+			Kyoku kyoku = mahjong.startKyoku();
+			KyokuResult result = new KyokuSimulator(kyoku, toKazeMap(kyoku)).run();
+			count(result);
+			mahjong.endKyoku();
+			kyokuSize++;
+		} while (!mahjong.isEnd() && kyokuSize < MAX_KYOKU_SIZE);
+		return mahjong;
+	}
+
+	/**
+	 * 局結果からあがった人と放銃した人を数える.
+	 */
+	private void count(KyokuResult result) {
+		if (!result.isTsumoAgari() && !result.isRonAgari())
+			return;
+		for (int i = 0; i < 4; i++) {
+			if (result.isAgari(players[i]))
+				agariSizes[i]++;
+		}
+		if (result.isRonAgari()) {
+			Player hoju = result.getHojuPlayer();
+			for (int i = 0; i < 4; i++) {
+				if (players[i].equals(hoju))
+					hojuSizes[i]++;
+			}
+		}
+	}
+
+	/**
+	 * 直前のrun()で打った局の数を返す.
+	 *
+	 * @return 局の数.
+	 */
+	public int getKyokuSize() {
+		return kyokuSize;
+	}
+
+	/**
+	 * 直前のrun()で指定された席のプレイヤーがあがった局の数を返す.
+	 *
+	 * @param index 立ち親の席を0とした席順の番号.
+	 * @return あがった局の数.
+	 */
+	public int getAgariSize(int index) {
+		return agariSizes[index];
+	}
+
+	/**
+	 * 直前のrun()で指定された席のプレイヤーが放銃した局の数を返す.
+	 *
+	 * @param index 立ち親の席を0とした席順の番号.
+	 * @return 放銃した局の数.
+	 */
+	public int getHojuSize(int index) {
+		return hojuSizes[index];
+	}
+
+	private Map<Kaze, AI> toKazeMap(Kyoku kyoku) {
+		Map<Kaze, AI> map = new HashMap<Kaze, AI>(4);
+		for (Player p : aiMap.keySet()) {
+			map.put(kyoku.getKazeOf(p), aiMap.get(p));
+		}
+		return map;
+	}
+}
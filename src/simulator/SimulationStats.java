@@ -0,0 +1,164 @@
+package simulator;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import system.Mahjong;
+
+/**
+ * 複数のゲームの結果を集計するクラス.</br>
+ * 各ゲームの結果は複数のスレッドから同時にadd()してよい.集計値はLongAdderに足し込むだけなのでロックは取らない.
+ * 席は立ち親の席を0とした席順の番号で表す.途中で打ち切ったゲームは数だけを数え、他の集計には含めない.
+ */
+public class SimulationStats {
+	private final LongAdder gameSize;
+	private final LongAdder unfinishedGameSize;
+	private final LongAdder kyokuSize;
+
+	/** 席*4+順位(0が1位)をインデックスとした回数 */
+	private final LongAdder rankSizes[];
+	private final LongAdder scoreDeltas[];
+	private final LongAdder agariSizes[];
+	private final LongAdder hojuSizes[];
+
+	/**
+	 * 空の集計を生成するコンストラクタ.
+	 */
+	public SimulationStats() {
+		this.gameSize = new LongAdder();
+		this.unfinishedGameSize = new LongAdder();
+		this.kyokuSize = new LongAdder();
+		this.rankSizes = newAdders(16);
+		this.scoreDeltas = newAdders(4);
+		this.agariSizes = newAdders(4);
+		this.hojuSizes = newAdders(4);
+	}
+
+	private static LongAdder[] newAdders(int size) {
+		LongAdder adders[] = new LongAdder[size];
+		for (int i = 0; i < size; i++) {
+			adders[i] = new LongAdder();
+		}
+		return adders;
+	}
+
+	/**
+	 * 打ち終わったゲームの結果を集計に加える.
+	 *
+	 * @param simulator ゲームを打ち終わったシミュレータ.
+	 * @param mahjong simulator.run()が返したゲーム.
+	 */
+	public void add(MahjongSimulator simulator, Mahjong mahjong) {
+		if (!mahjong.isEnd()) {
+			unfinishedGameSize.increment();
+			return;
+		}
+		gameSize.increment();
+		kyokuSize.add(simulator.getKyokuSize());
+
+		int scores[] = mahjong.getScores();
+		for (int seki = 0; seki < 4; seki++) {
+			// 同点の場合は立ち親に近い席を上位とする
+			int rank = 0;
+			for (int other = 0; other < 4; other++) {
+				if (scores[other] > scores[seki] || (scores[other] == scores[seki] && other < seki))
+					rank++;
+			}
+			rankSizes[seki * 4 + rank].increment();
+			scoreDeltas[seki].add(scores[seki] - 25000);
+			agariSizes[seki].add(simulator.getAgariSize(seki));
+			hojuSizes[seki].add(simulator.getHojuSize(seki));
+		}
+	}
+
+	/**
+	 * 集計したゲームの数を返す.
+	 *
+	 * @return ゲームの数.
+	 */
+	public long getGameSize() {
+		return gameSize.sum();
+	}
+
+	/**
+	 * 局の上限に達して打ち切ったゲームの数を返す.
+	 *
+	 * @return 打ち切ったゲームの数.
+	 */
+	public long getUnfinishedGameSize() {
+		return unfinishedGameSize.sum();
+	}
+
+	/**
+	 * 集計したゲームで打った局の総数を返す.
+	 *
+	 * @return 局の総数.
+	 */
+	public long getKyokuSize() {
+		return kyokuSize.sum();
+	}
+
+	/**
+	 * 指定された席のプレイヤーが指定された順位になった回数を返す.
+	 *
+	 * @param seki 立ち親の席を0とした席順の番号.
+	 * @param rank 順位(1から4).
+	 * @return 回数.
+	 */
+	public long getRankSize(int seki, int rank) {
+		return rankSizes[seki * 4 + rank - 1].sum();
+	}
+
+	/**
+	 * 指定された席のプレイヤーの平均順位を返す.
+	 *
+	 * @param seki 立ち親の席を0とした席順の番号.
+	 * @return 平均順位.ゲームがない場合はNaN.
+	 */
+	public double getAverageRank(int seki) {
+		long sum = 0;
+		for (int rank = 1; rank <= 4; rank++) {
+			sum += rank * getRankSize(seki, rank);
+		}
+		return (double) sum / getGameSize();
+	}
+
+	/**
+	 * 指定された席のプレイヤーの1ゲームあたりの平均収支(終了時の点数-25000)を返す.
+	 *
+	 * @param seki 立ち親の席を0とした席順の番号.
+	 * @return 平均収支.ゲームがない場合はNaN.
+	 */
+	public double getAverageScoreDelta(int seki) {
+		return (double) scoreDeltas[seki].sum() / getGameSize();
+	}
+
+	/**
+	 * 指定された席のプレイヤーの和了率(あがった局の数/局の総数)を返す.
+	 *
+	 * @param seki 立ち親の席を0とした席順の番号.
+	 * @return 和了率.局がない場合はNaN.
+	 */
+	public double getAgariRate(int seki) {
+		return (double) agariSizes[seki].sum() / getKyokuSize();
+	}
+
+	/**
+	 * 指定された席のプレイヤーの放銃率(放銃した局の数/局の総数)を返す.
+	 *
+	 * @param seki 立ち親の席を0とした席順の番号.
+	 * @return 放銃率.局がない場合はNaN.
+	 */
+	public double getHojuRate(int seki) {
+		return (double) hojuSizes[seki].sum() / getKyokuSize();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("games:").append(getGameSize()).append(" unfinished:").append(getUnfinishedGameSize()).append(" kyoku:").append(getKyokuSize());
+		for (int seki = 0; seki < 4; seki++) {
+			sb.append(String.format("%n席%d 平均順位:%.3f 平均収支:%.1f 和了率:%.3f 放銃率:%.3f", seki, getAverageRank(seki), getAverageScoreDelta(seki), getAgariRate(seki), getHojuRate(seki)));
+		}
+		return sb.toString();
+	}
+}
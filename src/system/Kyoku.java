@@ -4,6 +4,7 @@ import static system.hai.Kaze.PE;
 import static system.hai.Kaze.TON;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -15,6 +16,7 @@ import java.util.Set;
 import system.agari.AgariMethods;
 import system.agari.AgariParam;
 import system.agari.AgariResult;
+import system.algo.PatternMethod;
 import system.hai.Hai;
 import system.hai.Hai.HaiComparator;
 import system.hai.HaiType;
@@ -39,12 +41,27 @@ import system.yaku.Yakuman;
  * 1局を表すクラス。
  */
 public class Kyoku {
+	/** 牌山の枚数 */
+	public static final int HAIYAMA_SIZE = 136;
+
+	/** 王牌の枚数 */
+	private static final int WANPAI_SIZE = 14;
+
+	/** 赤なしルールの牌山の牌を並べた配列 */
+	private static final Hai HAI_SET[] = newHaiSet(false);
+
+	/** 赤ありルールの牌山の牌を並べた配列 */
+	private static final Hai AKA_HAI_SET[] = newHaiSet(true);
+
 	Map<Kaze, KyokuPlayer> kyokuPlayerMap;
 
 	private final Field field;
 	private final Map<Kaze, Player> playerMap; // プレイヤー
 	private final Map<Kaze, Boolean> ippatuMap; // 一発判定フラグ
-	private final List<Hai> yamahai; // 山牌を表すリスト
+	private final Hai haiyama[]; // 配牌前の牌山.先頭から配牌,ツモの順に並び,最後の14枚が王牌となる
+	private final Hai yamahai[]; // 山牌を表す配列.[yamahaiHead, yamahaiTail)の範囲が残りの山牌
+	private int yamahaiHead; // 次にツモる山牌のインデックス
+	private int yamahaiTail; // 山牌の終わりのインデックス
 	private final List<Hai> wanpai; // 王牌を表すリスト
 	private int tsumoSize; // 総ツモ枚数。これが70に達したら局終了
 	private Kaze currentTurn; // 現在ターン
@@ -75,7 +92,8 @@ public class Kyoku {
 
 	private final Map<Player, Boolean> tenpaiMap;
 
-	private Random rand;
+	private final Random rand;
+	private final List<KyokuListener> listeners;
 	private KyokuResult result;
 	private KyokuRonAgariResult.Builder krbuilder;
 
@@ -87,6 +105,19 @@ public class Kyoku {
 	 * @param bakaze 場風
 	 */
 	public Kyoku(Rule rule, Map<Kaze, Player> player, Kaze bakaze) {
+		this(rule, player, bakaze, new Random());
+	}
+
+	/**
+	 * 牌山を作るための乱数生成器を指定して局を生成するコンストラクタ.
+	 * 同じ種で初期化した乱数生成器を渡せば同じ配牌,ツモ順になる.
+	 * 
+	 * @param rule 採用するルール
+	 * @param player 風->プレイヤーを表すマップ
+	 * @param bakaze 場風
+	 * @param rand 牌山を作るための乱数生成器
+	 */
+	public Kyoku(Rule rule, Map<Kaze, Player> player, Kaze bakaze, Random rand) {
 		this.field = new Field(rule, bakaze);
 		this.kyokuPlayerMap = new HashMap<Kaze, KyokuPlayer>(4);
 
@@ -97,9 +128,29 @@ public class Kyoku {
 
 		this.playerMap = new HashMap<Kaze, Player>(player);
 
-		this.yamahai = new ArrayList<Hai>(136);
+		this.haiyama = new Hai[HAIYAMA_SIZE];
+		this.yamahai = new Hai[HAIYAMA_SIZE];
 		this.wanpai = new ArrayList<Hai>(14);
-		this.rand = new Random();
+		this.rand = rand;
+		this.listeners = new ArrayList<KyokuListener>(1);
+	}
+
+	/**
+	 * 局の出来事を受け取るリスナーを追加する.init()より前に追加すれば配牌から受け取れる.
+	 * 
+	 * @param listener リスナー.
+	 */
+	public void addKyokuListener(KyokuListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * 指定されたリスナーを削除する.
+	 * 
+	 * @param listener リスナー.
+	 */
+	public void removeKyokuListener(KyokuListener listener) {
+		listeners.remove(listener);
 	}
 
 	/*
@@ -109,6 +160,43 @@ public class Kyoku {
 	 */
 
 	public void init() {
+		reset();
+
+		// 牌山を作ってシャッフルする(Fisher-Yates)
+		Hai haiSet[] = field.getRule().isAkaAri() ? AKA_HAI_SET : HAI_SET;
+		System.arraycopy(haiSet, 0, haiyama, 0, HAIYAMA_SIZE);
+		for (int i = HAIYAMA_SIZE - 1; i > 0; i--) {
+			int j = rand.nextInt(i + 1);
+			Hai tmp = haiyama[i];
+			haiyama[i] = haiyama[j];
+			haiyama[j] = tmp;
+		}
+
+		deal();
+	}
+
+	/**
+	 * 指定された牌山で初期化する.牌山はシャッフルせず,先頭から順に配牌,ツモに使い,最後の14枚を王牌とする.
+	 * 配牌は東家から順に13枚ずつ配る.王牌のインデックスはgetWanpaiList()のインデックスと同じ並びになる.</br>
+	 * 記録した牌山を渡せば同じ配牌,ツモ順の局を再現できる.
+	 * 
+	 * @param haiyama 136枚の牌のリスト.
+	 * @throws IllegalArgumentException 牌の枚数が136枚でない場合.
+	 */
+	public void init(List<Hai> haiyama) {
+		if (haiyama.size() != HAIYAMA_SIZE)
+			throw new IllegalArgumentException("牌山は" + HAIYAMA_SIZE + "枚でなければならない : " + haiyama.size());
+		reset();
+		for (int i = 0; i < HAIYAMA_SIZE; i++) {
+			this.haiyama[i] = haiyama.get(i);
+		}
+		deal();
+	}
+
+	/**
+	 * 牌山以外の局の状態を初期化する.
+	 */
+	private void reset() {
 		this.result = null;
 		this.tsumoSize = 0;
 		this.kanSize = 0;
@@ -118,11 +206,6 @@ public class Kyoku {
 
 		this.krbuilder = null;
 
-		this.kyokuPlayerMap.clear();
-		for (Kaze kaze : Kaze.values()) {
-			kyokuPlayerMap.put(kaze, new KyokuPlayer());
-		}
-
 		ippatuMap.clear();
 		for (Kaze kaze : Kaze.values()) {
 			ippatuMap.put(kaze, false);
@@ -135,61 +218,52 @@ public class Kyoku {
 		this.atomekuriKanFlag = false;
 		this.tyankanFlag = false;
 		this.rinsyanFlag = false;
+	}
 
-		this.yamahai.clear();
-
-		// [分岐]赤ありか？
-		// 赤ありルール
-		if (field.getRule().isAkaAri()) {
-			for (HaiType type : HaiType.values()) {
-				// 数牌5は赤がある
-				if (type.isSuhai() && type.number() == 5) {
-					// 赤は1枚ずつ
-					this.yamahai.add(MajanHai.valueOf(type, true));
-
-					// 赤じゃない数牌5は3枚ずつ
-					this.yamahai.add(MajanHai.valueOf(type, false));
-					this.yamahai.add(MajanHai.valueOf(type, false));
-					this.yamahai.add(MajanHai.valueOf(type, false));
-				}
-				// それ以外は4枚
-				else {
-					this.yamahai.add(MajanHai.valueOf(type, false));
-					this.yamahai.add(MajanHai.valueOf(type, false));
-					this.yamahai.add(MajanHai.valueOf(type, false));
-					this.yamahai.add(MajanHai.valueOf(type, false));
-				}
-			}
-		}
-		// 赤なしルール
-		else {
-			for (HaiType type : HaiType.values()) {
-				// すべて4枚ずつ
-				this.yamahai.add(MajanHai.valueOf(type, false));
-				this.yamahai.add(MajanHai.valueOf(type, false));
-				this.yamahai.add(MajanHai.valueOf(type, false));
-				this.yamahai.add(MajanHai.valueOf(type, false));
-			}
-		}
+	/**
+	 * 牌山から王牌を分け,各プレイヤーに13枚ずつ配る.
+	 */
+	private void deal() {
+		System.arraycopy(haiyama, 0, yamahai, 0, HAIYAMA_SIZE);
+		this.yamahaiHead = 0;
+		this.yamahaiTail = HAIYAMA_SIZE - WANPAI_SIZE;
 
 		this.wanpai.clear();
-
-		// 王牌を山牌からランダムに14枚選ぶ
-		for (int i = 0; i < 14; i++) {
-			this.wanpai.add(fetchRandomHai(this.yamahai));
+		for (int i = yamahaiTail; i < HAIYAMA_SIZE; i++) {
+			this.wanpai.add(yamahai[i]);
 		}
 
-		// 各プレイヤーに13枚ずつ配る
+		this.kyokuPlayerMap.clear();
 		for (Kaze kaze : Kaze.values()) {
-			KyokuPlayer kp = kyokuPlayerMap.get(kaze);
+			KyokuPlayer kp = new KyokuPlayer();
 			for (int i = 0; i < 13; i++) {
-				kp.distribute(fetchRandomHai(yamahai));
+				kp.distribute(fetchHai());
 			}
+			kyokuPlayerMap.put(kaze, kp);
 		}
+
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).onInit(this);
+		}
+	}
+
+	/**
+	 * 赤の有無に応じた136枚の牌を並べた配列を返す.
+	 */
+	private static Hai[] newHaiSet(boolean akaAri) {
+		Hai set[] = new Hai[HAIYAMA_SIZE];
+		int i = 0;
+		for (HaiType type : HaiType.values()) {
+			for (int j = 0; j < 4; j++) {
+				// 赤ありの場合,数牌5のうち1枚は赤
+				set[i++] = MajanHai.valueOf(type, akaAri && j == 0 && type.isSuhai() && type.number() == 5);
+			}
+		}
+		return set;
 	}
 
 	/**
-	 * 山牌からランダムに1牌をツモる.
+	 * 山牌から1牌をツモる.
 	 * 
 	 * @throws IllegalArgumentException 総ツモサイズが70に達しているか,ツモメソッドを連続して2回呼び出した場合.
 	 */
@@ -198,8 +272,12 @@ public class Kyoku {
 			throw new IllegalStateException("終局条件を満たしているのにdoTsumoメソッドが呼び出されました.");
 		if (this.currentTumohai != null)
 			throw new IllegalStateException("不正なメソッド呼び出し");
-		this.currentTumohai = fetchRandomHai(this.yamahai);
+		this.currentTumohai = fetchHai();
 		this.tsumoSize++;
+
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).onTsumo(currentTurn, currentTumohai, false);
+		}
 	}
 
 	/**
@@ -256,6 +334,10 @@ public class Kyoku {
 		}
 
 		this.result = new KyokuTsumoAgariResult(currentTumohai, agarip, ar, oya, map);
+
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).onTsumoAgari(kaze);
+		}
 	}
 
 	/**
@@ -307,6 +389,10 @@ public class Kyoku {
 		this.tyankanFlag = true;
 		this.ippatuMap.put(currentTurn, false);
 		this.atomekuriKanFlag = true;
+
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).onKakan(currentTurn, currentSutehai);
+		}
 		return mentu;
 	}
 
@@ -324,6 +410,10 @@ public class Kyoku {
 		this.tsumoSize++;
 		this.tyankanFlag = false;
 		this.rinsyanFlag = true;
+
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).onTsumo(currentTurn, currentTumohai, true);
+		}
 	}
 
 	/**
@@ -366,12 +456,17 @@ public class Kyoku {
 		this.openAtomekuriDora();
 		
 		KyokuPlayer kp = kyokuPlayerMap.get(currentTurn);
+		int index = list.get(0) == 13 ? list.get(1) : list.get(0);
+		HaiType type = kp.getTehai(index).type();
 		Mentsu m = kp.doAnkan(currentTumohai, list);
 
-		this.newDoraSize++;
 		this.firstTurn = false;
 		this.currentTumohai = null;
 
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).onAnkan(currentTurn, type);
+		}
+		openDora();
 		return m;
 	}
 
@@ -389,8 +484,48 @@ public class Kyoku {
 			return false;
 		}
 
+		return isRonable(kaze, new int[37], new int[PatternMethod.KEY_BUFFER_SIZE]);
+	}
+
+	/**
+	 * 現在の捨牌に対してロンできる人の風のリストを返す.捨てた人の下家から順に並ぶ.
+	 * 3人についてisRonable()を呼び出すのと同じ結果になるが,牌種の枚数の配列とパターン法の作業領域を3人で使い回し,
+	 * 捨牌であがりの形にならない人は役フラグセットの生成と役の判定をせずに除く.
+	 * 
+	 * @return ロンできる人の風のリスト.ロンできる人がいない場合は空のリスト.
+	 */
+	public List<Kaze> getRonableKazeList() {
+		List<Kaze> result = new ArrayList<Kaze>(3);
+		if (currentSutehai == null) {
+			return result;
+		}
+
+		int n[] = new int[37];
+		int keys[] = new int[PatternMethod.KEY_BUFFER_SIZE];
+		Kaze kaze = currentTurn.simo();
+		for (int i = 0; i < 3; i++, kaze = kaze.simo()) {
+			if (isRonable(kaze, n, keys))
+				result.add(kaze);
+		}
+		return result;
+	}
+
+	// 形の判定を先に行い,あがりの形の場合だけ役を判定する.nとkeysは作業領域
+	private boolean isRonable(Kaze kaze, int n[], int keys[]) {
+		if (isFuriten(kaze, currentSutehai.type())) {
+			return false;
+		}
+
+		KyokuPlayer kp = kyokuPlayerMap.get(kaze);
+		TehaiList tehaiList = kp.getTehaiList();
+		int id = currentSutehai.type().id();
+		tehaiList.copySizeArray(n)[id]++;
+		if (!AgariMethods.isKeisikiAgari(n, tehaiList.size() + 1, keys, kp.isNaki(), id)) {
+			return false;
+		}
+
 		Set<Yaku> yaku = this.newYakuFlagSet(kaze, false);
-		return isAgari(false, this.currentSutehai, kaze, yaku);
+		return AgariMethods.isAgari(tehaiList, kp.getHurohaiList(), currentSutehai, yaku, false, kp.isNaki(), kaze, field);
 	}
 
 	/**
@@ -420,10 +555,15 @@ public class Kyoku {
 		}
 
 		this.krbuilder.put(playerMap.get(kaze), ar);
+
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).onRon(kaze);
+		}
 	}
 
 	/**
-	 * 指定された風の人がリーチできるのに、そのリーチを蹴った場合呼び出す.
+	 * 指定された風の人がロンできるのに、そのロンを蹴った場合呼び出す.
+	 * その人は次に自分の番が来るまでフリテンになる.リーチしている場合は局が終わるまでフリテンになる.
 	 * @param kaze
 	 */
 	public void onRonRejected(Kaze kaze){
@@ -441,6 +581,16 @@ public class Kyoku {
 		return kp.isReach() || kp.isDoubleReach();
 	}
 
+	/**
+	 * 指定された風の人が鳴いている場合はtrueを返す.暗槓だけの場合は鳴いていないとみなす.
+	 * 
+	 * @param kaze 風.
+	 * @return 鳴いている場合true.
+	 */
+	public boolean isNaki(Kaze kaze) {
+		return kyokuPlayerMap.get(kaze).isNaki();
+	}
+
 	/**
 	 * 現在ターンの人がリーチ可能な場合trueを返す.
 	 * 
@@ -491,6 +641,10 @@ public class Kyoku {
 		ippatuMap.put(currentTurn, true);
 		KyokuPlayer kp = kyokuPlayerMap.get(currentTurn);
 		kp.doReach(firstTurn);
+
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).onReach(currentTurn);
+		}
 	}
 
 	/**
@@ -503,6 +657,10 @@ public class Kyoku {
 		KyokuPlayer kp = kyokuPlayerMap.get(currentTurn);
 		this.currentSutehai = kp.discard(index, currentTumohai);
 		this.kiru();
+
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).onDiscard(currentTurn, currentSutehai, index == 13);
+		}
 	}
 
 	/**
@@ -513,6 +671,10 @@ public class Kyoku {
 		this.currentSutehai = kp.discard(13, currentTumohai);
 		this.ippatuMap.put(currentTurn, false);
 		this.kiru();
+
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).onDiscard(currentTurn, currentSutehai, true);
+		}
 	}
 
 	/**
@@ -523,6 +685,28 @@ public class Kyoku {
 		this.rinsyanFlag = false;
 	}
 
+	/**
+	 * 現在の捨牌を誰かが明槓,ポン,チーできる場合trueを返す.
+	 * 各プレイヤーが手牌の変更に合わせて保持している牌種のビットを調べるだけなので,手牌を走査しない.
+	 * 
+	 * @return 誰かが鳴ける場合true.
+	 */
+	public boolean isNakiable() {
+		if (currentSutehai == null) {
+			return false;
+		}
+		long bit = 1L << currentSutehai.type().id();
+		Kaze kaze = currentTurn.simo();
+		if ((kyokuPlayerMap.get(kaze).getChiableMask() & bit) != 0)
+			return true;
+		// 明槓できる牌種はポンもできるので,ポンのビットだけ調べればよい
+		for (int i = 0; i < 3; i++, kaze = kaze.simo()) {
+			if ((kyokuPlayerMap.get(kaze).getPonableMask() & bit) != 0)
+				return true;
+		}
+		return false;
+	}
+
 	/**
 	 * 指定された風のプレイヤーが明槓できる場合trueを返す.
 	 * 
@@ -570,6 +754,10 @@ public class Kyoku {
 		this.currentTurn = kaze;
 		kyokuPlayerMap.get(currentTurn).setTatyaFuritenFlag(false);
 		this.atomekuriKanFlag = true;
+
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).onMinkan(kaze);
+		}
 		return m;
 	}
 
@@ -611,6 +799,8 @@ public class Kyoku {
 
 		KyokuPlayer nkp = kyokuPlayerMap.get(kaze);
 		KyokuPlayer ckp = kyokuPlayerMap.get(currentTurn);
+		Hai hai0 = nkp.getTehai(ponList.get(0));
+		Hai hai1 = nkp.getTehai(ponList.get(1));
 		Mentsu m = nkp.doPon(ponList, currentSutehai, currentTurn);
 
 		ckp.addSutehai(new Sutehai(currentSutehai, kaze));
@@ -618,6 +808,10 @@ public class Kyoku {
 		this.naku();
 		this.currentTurn = kaze;
 		kyokuPlayerMap.get(currentTurn).setTatyaFuritenFlag(false);
+
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).onPon(kaze, hai0, hai1);
+		}
 		return m;
 	}
 
@@ -658,12 +852,18 @@ public class Kyoku {
 		KyokuPlayer nkp = kyokuPlayerMap.get(next);
 		KyokuPlayer ckp = kyokuPlayerMap.get(currentTurn);
 
+		Hai hai0 = nkp.getTehai(tiList.get(0));
+		Hai hai1 = nkp.getTehai(tiList.get(1));
 		Mentsu m = nkp.doChi(tiList, currentSutehai, currentTurn);
 		ckp.addSutehai(new Sutehai(currentSutehai, next));
 
 		this.naku();
 		this.currentTurn = next;
 		kyokuPlayerMap.get(currentTurn).setTatyaFuritenFlag(false);
+
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).onChi(next, hai0, hai1);
+		}
 		return m;
 	}
 
@@ -691,10 +891,8 @@ public class Kyoku {
 		kyokuPlayerMap.get(currentTurn).addSutehai(new Sutehai(currentSutehai));
 		this.currentSutehai = null;
 		this.currentTurn = this.currentTurn.simo();
-		KyokuPlayer kp = kyokuPlayerMap.get(currentTurn);
-		if(!kp.isReach()){
-			kp.setTatyaFuritenFlag(false);
-		}
+		// リーチ後の見逃しによるフリテンはKyokuPlayerが局の終わりまで保持する
+		kyokuPlayerMap.get(currentTurn).setTatyaFuritenFlag(false);
 	}
 
 	/**
@@ -708,9 +906,16 @@ public class Kyoku {
 		return kyokuPlayerMap.get(kaze).isFuriten();
 	}
 	
-	// TODO
+	/**
+	 * 指定された風の人が指定された牌でロンできないフリテンになっている場合trueを返す.
+	 * 捨牌による永久フリテン,同順フリテン,リーチ後のフリテンを判定する.
+	 * 
+	 * @param kaze 風.
+	 * @param hai ロンする牌の種類.
+	 * @return フリテンの場合true.
+	 */
 	public boolean isFuriten(Kaze kaze, HaiType hai) {
-		return false;
+		return kyokuPlayerMap.get(kaze).isFuriten(hai);
 	}
 
 	/**
@@ -734,10 +939,23 @@ public class Kyoku {
 		return AgariMethods.isTenpai(kp.getTehaiList(), kp.isNaki());
 	}
 
+	/**
+	 * 明槓,加槓した後にめくっていない新ドラがある場合はめくる.
+	 */
 	public void openAtomekuriDora() {
 		if (atomekuriKanFlag) {
-			this.newDoraSize++;
 			this.atomekuriKanFlag = false;
+			openDora();
+		}
+	}
+
+	/**
+	 * 新ドラを1枚めくる.
+	 */
+	private void openDora() {
+		this.newDoraSize++;
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).onDora();
 		}
 	}
 
@@ -827,6 +1045,10 @@ public class Kyoku {
 			map.put(p, kyokuPlayerMap.get(getKazeOf(p)));
 		}
 		this.result = new KyokuTotyuRyukyokuResult(type, playerMap.get(TON), map);
+
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).onTotyuRyukyoku(type);
+		}
 	}
 
 	/**
@@ -851,6 +1073,10 @@ public class Kyoku {
 			map.put(p, kyokuPlayerMap.get(getKazeOf(p)));
 		}
 		this.result = new KyokuRyukyokuResult(playerMap.get(TON), map);
+
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).onRyukyoku();
+		}
 	}
 
 	public boolean isTotyuRyukyoku() {
@@ -1013,13 +1239,32 @@ public class Kyoku {
 	}
 
 	/**
-	 * 山牌からランダムに1牌とってくる.
+	 * 山牌の先頭から1牌とってくる.
 	 * 
-	 * @param list 山牌リスト.
-	 * @return 山牌からランダムに選ばれた牌.
+	 * @return 山牌の先頭の牌.
+	 * @throws IllegalStateException 山牌が残っていない場合.
 	 */
-	private Hai fetchRandomHai(List<Hai> list) {
-		return list.remove(rand.nextInt(list.size()));
+	private Hai fetchHai() {
+		if (yamahaiHead == yamahaiTail)
+			throw new IllegalStateException("山牌が残っていない");
+		return yamahai[yamahaiHead++];
+	}
+
+	/**
+	 * 残りの山牌から指定された牌を1枚取り除く.後ろの牌は前に詰める.
+	 * 
+	 * @param hai 取り除く牌.
+	 * @return 取り除いた場合true.山牌になかった場合false.
+	 */
+	private boolean removeFromYamahai(Hai hai) {
+		for (int i = yamahaiHead; i < yamahaiTail; i++) {
+			if (yamahai[i].equals(hai)) {
+				System.arraycopy(yamahai, i + 1, yamahai, i, yamahaiTail - i - 1);
+				yamahaiTail--;
+				return true;
+			}
+		}
+		return false;
 	}
 
 	/**
@@ -1155,8 +1400,8 @@ public class Kyoku {
 	 * @return あがれるならtrue
 	 */
 	private boolean isAgari(boolean tumo, Hai agariHai, Kaze kaze, Set<Yaku> flagCheckYakuSet) {
-		if (isFuriten(kaze, agariHai.type())) {
-//		if (isFuriten(kaze) && !tumo) {
+		// フリテンでもツモではあがれる
+		if (!tumo && isFuriten(kaze, agariHai.type())) {
 			return false;
 		}
 
@@ -1209,7 +1454,7 @@ public class Kyoku {
 	}
 
 	public int sizeOfYamahai() {
-		return yamahai.size();
+		return yamahaiTail - yamahaiHead;
 	}
 
 	/**
@@ -1227,7 +1472,7 @@ public class Kyoku {
 		System.out.println("場風：" + field.getBakaze());
 		System.out.println(this.tsumoSize + "順目");
 		System.out.println("");
-		System.out.println("山牌(" + this.yamahai.size() + ")：" + this.yamahai);
+		System.out.println("山牌(" + sizeOfYamahai() + ")：" + getYamahaiList());
 		System.out.println("王牌(" + this.wanpai.size() + ")：" + this.wanpai);
 		System.out.println("ドラ：" + getRealAllDoraList());
 		System.out.println("");
@@ -1246,7 +1491,7 @@ public class Kyoku {
 	// DEBUG
 	public void removeYamahai(Collection<Hai> c) {
 		for (Hai hai : c) {
-			this.yamahai.remove(hai);
+			removeFromYamahai(hai);
 		}
 	}
 
@@ -1268,18 +1513,36 @@ public class Kyoku {
 			throw new IllegalStateException("終局条件を満たしているのにdoTsumoメソッドが呼び出されました.");
 		if (this.currentTumohai != null)
 			throw new IllegalStateException("ツモ牌がnullでない場合にdoTsumoメソッドを呼び出せない");
-		if (!this.yamahai.remove(tsumohai)) {
+		if (!removeFromYamahai(tsumohai)) {
 			//			throw new IllegalArgumentException("この牌は山に存在しない : " + tsumohai);
 		}
 		this.currentTumohai = tsumohai;
 		this.tsumoSize++;
+
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).onTsumo(currentTurn, currentTumohai, false);
+		}
 	}
 	
 	public List<Hai> getWanpaiList(){
 		return wanpai;
 	}
 	
+	/**
+	 * 残りの山牌のリストをツモる順に返す.返すリストは山牌のコピーである.
+	 * 
+	 * @return 山牌のリスト.
+	 */
 	public List<Hai> getYamahaiList(){
-		return yamahai;
+		return new ArrayList<Hai>(Arrays.asList(yamahai).subList(yamahaiHead, yamahaiTail));
+	}
+
+	/**
+	 * この局の配牌前の牌山を返す.このリストをinit(List)に渡すと同じ局を再現できる.
+	 * 
+	 * @return 136枚の牌山のリスト.
+	 */
+	public List<Hai> getHaiyamaList(){
+		return new ArrayList<Hai>(Arrays.asList(haiyama));
 	}
 }
@@ -0,0 +1,67 @@
+package system;
+
+import system.hai.Hai;
+import system.hai.HaiType;
+import system.hai.Kaze;
+import system.result.TotyuRyukyokuType;
+
+/**
+ * 何もしないKyokuListener.必要なメソッドだけをオーバーライドして使う.
+ */
+public abstract class KyokuAdapter implements KyokuListener {
+	@Override
+	public void onInit(Kyoku kyoku) {
+	}
+
+	@Override
+	public void onTsumo(Kaze kaze, Hai hai, boolean rinsyan) {
+	}
+
+	@Override
+	public void onDiscard(Kaze kaze, Hai hai, boolean tsumogiri) {
+	}
+
+	@Override
+	public void onReach(Kaze kaze) {
+	}
+
+	@Override
+	public void onPon(Kaze kaze, Hai hai0, Hai hai1) {
+	}
+
+	@Override
+	public void onChi(Kaze kaze, Hai hai0, Hai hai1) {
+	}
+
+	@Override
+	public void onMinkan(Kaze kaze) {
+	}
+
+	@Override
+	public void onAnkan(Kaze kaze, HaiType type) {
+	}
+
+	@Override
+	public void onKakan(Kaze kaze, Hai hai) {
+	}
+
+	@Override
+	public void onDora() {
+	}
+
+	@Override
+	public void onTsumoAgari(Kaze kaze) {
+	}
+
+	@Override
+	public void onRon(Kaze kaze) {
+	}
+
+	@Override
+	public void onRyukyoku() {
+	}
+
+	@Override
+	public void onTotyuRyukyoku(TotyuRyukyokuType type) {
+	}
+}
@@ -0,0 +1,118 @@
+package system;
+
+import system.hai.Hai;
+import system.hai.HaiType;
+import system.hai.Kaze;
+import system.result.TotyuRyukyokuType;
+
+/**
+ * 局の中で起きた出来事を受け取るリスナー.Kyoku.addKyokuListener()で登録すると,
+ * 局の状態を変えるメソッドが呼び出されるたびに,状態を変えた後で対応するメソッドが呼び出される.</br>
+ * リスナーの中から局の状態を変えてはならない.一部の出来事だけを受け取る場合はKyokuAdapterを継承する.
+ */
+public interface KyokuListener {
+	/**
+	 * 局が初期化されて配牌が終わったときに呼び出される.
+	 *
+	 * @param kyoku 局.
+	 */
+	public void onInit(Kyoku kyoku);
+
+	/**
+	 * ツモしたときに呼び出される.
+	 *
+	 * @param kaze ツモした人の風.
+	 * @param hai ツモ牌.
+	 * @param rinsyan 嶺上牌をツモした場合true.
+	 */
+	public void onTsumo(Kaze kaze, Hai hai, boolean rinsyan);
+
+	/**
+	 * 牌を切ったときに呼び出される.
+	 *
+	 * @param kaze 牌を切った人の風.
+	 * @param hai 切った牌.
+	 * @param tsumogiri ツモ切りの場合true.
+	 */
+	public void onDiscard(Kaze kaze, Hai hai, boolean tsumogiri);
+
+	/**
+	 * リーチしたときに呼び出される.リーチ宣言牌を切る前に呼び出される.
+	 *
+	 * @param kaze リーチした人の風.
+	 */
+	public void onReach(Kaze kaze);
+
+	/**
+	 * ポンしたときに呼び出される.
+	 *
+	 * @param kaze ポンした人の風.
+	 * @param hai0 ポンに使った手牌の1枚目.
+	 * @param hai1 ポンに使った手牌の2枚目.
+	 */
+	public void onPon(Kaze kaze, Hai hai0, Hai hai1);
+
+	/**
+	 * チーしたときに呼び出される.
+	 *
+	 * @param kaze チーした人の風.
+	 * @param hai0 チーに使った手牌の1枚目.
+	 * @param hai1 チーに使った手牌の2枚目.
+	 */
+	public void onChi(Kaze kaze, Hai hai0, Hai hai1);
+
+	/**
+	 * 明槓したときに呼び出される.
+	 *
+	 * @param kaze 明槓した人の風.
+	 */
+	public void onMinkan(Kaze kaze);
+
+	/**
+	 * 暗槓したときに呼び出される.
+	 *
+	 * @param kaze 暗槓した人の風.
+	 * @param type 暗槓した牌の種類.
+	 */
+	public void onAnkan(Kaze kaze, HaiType type);
+
+	/**
+	 * 加槓したときに呼び出される.
+	 *
+	 * @param kaze 加槓した人の風.
+	 * @param hai 加槓した牌.
+	 */
+	public void onKakan(Kaze kaze, Hai hai);
+
+	/**
+	 * 新しいドラ表示牌がめくられたときに呼び出される.
+	 * めくられた牌はKyoku.getOpenDoraList()の最後の要素である.
+	 */
+	public void onDora();
+
+	/**
+	 * ツモあがりしたときに呼び出される.
+	 *
+	 * @param kaze あがった人の風.
+	 */
+	public void onTsumoAgari(Kaze kaze);
+
+	/**
+	 * ロンあがりしたときに呼び出される.ダブロン,トリプルロンの場合はあがった人ごとに呼び出される.
+	 *
+	 * @param kaze あがった人の風.
+	 */
+	public void onRon(Kaze kaze);
+
+	/**
+	 * 山牌がなくなって流局したときに呼び出される.
+	 */
+	public void onRyukyoku();
+
+	/**
+	 * 途中流局したときに呼び出される.
+	 *
+	 * @param type 途中流局の種類.
+	 */
+	public void onTotyuRyukyoku(TotyuRyukyokuType type);
+}
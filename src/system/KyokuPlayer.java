@@ -4,9 +4,9 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
 
 import system.agari.AgariMethods;
+import system.algo.MachiMethod;
 import system.hai.Hai;
 import system.hai.HaiType;
 import system.hai.HurohaiList;
@@ -28,8 +28,11 @@ public class KyokuPlayer {
 	private boolean reachFlag;
 	private boolean dreachFlag;
 	private boolean nakiFlag;
-	private boolean furitenFlag;
 	private boolean tatyaFuritenFlag;
+	private boolean reachFuritenFlag;
+
+	/** 捨てた牌種idのビットを立てたもの.鳴かれた牌も含む */
+	private long sutehaiMask;
 
 	private int kanSize;
 
@@ -38,6 +41,8 @@ public class KyokuPlayer {
 	// 値を参照する.
 	private boolean cachedTenpaiCheckFlag;
 	private boolean cachedTenpaiFlag;
+	private boolean cachedMachiCheckFlag;
+	private long cachedMachiMask;
 
 	/**
 	 * コンストラクタ.
@@ -60,7 +65,9 @@ public class KyokuPlayer {
 		this.reachFlag = kp.isReach();
 		this.kanSize = kp.getKanSize();
 		this.nakiFlag = kp.isNaki();
-		this.furitenFlag = kp.isFuriten();
+		this.tatyaFuritenFlag = kp.tatyaFuritenFlag;
+		this.reachFuritenFlag = kp.reachFuritenFlag;
+		this.sutehaiMask = kp.sutehaiMask;
 	}
 
 	/**
@@ -74,9 +81,12 @@ public class KyokuPlayer {
 		this.reachFlag = false;
 		this.nakiFlag = false;
 		this.dreachFlag = false;
-		this.furitenFlag = false;
+		this.tatyaFuritenFlag = false;
+		this.reachFuritenFlag = false;
+		this.sutehaiMask = 0;
 
 		this.cachedTenpaiCheckFlag = false;
+		this.cachedMachiCheckFlag = false;
 
 		this.kanSize = 0;
 	}
@@ -97,12 +107,9 @@ public class KyokuPlayer {
 	 * @return 九種九牌の場合true.
 	 */
 	public boolean isKyusyukyuhai(Hai tsumohai) {
-		Set<HaiType> set = tehaiList.toHaiTypeSet();
-		set.add(tsumohai.type());
-
 		int size = 0;
-		for (HaiType type : set) {
-			if (type.isYaotyuhai()) {
+		for (HaiType type : HaiType.values()) {
+			if (type.isYaotyuhai() && (tehaiList.sizeOf(type) != 0 || tsumohai.type() == type)) {
 				size++;
 			}
 			if (size >= 9) {
@@ -351,6 +358,17 @@ public class KyokuPlayer {
 		return tehaiList.isMinkanable(type);
 	}
 
+	/**
+	 * 明槓できる牌種のidのビットを立てた値を返す.リーチしている場合は0を返す.
+	 * 
+	 * @return 牌種idのビットを立てた値.
+	 */
+	public long getMinkanableMask() {
+		if (reachFlag || dreachFlag)
+			return 0;
+		return tehaiList.getMinkanableMask();
+	}
+
 	/**
 	 * このプレイヤーの明槓できる手牌のインデックスのリストを返す.
 	 * 
@@ -391,6 +409,17 @@ public class KyokuPlayer {
 		return tehaiList.isPonable(type);
 	}
 
+	/**
+	 * ポンできる牌種のidのビットを立てた値を返す.リーチしている場合は0を返す.
+	 * 
+	 * @return 牌種idのビットを立てた値.
+	 */
+	public long getPonableMask() {
+		if (reachFlag || dreachFlag)
+			return 0;
+		return tehaiList.getPonableMask();
+	}
+
 	/**
 	 * このプレイヤーのポン出来る牌インデックスのリストのリストを返す.
 	 * 
@@ -445,6 +474,17 @@ public class KyokuPlayer {
 		return tehaiList.isChiable(type);
 	}
 
+	/**
+	 * チーできる牌種のidのビットを立てた値を返す.リーチしている場合は0を返す.
+	 * 
+	 * @return 牌種idのビットを立てた値.
+	 */
+	public long getChiableMask() {
+		if (reachFlag || dreachFlag)
+			return 0;
+		return tehaiList.getChiableMask();
+	}
+
 	/**
 	 * チー出来る牌インデックスのリストのリストを返す.
 	 * 
@@ -482,21 +522,52 @@ public class KyokuPlayer {
 	}
 
 	/**
-	 * フリテンの場合trueを返す.
+	 * フリテンの場合trueを返す.待ち牌を捨てている場合,同順内に見逃した場合,リーチ後に見逃した場合がフリテンになる.
 	 * 
 	 * @return フリテンの場合true.
 	 */
 	public boolean isFuriten() {
-		furitenFlag = AgariMethods.isFuriten(getMachihaiList(), sutehaiList);
-		return (furitenFlag || tatyaFuritenFlag);
+		if (tatyaFuritenFlag || reachFuritenFlag)
+			return true;
+		return (getMachiMask() & sutehaiMask) != 0;
+	}
+
+	/**
+	 * 指定された牌でロンできないフリテンの場合trueを返す.isFuriten()に加えて,指定された牌を捨てている場合もtrueを返す.
+	 * 待ち牌と捨牌を牌種のビットで比べるので,手牌が変わっていなければ定数時間で判定する.
+	 * 
+	 * @param type ロンする牌の種類.
+	 * @return フリテンの場合true.
+	 */
+	public boolean isFuriten(HaiType type) {
+		if (tatyaFuritenFlag || reachFuritenFlag)
+			return true;
+		return ((getMachiMask() | (1L << type.id())) & sutehaiMask) != 0;
 	}
 
 	/**
 	 *　他家振聴フラグをセットする。
+	 * リーチしているときにtrueをセットした場合は,局が終わるまでフリテンのままになる.
 	 * @param tf
 	 */
 	public void setTatyaFuritenFlag(boolean tf) {
 		this.tatyaFuritenFlag = tf;
+		if (tf && (reachFlag || dreachFlag))
+			this.reachFuritenFlag = true;
+	}
+
+	/**
+	 * 待ち牌の牌種idのビットを立てた値を返す.テンパイしていない場合は0を返す.
+	 * 値は手牌が変わるまでキャッシュしておく.
+	 * 
+	 * @return 待ち牌の牌種idのビットを立てた値.
+	 */
+	public long getMachiMask() {
+		if (cachedMachiCheckFlag) {
+			return cachedMachiMask;
+		}
+		cachedMachiCheckFlag = true;
+		return cachedMachiMask = MachiMethod.getMachiMask(tehaiList.toSizeArray(), tehaiList.size(), nakiFlag);
 	}
 
 	/**
@@ -606,6 +677,7 @@ public class KyokuPlayer {
 	 * @return addに成功した場合trueを返す.
 	 */
 	public boolean addSutehai(Sutehai hai) {
+		sutehaiMask |= 1L << hai.type().id();
 		return sutehaiList.add(hai);
 	}
 
@@ -645,6 +717,7 @@ public class KyokuPlayer {
 	 */
 	private void onStateChanged() {
 		cachedTenpaiCheckFlag = false;
+		cachedMachiCheckFlag = false;
 	}
 
 	// DEBUG
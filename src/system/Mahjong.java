@@ -1,10 +1,13 @@
 package system;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
+import system.hai.Hai;
 import system.hai.Kaze;
 import system.result.KyokuResult;
 
@@ -25,8 +28,10 @@ public class Mahjong {
 	private KyokuResult kyokuResult;
 	private boolean endFlag;
 	private Map<Player, Integer> sekiMap;
+	private final Random rand;
+	private final List<KyokuListener> listeners;
 
-	private static Player winner;
+	private Player winner;
 
 	/**
 	 * 麻雀ゲームのコンストラクタ.プレイヤーのリストは親から順番に入っている必要がある.
@@ -35,10 +40,42 @@ public class Mahjong {
 	 * @param rule ルール.
 	 */
 	public Mahjong(List<Player> players, Rule rule) {
+		this(players, rule, new Random());
+	}
+
+	/**
+	 * 牌山を作るための乱数生成器を指定した麻雀ゲームのコンストラクタ.すべての局でこの乱数生成器を使う.
+	 * 同じ種で初期化した乱数生成器を渡し,同じように打てば同じゲームになる.
+	 * 
+	 * @param players 親から席順にはいったプレイヤーのリスト.
+	 * @param rule ルール.
+	 * @param rand 牌山を作るための乱数生成器.
+	 */
+	public Mahjong(List<Player> players, Rule rule, Random rand) {
 		this.players = players.toArray(new Player[0]);
 		this.sekiMap = new HashMap<Player, Integer>(4);
 		this.scores = new int[4];
 		this.rule = rule;
+		this.rand = rand;
+		this.listeners = new ArrayList<KyokuListener>(1);
+	}
+
+	/**
+	 * これから始めるすべての局に追加するリスナーを登録する.リスナーは配牌の前に局に追加される.
+	 * 
+	 * @param listener リスナー.
+	 */
+	public void addKyokuListener(KyokuListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * 指定されたリスナーを削除する.すでに始まっている局からは削除しない.
+	 * 
+	 * @param listener リスナー.
+	 */
+	public void removeKyokuListener(KyokuListener listener) {
+		listeners.remove(listener);
 	}
 
 	/**
@@ -57,6 +94,7 @@ public class Mahjong {
 		honba = 0;
 		lastKyoku = false;
 		endFlag = false;
+		winner = null;
 	}
 
 	/**
@@ -65,6 +103,25 @@ public class Mahjong {
 	 * @return 次の局を表すオブジェクト.
 	 */
 	public Kyoku startKyoku() {
+		Kyoku kyoku = newKyoku();
+		kyoku.init();
+		return kyoku;
+	}
+
+	/**
+	 * 指定された牌山で次の局をスタートする.牌山の並びはKyoku.init(List)と同じである.
+	 * 
+	 * @param haiyama 136枚の牌山.
+	 * @return 次の局を表すオブジェクト.
+	 * @throws IllegalArgumentException 牌の枚数が136枚でない場合.
+	 */
+	public Kyoku startKyoku(List<Hai> haiyama) {
+		Kyoku kyoku = newKyoku();
+		kyoku.init(haiyama);
+		return kyoku;
+	}
+
+	private Kyoku newKyoku() {
 		// オーラスの場合,フラグを立てる.
 		if (kyokusu == 4 && rule.getEndKaze() == bakaze) {
 			lastKyoku = true;
@@ -78,8 +135,10 @@ public class Mahjong {
 		player.put(Kaze.NAN, players[(oya + 1) % 4]);
 		player.put(Kaze.SYA, players[(oya + 2) % 4]);
 		player.put(Kaze.PE, players[(oya + 3) % 4]);
-		kyoku = new Kyoku(rule, player, bakaze);
-		kyoku.init();
+		kyoku = new Kyoku(rule, player, bakaze, rand);
+		for (KyokuListener listener : listeners) {
+			kyoku.addKyokuListener(listener);
+		}
 		return kyoku;
 	}
 
@@ -255,6 +314,8 @@ public class Mahjong {
 			endFlag = true;
 		if (endFlag && tsumibo != 0)
 			scores[getMaxScorePlayerIndex()] += 1000 * tsumibo;
+		if (endFlag)
+			winner = players[getMaxScorePlayerIndex()];
 	}
 
 	private boolean isOyaTenpai() {
@@ -455,7 +516,6 @@ public class Mahjong {
 		}
 		if (isEnd()) {
 			System.out.println("Game is Over.");
-			winner = players[getMaxScorePlayerIndex()];
 			System.out.println(winner.getName() + " WON!!!");
 		}
 		for (Player p : sekiMap.keySet()) {
@@ -464,7 +524,12 @@ public class Mahjong {
 		System.out.println();
 	}
 
-	public static Player getWinner() {
+	/**
+	 * このゲームで1位になったプレイヤーを返す.ゲームが終了していない場合はnullを返す.
+	 * 
+	 * @return 1位のプレイヤー.
+	 */
+	public Player getWinner() {
 		return winner;
 	}
 
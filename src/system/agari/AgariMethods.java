@@ -5,7 +5,9 @@ import java.util.List;
 import java.util.Set;
 
 import system.Field;
+import system.algo.MachiMethod;
 import system.algo.PatternMethod;
+import system.algo.SyantenMethod;
 import system.hai.Hai;
 import system.hai.HaiType;
 import system.hai.HurohaiList;
@@ -13,16 +15,29 @@ import system.hai.Kaze;
 import system.hai.MajanHai;
 import system.hai.Mentsu;
 import system.hai.NMentsu1Janto;
+import system.hai.Sutehai;
 import system.hai.SutehaiList;
 import system.hai.TehaiList;
 import system.yaku.NormalYaku;
 import system.yaku.Yaku;
+import system.yaku.YakuEvaluator;
 import system.yaku.Yakuman;
 
 /**
  * あがりに関するstaticメソッドを提供するクラス。
  */
 public class AgariMethods {
+	/** 国士無双の牌種idの配列 */
+	private static final int KOKUSI_IDS[];
+
+	static {
+		Set<HaiType> kokusiSet = Yakuman.getKokusiSet();
+		KOKUSI_IDS = new int[kokusiSet.size()];
+		int i = 0;
+		for (HaiType type : kokusiSet) {
+			KOKUSI_IDS[i++] = type.id();
+		}
+	}
 
 	/**
 	 * 切ってリーチできる牌インデックスリストを返す。どの牌を切ってもテンパイにならない場合は空のリストを返す。
@@ -60,14 +75,20 @@ public class AgariMethods {
 	 * @return　テンパイしている場合true
 	 */
 	public static boolean isTenpai(TehaiList tehaiList, boolean naki) {
-		// TODO 関連牌種だけでチェックするように変更
-		for (HaiType type : HaiType.values()) {
-			Hai hai = MajanHai.valueOf(type, false);
-			if (isKeisikiAgari(tehaiList, naki, hai)) {
-				return true;
-			}
-		}
-		return false;
+		return MachiMethod.getMachiMask(tehaiList.toSizeArray(), tehaiList.size(), naki) != 0;
+	}
+
+	/**
+	 * 指定された手牌の向聴数を返す。テンパイしている場合は0、あがっている場合は-1を返す。
+	 * 鳴いている場合は七対子と国士無双を考慮しない。
+	 * 手牌で4枚とも使っている牌だけを待つ形も0を返すが、isTenpai()はこの形をfalseとする。
+	 * 
+	 * @param tehaiList 手牌リスト
+	 * @param naki 鳴いているかどうか
+	 * @return 向聴数
+	 */
+	public static int getSyanten(TehaiList tehaiList, boolean naki) {
+		return SyantenMethod.calcSyanten(tehaiList.toSizeArray(), tehaiList.size(), naki);
 	}
 
 	/**
@@ -158,34 +179,11 @@ public class AgariMethods {
 				chParam.setMentuList(nmj);
 			}
 
-			// 両面待ちととれる場合
+			// 両面待ちととれる場合.とれない場合は平和にならない
 			if (MatiType.RYANMEN.check(chParam.getMentuList(), agParam.getAgarihai().type(), chParam.getJanto())) {
 				chParam.setMatiType(MatiType.RYANMEN);
-				for (Yaku yaku : NormalYaku.values()) {
-					if (yaku.check(agParam, chParam, f)) {
-						return true;
-					}
-				}
-			}
-			// 両面待ちととれない場合
-			else {
-				for (Yaku yaku : NormalYaku.values()) {
-
-					// 平和は飛ばす
-					if (yaku == NormalYaku.PINHU)
-						continue;
-
-					if (yaku.check(agParam, chParam, f)) {
-						return true;
-					}
-				}
-			}
-
-			for (Yaku yaku : Yakuman.values()) {
-				if (yaku.check(agParam, chParam, f)) {
-					return true;
-				}
 			}
+			return YakuEvaluator.evaluate(agParam, chParam, f) != 0;
 		}
 		// 4面子1雀頭でない
 		else {
@@ -194,20 +192,10 @@ public class AgariMethods {
 				return false;
 			}
 
-			if (NormalYaku.CHITOI.check(agParam, chParam, f)) {
-				return true;
-			}
-
-			if (Yakuman.KOKUSIMUSOU.check(agParam, chParam, f)) {
-				return true;
-			}
-
-			if (Yakuman.KOKUSIMUSOU_13MEN.check(agParam, chParam, f)) {
-				return true;
-			}
+			long mask = YakuEvaluator.evaluate(agParam, chParam, f);
+			return YakuEvaluator.contains(mask, NormalYaku.CHITOI) || YakuEvaluator.contains(mask, Yakuman.KOKUSIMUSOU)
+					|| YakuEvaluator.contains(mask, Yakuman.KOKUSIMUSOU_13MEN);
 		}
-
-		return false;
 	}
 
 	/**
@@ -219,8 +207,13 @@ public class AgariMethods {
 	 * @return フリテンの場合はtrue.
 	 */
 	public static boolean isFuriten(List<Hai> machiList, SutehaiList sutehaiList) {
+		// 捨牌を牌種のビットにまとめてから待ち牌と比べる
+		long sutehaiMask = 0;
+		for (Sutehai hai : sutehaiList) {
+			sutehaiMask |= 1L << hai.type().id();
+		}
 		for (Hai hai : machiList) {
-			if (sutehaiList.contains(hai))
+			if ((sutehaiMask & (1L << hai.type().id())) != 0)
 				return true;
 		}
 		return false;
@@ -238,8 +231,12 @@ public class AgariMethods {
 	 */
 	public static List<Hai> getMachiHaiList(TehaiList list, boolean naki) {
 		List<Hai> machiHaiList = new ArrayList<Hai>();
+		long mask = MachiMethod.getMachiMask(list.toSizeArray(), list.size(), naki);
+		if (mask == 0) {
+			return machiHaiList;
+		}
 		for (Hai hai : MajanHai.values()) {
-			if (isKeisikiAgari(list, naki, hai))
+			if ((mask & (1L << hai.type().id())) != 0)
 				machiHaiList.add(hai);
 		}
 		return machiHaiList;
@@ -254,39 +251,84 @@ public class AgariMethods {
 	 * @return　あがれる場合true
 	 */
 	public static boolean isKeisikiAgari(TehaiList tehaiList, boolean naki, Hai agariHai) {
-		CheckParam param = new CheckParam();
-
-		// 役判定はしないので自風はとりあえす東を入れておく
-		AgariParam agParam = new AgariParam(false, naki, agariHai, Kaze.TON, null);
-
-		List<Hai> tehaiPlusAgariHai = new ArrayList<Hai>(tehaiList);
-		tehaiPlusAgariHai.add(agariHai);
-		param.setHaiList(tehaiPlusAgariHai);
+		int n[] = tehaiList.toSizeArray();
+		int id = agariHai.type().id();
+		n[id]++;
+		return isKeisikiAgari(n, tehaiList.size() + 1, new int[PatternMethod.KEY_BUFFER_SIZE], naki, id);
+	}
 
+	/**
+	 * 牌種の枚数の配列で表された手牌(あがり牌を含む)があがりの形になっている場合trueを返す。
+	 * 役の判定はしない。keysはパターン法のキーの作業領域であり、このメソッドはヒープ領域を確保しない。
+	 * 
+	 * @param n あがり牌を含めた牌種の枚数の配列
+	 * @param size あがり牌を含めた手牌の枚数
+	 * @param keys パターン法のキーの作業領域．長さはPatternMethod.KEY_BUFFER_SIZE以上
+	 * @param naki 鳴いているかどうか
+	 * @param agariId あがり牌の牌種id
+	 * @return　あがりの形の場合true
+	 */
+	public static boolean isKeisikiAgari(int n[], int size, int keys[], boolean naki, int agariId) {
 		// 4面子1雀頭である
-		if (isNMentu1Janto(tehaiPlusAgariHai)) {
+		if (isNMentu1Janto(n, size, keys)) {
 			return true;
 		}
+
 		// 4面子1雀頭でない
-		else {
-			if (naki) {
+		if (naki) {
+			return false;
+		}
+		return isChitoi(n, size) || isKokusi(n, size) || isKokusi13men(n, agariId);
+	}
+
+	/**
+	 * 七対子の形ならtrueを返す．
+	 */
+	private static boolean isChitoi(int n[], int size) {
+		if (size != 14) {
+			return false;
+		}
+		for (int i = 0; i < n.length; i++) {
+			if (n[i] != 0 && n[i] != 2) {
 				return false;
 			}
+		}
+		return true;
+	}
 
-			if (NormalYaku.CHITOI.check(agParam, param, null)) {
-				return true;
+	/**
+	 * 国士無双の形ならtrueを返す．
+	 */
+	private static boolean isKokusi(int n[], int size) {
+		if (size != 14) {
+			return false;
+		}
+		int sum = 0;
+		for (int id : KOKUSI_IDS) {
+			if (n[id] == 0) {
+				return false;
 			}
+			sum += n[id];
+		}
+		return sum == 14;
+	}
 
-			if (Yakuman.KOKUSIMUSOU.check(agParam, param, null)) {
-				return true;
+	/**
+	 * あがり牌を除いて国士無双の13種がそろっている場合trueを返す．
+	 */
+	private static boolean isKokusi13men(int n[], int agariId) {
+		boolean yaotyu = false;
+		for (int id : KOKUSI_IDS) {
+			int num = n[id];
+			if (id == agariId) {
+				yaotyu = true;
+				num--;
 			}
-
-			if (Yakuman.KOKUSIMUSOU_13MEN.check(agParam, param, null)) {
-				return true;
+			if (num == 0) {
+				return false;
 			}
 		}
-
-		return false;
+		return yaotyu;
 	}
 
 	/**
@@ -305,4 +347,19 @@ public class AgariMethods {
 		//		return BackTrackMethod.isNMentu1Janto(haiList);
 	}
 
+	/**
+	 * 牌種の枚数の配列で表された手牌がn面子1雀頭で構成されている場合trueを返す．
+	 * keysはパターン法のキーの作業領域であり、このメソッドはヒープ領域を確保しない．
+	 * 
+	 * @param n 牌種の枚数の配列
+	 * @param size 手牌の枚数
+	 * @param keys パターン法のキーの作業領域．長さはPatternMethod.KEY_BUFFER_SIZE以上
+	 * @return n面子1雀頭で構成されている場合true
+	 */
+	public static boolean isNMentu1Janto(int n[], int size, int keys[]) {
+		if (size % 3 != 2)
+			return false;
+		return (PatternMethod.isNMentsu1Janto(n, keys) & 0x43) != 0x0;
+	}
+
 }
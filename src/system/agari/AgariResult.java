@@ -1,6 +1,8 @@
 package system.agari;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -8,6 +10,7 @@ import java.util.Map;
 import java.util.Set;
 
 import system.Field;
+import system.Rule;
 import system.algo.PatternMethod;
 import system.hai.Hai;
 import system.hai.HaiType;
@@ -18,15 +21,21 @@ import system.hai.NMentsu1Janto;
 import system.hai.TehaiList;
 import system.yaku.NormalYaku;
 import system.yaku.Yaku;
+import system.yaku.YakuEvaluator;
 import system.yaku.Yakuman;
+import util.MyLogger;
+import util.MyLogger.Category;
 import util.MyMath;
 
 /**
  * ある一人のプレイヤーのあがったときの結果を表すクラス．役セットや点数などを持つ.
  * このクラスのオブジェクトを作成するには内部クラスのBuilderオブジェクトを生成する.
+ * Builder.build()の結果はAgariResultCacheで共有されうるので,このクラスのオブジェクトは不変である.
  * 
  */
 public class AgariResult {
+	private static final MyLogger logger = MyLogger.getLogger();
+
 	private final Set<Yaku> yakuSet;
 	private final int han;
 	private final int hu;
@@ -37,7 +46,7 @@ public class AgariResult {
 	private final ScoreType scoreType;
 
 	private AgariResult(Set<Yaku> yaku, int han, int hu, boolean yakuman, int yakumanSize, int doraSize, int baseScore, ScoreType scoreType) {
-		this.yakuSet = yaku;
+		this.yakuSet = Collections.unmodifiableSet(yaku);
 		this.han = han;
 		this.hu = hu;
 		this.yakuman = yakuman;
@@ -142,6 +151,7 @@ public class AgariResult {
 		private CheckParam chParam;
 		private AgariParam agariParam;
 		private Set<Yaku> yakuFlag;
+		private AgariResultCache cache;
 
 		private int han;
 		private int hu;
@@ -188,6 +198,16 @@ public class AgariResult {
 			this.yakuFlag = yaku;
 		}
 
+		/**
+		 * 結果を再利用するキャッシュを設定する.デフォルトはnullで,毎回計算する.
+		 * キーを作るための手間がかかるので,同じ手を繰り返し点数計算する場合だけ設定する.
+		 *
+		 * @param cache キャッシュ.nullの場合は毎回計算する.
+		 */
+		public void setCache(AgariResultCache cache) {
+			this.cache = cache;
+		}
+
 		private void setCheckParam(CheckParam p) {
 			this.chParam = p;
 		}
@@ -200,7 +220,19 @@ public class AgariResult {
 				odora = new ArrayList<HaiType>();
 			if(yakuFlag == null)
 				yakuFlag = new HashSet<Yaku>();
-			
+
+			if (cache == null)
+				return buildNew();
+			AgariResultCache.Key key = newCacheKey();
+			AgariResult result = cache.get(key);
+			if (result == null) {
+				result = buildNew();
+				cache.put(key, result);
+			}
+			return result;
+		}
+
+		private AgariResult buildNew() {
 			if(!testOrder(tehai, huro)) {
 				checkYaku();
 				// 役満の場合
@@ -219,6 +251,56 @@ public class AgariResult {
 		}
 		
 		
+		/**
+		 * キャッシュのキーを作る.手牌,副露牌,ドラは順序によらないように並べ替える.
+		 * 副露牌の面子は種類,鳴きの有無,最小の牌タイプ,赤ドラの枚数で表す.
+		 */
+		private AgariResultCache.Key newCacheKey() {
+			int code[] = new int[3 + tehai.size() + huro.size() + odora.size() + udora.size()];
+			Rule rule = field.getRule();
+			int ruleBits = (rule.isKokushi13menDaburu() ? 1 : 0) | (rule.isSutanDaburu() ? 2 : 0)
+					| (rule.isJuntyanDaburu() ? 4 : 0) | (rule.isDaisushiDaburu() ? 8 : 0);
+			code[0] = agariParam.getAgarihai().ordinal() | (agariParam.isTsumo() ? 1 << 6 : 0)
+					| (agariParam.isNaki() ? 1 << 7 : 0) | agariParam.getJikaze().ordinal() << 8
+					| field.getBakaze().ordinal() << 10 | ruleBits << 12 | tehai.size() << 16 | huro.size() << 21
+					| odora.size() << 24 | udora.size() << 28;
+			long flags = 0;
+			for (Yaku yaku : agariParam.getFlagCheckYakuSet()) {
+				flags |= YakuEvaluator.maskOf(yaku);
+			}
+			code[1] = (int) flags;
+			code[2] = (int) (flags >>> 32);
+
+			int i = 3;
+			for (Hai hai : tehai) {
+				code[i++] = hai.ordinal();
+			}
+			Arrays.sort(code, 3, i);
+			int from = i;
+			for (Mentsu m : huro) {
+				int minId = HaiType.TYUN.id();
+				int akaSize = 0;
+				for (Hai hai : m.asList()) {
+					minId = Math.min(minId, hai.type().id());
+					if (hai.aka())
+						akaSize++;
+				}
+				code[i++] = m.type().ordinal() << 12 | (m.isNaki() ? 1 << 11 : 0) | minId << 3 | akaSize;
+			}
+			Arrays.sort(code, from, i);
+			from = i;
+			for (HaiType type : odora) {
+				code[i++] = type.id();
+			}
+			Arrays.sort(code, from, i);
+			from = i;
+			for (HaiType type : udora) {
+				code[i++] = type.id();
+			}
+			Arrays.sort(code, from, i);
+			return new AgariResultCache.Key(code);
+		}
+
 		/**
 		 * すでに面子が確定しているとき.
 		 * @return
@@ -277,7 +359,7 @@ public class AgariResult {
 
 				// 刻子からとれるかどうか
 				if (pvalue.isKotsuRm()) {
-					System.out.println("刻子");
+					logger.trace(Category.AGARI, "刻子");
 					NMentsu1Janto nmj = NMentsu1Janto.newInstanceFromKotsu(tehaiPlusAgariHai);
 					CheckParam p = new CheckParam(chParam);
 					AgariParam agp = new AgariParam(agariParam);
@@ -285,7 +367,7 @@ public class AgariResult {
 					p.setJanto(nmj.getJanto());
 
 					if (pvalue.isIpekoByKotsuRm()) {
-						System.out.println("IPEKO");
+						logger.trace(Category.AGARI, "IPEKO");
 						agp.addFlagCheckYaku(NormalYaku.IPEKO);
 					}
 					
@@ -301,7 +383,7 @@ public class AgariResult {
 				}
 				// 順子からとれるかどうか
 				if (pvalue.isSyuntsuRm()) {
-					System.out.println("順子");
+					logger.trace(Category.AGARI, "順子");
 					NMentsu1Janto nmj = NMentsu1Janto.newInstanceFromSyuntsu(tehaiPlusAgariHai);
 					CheckParam p = new CheckParam(chParam);
 					AgariParam agp = new AgariParam(agariParam);
@@ -309,7 +391,7 @@ public class AgariResult {
 					p.setJanto(nmj.getJanto());
 
 					if (pvalue.isIpekoBySyuntsuRm()) {
-						System.out.println("IPEKO");
+						logger.trace(Category.AGARI, "IPEKO");
 						agp.addFlagCheckYaku(NormalYaku.IPEKO);
 					}
 
@@ -318,7 +400,7 @@ public class AgariResult {
 				
 				// 例外的な構成か
 				if (pvalue.isException()) {
-					System.out.println("例外");
+					logger.trace(Category.AGARI, "例外");
 					NMentsu1Janto nmj = NMentsu1Janto.newInstanceOfException(tehaiPlusAgariHai);
 					CheckParam p = new CheckParam(chParam);
 					AgariParam agp = new AgariParam(agariParam);
@@ -326,7 +408,7 @@ public class AgariResult {
 					p.setJanto(nmj.getJanto());
 
 					if (pvalue.isIpeko()) {
-						System.out.println("IPEKO");
+						logger.trace(Category.AGARI, "IPEKO");
 						agp.addFlagCheckYaku(NormalYaku.IPEKO);
 					}
 					agarilist.add(checkYakuOnMentsuFetchedEnd(hurohaiList, nmj, p, agp));
@@ -648,88 +730,54 @@ public class AgariResult {
 
 		// 面子などから役を判定する.
 		private boolean checkYaku() {
-			this.yakuSet = new HashSet<Yaku>();
-			
-			// 役満をチェックする
-			for (Yakuman yaku : Yakuman.values()) {
-				if (chParam.getMentuList() != null) {
-					if (yaku.check(agariParam, chParam, field)) {
-						yakuSet.add(yaku);
-					}
-				} else {
-					if (!yaku.is4Mentu1Janto() && yaku.check(agariParam, chParam, field)) {
-						yakuSet.add(yaku);
-					}
-				}
-			}
+			long mask = YakuEvaluator.evaluate(agariParam, chParam, field);
 
 			// 役満である
-			if (yakuSet.size() > 0) {
+			long yakuman = mask & YakuEvaluator.YAKUMAN_MASK;
+			if (yakuman != 0) {
 
 				// かぶっている役満(国士無双と国士無双13面待ちなど)を削除する。
-				if (yakuSet.contains(Yakuman.KOKUSIMUSOU) && yakuSet.contains(Yakuman.KOKUSIMUSOU_13MEN)) {
-					yakuSet.remove(Yakuman.KOKUSIMUSOU);
-				}
-				if (yakuSet.contains(Yakuman.SUANKO) && yakuSet.contains(Yakuman.SUANKO_TANKI)) {
-					yakuSet.remove(Yakuman.SUANKO);
-				}
-				if (yakuSet.contains(Yakuman.SYOSUSHI) && yakuSet.contains(Yakuman.DAISUSHI)) {
-					yakuSet.remove(Yakuman.SYOSUSHI);
-				}
-				if (yakuSet.contains(Yakuman.TYURENPOTO) && yakuSet.contains(Yakuman.JUNTYANTYUREN)) {
-					yakuSet.remove(Yakuman.TYURENPOTO);
-				}
+				yakuman = removeOverlap(yakuman, Yakuman.KOKUSIMUSOU, Yakuman.KOKUSIMUSOU_13MEN);
+				yakuman = removeOverlap(yakuman, Yakuman.SUANKO, Yakuman.SUANKO_TANKI);
+				yakuman = removeOverlap(yakuman, Yakuman.SYOSUSHI, Yakuman.DAISUSHI);
+				yakuman = removeOverlap(yakuman, Yakuman.TYURENPOTO, Yakuman.JUNTYANTYUREN);
 
+				this.yakuSet = YakuEvaluator.toYakuSet(yakuman);
 				this.yakuman = true;
 				return true;
 			}
 
+			long normal = mask & YakuEvaluator.NORMAL_YAKU_MASK;
 			// 4面子1雀頭である
-			if (chParam.getMentuList() != null) {
-				for (Yaku yaku : NormalYaku.values()) {
-					if (yaku == NormalYaku.CHITOI)
-						continue;
-					if (yaku.check(agariParam, chParam, field))
-						yakuSet.add(yaku);
-				}
-			}
+			if (chParam.getMentuList() != null)
+				normal &= ~YakuEvaluator.maskOf(NormalYaku.CHITOI);
 			// 4面子1雀頭でない
-			else {
-				if (NormalYaku.CHITOI.check(agariParam, chParam, field)) {
-					yakuSet.add(NormalYaku.CHITOI);
-
-					for (Yaku yaku : NormalYaku.values()) {
-						if (yaku == NormalYaku.CHITOI)
-							continue;
-						if (!yaku.is4Mentu1Janto() && yaku.check(agariParam, chParam, field))
-							yakuSet.add(yaku);
-					}
-				}
-			}
+			else if (!YakuEvaluator.contains(normal, NormalYaku.CHITOI))
+				normal = 0;
 
-			if (yakuSet.size() == 0)
+			if (normal == 0) {
+				this.yakuSet = new HashSet<Yaku>();
 				return false;
+			}
 
 			// かぶっている役(混一色と清一色など)を削除する。
-			if (yakuSet.contains(NormalYaku.HONNITSU) && yakuSet.contains(NormalYaku.CHINNITSU)) {
-				yakuSet.remove(NormalYaku.HONNITSU);
-			}
-			if (yakuSet.contains(NormalYaku.IPEKO) && yakuSet.contains(NormalYaku.RYANPEKO)) {
-				yakuSet.remove(NormalYaku.IPEKO);
-			}
-			if (yakuSet.contains(NormalYaku.RICHI) && yakuSet.contains(NormalYaku.DABURURICHI)) {
-				yakuSet.remove(NormalYaku.RICHI);
-			}
-			if (yakuSet.contains(NormalYaku.TYANTA) && yakuSet.contains(NormalYaku.JUNTYAN)) {
-				yakuSet.remove(NormalYaku.TYANTA);
-			}
-			if (yakuSet.contains(NormalYaku.TYANTA) && yakuSet.contains(NormalYaku.HONROTO)) {
-				yakuSet.remove(NormalYaku.TYANTA);
-			}
+			normal = removeOverlap(normal, NormalYaku.HONNITSU, NormalYaku.CHINNITSU);
+			normal = removeOverlap(normal, NormalYaku.IPEKO, NormalYaku.RYANPEKO);
+			normal = removeOverlap(normal, NormalYaku.RICHI, NormalYaku.DABURURICHI);
+			normal = removeOverlap(normal, NormalYaku.TYANTA, NormalYaku.JUNTYAN);
+			normal = removeOverlap(normal, NormalYaku.TYANTA, NormalYaku.HONROTO);
 
+			this.yakuSet = YakuEvaluator.toYakuSet(normal);
 			return true;
 		}
 
+		// 両方の役を含んでいる場合,removedを除く
+		private static long removeOverlap(long mask, Yaku removed, Yaku yaku) {
+			if (YakuEvaluator.contains(mask, removed) && YakuEvaluator.contains(mask, yaku))
+				return mask & ~YakuEvaluator.maskOf(removed);
+			return mask;
+		}
+
 	}
 
 }
@@ -0,0 +1,203 @@
+package system.agari;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * あがりの結果のキャッシュ.</br>
+ * AgariResult.Builder.build()は,手牌,副露牌,あがり牌,ツモかロンか,自風と場風,フラグで判定する役,ドラ,ルールが
+ * 同じであれば同じ結果を返す.これらを正規化して並べたものをキーにして,計算済みのAgariResultを返す.
+ * 放銃した人の風は点数に影響しないのでキーに含めない.</br>
+ * 保持する結果の数には上限があり,上限を超えると最も長く使われていない結果から捨てる.
+ * 複数のスレッドから同時に使うことができる.キーのハッシュ値で結果を複数の区画に分け,区画ごとに排他するので,
+ * 異なる区画への読み書きは互いに待たない.最も長く使われていない結果は区画ごとに決める.</br>
+ * AgariResult.Builderはデフォルトではキャッシュを使わない.同じ手を繰り返し点数計算する呼び出し元だけがsetCache()で設定する.
+ */
+public class AgariResultCache {
+	/** デフォルトの上限 */
+	public static final int DEFAULT_CAPACITY = 4096;
+	/** 区画の数の上限 */
+	private static final int MAX_SEGMENTS = 16;
+	/** 1つの区画に保持する結果の数の下限.上限が小さい場合は区画を減らす */
+	private static final int MIN_SEGMENT_CAPACITY = 64;
+
+	private static final AgariResultCache DEFAULT = new AgariResultCache(DEFAULT_CAPACITY);
+
+	private final int capacity;
+	private final Segment segments[];
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+
+	/**
+	 * 正規化したあがりの条件.
+	 */
+	static final class Key {
+		private final int code[];
+		private final int hash;
+
+		Key(int code[]) {
+			this.code = code;
+			this.hash = Arrays.hashCode(code);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return hash == other.hash && Arrays.equals(code, other.code);
+		}
+	}
+
+	/**
+	 * 最も長く使われていない結果から捨てる1つの区画.このオブジェクトで同期して使う.
+	 */
+	private static final class Segment extends LinkedHashMap<Key, AgariResult> {
+		private static final long serialVersionUID = 1L;
+
+		private final int capacity;
+
+		Segment(int capacity) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, AgariResult> eldest) {
+			return size() > capacity;
+		}
+	}
+
+	/**
+	 * 指定された上限のキャッシュを生成する.
+	 *
+	 * @param capacity 保持する結果の数の上限.
+	 * @throws IllegalArgumentException 上限が1未満の場合.
+	 */
+	public AgariResultCache(int capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("上限が1未満 : " + capacity);
+		this.capacity = capacity;
+		// 区画の数は2のべき乗にして,ハッシュ値の下位ビットで選ぶ
+		int size = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, capacity / MIN_SEGMENT_CAPACITY)));
+		this.segments = new Segment[size];
+		for (int i = 0; i < size; i++) {
+			segments[i] = new Segment((capacity + size - 1) / size);
+		}
+	}
+
+	private Segment segmentOf(Key key) {
+		int h = key.hash;
+		return segments[(h ^ (h >>> 16)) & (segments.length - 1)];
+	}
+
+	/**
+	 * 同じ手を繰り返し点数計算する呼び出し元が共有して使うキャッシュを返す.
+	 *
+	 * @return 共有のキャッシュ.
+	 */
+	public static AgariResultCache getDefault() {
+		return DEFAULT;
+	}
+
+	AgariResult get(Key key) {
+		AgariResult result;
+		Segment map = segmentOf(key);
+		synchronized (map) {
+			result = map.get(key);
+		}
+		if (result == null)
+			missCount.incrementAndGet();
+		else
+			hitCount.incrementAndGet();
+		return result;
+	}
+
+	void put(Key key, AgariResult result) {
+		Segment map = segmentOf(key);
+		synchronized (map) {
+			map.put(key, result);
+		}
+	}
+
+	/**
+	 * 保持している結果の数を返す.
+	 *
+	 * @return 保持している結果の数.
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment map : segments) {
+			synchronized (map) {
+				size += map.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * 保持する結果の数の上限を返す.
+	 *
+	 * @return 上限.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * キャッシュにあった回数を返す.
+	 *
+	 * @return キャッシュにあった回数.
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * キャッシュになく計算した回数を返す.
+	 *
+	 * @return キャッシュになかった回数.
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * キャッシュにあった割合を返す.まだ一度も使われていない場合は0を返す.
+	 *
+	 * @return キャッシュにあった割合.
+	 */
+	public double getHitRate() {
+		long hit = hitCount.get();
+		long total = hit + missCount.get();
+		return total == 0 ? 0 : (double) hit / total;
+	}
+
+	/**
+	 * 保持している結果と回数を全て消す.
+	 */
+	public void clear() {
+		for (Segment map : segments) {
+			synchronized (map) {
+				map.clear();
+			}
+		}
+		hitCount.set(0);
+		missCount.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return "AgariResultCache [size=" + size() + ", capacity=" + capacity + ", hit=" + getHitCount() + ", miss="
+				+ getMissCount() + "]";
+	}
+}
@@ -0,0 +1,124 @@
+package system.algo;
+
+/**
+ * intのキーにbyteの値を対応付けるオープンアドレス法のハッシュ表を表すクラス．
+ * パターン法のキー表を引くときにInteger,Byteのボクシングを起こさないために用いる．</br>
+ * キーは1以上の整数でなければならない(0は空きスロットの印として使う)．
+ */
+public final class IntByteHashMap {
+	/**
+	 * キーが存在しなかったときにget()が返す値．
+	 */
+	public static final int NO_VALUE = -1;
+
+	private int keys[];
+	private byte values[];
+	private int mask;
+	private int size;
+
+	/**
+	 * 指定された要素数を格納できるハッシュ表を生成する．
+	 *
+	 * @param expectedSize 格納する予定の要素数．
+	 */
+	public IntByteHashMap(int expectedSize) {
+		if (expectedSize < 0) {
+			throw new IllegalArgumentException("expectedSize : " + expectedSize);
+		}
+		int capacity = 2;
+		// 負荷率を1/2以下に保つ
+		while (capacity < expectedSize * 2) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		values = new byte[capacity];
+		mask = capacity - 1;
+		size = 0;
+	}
+
+	private int indexOf(int key) {
+		int h = key * 0x9e3779b9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	/**
+	 * 指定されたキーに値を対応付ける．既にキーが存在する場合は値を上書きする．
+	 *
+	 * @param key 1以上のキー．
+	 * @param value 値．
+	 */
+	public void put(int key, byte value) {
+		if (key <= 0) {
+			throw new IllegalArgumentException("key : " + key);
+		}
+		if ((size + 1) * 2 > keys.length) {
+			rehash(keys.length << 1);
+		}
+		int i = indexOf(key);
+		while (keys[i] != 0) {
+			if (keys[i] == key) {
+				values[i] = value;
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		values[i] = value;
+		size++;
+	}
+
+	private void rehash(int capacity) {
+		int oldKeys[] = keys;
+		byte oldValues[] = values;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != 0) {
+				put(oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+
+	/**
+	 * 指定されたキーに対応する値を0から255の整数で返す．キーが存在しない場合はNO_VALUEを返す．
+	 *
+	 * @param key キー．
+	 * @return キーに対応する値．キーが存在しない場合はNO_VALUE．
+	 */
+	public int get(int key) {
+		if (key <= 0) {
+			return NO_VALUE;
+		}
+		int i = indexOf(key);
+		int k;
+		while ((k = keys[i]) != 0) {
+			if (k == key) {
+				return values[i] & 0xff;
+			}
+			i = (i + 1) & mask;
+		}
+		return NO_VALUE;
+	}
+
+	/**
+	 * 指定されたキーが存在するかどうかを返す．
+	 *
+	 * @param key キー．
+	 * @return キーが存在すればtrue．
+	 */
+	public boolean containsKey(int key) {
+		return get(key) != NO_VALUE;
+	}
+
+	/**
+	 * 格納されている要素数を返す．
+	 *
+	 * @return 要素数．
+	 */
+	public int size() {
+		return size;
+	}
+}
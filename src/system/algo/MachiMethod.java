@@ -0,0 +1,285 @@
+package system.algo;
+
+import system.hai.HaiType;
+import system.yaku.Yakuman;
+
+/**
+ * 待ち牌を一度にすべて求めるアルゴリズムを表すクラス．</br>
+ * 数牌1色の枚数の並びを5進数の整数(1の枚数が1の位)に直したものを色コードと呼ぶ．
+ * このクラスはすべての色コードに対して、その色だけを見たときのパターン法の判定結果を表にして持っている．
+ * ある牌を1枚加えた色コードは元の色コードに5のべき乗を足すだけで求まるので、
+ * 37種の牌をそれぞれ加えて判定し直す代わりに表を高々27回引くだけで待ち牌がすべて分かる．</br>
+ * </br>
+ * 判定の結果はPatternMethod.isNMentsu1Janto()と同じになる．
+ * つまり、刻子から取るか順子から取るかが色ごとに食い違う並びはあがりとみなさない．
+ */
+public class MachiMethod {
+	/** 色コードの総数(5^9) */
+	public static final int SUIT_CODE_SIZE = 1953125;
+
+	/** 色コードを生成するための5のべき乗 */
+	private static final int POW5[] = { 1, 5, 25, 125, 625, 3125, 15625, 78125, 390625 };
+
+	/*
+	 * 色の状態は1byteで表す．0はn面子1雀頭(または面子のみ)に分解できないことを表す．
+	 * 下位2bitはPatternMethodの「刻子からとれる」「順子からとれる」フラグの論理積、
+	 * 0x4は例外的な構成を含むこと、0x8は雀頭を含むことを表す．
+	 */
+	private static final int LOW = 0x3;
+	private static final int EXCEPTION = 0x4;
+	private static final int JANTO = 0x8;
+	private static final int EMPTY = LOW;
+
+	/** 色コードをインデックスとした色の状態の表 */
+	private static final byte SUIT_TABLE[] = new byte[SUIT_CODE_SIZE];
+
+	/** 字牌の枚数をインデックスとした状態の表 */
+	private static final byte TSUHAI_TABLE[] = new byte[5];
+
+	/** 国士無双の牌種idの配列 */
+	private static final int KOKUSI_IDS[];
+
+	static {
+		int c[] = new int[10];
+		for (int code = 0; code < SUIT_CODE_SIZE; code++) {
+			int rest = code;
+			for (int j = 1; j <= 9; j++) {
+				c[j] = rest % 5;
+				rest /= 5;
+			}
+			SUIT_TABLE[code] = (byte) calcSuitState(c);
+		}
+
+		TSUHAI_TABLE[0] = EMPTY;
+		for (int i = 1; i < TSUHAI_TABLE.length; i++) {
+			TSUHAI_TABLE[i] = (byte) addKey(EMPTY, i);
+		}
+
+		KOKUSI_IDS = new int[Yakuman.getKokusiSet().size()];
+		int i = 0;
+		for (HaiType type : Yakuman.getKokusiSet()) {
+			KOKUSI_IDS[i++] = type.id();
+		}
+	}
+
+	/**
+	 * 1色の枚数の並びからその色の状態を計算する．
+	 */
+	private static int calcSuitState(int c[]) {
+		int state = EMPTY;
+		int elem = 0;
+		for (int j = 1; j <= 9; j++) {
+			if (c[j] == 0) {
+				if (elem != 0) {
+					state = addKey(state, elem);
+					elem = 0;
+				}
+			} else {
+				elem = elem * 10 + c[j];
+			}
+		}
+		if (elem != 0) {
+			state = addKey(state, elem);
+		}
+		return state;
+	}
+
+	/**
+	 * 状態にパターン法のキーを1つ加えた状態を返す．
+	 */
+	private static int addKey(int state, int key) {
+		if (state == 0) {
+			return 0;
+		}
+		int value = PatternMethod.map1.get(key);
+		if (value == IntByteHashMap.NO_VALUE) {
+			value = PatternMethod.map2.get(key);
+			if (value == IntByteHashMap.NO_VALUE || (state & JANTO) != 0) {
+				return 0;
+			}
+			state |= JANTO;
+		}
+		state = (state & ~LOW) | (state & value & LOW);
+		if ((value & 0x40) != 0) {
+			state |= EXCEPTION;
+		}
+		return state;
+	}
+
+	/**
+	 * 指定された牌の数の配列の指定された色の色コードを返す．
+	 *
+	 * @param n 牌の数の配列．
+	 * @param suit 色の番号．萬子が0、筒子が1、索子が2．
+	 * @return 色コード．
+	 */
+	public static int suitCode(int n[], int suit) {
+		int base = suit * 10;
+		int code = 0;
+		for (int j = 9; j >= 1; j--) {
+			code = code * 5 + n[base + j];
+		}
+		return code;
+	}
+
+	/**
+	 * 指定された牌の数の配列で表された手牌の待ち牌を、牌種idのビットを立てたマスクとして返す．
+	 * 手牌は1枚加えるとあがりの形になりうる枚数(3n+1枚)であることを想定している．
+	 * 役の有無は判定しない．
+	 *
+	 * @param n 牌の数の配列．
+	 * @param size 手牌の枚数．
+	 * @param naki 鳴いている場合true．
+	 * @return 待ち牌の牌種idのビットを立てたマスク．テンパイしていない場合は0．
+	 */
+	public static long getMachiMask(int n[], int size, boolean naki) {
+		long mask = 0;
+
+		if ((size + 1) % 3 == 2) {
+			mask |= getNMentsu1JantoMachiMask(n);
+		}
+
+		if (!naki) {
+			mask |= getChitoiMachiMask(n, size);
+			mask |= getKokusiMachiMask(n, size);
+		}
+		return mask;
+	}
+
+	/**
+	 * n面子1雀頭の待ち牌のマスクを返す．
+	 */
+	private static long getNMentsu1JantoMachiMask(int n[]) {
+		// 数牌3色と字牌7種の10グループの状態
+		int codes[] = new int[3];
+		int states[] = new int[10];
+		int invalid = -1;
+		for (int g = 0; g < 10; g++) {
+			int state;
+			if (g < 3) {
+				if ((codes[g] = suitCode(n, g)) >= SUIT_CODE_SIZE) {
+					return 0;
+				}
+				state = SUIT_TABLE[codes[g]];
+			} else {
+				int num = n[27 + g];
+				if (num >= TSUHAI_TABLE.length) {
+					return 0;
+				}
+				state = TSUHAI_TABLE[num];
+			}
+			if (state == 0) {
+				// 崩れているグループが2つ以上あれば1枚加えてもあがれない
+				if (invalid >= 0) {
+					return 0;
+				}
+				invalid = g;
+			}
+			states[g] = state;
+		}
+
+		long mask = 0;
+		for (int g = 0; g < 10; g++) {
+			if (invalid >= 0 && invalid != g) {
+				continue;
+			}
+
+			// g以外のグループをまとめた状態
+			int others = LOW;
+			int jantoSize = 0;
+			for (int o = 0; o < 10; o++) {
+				if (o != g) {
+					int state = states[o];
+					others = (others & ~LOW) | (others & state & LOW) | (state & EXCEPTION);
+					if ((state & JANTO) != 0) {
+						jantoSize++;
+					}
+				}
+			}
+			if (jantoSize > 1) {
+				continue;
+			}
+
+			if (g < 3) {
+				int base = g * 10;
+				for (int j = 1; j <= 9; j++) {
+					if (n[base + j] < 4 && isAgari(others, jantoSize, SUIT_TABLE[codes[g] + POW5[j - 1]])) {
+						mask |= 1L << (base + j);
+					}
+				}
+			} else {
+				int id = 27 + g;
+				if (n[id] < 4 && isAgari(others, jantoSize, TSUHAI_TABLE[n[id] + 1])) {
+					mask |= 1L << id;
+				}
+			}
+		}
+		return mask;
+	}
+
+	private static boolean isAgari(int others, int jantoSize, int state) {
+		if (state == 0) {
+			return false;
+		}
+		if ((state & JANTO) != 0) {
+			jantoSize++;
+		}
+		if (jantoSize != 1) {
+			return false;
+		}
+		return (others & state & LOW) != 0 || ((others | state) & EXCEPTION) != 0;
+	}
+
+	/**
+	 * 七対子の待ち牌のマスクを返す．6種の対子と1枚の単騎であればその単騎を待つ．
+	 */
+	private static long getChitoiMachiMask(int n[], int size) {
+		if (size != 13) {
+			return 0;
+		}
+		int tanki = -1;
+		for (int id = 0; id < n.length; id++) {
+			if (n[id] == 1) {
+				if (tanki >= 0) {
+					return 0;
+				}
+				tanki = id;
+			} else if (n[id] != 0 && n[id] != 2) {
+				return 0;
+			}
+		}
+		return tanki >= 0 ? 1L << tanki : 0;
+	}
+
+	/**
+	 * 国士無双の待ち牌のマスクを返す．
+	 */
+	private static long getKokusiMachiMask(int n[], int size) {
+		int missing = -1;
+		int sum = 0;
+		for (int id : KOKUSI_IDS) {
+			if (n[id] == 0) {
+				if (missing >= 0) {
+					return 0;
+				}
+				missing = id;
+			}
+			sum += n[id];
+		}
+
+		// 13種すべてそろっていれば13面待ち
+		if (missing < 0) {
+			long mask = 0;
+			for (int id : KOKUSI_IDS) {
+				mask |= 1L << id;
+			}
+			return mask;
+		}
+
+		// 1種だけ欠けていて手牌がすべて么九牌であればその牌を待つ
+		if (size == 13 && sum == 13) {
+			return 1L << missing;
+		}
+		return 0;
+	}
+}
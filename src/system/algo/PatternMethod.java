@@ -1,9 +1,7 @@
 package system.algo;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import system.hai.Hai;
 import system.hai.TehaiList;
@@ -85,6 +83,50 @@ public class PatternMethod {
 		}
 	}
 
+	/**
+	 * calcKey(int[], int[])に渡すキーの作業領域に必要な長さ．
+	 * 数牌は1色につき最大5つ、字牌は7つのキーになるので3 * 5 + 7 = 22となる．
+	 */
+	public static final int KEY_BUFFER_SIZE = 22;
+
+	/**
+	 * 指定された牌の数の配列からパターン法のキーを計算して、指定された作業領域に格納する．
+	 * このメソッドはヒープ領域を一切確保しない．</br>
+	 * 牌の数の配列についてはcalcKey(int[])を参照せよ．
+	 * 
+	 * @param n 牌の数の配列
+	 * @param keys キーを格納する作業領域．長さはKEY_BUFFER_SIZE以上でなければならない．
+	 * @return 格納したキーの数．
+	 */
+	public static int calcKey(int n[], int keys[]) {
+		int size = 0;
+		int elem = 0;
+		for (int i = 0; i < 3; i++) {
+			for (int j = 1; j <= 9; j++) {
+				int num = n[i * 10 + j];
+				if (num == 0) {
+					if (elem != 0) {
+						keys[size++] = elem;
+						elem = 0;
+					}
+				} else {
+					elem = elem * 10 + num;
+				}
+			}
+			if (elem != 0) {
+				keys[size++] = elem;
+				elem = 0;
+			}
+		}
+
+		for (int i = 30; i <= 36; i++) {
+			if (n[i] != 0) {
+				keys[size++] = n[i];
+			}
+		}
+		return size;
+	}
+
 	/**
 	 * 指定された牌の数の配列からパターン法のキーを計算してそれを返す．
 	 * 牌の数の配列はそれぞれの牌種のidをindexとして中身にそのidの牌の枚数が入った整数の配列である．
@@ -151,16 +193,33 @@ public class PatternMethod {
 	 * @return n面子1雀頭であれば0以外の整数値.
 	 */
 	public static int isNMentsu1Janto(Integer keys[]) {
+		int arr[] = new int[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			arr[i] = keys[i];
+		}
+		return isNMentsu1Janto(arr, keys.length);
+	}
+
+	/**
+	 * 指定されたキーの配列の先頭length個がn面子1雀頭であるかどうかを判定する．n面子1雀頭であれば0以外の整数値を返す．</br>
+	 * 返り値に関してはisNMentsu1Janto(Integer keys[])を参照せよ．
+	 * 
+	 * @param keys calcKey(int[], int[])メソッドによって生成されたキーの配列．
+	 * @param length キーの数．
+	 * @return n面子1雀頭であれば0以外の整数値.
+	 */
+	public static int isNMentsu1Janto(int keys[], int length) {
 		boolean janto = false;
 
 		int ret = 0x3;
 
-		for (Integer key : keys) {
-			Byte value = map1.get(key);
-			if (value == null) {
+		for (int i = 0; i < length; i++) {
+			int key = keys[i];
+			int value = map1.get(key);
+			if (value == IntByteHashMap.NO_VALUE) {
 				value = map2.get(key);
 				// パターンが存在しない場合と既に雀頭候補がある場合はfalse
-				if (value == null || janto) {
+				if (value == IntByteHashMap.NO_VALUE || janto) {
 					return 0;
 				}
 				janto = true;
@@ -211,7 +270,20 @@ public class PatternMethod {
 	 */
 	public static int isNMentsu1Janto(List<? extends Hai> tlist) {
 		int indexes[] = TehaiList.toSizeArray(tlist);
-		return isNMentsu1Janto(calcKey(indexes));
+		return isNMentsu1Janto(indexes, new int[KEY_BUFFER_SIZE]);
+	}
+
+	/**
+	 * 指定された牌の数の配列がn面子1雀頭であるかどうかを判定する．n面子1雀頭であれば0以外の整数値を返す．</br>
+	 * キーは呼び出し側が用意した作業領域に計算されるので、このメソッドはヒープ領域を一切確保しない．
+	 * 返り値に関してはisNMentsu1Janto(Integer keys[])を参照せよ．
+	 * 
+	 * @param n 牌の数の配列．
+	 * @param keys キーの作業領域．長さはKEY_BUFFER_SIZE以上でなければならない．
+	 * @return n面子1雀頭であれば0以外の整数値.
+	 */
+	public static int isNMentsu1Janto(int n[], int keys[]) {
+		return isNMentsu1Janto(keys, calcKey(n, keys));
 	}
 
 	/**
@@ -228,8 +300,10 @@ public class PatternMethod {
 		// 何もしない
 	}
 
-	public static Map<Integer, Byte> map1 = new HashMap<Integer, Byte>(280);
-	public static Map<Integer, Byte> map2 = new HashMap<Integer, Byte>(1955);
+	/** 面子のみからなるパターンの表 */
+	public static final IntByteHashMap map1 = new IntByteHashMap(280);
+	/** 雀頭を1つ含むパターンの表 */
+	public static final IntByteHashMap map2 = new IntByteHashMap(1955);
 	static {
 		map1.put(3414, (byte) 1);
 		map1.put(311133, (byte) 1);
@@ -0,0 +1,305 @@
+package system.algo;
+
+import system.hai.HaiType;
+import system.yaku.Yakuman;
+
+/**
+ * 向聴数を計算するクラス．向聴数はあと何枚有効牌を引けばテンパイするかを表し、テンパイで0、あがりで-1となる．</br>
+ * 通常の手(n面子1雀頭)、七対子、国士無双の向聴数をそれぞれ計算できる．</br>
+ * </br>
+ * 通常の手は数牌1色ごとに「雀頭の有無と面子の数に対して取れる最大の塔子の数」を求めておき、それを組み合わせて計算する．
+ * 1色分の結果はMachiMethodと同じ色コード(1色の枚数の並びを5進数に直したもの)をキーとして表に保存するので、
+ * 同じ並びの色は2回目以降表を1回引くだけで済む．
+ * パターン法のキーは0枚の位置で区切ってしまい嵌張塔子を表せないため、ここでは色コードを用いる．</br>
+ * </br>
+ * 向聴数は手牌の形だけから計算し、牌が各4枚しかないことは考えない．そのため、手牌で4枚とも使っている牌だけを待つ形
+ * (例えば1111萬 234筒 567筒 789索の1萬待ち)も0となる．MachiMethodとAgariMethods.isTenpai()はこの形を
+ * テンパイとしないので、向聴数が0でも待ちがない場合がある．
+ */
+public class SyantenMethod {
+	/*
+	 * 1色分の結果は雀頭の有無(p)と面子の数(m)の10通りについて、最大の塔子の数+1を3bitずつ並べた整数で表す．
+	 * 塔子の数は4を超えても向聴数は変わらないので4で打ち切る．0はその(p, m)の組が取れないことを表す．
+	 * 0x40000000は計算済みであることを表す．
+	 */
+	private static final int COMPUTED = 0x40000000;
+	private static final int SLOT_SIZE = 10;
+
+	/** 色コードをインデックスとした1色分の結果の表．必要になったときに計算して埋める． */
+	private static final int SUIT_TABLE[] = new int[MachiMethod.SUIT_CODE_SIZE];
+
+	/** 字牌1種の枚数をインデックスとした結果の表 */
+	private static final int TSUHAI_TABLE[] = new int[5];
+
+	/** 字牌7種の枚数を5進数に直したものをインデックスとした結果の表．必要になったときに計算して埋める． */
+	private static final int TSUHAI_SET_TABLE[] = new int[78125];
+
+	/** 国士無双の牌種idの配列 */
+	private static final int KOKUSI_IDS[];
+
+	static {
+		int c[] = new int[12];
+		for (int num = 0; num < TSUHAI_TABLE.length; num++) {
+			c[1] = num;
+			TSUHAI_TABLE[num] = calcPackedValue(c, false);
+		}
+
+		KOKUSI_IDS = new int[Yakuman.getKokusiSet().size()];
+		int i = 0;
+		for (HaiType type : Yakuman.getKokusiSet()) {
+			KOKUSI_IDS[i++] = type.id();
+		}
+	}
+
+	/**
+	 * 指定された牌の数の配列で表された手牌の向聴数を返す．通常の手、七対子、国士無双のうち最も小さいものを返す．
+	 * 鳴いている場合は通常の手の向聴数のみを返す．
+	 *
+	 * @param n 牌の数の配列．
+	 * @param size 手牌の枚数．
+	 * @param naki 鳴いている場合true．
+	 * @return 向聴数．あがっている場合は-1．
+	 */
+	public static int calcSyanten(int n[], int size, boolean naki) {
+		int syanten = calcNormalSyanten(n, size);
+		if (!naki && size >= 13) {
+			syanten = Math.min(syanten, calcChitoiSyanten(n));
+			syanten = Math.min(syanten, calcKokusiSyanten(n));
+		}
+		return syanten;
+	}
+
+	/**
+	 * 通常の手(n面子1雀頭)の向聴数を返す．作るべき面子の数は手牌の枚数から決まる(13枚または14枚なら4面子)．
+	 *
+	 * @param n 牌の数の配列．
+	 * @param size 手牌の枚数．
+	 * @return 向聴数．あがっている場合は-1．
+	 */
+	public static int calcNormalSyanten(int n[], int size) {
+		int mentsuSize = size / 3;
+
+		// best[p * 5 + m] : 雀頭の有無pと面子数mに対する最大の塔子数．-1は取れないことを表す
+		int best[] = new int[SLOT_SIZE];
+		int next[] = new int[SLOT_SIZE];
+		for (int i = 0; i < SLOT_SIZE; i++) {
+			best[i] = -1;
+		}
+		best[0] = 0;
+
+		for (int suit = 0; suit < 3; suit++) {
+			int code = MachiMethod.suitCode(n, suit);
+			if (code != 0) {
+				merge(best, next, getSuitValue(n, suit, code));
+			}
+		}
+		int code = 0;
+		for (int id = 36; id >= 30; id--) {
+			code = code * 5 + n[id];
+		}
+		if (code != 0) {
+			merge(best, next, getTsuhaiValue(n, code));
+		}
+
+		int syanten = mentsuSize * 2;
+		for (int p = 0; p < 2; p++) {
+			for (int m = 0; m <= mentsuSize && m < 5; m++) {
+				int t = best[p * 5 + m];
+				if (t < 0) {
+					continue;
+				}
+				int value = 2 * m + Math.min(t, mentsuSize - m) + p;
+				syanten = Math.min(syanten, mentsuSize * 2 - value);
+			}
+		}
+		return syanten;
+	}
+
+	/**
+	 * 七対子の向聴数を返す．
+	 *
+	 * @param n 牌の数の配列．
+	 * @return 向聴数．あがっている場合は-1．
+	 */
+	public static int calcChitoiSyanten(int n[]) {
+		int toitsu = 0;
+		int kind = 0;
+		for (int id = 0; id < n.length; id++) {
+			if (n[id] >= 1) {
+				kind++;
+				if (n[id] >= 2) {
+					toitsu++;
+				}
+			}
+		}
+		int syanten = 6 - toitsu;
+		if (kind < 7) {
+			syanten += 7 - kind;
+		}
+		return syanten;
+	}
+
+	/**
+	 * 国士無双の向聴数を返す．
+	 *
+	 * @param n 牌の数の配列．
+	 * @return 向聴数．あがっている場合は-1．
+	 */
+	public static int calcKokusiSyanten(int n[]) {
+		int kind = 0;
+		boolean toitsu = false;
+		for (int id : KOKUSI_IDS) {
+			if (n[id] >= 1) {
+				kind++;
+				if (n[id] >= 2) {
+					toitsu = true;
+				}
+			}
+		}
+		return 13 - kind - (toitsu ? 1 : 0);
+	}
+
+	/**
+	 * 1色分の結果を表から取り出す．表になければ計算して保存する．
+	 * 複数のスレッドから同時に計算されても同じ値が書き込まれるだけなので同期はしない．
+	 */
+	private static int getSuitValue(int n[], int suit, int code) {
+		int value = SUIT_TABLE[code];
+		if (value == 0) {
+			int c[] = new int[12];
+			System.arraycopy(n, suit * 10 + 1, c, 1, 9);
+			value = calcPackedValue(c, true);
+			SUIT_TABLE[code] = value;
+		}
+		return value;
+	}
+
+	/**
+	 * 字牌7種をまとめた結果を表から取り出す．表になければ字牌1種ずつの結果を組み合わせて計算して保存する．
+	 */
+	private static int getTsuhaiValue(int n[], int code) {
+		int value = TSUHAI_SET_TABLE[code];
+		if (value == 0) {
+			int best[] = new int[SLOT_SIZE];
+			int next[] = new int[SLOT_SIZE];
+			for (int i = 0; i < SLOT_SIZE; i++) {
+				best[i] = -1;
+			}
+			best[0] = 0;
+			for (int id = 30; id <= 36; id++) {
+				if (n[id] != 0) {
+					merge(best, next, TSUHAI_TABLE[n[id]]);
+				}
+			}
+			value = COMPUTED;
+			for (int i = 0; i < SLOT_SIZE; i++) {
+				value |= (best[i] + 1) << (i * 3);
+			}
+			TSUHAI_SET_TABLE[code] = value;
+		}
+		return value;
+	}
+
+	/**
+	 * これまでの結果に1グループ分の結果を組み合わせる．
+	 */
+	private static void merge(int best[], int next[], int value) {
+		for (int i = 0; i < SLOT_SIZE; i++) {
+			next[i] = -1;
+		}
+		for (int p1 = 0; p1 < 2; p1++) {
+			for (int m1 = 0; m1 < 5; m1++) {
+				int t1 = best[p1 * 5 + m1];
+				if (t1 < 0) {
+					continue;
+				}
+				for (int p2 = 0; p1 + p2 < 2; p2++) {
+					for (int m2 = 0; m1 + m2 < 5; m2++) {
+						int t2 = ((value >>> ((p2 * 5 + m2) * 3)) & 0x7) - 1;
+						if (t2 < 0) {
+							continue;
+						}
+						int i = (p1 + p2) * 5 + m1 + m2;
+						next[i] = Math.max(next[i], Math.min(t1 + t2, 4));
+					}
+				}
+			}
+		}
+		System.arraycopy(next, 0, best, 0, SLOT_SIZE);
+	}
+
+	/**
+	 * 1色分(または字牌1種)の並びを面子、雀頭、塔子に分解するすべての方法を調べ、結果を整数に詰めて返す．
+	 * cは1から9に枚数が入った長さ12の配列．
+	 */
+	private static int calcPackedValue(int c[], boolean suhai) {
+		int best[] = new int[SLOT_SIZE];
+		for (int i = 0; i < SLOT_SIZE; i++) {
+			best[i] = -1;
+		}
+		search(c, 1, 0, 0, 0, suhai, best);
+
+		int value = COMPUTED;
+		for (int i = 0; i < SLOT_SIZE; i++) {
+			value |= (best[i] + 1) << (i * 3);
+		}
+		return value;
+	}
+
+	private static void search(int c[], int j, int m, int t, int p, boolean suhai, int best[]) {
+		while (j <= 9 && c[j] == 0) {
+			j++;
+		}
+		if (j > 9) {
+			int i = p * 5 + Math.min(m, 4);
+			best[i] = Math.max(best[i], Math.min(t, 4));
+			return;
+		}
+
+		// 刻子
+		if (c[j] >= 3) {
+			c[j] -= 3;
+			search(c, j, m + 1, t, p, suhai, best);
+			c[j] += 3;
+		}
+		// 順子
+		if (suhai && c[j + 1] > 0 && c[j + 2] > 0) {
+			c[j]--;
+			c[j + 1]--;
+			c[j + 2]--;
+			search(c, j, m + 1, t, p, suhai, best);
+			c[j]++;
+			c[j + 1]++;
+			c[j + 2]++;
+		}
+		// 雀頭と対子
+		if (c[j] >= 2) {
+			c[j] -= 2;
+			if (p == 0) {
+				search(c, j, m, t, 1, suhai, best);
+			}
+			search(c, j, m, t + 1, p, suhai, best);
+			c[j] += 2;
+		}
+		// 両面、辺張
+		if (suhai && c[j + 1] > 0) {
+			c[j]--;
+			c[j + 1]--;
+			search(c, j, m, t + 1, p, suhai, best);
+			c[j]++;
+			c[j + 1]++;
+		}
+		// 嵌張
+		if (suhai && c[j + 2] > 0) {
+			c[j]--;
+			c[j + 2]--;
+			search(c, j, m, t + 1, p, suhai, best);
+			c[j]++;
+			c[j + 2]++;
+		}
+		// 孤立牌
+		c[j]--;
+		search(c, j, m, t, p, suhai, best);
+		c[j]++;
+	}
+}
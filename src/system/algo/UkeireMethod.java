@@ -0,0 +1,265 @@
+package system.algo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import system.hai.HaiType;
+
+/**
+ * 受け入れ(有効牌)を計算するクラス．有効牌とは引いたときに向聴数が下がる牌のことである．</br>
+ * 手牌と見えている牌はどちらも牌の数の配列(牌種idをインデックスとした枚数の配列)で渡す．
+ * 見えている牌とは捨て牌、副露牌、ドラ表示牌など自分の手牌以外で場に見えている牌のことで、
+ * 有効牌の残り枚数は4から自分の手牌と見えている牌の枚数を引いて求める．
+ */
+public class UkeireMethod {
+	/** 数牌と字牌の牌種idの配列 */
+	private static final int HAI_IDS[];
+
+	/** 国士無双の牌種idのマスク */
+	private static final long KOKUSI_MASK;
+
+	static {
+		HAI_IDS = new int[34];
+		int i = 0;
+		for (HaiType type : HaiType.values()) {
+			HAI_IDS[i++] = type.id();
+		}
+
+		long mask = 0;
+		for (HaiType type : HaiType.values()) {
+			if (type.isYaotyuhai()) {
+				mask |= 1L << type.id();
+			}
+		}
+		KOKUSI_MASK = mask;
+	}
+
+	/**
+	 * 1つの打牌候補に対する受け入れの計算結果を表すクラス．
+	 */
+	public static class Value {
+		private final int discardId;
+		private final int syanten;
+		private final long ukeireMask;
+		private final int ukeireSize;
+
+		private Value(int discardId, int syanten, long ukeireMask, int ukeireSize) {
+			this.discardId = discardId;
+			this.syanten = syanten;
+			this.ukeireMask = ukeireMask;
+			this.ukeireSize = ukeireSize;
+		}
+
+		/**
+		 * 打牌候補の牌種を返す．
+		 * @return 打牌候補の牌種．
+		 */
+		public HaiType getDiscardHaiType() {
+			return HaiType.valueOf(discardId);
+		}
+
+		/**
+		 * 打牌候補の牌種idを返す．
+		 * @return 打牌候補の牌種id．
+		 */
+		public int getDiscardId() {
+			return discardId;
+		}
+
+		/**
+		 * 打牌した後の向聴数を返す．
+		 * @return 打牌した後の向聴数．
+		 */
+		public int getSyanten() {
+			return syanten;
+		}
+
+		/**
+		 * 有効牌の牌種idのビットを立てたマスクを返す．
+		 * @return 有効牌のマスク．
+		 */
+		public long getUkeireMask() {
+			return ukeireMask;
+		}
+
+		/**
+		 * 有効牌のうちまだ見えていない牌の枚数を返す．
+		 * @return 有効牌の残り枚数．
+		 */
+		public int getUkeireSize() {
+			return ukeireSize;
+		}
+
+		/**
+		 * 有効牌の牌種リストを返す．
+		 * @return 有効牌の牌種リスト．
+		 */
+		public List<HaiType> getUkeireHaiTypeList() {
+			return toHaiTypeList(ukeireMask);
+		}
+
+		/**
+		 * この打牌候補が指定された打牌候補より良い場合trueを返す．
+		 * 向聴数が小さいほうを良いとし、向聴数が同じ場合は有効牌の残り枚数が多いほうを良いとする．
+		 *
+		 * @param v 比べる打牌候補．nullの場合はtrueを返す．
+		 * @return この打牌候補のほうが良い場合true．
+		 */
+		public boolean isBetterThan(Value v) {
+			if (v == null) {
+				return true;
+			}
+			if (syanten != v.syanten) {
+				return syanten < v.syanten;
+			}
+			return ukeireSize > v.ukeireSize;
+		}
+
+		@Override
+		public String toString() {
+			return getDiscardHaiType() + " : " + syanten + "向聴 " + getUkeireHaiTypeList() + " " + ukeireSize + "枚";
+		}
+	}
+
+	/**
+	 * 3n+1枚の手牌の有効牌の牌種idのビットを立てたマスクを返す．
+	 * 計算中に牌の数の配列を書き換えるが、戻るときには元に戻っている．
+	 *
+	 * @param n 牌の数の配列．
+	 * @param size 手牌の枚数．
+	 * @param naki 鳴いている場合true．
+	 * @return 有効牌のマスク．
+	 */
+	public static long getUkeireMask(int n[], int size, boolean naki) {
+		return getUkeireMask(n, size, naki, SyantenMethod.calcSyanten(n, size, naki));
+	}
+
+	private static long getUkeireMask(int n[], int size, boolean naki, int syanten) {
+		long candidate = getCandidateMask(n, size, naki);
+		long mask = 0;
+		for (int id : HAI_IDS) {
+			if ((candidate & (1L << id)) == 0 || n[id] >= 4) {
+				continue;
+			}
+			n[id]++;
+			if (SyantenMethod.calcSyanten(n, size + 1, naki) < syanten) {
+				mask |= 1L << id;
+			}
+			n[id]--;
+		}
+		return mask;
+	}
+
+	/**
+	 * 有効牌になりうる牌のマスクを返す．
+	 * 通常の手では手牌にある牌とその前後2枚までの牌以外は面子も塔子も作らないので有効牌にならない．
+	 */
+	private static long getCandidateMask(int n[], int size, boolean naki) {
+		long mask = 0;
+		int kind = 0;
+		for (int id : HAI_IDS) {
+			if (n[id] == 0) {
+				continue;
+			}
+			kind++;
+			mask |= 1L << id;
+			if (id < 30) {
+				int number = id % 10;
+				for (int d = -2; d <= 2; d++) {
+					if (number + d >= 1 && number + d <= 9) {
+						mask |= 1L << (id + d);
+					}
+				}
+			}
+		}
+		if (!naki && size >= 13) {
+			// 国士無双は么九牌、七対子は種類が足りなければどの牌でも有効牌になりうる
+			mask |= KOKUSI_MASK;
+			if (kind < 7) {
+				mask = -1L;
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * 指定された有効牌のうちまだ見えていない牌の枚数を返す．
+	 *
+	 * @param mask 有効牌のマスク．
+	 * @param n 自分の手牌の牌の数の配列．
+	 * @param visible 見えている牌の数の配列．nullの場合は手牌のみを考える．
+	 * @return 有効牌の残り枚数．
+	 */
+	public static int countUnseen(long mask, int n[], int visible[]) {
+		int sum = 0;
+		for (int id : HAI_IDS) {
+			if ((mask & (1L << id)) != 0) {
+				int rest = 4 - n[id] - (visible == null ? 0 : visible[id]);
+				if (rest > 0) {
+					sum += rest;
+				}
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * 3n+2枚の手牌について、手牌にある牌種それぞれを打牌候補として受け入れを計算してそのリストを返す．
+	 * リストは牌種idの昇順に並ぶ．
+	 *
+	 * @param n 牌の数の配列．ツモ牌も含める．
+	 * @param size 手牌の枚数．ツモ牌も含める．
+	 * @param naki 鳴いている場合true．
+	 * @param visible 見えている牌の数の配列．nullの場合は手牌のみを考える．
+	 * @return 打牌候補ごとの受け入れのリスト．
+	 */
+	public static List<Value> calcDiscardValueList(int n[], int size, boolean naki, int visible[]) {
+		List<Value> result = new ArrayList<Value>(14);
+		for (int id : HAI_IDS) {
+			if (n[id] == 0) {
+				continue;
+			}
+			n[id]--;
+			int syanten = SyantenMethod.calcSyanten(n, size - 1, naki);
+			long mask = getUkeireMask(n, size - 1, naki, syanten);
+			n[id]++;
+			result.add(new Value(id, syanten, mask, countUnseen(mask, n, visible)));
+		}
+		return result;
+	}
+
+	/**
+	 * 3n+2枚の手牌について最も良い打牌候補を返す．良さの基準はValue.isBetterThan()に従う．
+	 *
+	 * @param n 牌の数の配列．ツモ牌も含める．
+	 * @param size 手牌の枚数．ツモ牌も含める．
+	 * @param naki 鳴いている場合true．
+	 * @param visible 見えている牌の数の配列．nullの場合は手牌のみを考える．
+	 * @return 最も良い打牌候補．手牌が空の場合はnull．
+	 */
+	public static Value getBestDiscardValue(int n[], int size, boolean naki, int visible[]) {
+		Value best = null;
+		for (Value v : calcDiscardValueList(n, size, naki, visible)) {
+			if (v.isBetterThan(best)) {
+				best = v;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * マスクを牌種リストに変換する．
+	 *
+	 * @param mask 牌種idのビットを立てたマスク．
+	 * @return 牌種リスト．
+	 */
+	public static List<HaiType> toHaiTypeList(long mask) {
+		List<HaiType> result = new ArrayList<HaiType>();
+		for (HaiType type : HaiType.values()) {
+			if ((mask & (1L << type.id())) != 0) {
+				result.add(type);
+			}
+		}
+		return result;
+	}
+}
@@ -56,6 +56,15 @@ public enum HaiType{
 	private final String notation;
 	private final int id;
 
+	/** IDをインデックスとした牌タイプの表 */
+	private static final HaiType ID_TABLE[] = new HaiType[37];
+
+	static {
+		for (HaiType ht : values()) {
+			ID_TABLE[ht.id] = ht;
+		}
+	}
+
 	private HaiType(String notation, int id) {
 		this.notation = notation;
 		this.id = id;
@@ -244,21 +253,17 @@ public enum HaiType{
 	 * @return 指定された数牌の牌タイプ.そのような牌タイプが存在しない場合はnull.
 	 */
 	public static HaiType valueOf(SuType suType, int number) {
-		for (HaiType ht : values()) {
-			if (ht.isSuhai() && ht.suType() == suType && ht.number() == number) {
-				return ht;
-			}
+		if (number < 1 || 9 < number) {
+			return null;
 		}
-		return null;
+		return ID_TABLE[suType.id() * 10 + number];
 	}
 	
 	public static HaiType valueOf(int id) {
-		for (HaiType ht : values()) {
-			if (ht.id() == id) {
-				return ht;
-			}
+		if (id < 0 || ID_TABLE.length <= id) {
+			return null;
 		}
-		return null;
+		return ID_TABLE[id];
 	}
 
 	public static HaiType valueOf(Kaze kaze) {
@@ -93,6 +93,14 @@ public class MajanHai implements Hai{
 		HAI_LIST.add(TYUN);
 	}
 
+	/** ordinal()をインデックスとした牌の表 */
+	private static final Hai ORDINAL_TABLE[] = new Hai[37];
+	static {
+		for (Hai hai : HAI_LIST) {
+			ORDINAL_TABLE[hai.ordinal()] = hai;
+		}
+	}
+
 	private final String notation;
 	private final HaiType type;
 	private final boolean aka;
@@ -140,6 +148,19 @@ public class MajanHai implements Hai{
 		throw new IllegalArgumentException();
 	}
 
+	/**
+	 * ordinal()が指定された値となる牌を返す.
+	 * 
+	 * @param ordinal 牌の序数(0から36).
+	 * @return 牌.
+	 * @throws IllegalArgumentException 序数が範囲外の場合.
+	 */
+	public static Hai valueOf(int ordinal) {
+		if (ordinal < 0 || ordinal >= ORDINAL_TABLE.length)
+			throw new IllegalArgumentException("牌の序数が範囲外 : " + ordinal);
+		return ORDINAL_TABLE[ordinal];
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -1,5 +1,6 @@
 package system.hai;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -13,6 +14,7 @@ import system.Functions;
 
 /**
  * 手牌を表すリストクラス。
+ * 牌種ごとの枚数をリストの変更に合わせて保持しているので、牌種の枚数に関する問い合わせは定数時間で行える。
  */
 
 public class TehaiList implements List<Hai>{
@@ -25,6 +27,16 @@ public class TehaiList implements List<Hai>{
 
 	private final List<Hai> list;
 
+	/** 牌種idをインデックスとした牌の枚数 */
+	private final int counts[] = new int[37];
+
+	/** ポンできる牌種idのビットを立てたもの */
+	private long ponableMask;
+	/** 明槓できる牌種idのビットを立てたもの */
+	private long minkanableMask;
+	/** チーできる牌種idのビットを立てたもの */
+	private long chiableMask;
+
 	public TehaiList() {
 		this.list = new ArrayList<Hai>();
 	}
@@ -34,22 +46,91 @@ public class TehaiList implements List<Hai>{
 	}
 
 	public TehaiList(TehaiList list) {
-		this.list = new ArrayList<Hai>(list);
+		this.list = new ArrayList<Hai>(list.list);
+		System.arraycopy(list.counts, 0, counts, 0, counts.length);
+		this.ponableMask = list.ponableMask;
+		this.minkanableMask = list.minkanableMask;
+		this.chiableMask = list.chiableMask;
 	}
 
 	public TehaiList(Collection<? extends Hai> c) {
 		this.list = new ArrayList<Hai>(c);
+		recount();
+	}
+
+	private void increment(Hai hai) {
+		if (hai != null) {
+			int id = hai.type().id();
+			counts[id]++;
+			updateMasks(id);
+		}
+	}
+
+	private void decrement(Hai hai) {
+		if (hai != null) {
+			int id = hai.type().id();
+			counts[id]--;
+			updateMasks(id);
+		}
+	}
+
+	private void recount() {
+		System.arraycopy(zeroarr, 0, counts, 0, counts.length);
+		for (Hai hai : list) {
+			if (hai != null) {
+				counts[hai.type().id()]++;
+			}
+		}
+		ponableMask = 0;
+		minkanableMask = 0;
+		chiableMask = 0;
+		for (int id = 0; id < counts.length; id++) {
+			updateMasks(id);
+		}
+	}
+
+	// 牌種idの枚数が変わったときに,その牌種のポンと明槓,前後2つの牌種のチーのビットを更新する
+	private void updateMasks(int id) {
+		long bit = 1L << id;
+		int size = counts[id];
+		ponableMask = size >= 2 ? ponableMask | bit : ponableMask & ~bit;
+		minkanableMask = size == 3 ? minkanableMask | bit : minkanableMask & ~bit;
+		for (int t = Math.max(id - 2, 1); t <= id + 2 && t < 30; t++) {
+			int number = t % 10;
+			if (number == 0)
+				continue;
+			bit = 1L << t;
+			chiableMask = isChiable(t, number) ? chiableMask | bit : chiableMask & ~bit;
+		}
+	}
+
+	// 数牌の牌種idとその数字からチーできるかを枚数で判定する
+	private boolean isChiable(int id, int number) {
+		boolean bm2 = number - 2 >= 1 && counts[id - 2] != 0;
+		boolean bm1 = number - 1 >= 1 && counts[id - 1] != 0;
+		boolean bp1 = number + 1 <= 9 && counts[id + 1] != 0;
+		boolean bp2 = number + 2 <= 9 && counts[id + 2] != 0;
+
+		if (bm1 && (bm2 || bp1))
+			return true;
+		if (bp1 && bp2)
+			return true;
+		return false;
 	}
 	
 	/**
+	 * 指定されたインデックスの牌を指定された牌と入れ替えて、元の牌を返す．
 	 * 
-	 * @param index
-	 * @param hai
-	 * @return
+	 * @param index 入れ替える牌のインデックス．
+	 * @param hai 新しい牌．
+	 * @return 元の牌．
 	 */
 	public Hai swap(int index, Hai hai){
 		list.add(index, hai);
-		return list.remove(index + 1);
+		increment(hai);
+		Hai old = list.remove(index + 1);
+		decrement(old);
+		return old;
 	}
 
 	/**
@@ -59,8 +140,16 @@ public class TehaiList implements List<Hai>{
 	 * @return ポンできる手牌の場合true
 	 */
 	public boolean isPonable(HaiType type) {
-		int size = Functions.sizeOf(type, this);
-		return size >= 2;
+		return (ponableMask & (1L << type.id())) != 0;
+	}
+
+	/**
+	 * ポンできる牌種のidのビットを立てた値を返す.値は手牌の変更に合わせて更新しているので,定数時間で返す.
+	 * 
+	 * @return 牌種idのビットを立てた値.
+	 */
+	public long getPonableMask() {
+		return ponableMask;
 	}
 
 	/**
@@ -73,7 +162,7 @@ public class TehaiList implements List<Hai>{
 		// TODO 実装変更する(4枚以上のときにも対応する)
 		assert isPonable(ponHaiType);
 		List<List<Integer>> result = new ArrayList<List<Integer>>(2);
-		int size = Functions.sizeOf(ponHaiType, this);
+		int size = counts[ponHaiType.id()];
 		if (size == 2) {
 			List<Integer> list = new ArrayList<Integer>(2);
 			for (int i = 0; i < size(); i++) {
@@ -116,8 +205,16 @@ public class TehaiList implements List<Hai>{
 	 * @return 指定された牌種で明槓できる場合true
 	 */
 	public boolean isMinkanable(HaiType type) {
-		int size = Functions.sizeOf(type, this);
-		return size == 3;
+		return (minkanableMask & (1L << type.id())) != 0;
+	}
+
+	/**
+	 * 明槓できる牌種のidのビットを立てた値を返す.値は手牌の変更に合わせて更新しているので,定数時間で返す.
+	 * 
+	 * @return 牌種idのビットを立てた値.
+	 */
+	public long getMinkanableMask() {
+		return minkanableMask;
 	}
 
 	/**
@@ -146,9 +243,10 @@ public class TehaiList implements List<Hai>{
 	 * @return　暗槓できる場合true.
 	 */
 	public boolean isAnkanable(Hai tsumohai, HaiType type) {
-		List<Hai> list = new ArrayList<Hai>(this);
-		list.add(tsumohai);
-		int size = Functions.sizeOf(type, list);
+		int size = counts[type.id()];
+		if (tsumohai.type() == type) {
+			size++;
+		}
 		return size == 4;
 	}
 
@@ -159,8 +257,13 @@ public class TehaiList implements List<Hai>{
 	 * @return　手牌に暗槓可能な牌があればtrue
 	 */
 	public boolean isAnkanable(Hai tsumohai) {
-		for (HaiType type : toHaiTypeSet()) {
-			if (isAnkanable(tsumohai, type)) {
+		int tsumoId = tsumohai.type().id();
+		for (int id = 0; id < counts.length; id++) {
+			int size = counts[id];
+			if (id == tsumoId) {
+				size++;
+			}
+			if (size == 4) {
 				return true;
 			}
 		}
@@ -204,6 +307,8 @@ public class TehaiList implements List<Hai>{
 
 		if (haiType.isTsuhai())
 			return null;
+		if (!isChiable(haiType))
+			return new ArrayList<List<Integer>>(0);
 
 		SuType suType = haiType.suType();
 		List<Hai> list = Functions.extract(this, suType);
@@ -260,38 +365,23 @@ public class TehaiList implements List<Hai>{
 		return result;
 	}
 
+	/**
+	 * 指定された牌でチーできる手牌の場合trueを返す.
+	 * 
+	 * @param haiType 牌の種類
+	 * @return チーできる手牌の場合true
+	 */
 	public boolean isChiable(HaiType haiType) {
-		if (haiType.isTsuhai())
-			return false;
-
-		SuType suType = haiType.suType();
-		List<Hai> list = Functions.extract(this, suType);
-
-		int number = haiType.number();
-
-		boolean bp1 = false;
-		boolean bp2 = false;
-		boolean bm1 = false;
-		boolean bm2 = false;
-
-		for (Hai hai : list) {
-			int n = hai.type().number();
-			if (n + 2 == number) {
-				bm2 = true;
-			} else if (n + 1 == number) {
-				bm1 = true;
-			} else if (n - 1 == number) {
-				bp1 = true;
-			} else if (n - 2 == number) {
-				bp2 = true;
-			}
-		}
+		return (chiableMask & (1L << haiType.id())) != 0;
+	}
 
-		if (bm1 && (bm2 || bp1))
-			return true;
-		if (bp1 && bp2)
-			return true;
-		return false;
+	/**
+	 * チーできる牌種のidのビットを立てた値を返す.字牌のビットは立たない.値は手牌の変更に合わせて更新しているので,定数時間で返す.
+	 * 
+	 * @return 牌種idのビットを立てた値.
+	 */
+	public long getChiableMask() {
+		return chiableMask;
 	}
 	
 	/**
@@ -344,29 +434,39 @@ public class TehaiList implements List<Hai>{
 	 * @return 指定された種類の牌の数
 	 */
 	public int sizeOf(HaiType type) {
-		int count = 0;
+		return counts[type.id()];
+	}
 
-		for (Hai h : this.list) {
-			HaiType t = h.type();
-			if (type == t)
-				count++;
-		}
-		return count;
+	/**
+	 * この手牌リストの中に含まれる指定された牌種idの牌の数を返す.
+	 * 
+	 * @param id 数が知りたい牌種のid
+	 * @return 指定された牌種idの牌の数
+	 */
+	public int sizeOf(int id) {
+		return counts[id];
 	}
 	
 	/**
 	 * 牌種の枚数の配列に変換する．牌種の枚数の配列とはその牌の牌種のidをインデックスとして
 	 * 中身にそのidの牌の枚数が入った配列である．牌種のidは36まであるので、返される配列の長さは
-	 * 37となる．
+	 * 37となる．返される配列はコピーなので変更してもこのリストには影響しない．
 	 * 
 	 * @return 牌種の枚数の配列．
 	 */
 	public int[] toSizeArray() {
-		int n[] = zeroarr.clone();
-		for (Hai hai : list) {
-			n[hai.type().id()]++;
-		}
-		return n;
+		return counts.clone();
+	}
+
+	/**
+	 * 牌種の枚数の配列を指定された配列にコピーする．toSizeArray()と異なり配列を生成しない．
+	 * 
+	 * @param dest コピー先の配列．長さは37以上でなければならない．
+	 * @return コピー先の配列．
+	 */
+	public int[] copySizeArray(int dest[]) {
+		System.arraycopy(counts, 0, dest, 0, counts.length);
+		return dest;
 	}
 
 	/**
@@ -378,6 +478,9 @@ public class TehaiList implements List<Hai>{
 	 * @return 牌種の枚数の配列．
 	 */
 	public static int[] toSizeArray(List<? extends Hai> list) {
+		if (list instanceof TehaiList) {
+			return ((TehaiList) list).toSizeArray();
+		}
 		int n[] = zeroarr.clone();
 		for (Hai hai : list) {
 			n[hai.type().id()]++;
@@ -389,27 +492,37 @@ public class TehaiList implements List<Hai>{
 
 	@Override
 	public boolean add(Hai hai) {
+		increment(hai);
 		return list.add(hai);
 	}
 
 	@Override
 	public void add(int index, Hai hai) {
 		list.add(index, hai);
+		increment(hai);
 	}
 
 	@Override
 	public boolean addAll(Collection<? extends Hai> c) {
-		return list.addAll(c);
+		boolean changed = list.addAll(c);
+		recount();
+		return changed;
 	}
 
 	@Override
 	public boolean addAll(int index, Collection<? extends Hai> c) {
-		return list.addAll(index, c);
+		boolean changed = list.addAll(index, c);
+		recount();
+		return changed;
 	}
 
 	@Override
 	public void clear() {
 		list.clear();
+		System.arraycopy(zeroarr, 0, counts, 0, counts.length);
+		ponableMask = 0;
+		minkanableMask = 0;
+		chiableMask = 0;
 	}
 
 	@Override
@@ -423,12 +536,7 @@ public class TehaiList implements List<Hai>{
 	 * @return 含めれている場合はtrue．
 	 */
 	public boolean contains(HaiType type) {
-		for (Hai hai : list) {
-			if(hai.type() == type) {
-				return true;
-			}
-		}
-		return false;
+		return counts[type.id()] != 0;
 	}
 	
 	/**
@@ -467,7 +575,7 @@ public class TehaiList implements List<Hai>{
 
 	@Override
 	public Iterator<Hai> iterator() {
-		return list.iterator();
+		return new CountingListIterator(list.listIterator());
 	}
 
 	@Override
@@ -477,37 +585,51 @@ public class TehaiList implements List<Hai>{
 
 	@Override
 	public ListIterator<Hai> listIterator() {
-		return list.listIterator();
+		return new CountingListIterator(list.listIterator());
 	}
 
 	@Override
 	public ListIterator<Hai> listIterator(int index) {
-		return list.listIterator(index);
+		return new CountingListIterator(list.listIterator(index));
 	}
 
 	@Override
 	public boolean remove(Object hai) {
-		return list.remove(hai);
+		int index = list.indexOf(hai);
+		if (index < 0) {
+			return false;
+		}
+		decrement(list.remove(index));
+		return true;
 	}
 
 	@Override
 	public Hai remove(int index) {
-		return list.remove(index);
+		Hai old = list.remove(index);
+		decrement(old);
+		return old;
 	}
 
 	@Override
 	public boolean removeAll(Collection<?> c) {
-		return list.removeAll(c);
+		boolean changed = list.removeAll(c);
+		recount();
+		return changed;
 	}
 
 	@Override
 	public boolean retainAll(Collection<?> c) {
-		return list.retainAll(c);
+		boolean changed = list.retainAll(c);
+		recount();
+		return changed;
 	}
 
 	@Override
 	public Hai set(int index, Hai hai) {
-		return list.set(index, hai);
+		Hai old = list.set(index, hai);
+		decrement(old);
+		increment(hai);
+		return old;
 	}
 
 	@Override
@@ -517,7 +639,7 @@ public class TehaiList implements List<Hai>{
 
 	@Override
 	public List<Hai> subList(int head, int tail) {
-		return list.subList(head, tail);
+		return new CountingSubList(list.subList(head, tail));
 	}
 
 	@Override
@@ -535,4 +657,110 @@ public class TehaiList implements List<Hai>{
 		return list.toString();
 	}
 
+	/**
+	 * 変更を牌種の枚数に反映するリストイテレーター．
+	 */
+	private class CountingListIterator implements ListIterator<Hai> {
+		private final ListIterator<Hai> itr;
+		private Hai last;
+
+		CountingListIterator(ListIterator<Hai> itr) {
+			this.itr = itr;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return itr.hasNext();
+		}
+
+		@Override
+		public Hai next() {
+			return last = itr.next();
+		}
+
+		@Override
+		public boolean hasPrevious() {
+			return itr.hasPrevious();
+		}
+
+		@Override
+		public Hai previous() {
+			return last = itr.previous();
+		}
+
+		@Override
+		public int nextIndex() {
+			return itr.nextIndex();
+		}
+
+		@Override
+		public int previousIndex() {
+			return itr.previousIndex();
+		}
+
+		@Override
+		public void remove() {
+			itr.remove();
+			decrement(last);
+		}
+
+		@Override
+		public void set(Hai hai) {
+			itr.set(hai);
+			decrement(last);
+			increment(hai);
+			last = hai;
+		}
+
+		@Override
+		public void add(Hai hai) {
+			itr.add(hai);
+			increment(hai);
+		}
+	}
+
+	/**
+	 * 変更を牌種の枚数に反映する部分リスト．
+	 */
+	private class CountingSubList extends AbstractList<Hai> {
+		private final List<Hai> sub;
+
+		CountingSubList(List<Hai> sub) {
+			this.sub = sub;
+		}
+
+		@Override
+		public Hai get(int index) {
+			return sub.get(index);
+		}
+
+		@Override
+		public int size() {
+			return sub.size();
+		}
+
+		@Override
+		public Hai set(int index, Hai hai) {
+			Hai old = sub.set(index, hai);
+			decrement(old);
+			increment(hai);
+			return old;
+		}
+
+		@Override
+		public void add(int index, Hai hai) {
+			sub.add(index, hai);
+			increment(hai);
+			modCount++;
+		}
+
+		@Override
+		public Hai remove(int index) {
+			Hai old = sub.remove(index);
+			decrement(old);
+			modCount++;
+			return old;
+		}
+	}
+
 }
\ No newline at end of file
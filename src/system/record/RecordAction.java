@@ -0,0 +1,87 @@
+package system.record;
+
+/**
+ * 牌譜に記録する出来事の種類を表す列挙型.</br>
+ * 牌譜では1つの出来事を(コード<<2)|風のIDの1バイトで表し,その後ろに出来事ごとに決まったバイト数の引数が続く.
+ * 牌は MajanHai.ordinal() の値(0から36)の1バイトで表す.
+ */
+public enum RecordAction {
+	/** 配牌.風は場風.引数は配牌前の牌山136枚. */
+	DEAL(0, 136),
+	/** 山牌からのツモ.ツモ牌は牌山から決まるので引数はない. */
+	TSUMO(1, 0),
+	/** 嶺上牌のツモ.ツモ牌は牌山から決まるので引数はない. */
+	RINSYAN(2, 0),
+	/** 手牌からの打牌.引数は切った牌. */
+	DISCARD(3, 1),
+	/** ツモ切り.切った牌は直前のツモ牌なので引数はない. */
+	TSUMOGIRI(4, 0),
+	/** リーチ宣言. */
+	REACH(5, 0),
+	/** ポン.引数はポンに使った手牌2枚. */
+	PON(6, 2),
+	/** チー.引数はチーに使った手牌2枚. */
+	CHI(7, 2),
+	/** 明槓.使った手牌は直前の捨牌と同じ種類の3枚なので引数はない. */
+	MINKAN(8, 0),
+	/** 暗槓.引数は暗槓した牌の種類を表す赤でない牌. */
+	ANKAN(9, 1),
+	/** 加槓.引数は加槓した牌. */
+	KAKAN(10, 1),
+	/** 新ドラ.ドラ表示牌は牌山から決まるので引数はない.風は意味を持たない. */
+	DORA(11, 0),
+	/** ツモあがり. */
+	TSUMO_AGARI(12, 0),
+	/** ロンあがり.ダブロンの場合はあがった人ごとに記録する. */
+	RON(13, 0),
+	/** 山牌がなくなったことによる流局.風は意味を持たない. */
+	RYUKYOKU(14, 0),
+	/** 途中流局.引数はTotyuRyukyokuType.ordinal()の1バイト.風は意味を持たない. */
+	TOTYU_RYUKYOKU(15, 1);
+
+	private static final RecordAction CODE_TABLE[] = new RecordAction[16];
+	static {
+		for (RecordAction action : values()) {
+			CODE_TABLE[action.code] = action;
+		}
+	}
+
+	private final int code;
+	private final int argSize;
+
+	private RecordAction(int code, int argSize) {
+		this.code = code;
+		this.argSize = argSize;
+	}
+
+	/**
+	 * この出来事のコード(0から15)を返す.
+	 *
+	 * @return コード.
+	 */
+	public int code() {
+		return code;
+	}
+
+	/**
+	 * この出来事の引数のバイト数を返す.
+	 *
+	 * @return 引数のバイト数.
+	 */
+	public int argSize() {
+		return argSize;
+	}
+
+	/**
+	 * 指定されたコードの出来事を返す.
+	 *
+	 * @param code コード.
+	 * @return 出来事.
+	 * @throws IllegalArgumentException コードが範囲外の場合.
+	 */
+	public static RecordAction valueOf(int code) {
+		if (code < 0 || code >= CODE_TABLE.length)
+			throw new IllegalArgumentException("不正な出来事のコード : " + code);
+		return CODE_TABLE[code];
+	}
+}
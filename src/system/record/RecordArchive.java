@@ -0,0 +1,176 @@
+package system.record;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * RecordArchiveWriterが書いたファイルを読むクラス.</br>
+ * ファイルはFileChannel.map()でメモリにマップして読むので,牌譜をヒープにコピーしない.
+ * 開いたときにフッタのインデックスだけを読み,N番目のゲームの牌譜にはすぐにアクセスできる.</br>
+ * 1つのマップは2GBまでしか扱えないため,ファイルはゲームの境界で区切った区間ごとに必要になった時点でマップする.
+ * getGameBuffer(),getGame()は複数のスレッドから同時に呼び出してよい.
+ */
+public class RecordArchive implements Closeable {
+	/** 1つの区間のバイト数の上限の既定値 */
+	public static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+	private final FileChannel channel;
+	/** 各ゲームの牌譜の先頭のファイル位置.最後の要素はフッタの先頭 */
+	private final long offsets[];
+	/** 各ゲームが入っている区間の番号 */
+	private final int segmentIndexes[];
+	/** 各区間の先頭のゲームの番号.最後の要素はゲームの数 */
+	private final int segmentFirstGames[];
+	private final MappedByteBuffer segments[];
+
+	/**
+	 * 指定されたファイルを開くコンストラクタ.
+	 *
+	 * @param path ファイルのパス.
+	 * @throws IOException ファイルを読めなかった場合.
+	 * @throws IllegalArgumentException ファイルがアーカイブの形式でない場合.
+	 */
+	public RecordArchive(Path path) throws IOException {
+		this(path, DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * 1つのマップの大きさの上限を指定してファイルを開くコンストラクタ.1つのゲームの牌譜が上限より大きい場合,その区間は上限を超える.
+	 *
+	 * @param path ファイルのパス.
+	 * @param maxSegmentSize 1つの区間のバイト数の上限.
+	 * @throws IOException ファイルを読めなかった場合.
+	 * @throws IllegalArgumentException ファイルがアーカイブの形式でない場合.
+	 */
+	public RecordArchive(Path path, int maxSegmentSize) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			long size = channel.size();
+			if (size < RecordArchiveWriter.HEADER_SIZE + 8)
+				throw new IllegalArgumentException("牌譜アーカイブではない : " + path);
+			ByteBuffer header = read(0, RecordArchiveWriter.HEADER_SIZE);
+			if (header.getInt() != RecordArchiveWriter.MAGIC)
+				throw new IllegalArgumentException("牌譜アーカイブではない : " + path);
+			int version = header.get();
+			if (version != RecordArchiveWriter.VERSION)
+				throw new IllegalArgumentException("対応していないバージョン : " + version);
+
+			ByteBuffer tail = read(size - 8, 8);
+			int gameSize = tail.getInt();
+			long indexPosition = size - 8 - 8L * gameSize;
+			if (tail.getInt() != RecordArchiveWriter.INDEX_MAGIC || gameSize < 0 || indexPosition < RecordArchiveWriter.HEADER_SIZE)
+				throw new IllegalArgumentException("インデックスが壊れている : " + path);
+
+			this.offsets = new long[gameSize + 1];
+			ByteBuffer index = read(indexPosition, 8 * gameSize);
+			for (int i = 0; i < gameSize; i++) {
+				offsets[i] = index.getLong();
+				if (offsets[i] < (i == 0 ? RecordArchiveWriter.HEADER_SIZE : offsets[i - 1]))
+					throw new IllegalArgumentException("インデックスが壊れている : " + path);
+			}
+			offsets[gameSize] = indexPosition;
+			if (gameSize > 0 && offsets[gameSize - 1] > indexPosition)
+				throw new IllegalArgumentException("インデックスが壊れている : " + path);
+
+			// ゲームの境界で区間に分ける
+			this.segmentIndexes = new int[gameSize];
+			int firstGames[] = new int[gameSize + 1];
+			int segmentSize = 0;
+			for (int i = 0; i < gameSize; i++) {
+				if (i == 0 || offsets[i + 1] - offsets[firstGames[segmentSize - 1]] > maxSegmentSize) {
+					firstGames[segmentSize++] = i;
+				}
+				segmentIndexes[i] = segmentSize - 1;
+			}
+			firstGames[segmentSize] = gameSize;
+			this.segmentFirstGames = new int[segmentSize + 1];
+			System.arraycopy(firstGames, 0, segmentFirstGames, 0, segmentSize + 1);
+			this.segments = new MappedByteBuffer[segmentSize];
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	private ByteBuffer read(long position, int size) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(size);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0)
+				throw new IllegalArgumentException("ファイルが途中で終わっている");
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * アーカイブに入っているゲームの数を返す.
+	 *
+	 * @return ゲームの数.
+	 */
+	public int getGameSize() {
+		return offsets.length - 1;
+	}
+
+	/**
+	 * 指定された番号のゲームの牌譜を読むバッファを返す.バッファはマップしたファイルの一部を指す読み込み専用のバッファで,
+	 * 他のスレッドとは共有しない.
+	 *
+	 * @param index ゲームの番号(0から).
+	 * @return 牌譜のバッファ.
+	 * @throws IndexOutOfBoundsException 番号が範囲外の場合.
+	 * @throws UncheckedIOException マップに失敗した場合.
+	 */
+	public ByteBuffer getGameBuffer(int index) {
+		if (index < 0 || index >= getGameSize())
+			throw new IndexOutOfBoundsException("ゲームの番号が範囲外 : " + index);
+		int segmentIndex = segmentIndexes[index];
+		long segmentOffset = offsets[segmentFirstGames[segmentIndex]];
+		ByteBuffer buffer = segment(segmentIndex).duplicate();
+		buffer.limit((int) (offsets[index + 1] - segmentOffset));
+		buffer.position((int) (offsets[index] - segmentOffset));
+		return buffer.slice();
+	}
+
+	/**
+	 * 指定された番号のゲームの牌譜のリーダーを返す.
+	 *
+	 * @param index ゲームの番号(0から).
+	 * @return 牌譜のリーダー.
+	 * @throws IndexOutOfBoundsException 番号が範囲外の場合.
+	 */
+	public RecordReader getGame(int index) {
+		return new RecordReader(getGameBuffer(index));
+	}
+
+	private synchronized MappedByteBuffer segment(int segmentIndex) {
+		MappedByteBuffer segment = segments[segmentIndex];
+		if (segment == null) {
+			long from = offsets[segmentFirstGames[segmentIndex]];
+			long to = offsets[segmentFirstGames[segmentIndex + 1]];
+			try {
+				segment = channel.map(MapMode.READ_ONLY, from, to - from);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			segments[segmentIndex] = segment;
+		}
+		return segment;
+	}
+
+	/**
+	 * ファイルを閉じる.既にマップした区間はガベージコレクションされるまで読める.
+	 *
+	 * @throws IOException 閉じるのに失敗した場合.
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
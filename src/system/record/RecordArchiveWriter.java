@@ -0,0 +1,136 @@
+package system.record;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 多数のゲームの牌譜を1つのファイルに書き出すクラス.書いたファイルはRecordArchiveで読む.</br>
+ * ファイルは次の順に並ぶ.数値はすべてビッグエンディアン.
+ * <ol>
+ * <li>4バイトのマジックナンバー"MJRA"と1バイトのバージョン</li>
+ * <li>ゲームごとの牌譜.それぞれRecordWriterが書いた形式で,RecordReaderでそのまま読める</li>
+ * <li>フッタ.各ゲームの牌譜の先頭のファイル位置(8バイト)をゲームの数だけ並べ,ゲームの数(4バイト)とマジックナンバー"MJRI"(4バイト)が続く</li>
+ * </ol>
+ * フッタはclose()で書くので,閉じていないファイルは読めない.
+ * このクラスのオブジェクトは1つのスレッドからだけ使うこと.
+ */
+public class RecordArchiveWriter implements Closeable {
+	/** ファイルの先頭に書くマジックナンバー("MJRA") */
+	static final int MAGIC = 0x4D4A5241;
+
+	/** フッタの最後に書くマジックナンバー("MJRI") */
+	static final int INDEX_MAGIC = 0x4D4A5249;
+
+	/** アーカイブの形式のバージョン */
+	static final int VERSION = 1;
+
+	/** ヘッダのバイト数 */
+	static final int HEADER_SIZE = 5;
+
+	private final DataOutputStream out;
+	private long position;
+	private long offsets[];
+	private int gameSize;
+	private RecordWriter current;
+
+	/**
+	 * 指定されたファイルに書き出すライターのコンストラクタ.ファイルが既にある場合は上書きする.
+	 *
+	 * @param path ファイルのパス.
+	 * @throws IOException ファイルを開けなかった場合.
+	 */
+	public RecordArchiveWriter(Path path) throws IOException {
+		this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+		this.offsets = new long[1024];
+		out.writeInt(MAGIC);
+		out.writeByte(VERSION);
+		this.position = HEADER_SIZE;
+	}
+
+	/**
+	 * 次のゲームの牌譜を書くライターを返す.返したライターをMahjong.addKyokuListener()などで登録して使う.
+	 * 前のゲームのライターはこのメソッドを呼び出した時点で書き終わったものとする.
+	 * 返したライターのclose()はバッファを書き出すだけで,ファイルは閉じない.
+	 *
+	 * @return 牌譜のライター.
+	 * @throws IllegalStateException 既に閉じている場合.
+	 */
+	public RecordWriter newGame() {
+		if (offsets == null)
+			throw new IllegalStateException("既に閉じている");
+		finishGame();
+		if (gameSize == offsets.length) {
+			long newOffsets[] = new long[gameSize * 2];
+			System.arraycopy(offsets, 0, newOffsets, 0, gameSize);
+			offsets = newOffsets;
+		}
+		offsets[gameSize++] = position;
+		current = new RecordWriter(new GameOutputStream());
+		return current;
+	}
+
+	/**
+	 * これまでに書き始めたゲームの数を返す.
+	 *
+	 * @return ゲームの数.
+	 */
+	public int getGameSize() {
+		return gameSize;
+	}
+
+	private void finishGame() {
+		if (current != null) {
+			current.flush();
+			current = null;
+		}
+	}
+
+	/**
+	 * 最後のゲームの牌譜とフッタを書いてファイルを閉じる.既に閉じている場合は何もしない.
+	 *
+	 * @throws IOException 書き込みに失敗した場合.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (offsets == null)
+			return;
+		try {
+			finishGame();
+			for (int i = 0; i < gameSize; i++) {
+				out.writeLong(offsets[i]);
+			}
+			out.writeInt(gameSize);
+			out.writeInt(INDEX_MAGIC);
+		} finally {
+			offsets = null;
+			out.close();
+		}
+	}
+
+	/**
+	 * 1ゲーム分の牌譜をファイルに流すストリーム.書いたバイト数をファイル位置に足し込み,閉じてもファイルは閉じない.
+	 */
+	private class GameOutputStream extends OutputStream {
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			position++;
+		}
+
+		@Override
+		public void write(byte b[], int off, int len) throws IOException {
+			out.write(b, off, len);
+			position += len;
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.flush();
+		}
+	}
+}
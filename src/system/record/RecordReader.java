@@ -0,0 +1,386 @@
+package system.record;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import system.Kyoku;
+import system.hai.Hai;
+import system.hai.Kaze;
+import system.hai.MajanHai;
+import system.result.TotyuRyukyokuType;
+
+/**
+ * RecordWriterが書いた牌譜を先頭から順に読むクラス.</br>
+ * next()を呼び出すたびに出来事を1つ読み,その出来事の風や牌はgetKaze(),getHai()などで取得する.
+ * 読んだ出来事から各プレイヤーの手牌,リーチの有無,ドラ表示牌などの局の状態を復元する.
+ * 手牌はツモ牌も含めた牌ごとの枚数で持つ.</br>
+ * 牌譜はByteBufferで受け取るので,ファイルをマップしたバッファもそのまま読める.読んだ分だけバッファの位置が進む.
+ */
+public class RecordReader {
+	private final ByteBuffer buffer;
+
+	// 現在の出来事
+	private RecordAction action;
+	private RecordAction previousAction;
+	private Kaze kaze;
+	private final Hai hai[];
+	private TotyuRyukyokuType totyuRyukyokuType;
+
+	// 局の状態
+	private Kaze bakaze;
+	private final Hai haiyama[];
+	private int head;
+	private int rinsyanSize;
+	private int newDoraSize;
+	private Kaze currentTurn;
+	private Hai currentTsumoHai;
+	private Hai currentSutehai;
+	/** 風のID*37+牌の序数をインデックスとした手牌の枚数 */
+	private final int tehai[];
+	private final int tehaiSize[];
+	private final boolean reach[];
+
+	/**
+	 * 指定されたバッファの現在の位置から牌譜を読むリーダーのコンストラクタ.
+	 *
+	 * @param buffer 牌譜のバッファ.
+	 * @throws IllegalArgumentException 先頭がマジックナンバーでない場合,またはバージョンが異なる場合.
+	 */
+	public RecordReader(ByteBuffer buffer) {
+		this.buffer = buffer;
+		if (buffer.remaining() < 5 || buffer.getInt() != RecordWriter.MAGIC)
+			throw new IllegalArgumentException("牌譜ではない");
+		int version = buffer.get();
+		if (version != RecordWriter.VERSION)
+			throw new IllegalArgumentException("対応していないバージョン : " + version);
+		this.hai = new Hai[2];
+		this.haiyama = new Hai[Kyoku.HAIYAMA_SIZE];
+		this.tehai = new int[4 * 37];
+		this.tehaiSize = new int[4];
+		this.reach = new boolean[4];
+	}
+
+	/**
+	 * 次の出来事を読み,局の状態を更新する.
+	 *
+	 * @return 読んだ出来事.牌譜の終わりに達した場合はnull.
+	 * @throws IllegalStateException 牌譜が壊れている場合.
+	 */
+	public RecordAction next() {
+		previousAction = action;
+		if (!buffer.hasRemaining()) {
+			action = null;
+			return null;
+		}
+		int op = buffer.get() & 0xff;
+		action = RecordAction.valueOf(op >>> 2);
+		kaze = Kaze.valueOf(op & 3);
+		if (buffer.remaining() < action.argSize())
+			throw new IllegalStateException("牌譜が途中で終わっている : " + action);
+		if (action != RecordAction.DEAL && bakaze == null)
+			throw new IllegalStateException("配牌より前に出来事がある : " + action);
+		hai[0] = null;
+		hai[1] = null;
+		totyuRyukyokuType = null;
+
+		switch (action) {
+		case DEAL:
+			deal();
+			break;
+		case TSUMO:
+			tsumo(haiyama[head++]);
+			break;
+		case RINSYAN:
+			tsumo(haiyama[RecordWriter.WANPAI_INDEX + rinsyanSize++]);
+			break;
+		case DISCARD:
+			discard(readHai());
+			break;
+		case TSUMOGIRI:
+			discard(currentTsumoHai);
+			break;
+		case REACH:
+			reach[kaze.id()] = true;
+			break;
+		case PON:
+		case CHI:
+			hai[0] = readHai();
+			hai[1] = readHai();
+			remove(hai[0]);
+			remove(hai[1]);
+			currentTurn = kaze;
+			currentSutehai = null;
+			break;
+		case MINKAN:
+			if (currentSutehai == null)
+				throw new IllegalStateException("捨牌がないのに明槓している");
+			hai[0] = currentSutehai;
+			for (int i = 0; i < 3; i++) {
+				removeType(currentSutehai);
+			}
+			currentTurn = kaze;
+			currentSutehai = null;
+			break;
+		case ANKAN:
+			hai[0] = readHai();
+			for (int i = 0; i < 4; i++) {
+				removeType(hai[0]);
+			}
+			currentTsumoHai = null;
+			break;
+		case KAKAN:
+			hai[0] = readHai();
+			remove(hai[0]);
+			currentTsumoHai = null;
+			// 搶槓の対象になる
+			currentSutehai = hai[0];
+			break;
+		case DORA:
+			hai[0] = haiyama[RecordWriter.WANPAI_INDEX + 4 + 2 * ++newDoraSize];
+			break;
+		case TSUMO_AGARI:
+			hai[0] = currentTsumoHai;
+			break;
+		case RON:
+			hai[0] = currentSutehai;
+			break;
+		case RYUKYOKU:
+			break;
+		case TOTYU_RYUKYOKU:
+			int type = buffer.get();
+			if (type < 0 || type >= TotyuRyukyokuType.values().length)
+				throw new IllegalStateException("不正な途中流局の種類 : " + type);
+			totyuRyukyokuType = TotyuRyukyokuType.values()[type];
+			break;
+		}
+		return action;
+	}
+
+	private void deal() {
+		bakaze = kaze;
+		for (int i = 0; i < haiyama.length; i++) {
+			haiyama[i] = readHai();
+		}
+		Arrays.fill(tehai, 0);
+		Arrays.fill(tehaiSize, 0);
+		Arrays.fill(reach, false);
+		head = 0;
+		for (Kaze k : Kaze.values()) {
+			for (int i = 0; i < 13; i++) {
+				add(k, haiyama[head++]);
+			}
+		}
+		rinsyanSize = 0;
+		newDoraSize = 0;
+		currentTurn = Kaze.TON;
+		currentTsumoHai = null;
+		currentSutehai = null;
+	}
+
+	private void tsumo(Hai tsumohai) {
+		hai[0] = tsumohai;
+		add(kaze, tsumohai);
+		currentTurn = kaze;
+		currentTsumoHai = tsumohai;
+		currentSutehai = null;
+	}
+
+	private void discard(Hai sutehai) {
+		if (sutehai == null)
+			throw new IllegalStateException("ツモ牌がないのにツモ切りしている");
+		hai[0] = sutehai;
+		remove(sutehai);
+		currentTurn = kaze;
+		currentTsumoHai = null;
+		currentSutehai = sutehai;
+	}
+
+	private Hai readHai() {
+		int ordinal = buffer.get();
+		if (ordinal < 0 || ordinal >= 37)
+			throw new IllegalStateException("不正な牌の序数 : " + ordinal);
+		return MajanHai.valueOf(ordinal);
+	}
+
+	private void add(Kaze k, Hai h) {
+		tehai[k.id() * 37 + h.ordinal()]++;
+		tehaiSize[k.id()]++;
+	}
+
+	private void remove(Hai h) {
+		int index = kaze.id() * 37 + h.ordinal();
+		if (tehai[index] == 0)
+			throw new IllegalStateException(kaze + "の手牌にない牌 : " + h);
+		tehai[index]--;
+		tehaiSize[kaze.id()]--;
+	}
+
+	/**
+	 * 指定された牌と同じ種類の牌を1枚取り除く.赤でない牌を優先する.
+	 */
+	private void removeType(Hai h) {
+		Hai normal = MajanHai.valueOf(h.type(), false);
+		if (tehai[kaze.id() * 37 + normal.ordinal()] > 0 || !h.isSuhai() || h.number() != 5) {
+			remove(normal);
+		} else {
+			remove(MajanHai.valueOf(h.type(), true));
+		}
+	}
+
+	/**
+	 * 直前に読んだ出来事を返す.
+	 *
+	 * @return 出来事.まだ読んでいない場合か牌譜の終わりに達した場合はnull.
+	 */
+	public RecordAction getAction() {
+		return action;
+	}
+
+	/**
+	 * 直前に読んだ出来事の1つ前の出来事を返す.
+	 *
+	 * @return 出来事.ない場合はnull.
+	 */
+	public RecordAction getPreviousAction() {
+		return previousAction;
+	}
+
+	/**
+	 * 直前に読んだ出来事を起こした人の風を返す.DEALの場合は場風を返す.
+	 *
+	 * @return 風.
+	 */
+	public Kaze getKaze() {
+		return kaze;
+	}
+
+	/**
+	 * 直前に読んだ出来事の牌を返す.ツモ牌,切った牌,鳴いた牌,槓した牌,ドラ表示牌,あがり牌を表す.
+	 * ポンとチーの場合は使った手牌の1枚目を返す.
+	 *
+	 * @return 牌.牌を持たない出来事の場合はnull.
+	 */
+	public Hai getHai() {
+		return hai[0];
+	}
+
+	/**
+	 * ポンまたはチーに使った手牌の2枚目を返す.
+	 *
+	 * @return 牌.ポン,チー以外の場合はnull.
+	 */
+	public Hai getSecondHai() {
+		return hai[1];
+	}
+
+	/**
+	 * 直前に読んだ途中流局の種類を返す.
+	 *
+	 * @return 途中流局の種類.途中流局以外の場合はnull.
+	 */
+	public TotyuRyukyokuType getTotyuRyukyokuType() {
+		return totyuRyukyokuType;
+	}
+
+	/**
+	 * 現在の局の場風を返す.
+	 *
+	 * @return 場風.
+	 */
+	public Kaze getBakaze() {
+		return bakaze;
+	}
+
+	/**
+	 * 現在の局の配牌前の牌山を返す.このリストをKyoku.init(List)に渡すと同じ局を再現できる.
+	 *
+	 * @return 136枚の牌山のリスト.配牌を読んでいない場合は空のリスト.
+	 */
+	public List<Hai> getHaiyamaList() {
+		if (bakaze == null)
+			return new ArrayList<Hai>(0);
+		return new ArrayList<Hai>(Arrays.asList(haiyama));
+	}
+
+	/**
+	 * 現在ターンの人の風を返す.
+	 *
+	 * @return 風.
+	 */
+	public Kaze getCurrentTurn() {
+		return currentTurn;
+	}
+
+	/**
+	 * 現在のツモ牌を返す.
+	 *
+	 * @return ツモ牌.ツモ牌がない場合はnull.
+	 */
+	public Hai getCurrentTsumoHai() {
+		return currentTsumoHai;
+	}
+
+	/**
+	 * 現在の捨牌(搶槓の場合は加槓した牌)を返す.
+	 *
+	 * @return 捨牌.捨牌がない場合はnull.
+	 */
+	public Hai getCurrentSutehai() {
+		return currentSutehai;
+	}
+
+	/**
+	 * 指定された人の手牌(ツモ牌を含む)にある指定された牌の枚数を返す.赤牌とそうでない牌は区別する.
+	 *
+	 * @param kaze 風.
+	 * @param hai 牌.
+	 * @return 枚数.
+	 */
+	public int countOf(Kaze kaze, Hai hai) {
+		return tehai[kaze.id() * 37 + hai.ordinal()];
+	}
+
+	/**
+	 * 指定された人の手牌(ツモ牌を含む)の枚数を返す.
+	 *
+	 * @param kaze 風.
+	 * @return 枚数.
+	 */
+	public int sizeOfTehai(Kaze kaze) {
+		return tehaiSize[kaze.id()];
+	}
+
+	/**
+	 * 指定された人がリーチしている場合trueを返す.
+	 *
+	 * @param kaze 風.
+	 * @return リーチしている場合true.
+	 */
+	public boolean isReach(Kaze kaze) {
+		return reach[kaze.id()];
+	}
+
+	/**
+	 * 残りの山牌の枚数を返す.Kyoku.sizeOfYamahai()と同じく嶺上牌のツモは数えない.
+	 *
+	 * @return 山牌の枚数.
+	 */
+	public int sizeOfYamahai() {
+		return RecordWriter.WANPAI_INDEX - head;
+	}
+
+	/**
+	 * 開かれているドラ表示牌のリストを返す.
+	 *
+	 * @return ドラ表示牌のリスト.
+	 */
+	public List<Hai> getOpenDoraList() {
+		List<Hai> list = new ArrayList<Hai>(newDoraSize + 1);
+		for (int i = 0; i < newDoraSize + 1; i++) {
+			list.add(haiyama[RecordWriter.WANPAI_INDEX + 4 + 2 * i]);
+		}
+		return list;
+	}
+}
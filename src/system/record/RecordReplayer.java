@@ -0,0 +1,173 @@
+package system.record;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import system.Kyoku;
+import system.Mahjong;
+import system.Player;
+import system.Rule;
+import system.hai.Hai;
+import system.hai.Kaze;
+import system.hai.TehaiList;
+
+/**
+ * 牌譜を読んで局やゲームを再現するメソッドを集めたクラス.</br>
+ * 牌譜には配牌前の牌山と全員の選択が記録されているので,記録した通りにKyokuのメソッドを呼び出せば
+ * 局結果や点数の移動まで元のゲームと同じになる.ルールとプレイヤーは牌譜に記録されていないので,呼び出し側で元のゲームと同じものを渡す.
+ */
+public class RecordReplayer {
+	private RecordReplayer() {
+	}
+
+	/**
+	 * 1ゲーム分の牌譜を最後まで読んで,そのゲームを再現する.
+	 *
+	 * @param reader 牌譜のリーダー.まだ何も読んでいない必要がある.
+	 * @param players 元のゲームと同じ順番のプレイヤーのリスト.
+	 * @param rule 元のゲームと同じルール.
+	 * @return 再現したゲーム.
+	 * @throws IllegalStateException 牌譜がゲームと矛盾する場合.
+	 */
+	public static Mahjong replay(RecordReader reader, List<Player> players, Rule rule) {
+		Mahjong mahjong = new Mahjong(players, rule);
+		mahjong.init();
+		RecordAction action = reader.next();
+		while (action != null) {
+			if (action != RecordAction.DEAL)
+				throw new IllegalStateException("配牌より前に出来事がある : " + action);
+			Kyoku kyoku = mahjong.startKyoku(reader.getHaiyamaList());
+			if (kyoku.getBakaze() != reader.getBakaze())
+				throw new IllegalStateException("場風が一致しない : " + reader.getBakaze());
+			while ((action = reader.next()) != null && action != RecordAction.DEAL) {
+				apply(kyoku, reader);
+			}
+			mahjong.endKyoku();
+		}
+		return mahjong;
+	}
+
+	/**
+	 * リーダーが直前に読んだ出来事を局に適用する.配牌は局の初期化で行うので,DEALを渡してはならない.
+	 * 新ドラは槓などの適用に伴って局が自分でめくるので何もしない.
+	 *
+	 * @param kyoku 局.
+	 * @param reader 局の配牌から直前の出来事までを読んだリーダー.
+	 * @throws IllegalStateException 牌譜が局と矛盾する場合.
+	 */
+	public static void apply(Kyoku kyoku, RecordReader reader) {
+		Kaze kaze = reader.getKaze();
+		Hai hai = reader.getHai();
+		switch (reader.getAction()) {
+		case DEAL:
+			throw new IllegalStateException("配牌は適用できない");
+		case TSUMO:
+			// ツモの前に直前の捨牌を河に置いて次のターンに移る
+			if (kyoku.getCurrentSutehai() != null) {
+				kyoku.nextTurn();
+			}
+			checkTurn(kyoku, kaze);
+			kyoku.doTsumo();
+			break;
+		case RINSYAN:
+			checkTurn(kyoku, kaze);
+			kyoku.doRinsyanTsumo();
+			break;
+		case DISCARD:
+			checkTurn(kyoku, kaze);
+			kyoku.discard(indexOf(kyoku.getTehaiList(kaze), hai, -1));
+			break;
+		case TSUMOGIRI:
+			checkTurn(kyoku, kaze);
+			// リーチ宣言牌のツモ切りは一発を消さない
+			if (reader.getPreviousAction() == RecordAction.REACH) {
+				kyoku.discard(13);
+			} else {
+				kyoku.discardTsumoHai();
+			}
+			break;
+		case REACH:
+			checkTurn(kyoku, kaze);
+			kyoku.doReach();
+			break;
+		case PON: {
+			TehaiList tehai = kyoku.getTehaiList(kaze);
+			kyoku.doPon(kaze, indexesOf(tehai, hai, reader.getSecondHai()));
+			break;
+		}
+		case CHI: {
+			TehaiList tehai = kyoku.getTehaiList(kaze);
+			kyoku.doChi(indexesOf(tehai, hai, reader.getSecondHai()));
+			break;
+		}
+		case MINKAN:
+			kyoku.doMinkan(kaze);
+			break;
+		case ANKAN: {
+			checkTurn(kyoku, kaze);
+			TehaiList tehai = kyoku.getTehaiList(kaze);
+			List<Integer> list = new ArrayList<Integer>(4);
+			for (int i = 0; i < tehai.size(); i++) {
+				if (tehai.get(i).type() == hai.type())
+					list.add(i);
+			}
+			Hai tsumohai = kyoku.getCurrentTsumoHai();
+			if (tsumohai != null && tsumohai.type() == hai.type())
+				list.add(13);
+			if (list.size() != 4)
+				throw new IllegalStateException(kaze + "は暗槓できない : " + hai);
+			kyoku.doAnkan(list);
+			break;
+		}
+		case KAKAN:
+			checkTurn(kyoku, kaze);
+			if (hai.equals(kyoku.getCurrentTsumoHai())) {
+				kyoku.doKakan(13);
+			} else {
+				kyoku.doKakan(indexOf(kyoku.getTehaiList(kaze), hai, -1));
+			}
+			break;
+		case DORA:
+			break;
+		case TSUMO_AGARI:
+			checkTurn(kyoku, kaze);
+			kyoku.doTsumoAgari();
+			break;
+		case RON:
+			kyoku.doRon(kaze);
+			break;
+		case RYUKYOKU:
+			kyoku.doRyukyoku();
+			break;
+		case TOTYU_RYUKYOKU:
+			kyoku.doTotyuRyukyoku(reader.getTotyuRyukyokuType());
+			break;
+		}
+	}
+
+	private static void checkTurn(Kyoku kyoku, Kaze kaze) {
+		if (kyoku.getCurrentTurn() != kaze)
+			throw new IllegalStateException("ターンが一致しない : " + kaze);
+	}
+
+	/**
+	 * 手牌の中で指定された牌のインデックスを返す.excludeのインデックスは飛ばす.
+	 *
+	 * @throws IllegalStateException 手牌にない場合.
+	 */
+	private static int indexOf(TehaiList tehai, Hai hai, int exclude) {
+		for (int i = 0; i < tehai.size(); i++) {
+			if (i != exclude && tehai.get(i).equals(hai))
+				return i;
+		}
+		throw new IllegalStateException("手牌にない牌 : " + hai);
+	}
+
+	private static List<Integer> indexesOf(TehaiList tehai, Hai hai0, Hai hai1) {
+		List<Integer> list = new ArrayList<Integer>(2);
+		int index0 = indexOf(tehai, hai0, -1);
+		list.add(index0);
+		list.add(indexOf(tehai, hai1, index0));
+		return list;
+	}
+}
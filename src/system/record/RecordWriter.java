@@ -0,0 +1,199 @@
+package system.record;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import system.Kyoku;
+import system.KyokuListener;
+import system.hai.Hai;
+import system.hai.HaiType;
+import system.hai.Kaze;
+import system.hai.MajanHai;
+import system.result.TotyuRyukyokuType;
+
+/**
+ * 局の出来事をバイナリの牌譜としてストリームに書き出すクラス.</br>
+ * Kyoku.addKyokuListener()またはMahjong.addKyokuListener()で登録すると,局の出来事を起きた順に追記していく.
+ * 牌譜の先頭には4バイトのマジックナンバー"MJRC"と1バイトのバージョンを書き,その後ろに出来事を並べる.
+ * 出来事の形式はRecordActionを参照.</br>
+ * 配牌のときに牌山をすべて記録するので,ツモ牌,嶺上牌,ドラ表示牌は記録しない.
+ * そのため山牌の並びと異なる順番でツモるデバッグ用のKyoku.doTsumo(Hai)は記録できない.</br>
+ * 書き込みは内部のバッファにためて行う.書き込みで起きたIOExceptionはUncheckedIOExceptionとして投げる.
+ */
+public class RecordWriter implements KyokuListener, Flushable, Closeable {
+	/** 牌譜の先頭に書くマジックナンバー("MJRC") */
+	static final int MAGIC = 0x4D4A5243;
+
+	/** 牌譜の形式のバージョン */
+	static final int VERSION = 1;
+
+	/** 王牌の先頭の牌山インデックス */
+	static final int WANPAI_INDEX = Kyoku.HAIYAMA_SIZE - 14;
+
+	private final OutputStream out;
+	private final byte buf[];
+	private int count;
+
+	private final Hai haiyama[];
+	private int head;
+	private int rinsyanSize;
+
+	/**
+	 * 指定されたストリームに牌譜を書き出すライターのコンストラクタ.ヘッダはすぐにバッファに書く.
+	 *
+	 * @param out 出力先のストリーム.
+	 */
+	public RecordWriter(OutputStream out) {
+		this.out = out;
+		this.buf = new byte[4096];
+		this.haiyama = new Hai[Kyoku.HAIYAMA_SIZE];
+		write(MAGIC >>> 24);
+		write(MAGIC >>> 16);
+		write(MAGIC >>> 8);
+		write(MAGIC);
+		write(VERSION);
+	}
+
+	@Override
+	public void onInit(Kyoku kyoku) {
+		List<Hai> list = kyoku.getHaiyamaList();
+		list.toArray(haiyama);
+		head = 52;
+		rinsyanSize = 0;
+
+		writeAction(RecordAction.DEAL, kyoku.getBakaze());
+		for (int i = 0; i < haiyama.length; i++) {
+			write(haiyama[i].ordinal());
+		}
+	}
+
+	@Override
+	public void onTsumo(Kaze kaze, Hai hai, boolean rinsyan) {
+		Hai expected = rinsyan ? haiyama[WANPAI_INDEX + rinsyanSize++] : haiyama[head++];
+		if (!expected.equals(hai))
+			throw new IllegalStateException("山牌の並びと異なるツモは記録できない : " + hai);
+		writeAction(rinsyan ? RecordAction.RINSYAN : RecordAction.TSUMO, kaze);
+	}
+
+	@Override
+	public void onDiscard(Kaze kaze, Hai hai, boolean tsumogiri) {
+		if (tsumogiri) {
+			writeAction(RecordAction.TSUMOGIRI, kaze);
+		} else {
+			writeAction(RecordAction.DISCARD, kaze);
+			write(hai.ordinal());
+		}
+	}
+
+	@Override
+	public void onReach(Kaze kaze) {
+		writeAction(RecordAction.REACH, kaze);
+	}
+
+	@Override
+	public void onPon(Kaze kaze, Hai hai0, Hai hai1) {
+		writeAction(RecordAction.PON, kaze);
+		write(hai0.ordinal());
+		write(hai1.ordinal());
+	}
+
+	@Override
+	public void onChi(Kaze kaze, Hai hai0, Hai hai1) {
+		writeAction(RecordAction.CHI, kaze);
+		write(hai0.ordinal());
+		write(hai1.ordinal());
+	}
+
+	@Override
+	public void onMinkan(Kaze kaze) {
+		writeAction(RecordAction.MINKAN, kaze);
+	}
+
+	@Override
+	public void onAnkan(Kaze kaze, HaiType type) {
+		writeAction(RecordAction.ANKAN, kaze);
+		write(MajanHai.valueOf(type, false).ordinal());
+	}
+
+	@Override
+	public void onKakan(Kaze kaze, Hai hai) {
+		writeAction(RecordAction.KAKAN, kaze);
+		write(hai.ordinal());
+	}
+
+	@Override
+	public void onDora() {
+		writeAction(RecordAction.DORA, Kaze.TON);
+	}
+
+	@Override
+	public void onTsumoAgari(Kaze kaze) {
+		writeAction(RecordAction.TSUMO_AGARI, kaze);
+	}
+
+	@Override
+	public void onRon(Kaze kaze) {
+		writeAction(RecordAction.RON, kaze);
+	}
+
+	@Override
+	public void onRyukyoku() {
+		writeAction(RecordAction.RYUKYOKU, Kaze.TON);
+	}
+
+	@Override
+	public void onTotyuRyukyoku(TotyuRyukyokuType type) {
+		writeAction(RecordAction.TOTYU_RYUKYOKU, Kaze.TON);
+		write(type.ordinal());
+	}
+
+	private void writeAction(RecordAction action, Kaze kaze) {
+		write(action.code() << 2 | kaze.id());
+	}
+
+	private void write(int b) {
+		if (count == buf.length) {
+			flushBuffer();
+		}
+		buf[count++] = (byte) b;
+	}
+
+	private void flushBuffer() {
+		try {
+			out.write(buf, 0, count);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		count = 0;
+	}
+
+	/**
+	 * バッファにたまっている牌譜をストリームに書き出してフラッシュする.
+	 */
+	@Override
+	public void flush() {
+		flushBuffer();
+		try {
+			out.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * バッファにたまっている牌譜を書き出してストリームを閉じる.
+	 */
+	@Override
+	public void close() {
+		flushBuffer();
+		try {
+			out.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
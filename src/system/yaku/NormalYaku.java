@@ -232,7 +232,8 @@ public enum NormalYaku implements Yaku {
 			List<Mentsu> mlist = param.getMentuList();
 			ArrayList<Integer> idList = new ArrayList<Integer>();
 			for (Mentsu mentu : mlist) {
-				if (mentu.type() != Mentsu.Type.SYUNTU) {
+				// 字牌の刻子は(id + 10) % 30が数牌のidになるので除く
+				if (mentu.type() != Mentsu.Type.SYUNTU && mentu.get(0).isSuhai()) {
 					int id = mentu.get(0).type().id();
 					idList.add(id);
 				}
@@ -0,0 +1,320 @@
+package system.yaku;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import system.Field;
+import system.agari.AgariParam;
+import system.agari.CheckParam;
+import system.agari.MatiType;
+import system.hai.Hai;
+import system.hai.HaiType;
+import system.hai.Mentsu;
+
+/**
+ * 全ての役をまとめて判定するクラス．</br>
+ * 最初に牌の枚数,牌タイプのビット集合,面子の種類ごとの数,字牌の刻子などの手の要約を1回だけ作り,
+ * 各役はその要約に対するビット演算で判定する．判定結果は役のビット集合(long)で返す．
+ * NormalYakuはordinal()番目のビット,Yakumanは32 + ordinal()番目のビットで表す．</br>
+ * 結果は各役のcheck()を1つずつ呼び出した場合と一致する．
+ */
+public class YakuEvaluator {
+	/** 役満のビットの開始位置 */
+	private static final int YAKUMAN_SHIFT = 32;
+
+	// 通常役と役満はそれぞれ32ビットに収める．超えると通常役のビットが役満のビットと重なる
+	static {
+		if (NormalYaku.values().length > YAKUMAN_SHIFT)
+			throw new IllegalStateException("通常役が" + YAKUMAN_SHIFT + "個を超えている : " + NormalYaku.values().length);
+		if (Yakuman.values().length > Long.SIZE - YAKUMAN_SHIFT)
+			throw new IllegalStateException("役満が" + (Long.SIZE - YAKUMAN_SHIFT) + "個を超えている : " + Yakuman.values().length);
+	}
+
+	/** 通常役のビット集合 */
+	public static final long NORMAL_YAKU_MASK = (1L << NormalYaku.values().length) - 1;
+
+	/** 役満のビット集合 */
+	public static final long YAKUMAN_MASK = ((1L << Yakuman.values().length) - 1) << YAKUMAN_SHIFT;
+
+	/** 4面子1雀頭で構成されている必要がない役のビット集合 */
+	private static final long NOT_4MENTU1JANTO_MASK;
+
+	// 牌タイプのidをビットの位置とする牌タイプのビット集合
+	private static final long MAN_MASK = 0x3feL;
+	private static final long PIN_MASK = MAN_MASK << 10;
+	private static final long SOU_MASK = MAN_MASK << 20;
+	private static final long ROUTOU_MASK = (1L << 1 | 1L << 9) * (1L | 1L << 10 | 1L << 20);
+	private static final long TYUNTYAN_MASK = (MAN_MASK | PIN_MASK | SOU_MASK) & ~ROUTOU_MASK;
+	private static final long KAZE_MASK = 0xfL << 30;
+	private static final long SANGEN_MASK = 0x7L << 34;
+	private static final long TSUHAI_MASK = KAZE_MASK | SANGEN_MASK;
+	private static final long KOKUSI_MASK = ROUTOU_MASK | TSUHAI_MASK;
+	private static final long RYUISO_MASK;
+
+	/** 混全帯么九,純全帯么九になる順子の最小の牌タイプのビット集合 */
+	private static final long TYANTA_SYUNTU_MASK = (1L << 1 | 1L << 7) * (1L | 1L << 10 | 1L << 20);
+
+	/** 一気通貫の最初の順子の最小の牌タイプのビット集合 */
+	private static final long IKKI_MASK = 1L << 1 | 1L << 11 | 1L << 21;
+
+	static {
+		long mask = 0;
+		for (Yaku yaku : NormalYaku.values()) {
+			if (!yaku.is4Mentu1Janto())
+				mask |= maskOf(yaku);
+		}
+		for (Yaku yaku : Yakuman.values()) {
+			if (!yaku.is4Mentu1Janto())
+				mask |= maskOf(yaku);
+		}
+		NOT_4MENTU1JANTO_MASK = mask;
+
+		mask = 0;
+		for (HaiType type : Yakuman.getRyuisoSet()) {
+			mask |= 1L << type.id();
+		}
+		RYUISO_MASK = mask;
+	}
+
+	private YakuEvaluator() {
+	}
+
+	/**
+	 * 役を表すビットを返す．
+	 *
+	 * @param yaku 役．
+	 * @return 役を表すビット．
+	 */
+	public static long maskOf(Yaku yaku) {
+		if (yaku instanceof NormalYaku)
+			return 1L << ((NormalYaku) yaku).ordinal();
+		if (yaku instanceof Yakuman)
+			return 1L << (YAKUMAN_SHIFT + ((Yakuman) yaku).ordinal());
+		throw new IllegalArgumentException("未知の役 : " + yaku);
+	}
+
+	/**
+	 * 役のビット集合が指定された役を含んでいる場合trueを返す．
+	 *
+	 * @param mask 役のビット集合．
+	 * @param yaku 役．
+	 * @return 含んでいる場合true．
+	 */
+	public static boolean contains(long mask, Yaku yaku) {
+		return (mask & maskOf(yaku)) != 0;
+	}
+
+	/**
+	 * 役のビット集合を役の集合に変換する．
+	 *
+	 * @param mask 役のビット集合．
+	 * @return 役の集合．
+	 */
+	public static Set<Yaku> toYakuSet(long mask) {
+		Set<Yaku> set = new HashSet<Yaku>();
+		for (NormalYaku yaku : NormalYaku.values()) {
+			if ((mask & 1L << yaku.ordinal()) != 0)
+				set.add(yaku);
+		}
+		for (Yakuman yaku : Yakuman.values()) {
+			if ((mask & 1L << (YAKUMAN_SHIFT + yaku.ordinal())) != 0)
+				set.add(yaku);
+		}
+		return set;
+	}
+
+	/**
+	 * 成立している役のビット集合を返す．</br>
+	 * 面子のリストがnullの場合は,4面子1雀頭で構成されている必要がない役だけを判定する．
+	 * それ以外の場合は七対子を含む全ての役を判定する．
+	 *
+	 * @param agParam あがりの情報．
+	 * @param chParam 役判定に必要な材料．
+	 * @param field 局のルール,場風など．
+	 * @return 成立している役のビット集合．
+	 */
+	public static long evaluate(AgariParam agParam, CheckParam chParam, Field field) {
+		long flags = 0;
+		for (Yaku yaku : agParam.getFlagCheckYakuSet()) {
+			flags |= maskOf(yaku);
+		}
+		boolean naki = agParam.isNaki();
+		HaiType agari = agParam.getAgarihai().type();
+
+		// 牌の要約
+		List<Hai> haiList = chParam.getHaiList();
+		int n[] = new int[HaiType.TYUN.id() + 1];
+		long types = 0;
+		for (Hai hai : haiList) {
+			int id = hai.type().id();
+			n[id]++;
+			types |= 1L << id;
+		}
+		int suSize = 0;
+		if ((types & MAN_MASK) != 0)
+			suSize++;
+		if ((types & PIN_MASK) != 0)
+			suSize++;
+		if ((types & SOU_MASK) != 0)
+			suSize++;
+
+		long mask = flags & (maskOf(NormalYaku.RICHI) | maskOf(NormalYaku.IPPATSU) | maskOf(NormalYaku.HOTEI)
+				| maskOf(NormalYaku.HAITEI) | maskOf(NormalYaku.RINSYANKAIHO) | maskOf(NormalYaku.TYANKAN)
+				| maskOf(NormalYaku.DABURURICHI) | maskOf(Yakuman.TENHO) | maskOf(Yakuman.CHIHO));
+		if (!naki)
+			mask |= flags & (maskOf(NormalYaku.IPEKO) | maskOf(NormalYaku.RYANPEKO) | maskOf(NormalYaku.IKKI));
+		if (agParam.isTsumo() && !naki)
+			mask |= maskOf(NormalYaku.TSUMO);
+		if ((types & ~TYUNTYAN_MASK) == 0)
+			mask |= maskOf(NormalYaku.TANNYAO);
+		if ((types & TYUNTYAN_MASK) == 0)
+			mask |= maskOf(NormalYaku.HONROTO);
+		if (suSize <= 1)
+			mask |= maskOf(NormalYaku.HONNITSU);
+		if (suSize <= 1 && (types & TSUHAI_MASK) == 0)
+			mask |= maskOf(NormalYaku.CHINNITSU);
+		if ((types & ~TSUHAI_MASK) == 0)
+			mask |= maskOf(Yakuman.TSUISO);
+		if ((types & ~RYUISO_MASK) == 0)
+			mask |= maskOf(Yakuman.RYUISO);
+
+		if (haiList.size() == 14) {
+			boolean chitoi = true;
+			for (int i = 0; i < n.length; i++) {
+				if (n[i] != 0 && n[i] != 2) {
+					chitoi = false;
+					break;
+				}
+			}
+			if (chitoi)
+				mask |= maskOf(NormalYaku.CHITOI);
+			if ((types & ~KOKUSI_MASK) == 0 && hasAll(n, KOKUSI_MASK))
+				mask |= maskOf(Yakuman.KOKUSIMUSOU);
+		}
+
+		// 国士無双13面待ちと純正九蓮宝燈はあがり牌を1枚除いて判定する
+		int agariSize = n[agari.id()] > 0 ? 1 : 0;
+		if (!agari.isTyuntyanhai()) {
+			n[agari.id()] -= agariSize;
+			if (hasAll(n, KOKUSI_MASK))
+				mask |= maskOf(Yakuman.KOKUSIMUSOU_13MEN);
+			n[agari.id()] += agariSize;
+		}
+		if (agari.isSuhai()) {
+			int base = agari.id() / 10 * 10;
+			if (isTyuren(n, base))
+				mask |= maskOf(Yakuman.TYURENPOTO);
+			n[agari.id()] -= agariSize;
+			if (isTyuren(n, base))
+				mask |= maskOf(Yakuman.JUNTYANTYUREN);
+			n[agari.id()] += agariSize;
+		}
+
+		// 面子の要約
+		List<Mentsu> mentuList = chParam.getMentuList();
+		HaiType janto = chParam.getJanto();
+		if (mentuList == null || janto == null)
+			return mask & NOT_4MENTU1JANTO_MASK;
+
+		int syuntuSize = 0;
+		int kantuSize = 0;
+		int ankoSize = 0;
+		int sangenSize = 0;
+		int kazeSize = 0;
+		long syuntuMins = 0;
+		long kotsuTypes = 0;
+		for (Mentsu mentu : mentuList) {
+			int id = mentu.get(0).type().id();
+			if (mentu.type() == Mentsu.Type.SYUNTU) {
+				syuntuSize++;
+				int minId = Math.min(id, Math.min(mentu.get(1).type().id(), mentu.get(2).type().id()));
+				syuntuMins |= 1L << minId;
+				continue;
+			}
+			kotsuTypes |= 1L << id;
+			if (mentu.type() == Mentsu.Type.KANTU)
+				kantuSize++;
+			if (!mentu.isNaki())
+				ankoSize++;
+			if ((SANGEN_MASK & 1L << id) != 0)
+				sangenSize++;
+			else if ((KAZE_MASK & 1L << id) != 0)
+				kazeSize++;
+		}
+		long jantoBit = 1L << janto.id();
+		long bakazeBit = 1L << HaiType.valueOf(field.getBakaze()).id();
+		long jikazeBit = 1L << HaiType.valueOf(agParam.getJikaze()).id();
+
+		if ((kotsuTypes & 1L << HaiType.HAKU.id()) != 0)
+			mask |= maskOf(NormalYaku.YAKUHAI_HAKU);
+		if ((kotsuTypes & 1L << HaiType.HATU.id()) != 0)
+			mask |= maskOf(NormalYaku.YAKUHAI_HATSU);
+		if ((kotsuTypes & 1L << HaiType.TYUN.id()) != 0)
+			mask |= maskOf(NormalYaku.YAKUHAI_TYUN);
+		if ((kotsuTypes & bakazeBit) != 0)
+			mask |= maskOf(NormalYaku.BAHUHAI);
+		if ((kotsuTypes & jikazeBit) != 0)
+			mask |= maskOf(NormalYaku.JIHUHAI);
+		if (!naki && syuntuSize == mentuList.size() && (jantoBit & (SANGEN_MASK | bakazeBit | jikazeBit)) == 0
+				&& chParam.getMatiType() == MatiType.RYANMEN)
+			mask |= maskOf(NormalYaku.PINHU);
+		if (syuntuSize == 0)
+			mask |= maskOf(NormalYaku.TOITOI);
+		if ((syuntuMins & syuntuMins >> 10 & syuntuMins >> 20 & MAN_MASK) != 0)
+			mask |= maskOf(NormalYaku.SANSYOKUDOJUN);
+		if ((kotsuTypes & kotsuTypes >> 10 & kotsuTypes >> 20 & MAN_MASK) != 0)
+			mask |= maskOf(NormalYaku.SANSYOKUDOKO);
+		if (naki && (syuntuMins & syuntuMins >> 3 & syuntuMins >> 6 & IKKI_MASK) != 0)
+			mask |= maskOf(NormalYaku.IKKI);
+		if ((syuntuMins & ~TYANTA_SYUNTU_MASK) == 0) {
+			if (((jantoBit | kotsuTypes) & TYUNTYAN_MASK) == 0)
+				mask |= maskOf(NormalYaku.TYANTA);
+			if (((jantoBit | kotsuTypes) & ~ROUTOU_MASK) == 0)
+				mask |= maskOf(NormalYaku.JUNTYAN);
+		}
+		if (ankoSize == 3)
+			mask |= maskOf(NormalYaku.SANNANKO);
+		if (kantuSize == 3)
+			mask |= maskOf(NormalYaku.SANKANTSU);
+		if ((jantoBit & SANGEN_MASK) != 0 && sangenSize == 2)
+			mask |= maskOf(NormalYaku.SYOSANGEN);
+
+		if (ankoSize == 4) {
+			mask |= maskOf(Yakuman.SUANKO);
+			if (chParam.getMatiType() == MatiType.TANKI)
+				mask |= maskOf(Yakuman.SUANKO_TANKI);
+		}
+		if (sangenSize == 3)
+			mask |= maskOf(Yakuman.DAISANGEN);
+		if (syuntuSize == 0 && ((jantoBit | kotsuTypes) & ~ROUTOU_MASK) == 0)
+			mask |= maskOf(Yakuman.CHINROTO);
+		if (kantuSize == 4)
+			mask |= maskOf(Yakuman.SUKANTSU);
+		if ((jantoBit & KAZE_MASK) != 0 && kazeSize == 3)
+			mask |= maskOf(Yakuman.SYOSUSHI);
+		if (kazeSize == 4)
+			mask |= maskOf(Yakuman.DAISUSHI);
+		return mask;
+	}
+
+	// 指定された牌タイプを全て1枚以上含んでいる場合true
+	private static boolean hasAll(int n[], long typeMask) {
+		for (int i = 0; i < n.length; i++) {
+			if ((typeMask & 1L << i) != 0 && n[i] == 0)
+				return false;
+		}
+		return true;
+	}
+
+	// 指定された種類の1と9を3枚以上,2から8を1枚以上含んでいる場合true
+	private static boolean isTyuren(int n[], int base) {
+		if (n[base + 1] < 3 || n[base + 9] < 3)
+			return false;
+		for (int i = 2; i <= 8; i++) {
+			if (n[base + i] == 0)
+				return false;
+		}
+		return true;
+	}
+}
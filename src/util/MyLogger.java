@@ -1,33 +1,81 @@
 package util;
 
 import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class MyLogger {
-	private static MyLogger instance;
-	private Level level;
-	private PrintStream out;
+	private static final MyLogger instance = new MyLogger();
+	private volatile Level level;
+	private volatile PrintStream out;
+	private final AtomicReferenceArray<Level> categoryLevels;
 
 	public static enum Level {
-		WARNING, INFO, DEBUG
+		WARNING, INFO, DEBUG, TRACE
+	}
+
+	/**
+	 * ログの分類.分類ごとにレベルを設定できる.
+	 */
+	public static enum Category {
+		/** 役判定,点数計算 */
+		AGARI,
+		/** サーバーの通信 */
+		SERVER,
+		/** クライアントの描画 */
+		CLIENT
+	}
+
+	/**
+	 * 出力する場合にだけ作られるメッセージ.
+	 */
+	public static interface Message {
+		/**
+		 * メッセージを作る.
+		 *
+		 * @return メッセージ.
+		 */
+		public String get();
 	}
 
 	public MyLogger() {
 		this.level = Level.DEBUG;
 		this.out = System.out;
+		this.categoryLevels = new AtomicReferenceArray<Level>(Category.values().length);
 	}
 
 	public void setLevel(Level level) {
 		this.level = level;
 	}
 
+	/**
+	 * 指定された分類のレベルを設定する.
+	 *
+	 * @param category 分類.
+	 * @param level レベル.nullの場合はsetLevel(Level)のレベルに従う.
+	 */
+	public void setLevel(Category category, Level level) {
+		categoryLevels.set(category.ordinal(), level);
+	}
+
+	/**
+	 * 指定された分類で指定されたレベルのログを出力する場合trueを返す.
+	 *
+	 * @param category 分類.
+	 * @param level レベル.
+	 * @return 出力する場合true.
+	 */
+	public boolean isEnabled(Category category, Level level) {
+		Level l = categoryLevels.get(category.ordinal());
+		if (l == null)
+			l = this.level;
+		return level.ordinal() <= l.ordinal();
+	}
+
 	public void setPrintStream(PrintStream ps) {
 		this.out = ps;
 	}
 
 	public static MyLogger getLogger() {
-		if (instance == null) {
-			instance = new MyLogger();
-		}
 		return instance;
 	}
 
@@ -61,10 +109,43 @@ public class MyLogger {
 			write("");
 	}
 
+	/**
+	 * 指定された分類のTRACEレベルのログを出力する.
+	 *
+	 * @param category 分類.
+	 * @param msg メッセージ.
+	 */
+	public void trace(Category category, String msg) {
+		if (isEnabled(category, Level.TRACE))
+			write(category + " " + msg);
+	}
+
+	/**
+	 * 指定された分類のTRACEレベルのログを出力する.メッセージは出力する場合にだけ作る.
+	 *
+	 * @param category 分類.
+	 * @param msg メッセージ.
+	 */
+	public void trace(Category category, Message msg) {
+		if (isEnabled(category, Level.TRACE))
+			write(category + " " + msg.get());
+	}
+
+	/**
+	 * 指定された分類のDEBUGレベルのログを出力する.メッセージは出力する場合にだけ作る.
+	 *
+	 * @param category 分類.
+	 * @param msg メッセージ.
+	 */
+	public void debug(Category category, Message msg) {
+		if (isEnabled(category, Level.DEBUG))
+			write(category + " " + msg.get());
+	}
+
 	public void write(String msg) {
 		StackTraceElement st = new Throwable().getStackTrace()[2];
 		String cname = st.getFileName();
 		String mname = st.getMethodName();
 		out.println(msg + " : " + mname + " " + cname);
 	}
-}
\ No newline at end of file
+}